@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.inbound.endpoint.common;
+
+/**
+ * A count kept by another component, such as a client library or an executor, which can not be reset. Its statistics
+ * are reported from a baseline, which is moved to the current count when the statistics are reset.
+ */
+public final class CountBaseline {
+
+    private volatile long baseline;
+
+    /**
+     * @param count the current count
+     * @return the count since the statistics were reset
+     */
+    public long since(long count) {
+        return count - baseline;
+    }
+
+    /**
+     * Resets the count reported from now on.
+     *
+     * @param count the current count
+     */
+    public void reset(long count) {
+        baseline = count;
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.inbound.endpoint.common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.config.SynapsePropertiesLoader;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the poll cycles of the polling inbound endpoints on a bounded pool of threads shared by all the endpoints of
+ * the node, instead of a thread per endpoint which sleeps between the cycles.
+ * <p>
+ * Each cycle of an endpoint is scheduled as a separate task at the time the {@link InboundRunner} computes for it,
+ * hence the due cycles of all the endpoints are run in the order of their scheduled time. An endpoint which polls
+ * again right away after a busy cycle is queued behind the cycles which are already due, so that a busy endpoint
+ * does not starve the others. The number of cycles of a single endpoint running at the same time, for example of
+ * the concurrent consumers of a JMS endpoint, can be limited with a {@link ConcurrencyLimit}.
+ * </p>
+ * <p>
+ * The number of threads is set with the {@value #POOL_SIZE} synapse property. The threads are daemon threads, and the
+ * scheduler is shut down along with the JVM.
+ * </p>
+ */
+public final class InboundPollingScheduler implements InboundPollingSchedulerMBean {
+
+    private static final Log log = LogFactory.getLog(InboundPollingScheduler.class);
+
+    /**
+     * The synapse property for the number of threads running the poll cycles.
+     */
+    public static final String POOL_SIZE = "inbound.polling.scheduler.threads";
+
+    private static final String MBEAN_ID = "InboundPollingScheduler";
+
+    private static final int DEFAULT_POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private static volatile InboundPollingScheduler instance;
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    private final AtomicInteger scheduledRunnerCount = new AtomicInteger();
+
+    private final CountBaseline completedCycles = new CountBaseline();
+
+    private InboundPollingScheduler(int poolSize) {
+        executor = new ScheduledThreadPoolExecutor(poolSize, new PollingThreadFactory());
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * @return the scheduler shared by the polling inbound endpoints, which is created when it is used initially
+     */
+    public static InboundPollingScheduler getInstance() {
+        if (instance == null) {
+            synchronized (InboundPollingScheduler.class) {
+                if (instance == null) {
+                    int poolSize = getPoolSize(SynapsePropertiesLoader.getPropertyValue(POOL_SIZE, null));
+                    log.info("Starting the inbound endpoint polling scheduler with " + poolSize + " threads.");
+                    InboundPollingScheduler scheduler = new InboundPollingScheduler(poolSize);
+                    StatisticsMBeans.register(scheduler, StatisticsMBeans.INBOUND_POLLING_SCHEDULER_CATEGORY,
+                            MBEAN_ID);
+                    Runtime.getRuntime().addShutdownHook(new Thread("inbound-polling-scheduler-shutdown") {
+                        @Override
+                        public void run() {
+                            shutdown();
+                        }
+                    });
+                    instance = scheduler;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Stops the shared scheduler, if it is started, without waiting for the running poll cycles. A new scheduler is
+     * created if the scheduler is used afterwards.
+     */
+    static void shutdown() {
+        InboundPollingScheduler scheduler;
+        synchronized (InboundPollingScheduler.class) {
+            scheduler = instance;
+            if (scheduler == null) {
+                return;
+            }
+            instance = null;
+        }
+        scheduler.executor.shutdownNow();
+        StatisticsMBeans.unregister(StatisticsMBeans.INBOUND_POLLING_SCHEDULER_CATEGORY, MBEAN_ID);
+    }
+
+    /**
+     * Starts running the poll cycles of an inbound runner on the shared threads.
+     *
+     * @param runner the runner of the polling inbound endpoint
+     * @param limit  the limit shared by the runners of the same endpoint
+     * @return the handle used to stop the runner
+     */
+    public ScheduledRunner schedule(InboundRunner runner, ConcurrencyLimit limit) {
+        ScheduledRunner scheduledRunner = new ScheduledRunner(runner, limit);
+        scheduledRunnerCount.incrementAndGet();
+        executor.execute(scheduledRunner);
+        return scheduledRunner;
+    }
+
+    @Override
+    public int getPoolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    @Override
+    public int getActiveThreadCount() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public int getScheduledRunnerCount() {
+        return scheduledRunnerCount.get();
+    }
+
+    @Override
+    public int getQueuedCycleCount() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public long getCompletedCycleCount() {
+        return completedCycles.since(executor.getCompletedTaskCount());
+    }
+
+    @Override
+    public void resetStatistics() {
+        completedCycles.reset(executor.getCompletedTaskCount());
+    }
+
+    private static int getPoolSize(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return DEFAULT_POOL_SIZE;
+        }
+        try {
+            int poolSize = Integer.parseInt(value.trim());
+            if (poolSize > 0) {
+                return poolSize;
+            }
+        } catch (NumberFormatException e) {
+            // the default size is used
+        }
+        log.warn("Invalid value for " + POOL_SIZE + " : " + value + ". Using the default value " + DEFAULT_POOL_SIZE);
+        return DEFAULT_POOL_SIZE;
+    }
+
+    /**
+     * Limits the number of poll cycles of the runners of a single endpoint which run at the same time. The cycles
+     * which exceed the limit wait in the order they became due, and are run as the running cycles complete.
+     */
+    public static class ConcurrencyLimit {
+
+        private final int maxConcurrentCycles;
+
+        private final Queue<ScheduledRunner> waitingRunners = new ArrayDeque<>();
+
+        private int runningCycles;
+
+        /**
+         * @param maxConcurrentCycles maximum number of cycles of the endpoint running at the same time
+         */
+        public ConcurrencyLimit(int maxConcurrentCycles) {
+            this.maxConcurrentCycles = maxConcurrentCycles;
+        }
+
+        private synchronized boolean tryAcquire(ScheduledRunner runner) {
+            if (runningCycles < maxConcurrentCycles) {
+                runningCycles++;
+                return true;
+            }
+            waitingRunners.add(runner);
+            return false;
+        }
+
+        /**
+         * Releases a permit, or hands it over to the runner which has waited longest for it.
+         *
+         * @return the runner the permit is handed over to, or null if there is no waiting runner
+         */
+        private synchronized ScheduledRunner release() {
+            ScheduledRunner next = waitingRunners.poll();
+            if (next == null) {
+                runningCycles--;
+            }
+            return next;
+        }
+    }
+
+    /**
+     * Runs the poll cycles of a single {@link InboundRunner}, rescheduling itself after each cycle.
+     */
+    public final class ScheduledRunner implements Runnable {
+
+        private final InboundRunner runner;
+
+        private final ConcurrencyLimit limit;
+
+        /* true when a permit of the limit is handed over to this runner by a completed cycle */
+        private volatile boolean permitHeld;
+
+        /* Following are guarded by this */
+        private ScheduledFuture<?> future;
+        private boolean stopped;
+        private boolean running;
+
+        private ScheduledRunner(InboundRunner runner, ConcurrencyLimit limit) {
+            this.runner = runner;
+            this.limit = limit;
+        }
+
+        @Override
+        public void run() {
+            if (!permitHeld && !limit.tryAcquire(this)) {
+                return;
+            }
+            permitHeld = false;
+            synchronized (this) {
+                if (stopped) {
+                    handOverPermit();
+                    return;
+                }
+                running = true;
+            }
+            long nextRunTime = System.nanoTime();
+            try {
+                nextRunTime = runner.runCycle();
+            } finally {
+                handOverPermit();
+                synchronized (this) {
+                    running = false;
+                    notifyAll();
+                    if (!stopped) {
+                        try {
+                            future = executor.schedule(this, nextRunTime - System.nanoTime(),
+                                    TimeUnit.NANOSECONDS);
+                        } catch (RejectedExecutionException e) {
+                            log.debug("The polling scheduler is shut down, the poll cycles are not rescheduled.");
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Stops scheduling the poll cycles, and waits for the cycle which is running at the moment to complete.
+         */
+        public void stop() {
+            runner.terminate();
+            synchronized (this) {
+                if (stopped) {
+                    return;
+                }
+                stopped = true;
+                scheduledRunnerCount.decrementAndGet();
+                if (future != null) {
+                    future.cancel(false);
+                }
+                boolean interrupted = false;
+                while (running) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private void handOverPermit() {
+            ScheduledRunner next = limit.release();
+            if (next != null) {
+                next.permitHeld = true;
+                try {
+                    executor.execute(next);
+                } catch (RejectedExecutionException e) {
+                    log.debug("The polling scheduler is shut down, the waiting poll cycle is not run.");
+                }
+            }
+        }
+    }
+
+    private static class PollingThreadFactory implements ThreadFactory {
+
+        private final ThreadGroup group = new ThreadGroup("inbound-polling-thread-group");
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(group, runnable, "inbound-polling-worker-" + threadNumber.getAndIncrement());
+            // the scheduler must not keep the JVM running once the server is stopped
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.inbound.endpoint.common;
+
+/**
+ * The interface for MBean used to expose the state of the {@link InboundPollingScheduler}.
+ */
+public interface InboundPollingSchedulerMBean extends StatisticsMBean {
+
+    /**
+     * @return maximum number of threads running the poll cycles
+     */
+    int getPoolSize();
+
+    /**
+     * @return number of threads which are running a poll cycle at the moment
+     */
+    int getActiveThreadCount();
+
+    /**
+     * @return number of polling inbound endpoint runners scheduled on the shared threads
+     */
+    int getScheduledRunnerCount();
+
+    /**
+     * @return number of poll cycles which are due or scheduled and waiting for a thread
+     */
+    int getQueuedCycleCount();
+
+    /**
+     * @return number of poll cycles completed since the statistics were reset
+     */
+    long getCompletedCycleCount();
+}
@@ -59,6 +59,9 @@ public abstract class InboundRequestProcessorImpl implements InboundRequestProce
 
     private List<StartUpController> startUpControllersList = new ArrayList<>();
     private HashMap<Thread, InboundRunner> inboundRunnersThreadsMap = new HashMap<>();
+    private List<InboundPollingScheduler.ScheduledRunner> scheduledRunners = new ArrayList<>();
+    private InboundPollingScheduler.ConcurrencyLimit concurrencyLimit;
+    private List<String> runnerMetricsIds = new ArrayList<>();
     private static final Log log = LogFactory.getLog(InboundRequestProcessorImpl.class);
     private InboundEndpointsDataStore dataStore;
     
@@ -124,22 +127,62 @@ public abstract class InboundRequestProcessorImpl implements InboundRequestProce
             // is not available.
             if (isPinnedServerEnabled(task.getInboundProperties())) {
                 if (isPinnedServer(task.getInboundProperties())) {
-                    startInboundRunnerThread(task, tenantDomain, true);
+                    startInboundRunner(task, endpointPostfix, tenantDomain, true);
                 } else {
                     log.info("Inbound Endpoint " + name +
                             " not started as it is not pinned to this server");
                 }
             } else {
-                startInboundRunnerThread(task, tenantDomain, false);
+                startInboundRunner(task, endpointPostfix, tenantDomain, false);
             }
         }
     }
 
-    private void startInboundRunnerThread(InboundTask task, String tenantDomain, boolean mgrOverride) {
+    /**
+     * Runs the poll cycles of the task on the threads of the {@link InboundPollingScheduler} shared by all the
+     * polling endpoints. The task gets a thread of its own, as in the previous releases, if the endpoint is pinned to
+     * this server or if {@link PollingConstants#INBOUND_DEDICATED_THREAD} is set to true. A cycle holds its shared
+     * thread until it completes, hence an endpoint whose cycles run for long, such as a JMS endpoint receiving until
+     * its destination is empty, should either set a dedicated thread or limit its concurrent cycles.
+     */
+    private void startInboundRunner(InboundTask task, String endpointPostfix, String tenantDomain,
+                                    boolean mgrOverride) {
         InboundRunner inboundRunner = new InboundRunner(task, interval, tenantDomain, mgrOverride);
-        Thread runningThread = new Thread(inboundRunner);
-        inboundRunnersThreadsMap.put(runningThread, inboundRunner);
-        runningThread.start();
+        String metricsId = name + "-" + endpointPostfix;
+        StatisticsMBeans.register(inboundRunner.getMetrics(), StatisticsMBeans.INBOUND_RUNNER_CATEGORY, metricsId);
+        runnerMetricsIds.add(metricsId);
+        Properties inboundProperties = task.getInboundProperties();
+        String dedicatedThread = inboundProperties != null ?
+                inboundProperties.getProperty(PollingConstants.INBOUND_DEDICATED_THREAD) : null;
+        if (mgrOverride || (dedicatedThread != null && Boolean.parseBoolean(dedicatedThread.trim()))) {
+            Thread runningThread = new Thread(inboundRunner, "inbound-polling-" + metricsId);
+            inboundRunnersThreadsMap.put(runningThread, inboundRunner);
+            runningThread.start();
+        } else {
+            if (concurrencyLimit == null) {
+                concurrencyLimit = new InboundPollingScheduler.ConcurrencyLimit(
+                        getMaxConcurrentCycles(inboundProperties));
+            }
+            scheduledRunners.add(InboundPollingScheduler.getInstance().schedule(inboundRunner, concurrencyLimit));
+        }
+    }
+
+    private int getMaxConcurrentCycles(Properties inboundProperties) {
+        String value = inboundProperties != null ?
+                inboundProperties.getProperty(PollingConstants.INBOUND_MAX_CONCURRENT_CYCLES) : null;
+        if (value != null) {
+            try {
+                int maxConcurrentCycles = Integer.parseInt(value.trim());
+                if (maxConcurrentCycles > 0) {
+                    return maxConcurrentCycles;
+                }
+            } catch (NumberFormatException e) {
+                // no limit is applied
+            }
+            log.warn("Invalid value for " + PollingConstants.INBOUND_MAX_CONCURRENT_CYCLES + " : " + value
+                    + " in inbound endpoint " + name + ". Concurrent polling cycles are not limited.");
+        }
+        return Integer.MAX_VALUE;
     }
 
     /**
@@ -177,6 +220,15 @@ public abstract class InboundRequestProcessorImpl implements InboundRequestProce
             }
             inboundRunnersThreadsMap.clear();
         }
+        for (InboundPollingScheduler.ScheduledRunner scheduledRunner : scheduledRunners) {
+            scheduledRunner.stop();
+        }
+        scheduledRunners.clear();
+        concurrencyLimit = null;
+        for (String metricsId : runnerMetricsIds) {
+            StatisticsMBeans.unregister(StatisticsMBeans.INBOUND_RUNNER_CATEGORY, metricsId);
+        }
+        runnerMetricsIds.clear();
     }
 
     protected static boolean isPinnedServerEnabled(Properties inboundProperties) {
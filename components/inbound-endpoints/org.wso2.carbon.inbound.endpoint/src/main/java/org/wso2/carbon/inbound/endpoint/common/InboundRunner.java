@@ -24,16 +24,26 @@ import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.core.multitenancy.utils.TenantAxisUtils;
 import org.wso2.carbon.inbound.endpoint.osgi.service.ServiceReferenceHolder;
 import org.wso2.carbon.inbound.endpoint.persistence.service.InboundEndpointPersistenceServiceDSComponent;
+import org.wso2.carbon.inbound.endpoint.protocol.PollingConstants;
 import org.wso2.carbon.utils.CarbonUtils;
 import org.wso2.carbon.utils.ConfigurationContextService;
 
-import java.util.Date;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 
  * InboundRunner class is used to run the non coordinated processors in
  * background according to the scheduled interval
- * 
+ * <p>
+ * By default the poll cycles run at a fixed rate, i.e. a cycle starts an interval after the previous cycle started
+ * regardless of the time taken by the cycle. When the cycles fall behind the schedule, the overdue cycles run back to
+ * back up to the limit set with {@link PollingConstants#INBOUND_SCHEDULE_MAX_CATCH_UP_CYCLES} and the rest are
+ * dropped. In the adaptive mode a cycle which received messages is followed by the next cycle right away, while the
+ * wait after an idle cycle starts at the interval and doubles with each idle cycle up to the limit set with
+ * {@link PollingConstants#INBOUND_SCHEDULE_MAX_IDLE_INTERVAL}. The adaptive mode is only available for the tasks
+ * implementing {@link ScheduledPollingTask}, the other tasks run at the fixed rate.
+ * </p>
  */
 public class InboundRunner implements Runnable {
 
@@ -41,15 +51,28 @@ public class InboundRunner implements Runnable {
     private long interval;
 
     private volatile boolean execute = true;
-    // Following will be used to calculate the sleeping interval
-    private long lastRuntime;
-    private long currentRuntime;
-    private long cycleInterval;
     private String tenantDomain;
     private boolean runOnManagerOverride = false;
+    private boolean adaptive;
+    private int maxCatchUpCycles = DEFAULT_MAX_CATCH_UP_CYCLES;
+    private long maxIdleInterval;
+    private long intervalNanos;
+    private long maxIdleIntervalNanos;
+    // Following will be used to calculate the time of the next poll cycle
+    private boolean started;
+    private long nextRunTime;
+    private long lastCycleEndTime;
+    private long idleIntervalNanos;
+    // Time at which the tenant was loaded last, to keep it loaded
+    private long lastTenantLoadTime;
+    private InboundRunnerMetrics metrics;
 
     private static final String CLUSTERING_PATTERN = "clusteringPattern";
     private static final String CLUSTERING_PATTERN_WORKER_MANAGER = "WorkerManager";
+    private static final int DEFAULT_MAX_CATCH_UP_CYCLES = 1;
+    private static final int DEFAULT_MAX_IDLE_INTERVAL_FACTOR = 16;
+    // Tenants are unloaded after being idle for several minutes, hence loading them once a minute is sufficient
+    private static final long TENANT_LOAD_INTERVAL = TimeUnit.MINUTES.toNanos(1);
     private static final Log log = LogFactory.getLog(InboundRunner.class);
 
     public InboundRunner(InboundTask task, long interval, String tenantDomain, boolean mgrOverride) {
@@ -57,6 +80,13 @@ public class InboundRunner implements Runnable {
         this.interval = interval;
         this.tenantDomain = tenantDomain;
         this.runOnManagerOverride = mgrOverride;
+        this.maxIdleInterval = interval * DEFAULT_MAX_IDLE_INTERVAL_FACTOR;
+        configureSchedule(task.getInboundProperties());
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(interval);
+        this.maxIdleIntervalNanos = TimeUnit.MILLISECONDS.toNanos(maxIdleInterval);
+        this.idleIntervalNanos = intervalNanos;
+        this.metrics = new InboundRunnerMetrics(adaptive ? PollingConstants.INBOUND_SCHEDULE_MODE_ADAPTIVE
+                : PollingConstants.INBOUND_SCHEDULE_MODE_FIXED_RATE, interval);
     }
 
     /**
@@ -66,44 +96,152 @@ public class InboundRunner implements Runnable {
         execute = false;
     }
 
+    /**
+     * @return the poll cycle statistics of this runner
+     */
+    public InboundRunnerMetrics getMetrics() {
+        return metrics;
+    }
+
     @Override
     public void run() {
         log.debug("Starting the Inbound Endpoint.");
         log.debug("Configuration context loaded. Running the Inbound Endpoint.");
         // Run the poll cycles
         while (execute) {
-            log.debug("Executing the Inbound Endpoint.");
-            lastRuntime = getTime();
-            try {
-                task.taskExecute();
-            } catch (Exception e) {
-                log.error("Error executing the inbound endpoint polling cycle.", e);
+            waitUntil(runCycle());
+        }
+        log.debug("Exit the Inbound Endpoint running loop.");
+    }
+
+    /**
+     * Runs a single poll cycle and computes when the next cycle is due. The cycles are run on a dedicated thread by
+     * {@link #run()}, or on the threads shared by many endpoints by the {@link InboundPollingScheduler}. In either
+     * case a single cycle of the runner runs at a time.
+     *
+     * @return the {@link #nanoTime()} at which the next poll cycle is due
+     */
+    public long runCycle() {
+        log.debug("Executing the Inbound Endpoint.");
+        long startTime = nanoTime();
+        if (started) {
+            metrics.idled(Math.max(0, startTime - lastCycleEndTime));
+        } else {
+            started = true;
+            nextRunTime = startTime;
+            lastTenantLoadTime = startTime - TENANT_LOAD_INTERVAL;
+        }
+        boolean active = executeCycle();
+        long endTime = nanoTime();
+        lastCycleEndTime = endTime;
+        metrics.cycleCompleted(Math.max(0, startTime - nextRunTime), endTime - startTime, active);
+        keepTenantLoaded(endTime);
+
+        if (adaptive) {
+            if (active) {
+                idleIntervalNanos = intervalNanos;
+                nextRunTime = endTime;
+            } else {
+                nextRunTime = endTime + idleIntervalNanos;
+                idleIntervalNanos = Math.min(idleIntervalNanos * 2, maxIdleIntervalNanos);
             }
-            currentRuntime = getTime();
-            cycleInterval = interval - (currentRuntime - lastRuntime);
-            if (cycleInterval > 0) {
-                try {
-                    Thread.sleep(interval);
-                } catch (InterruptedException e) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Unable to sleep the inbound thread for interval of : " + interval + "ms.");
-                    }
+        } else {
+            nextRunTime = intervalNanos > 0 ? nextRunTime + intervalNanos : endTime;
+            long overdueTime = endTime - nextRunTime;
+            long overdueCycles = intervalNanos > 0 && overdueTime >= 0 ? overdueTime / intervalNanos + 1 : 0;
+            if (overdueCycles > maxCatchUpCycles) {
+                long skippedCycles = overdueCycles - maxCatchUpCycles;
+                nextRunTime += skippedCycles * intervalNanos;
+                metrics.cyclesSkipped(skippedCycles);
+                if (log.isDebugEnabled()) {
+                    log.debug("Inbound Endpoint is behind the schedule. Skipped " + skippedCycles
+                            + " polling cycles.");
                 }
             }
-            //Keep the tenant loaded
-    		   if (tenantDomain != null) {
-                ConfigurationContextService configurationContext =
-				                                           InboundEndpointPersistenceServiceDSComponent.getConfigContextService();
-                if(configurationContext != null){
-                    ConfigurationContext mainConfigCtx = configurationContext.getServerConfigContext();
-                    TenantAxisUtils.getTenantConfigurationContext(tenantDomain, mainConfigCtx);
+        }
+        return nextRunTime;
+    }
+
+    private boolean executeCycle() {
+        try {
+            if (task instanceof ScheduledPollingTask) {
+                return ((ScheduledPollingTask) task).executeCycle();
+            }
+            task.taskExecute();
+        } catch (Exception e) {
+            log.error("Error executing the inbound endpoint polling cycle.", e);
+        }
+        return false;
+    }
+
+    private void waitUntil(long time) {
+        long idleTime = time - nanoTime();
+        if (idleTime > 0 && execute) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(idleTime);
+            } catch (InterruptedException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Unable to sleep the inbound thread for interval of : " + interval + "ms.");
                 }
-    		   }
+            }
+        }
+    }
+
+    /**
+     * @return the current time of the schedule in nanoseconds, {@link System#nanoTime()} by default
+     */
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    private void keepTenantLoaded(long time) {
+        if (tenantDomain != null && time - lastTenantLoadTime >= TENANT_LOAD_INTERVAL) {
+            ConfigurationContextService configurationContext =
+                    InboundEndpointPersistenceServiceDSComponent.getConfigContextService();
+            if (configurationContext != null) {
+                ConfigurationContext mainConfigCtx = configurationContext.getServerConfigContext();
+                TenantAxisUtils.getTenantConfigurationContext(tenantDomain, mainConfigCtx);
+            }
+            lastTenantLoadTime = time;
         }
-        log.debug("Exit the Inbound Endpoint running loop.");
     }
 
-    private Long getTime() {
-        return new Date().getTime();
+    private void configureSchedule(Properties inboundProperties) {
+        if (inboundProperties == null) {
+            return;
+        }
+        String scheduleMode = inboundProperties.getProperty(PollingConstants.INBOUND_SCHEDULE_MODE);
+        if (PollingConstants.INBOUND_SCHEDULE_MODE_ADAPTIVE.equalsIgnoreCase(scheduleMode)) {
+            if (task instanceof ScheduledPollingTask) {
+                adaptive = true;
+            } else {
+                log.warn("Adaptive polling is not supported by " + task.getClass().getName()
+                        + ". Polling at the fixed rate of " + interval + "ms.");
+            }
+        } else if (scheduleMode != null
+                && !PollingConstants.INBOUND_SCHEDULE_MODE_FIXED_RATE.equalsIgnoreCase(scheduleMode)) {
+            log.warn("Invalid value for " + PollingConstants.INBOUND_SCHEDULE_MODE + " : " + scheduleMode
+                    + ". Polling at the fixed rate of " + interval + "ms.");
+        }
+        String maxCatchUpCyclesValue = inboundProperties.getProperty(
+                PollingConstants.INBOUND_SCHEDULE_MAX_CATCH_UP_CYCLES);
+        if (maxCatchUpCyclesValue != null) {
+            try {
+                maxCatchUpCycles = Math.max(1, Integer.parseInt(maxCatchUpCyclesValue.trim()));
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value for " + PollingConstants.INBOUND_SCHEDULE_MAX_CATCH_UP_CYCLES + " : "
+                        + maxCatchUpCyclesValue);
+            }
+        }
+        String maxIdleIntervalValue = inboundProperties.getProperty(
+                PollingConstants.INBOUND_SCHEDULE_MAX_IDLE_INTERVAL);
+        if (maxIdleIntervalValue != null) {
+            try {
+                maxIdleInterval = Math.max(interval, Long.parseLong(maxIdleIntervalValue.trim()));
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value for " + PollingConstants.INBOUND_SCHEDULE_MAX_IDLE_INTERVAL + " : "
+                        + maxIdleIntervalValue);
+            }
+        }
     }
 }
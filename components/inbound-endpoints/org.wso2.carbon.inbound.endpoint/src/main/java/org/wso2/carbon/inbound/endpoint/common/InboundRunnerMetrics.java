@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.inbound.endpoint.common;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Poll cycle statistics of a single {@link InboundRunner}. The statistics are updated by the thread running the cycles
+ * of the runner and reset through JMX, hence the updates and the reset are synchronized, while the volatile fields are
+ * read without locking.
+ */
+public class InboundRunnerMetrics implements InboundRunnerMetricsMBean {
+
+    private final String scheduleMode;
+    private final long interval;
+
+    private volatile long cycleCount;
+    private volatile long activeCycleCount;
+    private volatile long skippedCycleCount;
+    private volatile long lastCycleTimeNanos;
+    private volatile long totalCycleTimeNanos;
+    private volatile long maxCycleTimeNanos;
+    private volatile long lastIdleTimeNanos;
+    private volatile long totalIdleTimeNanos;
+    private volatile long lastLagNanos;
+    private volatile long maxLagNanos;
+
+    public InboundRunnerMetrics(String scheduleMode, long interval) {
+        this.scheduleMode = scheduleMode;
+        this.interval = interval;
+    }
+
+    synchronized void cycleCompleted(long lagNanos, long cycleTimeNanos, boolean active) {
+        cycleCount++;
+        if (active) {
+            activeCycleCount++;
+        }
+        lastLagNanos = lagNanos;
+        if (lagNanos > maxLagNanos) {
+            maxLagNanos = lagNanos;
+        }
+        lastCycleTimeNanos = cycleTimeNanos;
+        totalCycleTimeNanos += cycleTimeNanos;
+        if (cycleTimeNanos > maxCycleTimeNanos) {
+            maxCycleTimeNanos = cycleTimeNanos;
+        }
+    }
+
+    synchronized void cyclesSkipped(long count) {
+        skippedCycleCount += count;
+    }
+
+    synchronized void idled(long idleTimeNanos) {
+        lastIdleTimeNanos = idleTimeNanos;
+        totalIdleTimeNanos += idleTimeNanos;
+    }
+
+    @Override
+    public String getScheduleMode() {
+        return scheduleMode;
+    }
+
+    @Override
+    public long getInterval() {
+        return interval;
+    }
+
+    @Override
+    public long getCycleCount() {
+        return cycleCount;
+    }
+
+    @Override
+    public long getActiveCycleCount() {
+        return activeCycleCount;
+    }
+
+    @Override
+    public long getSkippedCycleCount() {
+        return skippedCycleCount;
+    }
+
+    @Override
+    public long getLastCycleTime() {
+        return toMillis(lastCycleTimeNanos);
+    }
+
+    @Override
+    public double getAverageCycleTime() {
+        long cycles = cycleCount;
+        return cycles == 0 ? 0 : (double) totalCycleTimeNanos / cycles / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public long getMaxCycleTime() {
+        return toMillis(maxCycleTimeNanos);
+    }
+
+    @Override
+    public long getLastIdleTime() {
+        return toMillis(lastIdleTimeNanos);
+    }
+
+    @Override
+    public long getTotalIdleTime() {
+        return toMillis(totalIdleTimeNanos);
+    }
+
+    @Override
+    public long getLastLag() {
+        return toMillis(lastLagNanos);
+    }
+
+    @Override
+    public long getMaxLag() {
+        return toMillis(maxLagNanos);
+    }
+
+    @Override
+    public synchronized void resetStatistics() {
+        cycleCount = 0;
+        activeCycleCount = 0;
+        skippedCycleCount = 0;
+        lastCycleTimeNanos = 0;
+        totalCycleTimeNanos = 0;
+        maxCycleTimeNanos = 0;
+        lastIdleTimeNanos = 0;
+        totalIdleTimeNanos = 0;
+        lastLagNanos = 0;
+        maxLagNanos = 0;
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.inbound.endpoint.common;
+
+/**
+ * The interface for MBean used to expose the poll cycle statistics of a polling inbound endpoint which is run by an
+ * {@link InboundRunner}.
+ */
+public interface InboundRunnerMetricsMBean extends StatisticsMBean {
+
+    /**
+     * @return the schedule mode of the poll cycles
+     */
+    String getScheduleMode();
+
+    /**
+     * @return the configured polling interval in milliseconds
+     */
+    long getInterval();
+
+    /**
+     * @return number of poll cycles run
+     */
+    long getCycleCount();
+
+    /**
+     * @return number of poll cycles which received at least one message, for the endpoints which report it
+     */
+    long getActiveCycleCount();
+
+    /**
+     * @return number of scheduled poll cycles dropped since the endpoint was too far behind its schedule
+     */
+    long getSkippedCycleCount();
+
+    /**
+     * @return time taken by the last poll cycle in milliseconds
+     */
+    long getLastCycleTime();
+
+    /**
+     * @return average time taken by a poll cycle in milliseconds
+     */
+    double getAverageCycleTime();
+
+    /**
+     * @return maximum time taken by a poll cycle in milliseconds
+     */
+    long getMaxCycleTime();
+
+    /**
+     * @return time the endpoint waited before the last poll cycle in milliseconds
+     */
+    long getLastIdleTime();
+
+    /**
+     * @return total time the endpoint waited between the poll cycles in milliseconds
+     */
+    long getTotalIdleTime();
+
+    /**
+     * @return delay of the last poll cycle from its scheduled time in milliseconds
+     */
+    long getLastLag();
+
+    /**
+     * @return maximum delay of a poll cycle from its scheduled time in milliseconds
+     */
+    long getMaxLag();
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.inbound.endpoint.common;
+
+/**
+ * Limits the warnings logged for an event which may recur many times in a short while, such as a message being
+ * rejected under load. The first occurrence is logged, then one in every given number of occurrences.
+ */
+public final class LogThrottle {
+
+    private final long interval;
+
+    /**
+     * @param interval the occurrences are logged once in this many occurrences
+     */
+    public LogThrottle(long interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Log interval must be positive : " + interval);
+        }
+        this.interval = interval;
+    }
+
+    /**
+     * @param count number of occurrences so far, including the current one
+     * @return true if the current occurrence is to be logged
+     */
+    public boolean shouldLog(long count) {
+        return count == 1 || (count > 0 && count % interval == 0);
+    }
+}
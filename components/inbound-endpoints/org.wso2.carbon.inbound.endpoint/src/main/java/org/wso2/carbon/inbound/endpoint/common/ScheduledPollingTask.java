@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.inbound.endpoint.common;
+
+/**
+ * A polling task which runs its poll cycles exactly when the {@link InboundRunner} schedules them, and reports
+ * whether a cycle found any work so that the runner can poll again right away in the adaptive schedule mode.
+ */
+public interface ScheduledPollingTask {
+
+    /**
+     * Runs a single poll cycle. Unlike {@link InboundTask#execute()}, the cycle is not skipped when the previous
+     * cycle started less than an interval ago, as the runner never starts a cycle ahead of its schedule.
+     *
+     * @return true if the cycle received any message
+     */
+    boolean executeCycle();
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.inbound.endpoint.common;
+
+import org.apache.synapse.commons.jmx.MBeanRegistrar;
+
+/**
+ * Registers the {@link StatisticsMBean}s of the inbound endpoints, under a category for each kind of statistics.
+ */
+public final class StatisticsMBeans {
+
+    /**
+     * Category of the poll cycle statistics of the {@link InboundRunner}s.
+     */
+    public static final String INBOUND_RUNNER_CATEGORY = "InboundEndpointRunner";
+
+    /**
+     * Category of the statistics of the {@link InboundPollingScheduler}.
+     */
+    public static final String INBOUND_POLLING_SCHEDULER_CATEGORY = "InboundPollingScheduler";
+
+    /**
+     * Category of the hand-off queue statistics of the MQTT inbound endpoints.
+     */
+    public static final String MQTT_DISPATCHER_CATEGORY = "MqttInboundEndpoint";
+
+    /**
+     * Category of the flow control statistics of the core NATS inbound endpoints.
+     */
+    public static final String NATS_CONSUMER_CATEGORY = "NatsInboundEndpoint";
+
+    /**
+     * Category of the utilization statistics of the worker pools of the HL7 inbound endpoints.
+     */
+    public static final String HL7_WORKER_POOL_CATEGORY = "HL7InboundWorkerPool";
+
+    private StatisticsMBeans() {
+    }
+
+    /**
+     * Registers an MBean, replacing the MBean registered with the same category and id if any.
+     *
+     * @param mbean    the MBean
+     * @param category category of the MBean
+     * @param id       id of the MBean within its category
+     */
+    public static void register(StatisticsMBean mbean, String category, String id) {
+        MBeanRegistrar.getInstance().registerMBean(mbean, category, id);
+    }
+
+    /**
+     * Unregisters an MBean.
+     *
+     * @param category category of the MBean
+     * @param id       id of the MBean within its category
+     */
+    public static void unregister(String category, String id) {
+        MBeanRegistrar.getInstance().unRegisterMBean(category, id);
+    }
+}
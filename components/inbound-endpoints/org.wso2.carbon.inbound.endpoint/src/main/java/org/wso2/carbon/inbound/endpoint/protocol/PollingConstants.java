@@ -34,4 +34,19 @@ public class PollingConstants {
 
    public static final String INBOUND_CONCURRENT_CONSUMERS = "concurrent.consumers";
 
+   public static final String INBOUND_SCHEDULE_MODE = "inbound.schedule.mode";
+
+   public static final String INBOUND_SCHEDULE_MODE_FIXED_RATE = "fixedRate";
+
+   public static final String INBOUND_SCHEDULE_MODE_ADAPTIVE = "adaptive";
+
+   public static final String INBOUND_SCHEDULE_MAX_CATCH_UP_CYCLES = "inbound.schedule.maxCatchUpCycles";
+
+   public static final String INBOUND_SCHEDULE_MAX_IDLE_INTERVAL = "inbound.schedule.maxIdleInterval";
+
+   // false by default, true runs the poll cycles on a thread of their own instead of the shared polling scheduler
+   public static final String INBOUND_DEDICATED_THREAD = "inbound.polling.dedicatedThread";
+
+   public static final String INBOUND_MAX_CONCURRENT_CYCLES = "inbound.polling.maxConcurrentCycles";
+
 }
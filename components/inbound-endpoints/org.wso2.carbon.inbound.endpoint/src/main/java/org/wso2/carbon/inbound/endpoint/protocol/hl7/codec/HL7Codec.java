@@ -52,6 +52,9 @@ public class HL7Codec {
     private volatile boolean lastTrailingCharacterFound = false;
     private volatile boolean addMissingCharacter = false;
 
+    /* position right after the trailer found by the last decode call, or -1 */
+    private int trailerEnd = -1;
+
     private int responseReadPosition = 0;
     private byte[] responseBytes = null;
 
@@ -71,6 +74,8 @@ public class HL7Codec {
             return -1;
         }
 
+        this.trailerEnd = -1;
+
         if (this.state == READ_HEADER) {
             if(dst.get(0) == MLLPConstants.HL7_HEADER[0]) {
                 dst.position(1);
@@ -93,24 +98,28 @@ public class HL7Codec {
                 this.firstTrailingCharacterFound = false;
             }
             if (this.addMissingCharacter) {
-                context.getRequestBuffer().append(MLLPConstants.HL7_TRAILER[0]);
+                context.getRequestBytes().append(MLLPConstants.HL7_TRAILER[0]);
                 this.addMissingCharacter = false;
             }
-            context.getRequestBuffer().append(charsetDecoder.decode(dst).toString());
+            // the bytes are decoded once the message is received, a character may be split between two reads
+            context.getRequestBytes().append(dst);
         }
 
         if (this.state == READ_TRAILER) {
             this.state = READ_COMPLETE;
+            String message = context.getRequestBytes().decode(charsetDecoder);
+            context.getRequestBytes().reset();
             try {
                 if (context.isPreProcess()) {
-                    context.setHl7Message(HL7MessageUtils.parse(context.getRequestBuffer().toString(),
-                            context.getPreProcessParser()));
+                    context.setHl7Message(HL7MessageUtils.parse(message, context.getPreProcessParser()));
                 } else {
-                    context.setHl7Message(HL7MessageUtils.parse(context.getRequestBuffer().toString(), context.isValidateMessage()));
+                    context.setHl7Message(HL7MessageUtils.parse(message, context.isValidateMessage()));
                 }
-                context.getRequestBuffer().setLength(0);
             } catch (HL7Exception e) {
-                log.error("Error while parsing request message: " + context.getRequestBuffer());
+                // the raw message is injected to the fault sequence
+                context.getRequestBuffer().setLength(0);
+                context.getRequestBuffer().append(message);
+                log.error("Error while parsing request message: " + message);
                 throw e;
             }
         }
@@ -124,6 +133,7 @@ public class HL7Codec {
             firstTrailingCharacterFound = false;
             if (dst.get(0) == MLLPConstants.HL7_TRAILER[1]) {
                 lastTrailingCharacterFound = true;
+                trailerEnd = 1;
                 return 0;
             } else {
                 addMissingCharacter = true;
@@ -136,6 +146,7 @@ public class HL7Codec {
                     return i - 1;
                 } else if (dst.get(i + 1) == MLLPConstants.HL7_TRAILER[1]) {
                     lastTrailingCharacterFound = true;
+                    trailerEnd = i + 2;
                     return i - 1 < 0 ? 0 : i - 1;
                 }
             }
@@ -214,6 +225,18 @@ public class HL7Codec {
         return false;
     }
 
+    /**
+     * Returns where the message completed by the last {@link #decode(ByteBuffer, MLLPContext)} call ends in the
+     * decoded buffer. Any bytes from this position up to the original limit of the buffer belong to the messages
+     * pipelined after it.
+     *
+     * @return the position right after the trailer of the message, or -1 if the message is not completed by the
+     * last decode call
+     */
+    public int getTrailerEnd() {
+        return trailerEnd;
+    }
+
     public boolean isWriteTrailer() {
         if (this.state == WRITE_TRAILER) {
             return true;
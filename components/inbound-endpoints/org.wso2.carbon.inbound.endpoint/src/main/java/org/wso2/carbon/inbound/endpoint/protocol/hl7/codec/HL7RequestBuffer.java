@@ -0,0 +1,132 @@
+package org.wso2.carbon.inbound.endpoint.protocol.hl7.codec;
+
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+
+/**
+ * Accumulates the bytes of the HL7 message being received on an MLLP connection. The message is decoded once it is
+ * received completely, hence a multi-byte character split between two reads is decoded correctly. The byte and
+ * character buffers are reused for the following messages of the connection, unless they grew beyond
+ * {@link #MAX_RETAINED_CAPACITY} for an unusually large message.
+ */
+public class HL7RequestBuffer {
+
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+
+    /**
+     * The buffers larger than this are released once the message is processed.
+     */
+    public static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    private ByteBuffer bytes;
+    private CharBuffer chars;
+
+    /**
+     * Appends the remaining bytes of the given buffer.
+     *
+     * @param src buffer read from the connection
+     */
+    public void append(ByteBuffer src) {
+        ensureCapacity(src.remaining());
+        bytes.put(src);
+    }
+
+    /**
+     * Appends a single byte.
+     *
+     * @param b the byte
+     */
+    public void append(byte b) {
+        ensureCapacity(1);
+        bytes.put(b);
+    }
+
+    /**
+     * @return number of bytes received
+     */
+    public int size() {
+        return bytes == null ? 0 : bytes.position();
+    }
+
+    /**
+     * Decodes the received bytes.
+     *
+     * @param decoder decoder of the charset of the connection
+     * @return the received message
+     * @throws CharacterCodingException if the received bytes are not valid in the charset
+     */
+    public String decode(CharsetDecoder decoder) throws CharacterCodingException {
+        if (bytes == null || bytes.position() == 0) {
+            return "";
+        }
+        ByteBuffer in = (ByteBuffer) bytes.duplicate().flip();
+        int maxChars = (int) (in.remaining() * (double) decoder.maxCharsPerByte()) + 1;
+        if (chars == null || chars.capacity() < maxChars) {
+            chars = CharBuffer.allocate(Math.max(maxChars, INITIAL_CAPACITY));
+        }
+        chars.clear();
+        decoder.reset();
+        CoderResult result = decoder.decode(in, chars, true);
+        if (!result.isUnderflow()) {
+            result.throwException();
+        }
+        result = decoder.flush(chars);
+        if (!result.isUnderflow()) {
+            result.throwException();
+        }
+        chars.flip();
+        return chars.toString();
+    }
+
+    /**
+     * Discards the received bytes, releasing the buffers if they grew too large to be retained.
+     */
+    public void reset() {
+        if (bytes != null) {
+            if (bytes.capacity() > MAX_RETAINED_CAPACITY) {
+                bytes = null;
+            } else {
+                bytes.clear();
+            }
+        }
+        if (chars != null && chars.capacity() > MAX_RETAINED_CAPACITY) {
+            chars = null;
+        }
+    }
+
+    private void ensureCapacity(int length) {
+        if (bytes == null) {
+            bytes = ByteBuffer.allocate(Math.max(length, INITIAL_CAPACITY));
+        } else if (bytes.remaining() < length) {
+            int capacity = bytes.capacity();
+            while (capacity - bytes.position() < length) {
+                capacity = capacity << 1;
+            }
+            ByteBuffer grown = ByteBuffer.allocate(capacity);
+            bytes.flip();
+            grown.put(bytes);
+            bytes = grown;
+        }
+    }
+}
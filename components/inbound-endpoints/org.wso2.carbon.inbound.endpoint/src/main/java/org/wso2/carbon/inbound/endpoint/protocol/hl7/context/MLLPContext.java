@@ -26,6 +26,7 @@ import org.apache.http.nio.reactor.EventMask;
 import org.apache.http.nio.reactor.IOSession;
 import org.apache.synapse.transport.passthru.util.BufferFactory;
 import org.wso2.carbon.inbound.endpoint.protocol.hl7.codec.HL7Codec;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.codec.HL7RequestBuffer;
 import org.wso2.carbon.inbound.endpoint.protocol.hl7.core.MLLPConstants;
 
 import java.nio.charset.CharsetDecoder;
@@ -35,6 +36,7 @@ public class MLLPContext {
 
     private IOSession session;
     private StringBuffer requestBuffer;
+    private HL7RequestBuffer requestBytes;
     private StringBuffer responseBuffer;
     private Message hl7Message;
     private volatile HL7Codec codec;
@@ -68,6 +70,7 @@ public class MLLPContext {
         this.bufferFactory = bufferFactory;
         this.expiry = MLLPConstants.DEFAULT_HL7_TIMEOUT;
         this.requestBuffer = new StringBuffer();
+        this.requestBytes = new HL7RequestBuffer();
         this.responseBuffer = new StringBuffer();
 
         if (preProcessorParser == null) {
@@ -80,10 +83,20 @@ public class MLLPContext {
         return codec;
     }
 
+    /**
+     * @return the raw request message which could not be parsed, to be injected to the fault sequence
+     */
     public StringBuffer getRequestBuffer() {
         return this.requestBuffer;
     }
 
+    /**
+     * @return the bytes of the request message being received
+     */
+    public HL7RequestBuffer getRequestBytes() {
+        return this.requestBytes;
+    }
+
     public StringBuffer getResponseBuffer() {
         return responseBuffer;
     }
@@ -194,6 +207,7 @@ public class MLLPContext {
         // Resets MLLP Context and HL7Codec to default states.
         this.responseBuffer.setLength(0);
         this.requestBuffer.setLength(0);
+        this.requestBytes.reset();
         this.getCodec().setState(HL7Codec.READ_HEADER);
         this.setNackMode(false);
     }
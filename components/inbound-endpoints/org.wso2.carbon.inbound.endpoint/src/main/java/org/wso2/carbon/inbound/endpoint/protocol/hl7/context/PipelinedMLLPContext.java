@@ -0,0 +1,76 @@
+package org.wso2.carbon.inbound.endpoint.protocol.hl7.context;
+
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.http.nio.reactor.EventMask;
+import org.apache.http.nio.reactor.IOSession;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.codec.HL7Codec;
+
+/**
+ * The context of a single message received on a pipelining MLLP connection. The connection's own context decodes the
+ * incoming frames, and a context of this type is created for each decoded message so that several messages of the
+ * connection can be mediated at the same time. Its response is only written once the responses of all the messages
+ * received before it on the connection are written, hence requesting the output marks the response as ready instead
+ * of suspending the input of the connection.
+ */
+public class PipelinedMLLPContext extends MLLPContext {
+
+    private final IOSession session;
+
+    private volatile boolean responseReady = false;
+
+    /**
+     * Creates the context of the message just decoded by the given connection context. The connection context can be
+     * reset to decode the next message once this is created.
+     *
+     * @param session           the session of the connection
+     * @param connectionContext the context which decoded the message
+     */
+    public PipelinedMLLPContext(IOSession session, MLLPContext connectionContext) {
+        super(session, connectionContext.getCodec().getCharsetDecoder(), connectionContext.isAutoAck(),
+                connectionContext.isValidateMessage(), connectionContext.getPreProcessParser(),
+                connectionContext.getBufferFactory());
+        this.session = session;
+        setHl7Message(connectionContext.getHl7Message());
+        getRequestBuffer().append(connectionContext.getRequestBuffer());
+        getCodec().setState(HL7Codec.READ_COMPLETE);
+    }
+
+    /**
+     * Marks the response of the message as ready, and wakes up the connection to write it if the responses before it
+     * are already written.
+     */
+    @Override
+    public void requestOutput() {
+        responseReady = true;
+        session.setEvent(EventMask.WRITE);
+    }
+
+    /**
+     * The input of a pipelining connection is controlled by the connection, not by its messages.
+     */
+    @Override
+    public void requestInput() {
+        // nothing to do
+    }
+
+    public boolean isResponseReady() {
+        return responseReady;
+    }
+}
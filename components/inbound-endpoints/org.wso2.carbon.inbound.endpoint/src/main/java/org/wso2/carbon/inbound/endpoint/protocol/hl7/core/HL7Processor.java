@@ -16,10 +16,12 @@ import org.wso2.carbon.inbound.endpoint.protocol.hl7.context.MLLPContext;
 import org.wso2.carbon.inbound.endpoint.protocol.hl7.util.Axis2HL7Constants;
 import org.wso2.carbon.inbound.endpoint.protocol.hl7.util.HL7ExecutorServiceFactory;
 import org.wso2.carbon.inbound.endpoint.protocol.hl7.util.HL7MessageUtils;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.util.HL7WorkerPool;
 
 import java.nio.charset.CharsetDecoder;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -43,7 +45,10 @@ import java.util.concurrent.TimeUnit;
 public class HL7Processor implements InboundResponseSender {
     private static final Log log = LogFactory.getLog(HL7Processor.class);
 
-    private ScheduledExecutorService executorService = HL7ExecutorServiceFactory.getExecutorService();
+    private ScheduledExecutorService timeoutScheduler = HL7ExecutorServiceFactory.getTimeoutScheduler();
+
+    private final HL7WorkerPool workerPool;
+    private boolean destroyed;
 
     private Map<String, Object> parameters;
     private InboundProcessorParams params;
@@ -52,6 +57,7 @@ public class HL7Processor implements InboundResponseSender {
 
     private boolean autoAck = true;
     private int timeOut;
+    private int pipelineDepth;
 
     public HL7Processor(Map<String, Object> parameters) {
         this.parameters = parameters;
@@ -66,6 +72,11 @@ public class HL7Processor implements InboundResponseSender {
 
         timeOut = HL7MessageUtils.getInt(MLLPConstants.PARAM_HL7_TIMEOUT, params);
 
+        if (HL7MessageUtils.getBoolean(MLLPConstants.PARAM_HL7_PIPELINING, params)) {
+            pipelineDepth = HL7MessageUtils.getInt(MLLPConstants.PARAM_HL7_PIPELINE_DEPTH, params);
+        }
+
+        workerPool = HL7ExecutorServiceFactory.acquireWorkerPool(params);
     }
 
     /**
@@ -114,14 +125,7 @@ public class HL7Processor implements InboundResponseSender {
         }
         injectSeq.setErrorHandler(onErrorSequence);
 
-        if (!autoAck && timeOut > 0) {
-            executorService.schedule(new TimeoutHandler(mllpContext, synCtx.getMessageID()), timeOut, TimeUnit.MILLISECONDS);
-        }
-
-        CallableTask task = new CallableTask(synCtx, injectSeq);
-
-        executorService.submit(task);
-
+        submit(mllpContext, new CallableTask(synCtx, injectSeq), synCtx.getMessageID());
     }
 
     public void processError(final MLLPContext mllpContext, final Exception ex) {
@@ -170,13 +174,35 @@ public class HL7Processor implements InboundResponseSender {
             injectSeq.init(synCtx.getEnvironment());
         }
 
-        if (!autoAck && timeOut > 0) {
-            executorService.schedule(new TimeoutHandler(mllpContext, synCtx.getMessageID()), timeOut, TimeUnit.MILLISECONDS);
-        }
+        submit(mllpContext, new CallableTask(synCtx, injectSeq), synCtx.getMessageID());
+    }
 
-        CallableTask task = new CallableTask(synCtx, injectSeq);
+    /**
+     * Hands the message over to the worker pool of the endpoint. A message which can not be handed over since the
+     * pool is saturated is answered right away with a NACK carrying the acknowledgment code of the pool's rejection
+     * policy, so that the sender backs off instead of waiting for the response timeout.
+     *
+     * @param mllpContext the context of the message
+     * @param task        the task which injects the message
+     * @param messageId   the id of the message context, whose response is timed out
+     */
+    public void submit(MLLPContext mllpContext, Callable<Boolean> task, String messageId) {
+        if (!workerPool.submit(task)) {
+            try {
+                mllpContext.setNackMode(true);
+                mllpContext.setHl7Message(HL7MessageUtils.createNack(mllpContext.getHl7Message(),
+                        "HL7 inbound endpoint is busy. Please retry later.",
+                        workerPool.getRejectionAcknowledgmentCode()));
+                mllpContext.requestOutput();
+            } catch (HL7Exception e) {
+                log.error("Error while generating NACK response.", e);
+            }
+            return;
+        }
 
-        executorService.submit(task);
+        if (!autoAck && timeOut > 0) {
+            timeoutScheduler.schedule(new TimeoutHandler(mllpContext, messageId), timeOut, TimeUnit.MILLISECONDS);
+        }
     }
 
     /**
@@ -259,6 +285,24 @@ public class HL7Processor implements InboundResponseSender {
         return autoAck;
     }
 
+    /**
+     * @return maximum number of messages of a connection which are mediated or waiting for their responses to be
+     * written at the same time, or 0 if the connections do not pipeline the messages
+     */
+    public int getPipelineDepth() {
+        return pipelineDepth;
+    }
+
+    /**
+     * Releases the worker pool of the endpoint once it is closed.
+     */
+    public synchronized void destroy() {
+        if (!destroyed) {
+            destroyed = true;
+            HL7ExecutorServiceFactory.releaseWorkerPool(workerPool);
+        }
+    }
+
     private void handleException(MLLPContext mllpContext, String msg) {
         if (mllpContext.isAutoAck()) {
             try {
@@ -133,7 +133,10 @@ public class InboundHL7IOReactor {
         ListenerEndpoint ep = endpointMap.get(port);
 
         endpointMap.remove(port);
-        processorMap.remove(port);
+        HL7Processor processor = processorMap.remove(port);
+        if (processor != null) {
+            processor.destroy();
+        }
         multiIOHandler.disconnectSessions(port);
 
         if (ep == null) {
@@ -65,6 +65,24 @@ public class MLLPConstants {
 
     public final static String HL7_INBOUND_TENANT_DOMAIN = "HL7_INBOUND_TENANT_DOMAIN";
 
+    public final static String PARAM_HL7_WORKER_POOL_NAME = "inbound.hl7.WorkerPoolName";
+
+    public final static String PARAM_HL7_WORKER_THREADS_CORE = "inbound.hl7.WorkerThreadsCore";
+
+    public final static String PARAM_HL7_WORKER_THREADS_MAX = "inbound.hl7.WorkerThreadsMax";
+
+    public final static String PARAM_HL7_WORKER_QUEUE_CAPACITY = "inbound.hl7.WorkerQueueCapacity";
+
+    public final static String PARAM_HL7_WORKER_REJECTION_POLICY = "inbound.hl7.WorkerRejectionPolicy";
+
+    public final static String DEFAULT_WORKER_POOL_NAME = "default";
+
+    public final static String PARAM_HL7_PIPELINING = "inbound.hl7.Pipelining";
+
+    public final static String PARAM_HL7_PIPELINE_DEPTH = "inbound.hl7.PipelineDepth";
+
+    public final static int DEFAULT_HL7_PIPELINE_DEPTH = 16;
+
     public static class TCPConstants {
 
         public final static String IO_THREAD_COUNT = "io_thread_count";
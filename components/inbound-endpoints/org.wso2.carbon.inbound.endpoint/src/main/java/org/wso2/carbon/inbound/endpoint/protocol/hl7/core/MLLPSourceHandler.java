@@ -20,6 +20,7 @@ package org.wso2.carbon.inbound.endpoint.protocol.hl7.core;
 import ca.uhn.hl7v2.HL7Exception;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.nio.reactor.EventMask;
 import org.apache.http.nio.reactor.IOEventDispatch;
 import org.apache.http.nio.reactor.IOSession;
 import org.apache.synapse.transport.passthru.util.BufferFactory;
@@ -27,11 +28,13 @@ import org.apache.synapse.transport.passthru.util.ControlledByteBuffer;
 import org.wso2.carbon.inbound.endpoint.protocol.hl7.codec.HL7Codec;
 import org.wso2.carbon.inbound.endpoint.protocol.hl7.context.MLLPContext;
 import org.wso2.carbon.inbound.endpoint.protocol.hl7.context.MLLPContextFactory;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.context.PipelinedMLLPContext;
 import org.wso2.carbon.inbound.endpoint.protocol.hl7.util.HL7MessageUtils;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayDeque;
 
 public class MLLPSourceHandler implements IOEventDispatch {
     private static final Log log = LogFactory.getLog(MLLPSourceHandler.class);
@@ -43,6 +46,12 @@ public class MLLPSourceHandler implements IOEventDispatch {
     private ControlledByteBuffer inputBuffer;
     private ControlledByteBuffer outputBuffer;
 
+    /* messages of a pipelining connection in the order they are received, null if the connection does not pipeline */
+    private ArrayDeque<PipelinedMLLPContext> pipeline;
+    private int pipelineDepth;
+    private PipelinedMLLPContext writingContext;
+    private boolean inputSuspended = false;
+
     public MLLPSourceHandler() { /* default constructor */ }
 
     public MLLPSourceHandler(HL7Processor hl7Processor) {
@@ -50,6 +59,10 @@ public class MLLPSourceHandler implements IOEventDispatch {
         this.hl7Processor = hl7Processor;
         this.bufferFactory = (BufferFactory) hl7Processor.getInboundParameterMap().get(
                 MLLPConstants.INBOUND_HL7_BUFFER_FACTORY);
+        this.pipelineDepth = hl7Processor.getPipelineDepth();
+        if (pipelineDepth > 0) {
+            this.pipeline = new ArrayDeque<PipelinedMLLPContext>(pipelineDepth);
+        }
     }
 
 
@@ -71,6 +84,11 @@ public class MLLPSourceHandler implements IOEventDispatch {
 
         MLLPContext mllpContext = (MLLPContext) session.getAttribute(MLLPConstants.MLLP_CONTEXT);
 
+        if (pipeline != null) {
+            pipelinedInputReady(session, ch, mllpContext);
+            return;
+        }
+
         inputBuffer.clear();
         try {
             int read;
@@ -122,6 +140,103 @@ public class MLLPSourceHandler implements IOEventDispatch {
 
     }
 
+    /**
+     * Reads the messages of a pipelining connection. All the complete messages in the input are decoded and handed
+     * over for mediation, up to the pipeline depth. Once the pipeline is full the remaining input is kept in the input
+     * buffer and the connection is not read any further, until the response of the oldest message is written.
+     */
+    private void pipelinedInputReady(IOSession session, ReadableByteChannel ch, MLLPContext mllpContext) {
+        if (inputSuspended) {
+            // the input buffer still holds messages which do not fit in the pipeline
+            return;
+        }
+        try {
+            int read;
+            do {
+                ByteBuffer buffer = inputBuffer.getByteBuffer();
+                buffer.clear();
+                read = ch.read(buffer);
+                buffer.flip();
+                decodePipelined(session, mllpContext);
+            } while (read > 0 && !inputSuspended && !session.isClosed());
+
+            if (read < 0 && !session.isClosed()) {
+                clearInputBuffers(mllpContext);
+                session.close();
+            }
+        } catch (IOException e) {
+            shutdownConnection(session, mllpContext, e);
+        }
+    }
+
+    private void decodePipelined(IOSession session, MLLPContext mllpContext) {
+        ByteBuffer buffer = inputBuffer.getByteBuffer();
+        while (buffer.hasRemaining() && pipeline.size() < pipelineDepth) {
+            int limit = buffer.limit();
+            HL7Exception parseError = null;
+            try {
+                mllpContext.getCodec().decode(buffer, mllpContext);
+            } catch (MLLProtocolException e) {
+                handleException(session, mllpContext, e);
+                clearInputBuffers(mllpContext);
+                inputBuffer.getByteBuffer().limit(0);
+                return;
+            } catch (HL7Exception e) {
+                handleException(session, mllpContext, e);
+                parseError = e;
+            } catch (IOException e) {
+                shutdownConnection(session, mllpContext, e);
+                return;
+            }
+
+            if (!mllpContext.getCodec().isReadComplete()) {
+                // the whole buffer is consumed by a message which is not complete yet
+                return;
+            }
+
+            int trailerEnd = mllpContext.getCodec().getTrailerEnd();
+            try {
+                processPipelined(session, new PipelinedMLLPContext(session, mllpContext), parseError);
+            } catch (Exception e) {
+                shutdownConnection(session, mllpContext, e);
+                return;
+            }
+            mllpContext.reset();
+
+            // move the messages pipelined after the decoded message to the beginning of the buffer
+            buffer.limit(limit);
+            if (trailerEnd < 0 || trailerEnd >= limit) {
+                buffer.position(limit);
+            } else {
+                buffer.position(trailerEnd);
+                buffer.compact();
+                buffer.flip();
+            }
+        }
+
+        if (pipeline.size() >= pipelineDepth && !inputSuspended) {
+            inputSuspended = true;
+            session.clearEvent(EventMask.READ);
+        }
+    }
+
+    private void processPipelined(IOSession session, PipelinedMLLPContext context, HL7Exception parseError)
+            throws Exception {
+        pipeline.add(context);
+        if (parseError == null) {
+            if (context.isAutoAck()) {
+                context.requestOutput();
+            }
+            hl7Processor.processRequest(context);
+        } else if (context.isAutoAck()) {
+            context.setNackMode(true);
+            context.setHl7Message(HL7MessageUtils.createDefaultNack(parseError.getMessage()));
+            context.requestOutput();
+        } else {
+            hl7Processor.processError(context, parseError);
+        }
+    }
+
     private void clearInputBuffers(MLLPContext context) {
         bufferFactory.release(inputBuffer);
         inputBuffer = bufferFactory.getBuffer();
@@ -130,10 +245,43 @@ public class MLLPSourceHandler implements IOEventDispatch {
 
     @Override
     public void outputReady(IOSession session) {
+        if (pipeline != null) {
+            pipelinedOutputReady(session);
+            return;
+        }
         MLLPContext mllpContext = (MLLPContext) session.getAttribute(MLLPConstants.MLLP_CONTEXT);
         writeOut(session, mllpContext);
     }
 
+    /**
+     * Writes the responses of a pipelining connection in the order the messages are received. The write interest is
+     * cleared before the oldest message is checked, hence a response which becomes ready meanwhile sets it again.
+     */
+    private void pipelinedOutputReady(IOSession session) {
+        if (writingContext == null) {
+            session.clearEvent(EventMask.WRITE);
+            PipelinedMLLPContext oldest = pipeline.peek();
+            if (oldest == null || !oldest.isResponseReady()) {
+                return;
+            }
+            session.setEvent(EventMask.WRITE);
+            writingContext = oldest;
+        }
+        writeOut(session, writingContext);
+    }
+
+    private void pipelinedResponseWritten(IOSession session) {
+        pipeline.poll();
+        writingContext = null;
+        if (inputSuspended) {
+            inputSuspended = false;
+            decodePipelined(session, (MLLPContext) session.getAttribute(MLLPConstants.MLLP_CONTEXT));
+            if (!inputSuspended) {
+                session.setEvent(EventMask.READ);
+            }
+        }
+    }
+
     private void writeOut(IOSession session, MLLPContext mllpContext) {
 
         outputBuffer.clear();
@@ -171,7 +319,11 @@ public class MLLPSourceHandler implements IOEventDispatch {
                 outputBuffer = bufferFactory.getBuffer();
                 mllpContext.setMessageId("RESPONDED");
                 mllpContext.reset();
-                mllpContext.requestInput();
+                if (pipeline != null) {
+                    pipelinedResponseWritten(session);
+                } else {
+                    mllpContext.requestInput();
+                }
             }
         }
 
@@ -195,6 +347,10 @@ public class MLLPSourceHandler implements IOEventDispatch {
             handleException(session, mllpContext, e);
         }
 
+        if (pipeline != null) {
+            pipeline.clear();
+            writingContext = null;
+        }
         bufferFactory.release(inputBuffer);
         bufferFactory.release(outputBuffer);
         session.close();
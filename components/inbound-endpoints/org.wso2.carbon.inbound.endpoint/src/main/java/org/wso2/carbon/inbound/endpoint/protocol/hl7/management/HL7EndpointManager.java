@@ -19,6 +19,7 @@ import org.wso2.carbon.inbound.endpoint.protocol.hl7.core.InboundHL7IOReactor;
 import org.wso2.carbon.inbound.endpoint.protocol.hl7.core.MLLPConstants;
 import org.wso2.carbon.inbound.endpoint.protocol.hl7.util.Axis2HL7Constants;
 import org.wso2.carbon.inbound.endpoint.protocol.hl7.util.HL7Configuration;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.util.HL7WorkerPool;
 
 import java.nio.charset.Charset;
 import java.nio.charset.UnsupportedCharsetException;
@@ -77,7 +78,11 @@ public class HL7EndpointManager extends AbstractInboundEndpointManager {
         HL7Processor hl7Processor = new HL7Processor(parameters);
         parameters.put(MLLPConstants.HL7_REQ_PROC, hl7Processor);
 
-        return InboundHL7IOReactor.bind(port, hl7Processor);
+        if (!InboundHL7IOReactor.bind(port, hl7Processor)) {
+            hl7Processor.destroy();
+            return false;
+        }
+        return true;
     }
 
     @Override
@@ -171,6 +176,19 @@ public class HL7EndpointManager extends AbstractInboundEndpointManager {
                     ". Default UTF-8 will be used instead.");
         }
 
+        validatePositiveIntParameter(params, MLLPConstants.PARAM_HL7_WORKER_THREADS_CORE);
+        validatePositiveIntParameter(params, MLLPConstants.PARAM_HL7_WORKER_THREADS_MAX);
+        validatePositiveIntParameter(params, MLLPConstants.PARAM_HL7_WORKER_QUEUE_CAPACITY);
+
+        if (params.getProperties().getProperty(MLLPConstants.PARAM_HL7_WORKER_REJECTION_POLICY) != null
+                && HL7WorkerPool.RejectionPolicy.fromString(params.getProperties()
+                .getProperty(MLLPConstants.PARAM_HL7_WORKER_REJECTION_POLICY)) == null) {
+            log.warn("Parameter " + MLLPConstants.PARAM_HL7_WORKER_REJECTION_POLICY + " in HL7 inbound "
+                    + params.getName() + " is not valid. NACKs with the AE acknowledgment code will be sent when "
+                    + "the worker pool is saturated.");
+            params.getProperties().remove(MLLPConstants.PARAM_HL7_WORKER_REJECTION_POLICY);
+        }
+
         if (params.getProperties().getProperty(MLLPConstants.PARAM_HL7_VALIDATE) == null) {
             params.getProperties().setProperty(MLLPConstants.PARAM_HL7_VALIDATE, "true");
         }
@@ -184,6 +202,17 @@ public class HL7EndpointManager extends AbstractInboundEndpointManager {
             }
         }
 
+        if (params.getProperties().getProperty(MLLPConstants.PARAM_HL7_PIPELINING) == null ||
+                !params.getProperties().getProperty(MLLPConstants.PARAM_HL7_PIPELINING).equalsIgnoreCase("true")) {
+            params.getProperties().setProperty(MLLPConstants.PARAM_HL7_PIPELINING, "false");
+        }
+
+        validatePositiveIntParameter(params, MLLPConstants.PARAM_HL7_PIPELINE_DEPTH);
+        if (params.getProperties().getProperty(MLLPConstants.PARAM_HL7_PIPELINE_DEPTH) == null) {
+            params.getProperties().setProperty(MLLPConstants.PARAM_HL7_PIPELINE_DEPTH,
+                    String.valueOf(MLLPConstants.DEFAULT_HL7_PIPELINE_DEPTH));
+        }
+
         if (params.getProperties().getProperty(MLLPConstants.PARAM_HL7_PASS_THROUGH_INVALID_MESSAGES) == null) {
             params.getProperties().setProperty(MLLPConstants.PARAM_HL7_PASS_THROUGH_INVALID_MESSAGES, "false");
         } else {
@@ -193,4 +222,21 @@ public class HL7EndpointManager extends AbstractInboundEndpointManager {
             }
         }
     }
+
+    private void validatePositiveIntParameter(InboundProcessorParams params, String name) {
+        String value = params.getProperties().getProperty(name);
+        if (value == null) {
+            return;
+        }
+        try {
+            if (Integer.parseInt(value.trim()) > 0) {
+                params.getProperties().setProperty(name, value.trim());
+                return;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        log.warn("Parameter " + name + " in HL7 inbound " + params.getName() + " is not valid. It must be a positive "
+                + "integer, the default value will be used.");
+        params.getProperties().remove(name);
+    }
 }
@@ -1,7 +1,15 @@
 package org.wso2.carbon.inbound.endpoint.protocol.hl7.util;
 
+import org.apache.commons.lang.math.NumberUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.inbound.InboundProcessorParams;
+import org.wso2.carbon.inbound.endpoint.common.StatisticsMBeans;
 import org.wso2.carbon.inbound.endpoint.protocol.hl7.core.MLLPConstants;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
@@ -25,14 +33,85 @@ import java.util.concurrent.atomic.AtomicInteger;
  * under the License.
  */
 public class HL7ExecutorServiceFactory {
+    private static final Log log = LogFactory.getLog(HL7ExecutorServiceFactory.class);
 
-    private static ScheduledExecutorService executorService = Executors.newScheduledThreadPool(
-            HL7Configuration.getInstance().getIntProperty(
-                    MLLPConstants.TCPConstants.WORKER_THREADS_CORE,
-                    MLLPConstants.TCPConstants.WORKER_THREADS_CORE_DEFAULT), HL7WorkerThreadFactory.getInstance());
+    private static ScheduledExecutorService timeoutScheduler = Executors.newSingleThreadScheduledExecutor(
+            new HL7WorkerThreadFactory("HL7-inbound-timeout-"));
 
-    public static ScheduledExecutorService getExecutorService() {
-        return executorService;
+    private static Map<String, HL7WorkerPool> workerPools = new HashMap<String, HL7WorkerPool>();
+
+    /**
+     * @return the scheduler of the response timeouts of all the HL7 inbound endpoints
+     */
+    public static ScheduledExecutorService getTimeoutScheduler() {
+        return timeoutScheduler;
+    }
+
+    /**
+     * Returns the worker pool of an HL7 inbound endpoint. Endpoints which name the same pool share it, and the pool is
+     * created with the configuration of the first of them. An endpoint which does not configure its pool uses the
+     * default pool, which is sized by the worker_threads_core tuning property and does not bound its queue.
+     *
+     * @param params parameters of the inbound endpoint
+     * @return the worker pool, which must be released once the endpoint is closed
+     */
+    public static synchronized HL7WorkerPool acquireWorkerPool(InboundProcessorParams params) {
+        Properties properties = params.getProperties();
+        int legacyPoolSize = HL7Configuration.getInstance().getIntProperty(
+                MLLPConstants.TCPConstants.WORKER_THREADS_CORE,
+                MLLPConstants.TCPConstants.WORKER_THREADS_CORE_DEFAULT);
+
+        String name = properties.getProperty(MLLPConstants.PARAM_HL7_WORKER_POOL_NAME);
+        boolean configured = properties.getProperty(MLLPConstants.PARAM_HL7_WORKER_THREADS_CORE) != null
+                || properties.getProperty(MLLPConstants.PARAM_HL7_WORKER_THREADS_MAX) != null
+                || properties.getProperty(MLLPConstants.PARAM_HL7_WORKER_QUEUE_CAPACITY) != null
+                || properties.getProperty(MLLPConstants.PARAM_HL7_WORKER_REJECTION_POLICY) != null;
+        if (name == null || name.trim().isEmpty()) {
+            name = configured ? params.getName() : MLLPConstants.DEFAULT_WORKER_POOL_NAME;
+        } else {
+            name = name.trim();
+        }
+
+        int corePoolSize = NumberUtils.toInt(properties.getProperty(MLLPConstants.PARAM_HL7_WORKER_THREADS_CORE),
+                legacyPoolSize);
+        int maxPoolSize = Math.max(corePoolSize, NumberUtils.toInt(
+                properties.getProperty(MLLPConstants.PARAM_HL7_WORKER_THREADS_MAX), corePoolSize));
+        int queueCapacity = NumberUtils.toInt(properties.getProperty(MLLPConstants.PARAM_HL7_WORKER_QUEUE_CAPACITY),
+                -1);
+        HL7WorkerPool.RejectionPolicy rejectionPolicy = HL7WorkerPool.RejectionPolicy.fromString(
+                properties.getProperty(MLLPConstants.PARAM_HL7_WORKER_REJECTION_POLICY));
+        if (rejectionPolicy == null) {
+            rejectionPolicy = HL7WorkerPool.RejectionPolicy.ERROR;
+        }
+
+        HL7WorkerPool pool = workerPools.get(name);
+        if (pool == null) {
+            pool = new HL7WorkerPool(name, corePoolSize, maxPoolSize, queueCapacity, rejectionPolicy,
+                    new HL7WorkerThreadFactory("HL7-inbound-" + name + "-worker-"));
+            workerPools.put(name, pool);
+            StatisticsMBeans.register(pool, StatisticsMBeans.HL7_WORKER_POOL_CATEGORY, name);
+            log.info("Created HL7 worker pool '" + name + "' with " + pool);
+        } else if (configured && !pool.hasConfiguration(corePoolSize, maxPoolSize, queueCapacity, rejectionPolicy)) {
+            log.warn("HL7 inbound " + params.getName() + " uses the existing worker pool '" + name + "' with " + pool
+                    + ". The worker pool parameters of the endpoint are ignored.");
+        }
+        pool.acquire();
+        return pool;
+    }
+
+    /**
+     * Releases the worker pool of a closed HL7 inbound endpoint. The pool is shut down once no endpoint uses it,
+     * after the messages which are already handed over to it are processed.
+     *
+     * @param pool the worker pool acquired by the endpoint
+     */
+    public static synchronized void releaseWorkerPool(HL7WorkerPool pool) {
+        if (pool.release() > 0 || workerPools.get(pool.getName()) != pool) {
+            return;
+        }
+        workerPools.remove(pool.getName());
+        StatisticsMBeans.unregister(StatisticsMBeans.HL7_WORKER_POOL_CATEGORY, pool.getName());
+        pool.shutdown();
     }
 
     private static class HL7WorkerThreadFactory implements ThreadFactory {
@@ -40,15 +119,9 @@ public class HL7ExecutorServiceFactory {
         final AtomicInteger threadNumber = new AtomicInteger(1);
         final String namePrefix;
 
-        private static HL7WorkerThreadFactory instance = new HL7WorkerThreadFactory();
-
-        private HL7WorkerThreadFactory() {
+        private HL7WorkerThreadFactory(String namePrefix) {
             group = new ThreadGroup("HL7-inbound-thread-group");
-            namePrefix = "HL7-inbound-worker-";
-        }
-
-        public static HL7WorkerThreadFactory getInstance() {
-            return instance;
+            this.namePrefix = namePrefix;
         }
 
         public Thread newThread(Runnable r) {
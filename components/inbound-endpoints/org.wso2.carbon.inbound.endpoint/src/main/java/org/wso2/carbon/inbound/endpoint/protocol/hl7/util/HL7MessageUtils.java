@@ -23,6 +23,7 @@ import ca.uhn.hl7v2.DefaultHapiContext;
 import ca.uhn.hl7v2.HL7Exception;
 import ca.uhn.hl7v2.HapiContext;
 import ca.uhn.hl7v2.model.DataTypeException;
+import ca.uhn.hl7v2.model.GenericMessage;
 import ca.uhn.hl7v2.model.Message;
 import ca.uhn.hl7v2.model.v22.message.ACK;
 import ca.uhn.hl7v2.parser.*;
@@ -52,6 +53,11 @@ import org.wso2.carbon.inbound.endpoint.osgi.service.ServiceReferenceHolder;
 import org.wso2.carbon.inbound.endpoint.protocol.hl7.core.MLLPConstants;
 import org.wso2.carbon.inbound.endpoint.protocol.hl7.core.MLLProtocolException;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamConstants;
@@ -200,18 +206,23 @@ public class HL7MessageUtils {
     }
 
     private static SOAPEnvelope createEnvelope(MessageContext synCtx, Message message, InboundProcessorParams params)
-            throws HL7Exception, XMLStreamException, MLLProtocolException {
+            throws HL7Exception, MLLProtocolException {
         SOAPEnvelope envelope = fac.getDefaultEnvelope();
         boolean rawMessage = false;
-        String xmlDoc = "";
+        Document xmlDoc = null;
+        String rawDoc = "";
         try {
-            xmlDoc = xmlParser.encode(message);
+            // the XML document is converted to AXIOM as it is, without serializing and parsing it again
+            if (message instanceof GenericMessage) {
+                throw new HL7Exception("Can't XML-encode a GenericMessage.  Message must have a recognized structure.");
+            }
+            xmlDoc = xmlParser.encodeDocument(message);
             synCtx.setProperty(Axis2HL7Constants.HL7_VALIDATION_PASSED, new Boolean(true));
         } catch (HL7Exception e) {
             synCtx.setProperty(Axis2HL7Constants.HL7_VALIDATION_PASSED, new Boolean(false));
             if (params.getProperties().getProperty(MLLPConstants.PARAM_HL7_BUILD_RAW_MESSAGE) != null &&
                     params.getProperties().getProperty(MLLPConstants.PARAM_HL7_BUILD_RAW_MESSAGE).equals("true")) {
-                xmlDoc =  message.encode();
+                rawDoc =  message.encode();
                 rawMessage = true;
             } else {
                 log.error("Could not encode HL7 message into XML. " +
@@ -222,9 +233,9 @@ public class HL7MessageUtils {
 
         OMElement messageEl;
         if (!rawMessage) {
-            messageEl = generateHL7MessageElement(xmlDoc);
+            messageEl = generateHL7MessageElement(xmlDoc.getDocumentElement());
         } else {
-            messageEl = generateHL7RawMessaegElement(xmlDoc);
+            messageEl = generateHL7RawMessaegElement(rawDoc);
         }
         envelope.getBody().addChild(messageEl);
         return envelope;
@@ -258,6 +269,71 @@ public class HL7MessageUtils {
         return messageEl;
     }
 
+    /**
+     * Generate the HL7 message element from the DOM of the message encoded by the HAPI XML parser
+     *
+     * @param hl7XmlMessage root element of the encoded message
+     * @return the HL7 message element
+     */
+    public static OMElement generateHL7MessageElement(Element hl7XmlMessage) {
+        OMElement messageEl = fac.createOMElement(Axis2HL7Constants.HL7_MESSAGE_ELEMENT_NAME, ns);
+        toOMElement(hl7XmlMessage, messageEl);
+        return messageEl;
+    }
+
+    private static OMElement toOMElement(Element domElement, OMElement parent) {
+        OMNamespace omNamespace = null;
+        String namespaceURI = domElement.getNamespaceURI();
+        if (namespaceURI != null && !namespaceURI.isEmpty()) {
+            String prefix = domElement.getPrefix();
+            omNamespace = fac.createOMNamespace(namespaceURI, prefix == null ? "" : prefix);
+        }
+        String localName = domElement.getLocalName() != null ? domElement.getLocalName() : domElement.getNodeName();
+        OMElement omElement = fac.createOMElement(localName, omNamespace, parent);
+
+        NamedNodeMap attributes = domElement.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Attr attribute = (Attr) attributes.item(i);
+            String attributeName = attribute.getName();
+            if ("xmlns".equals(attributeName)) {
+                if (namespaceURI == null || !namespaceURI.equals(attribute.getValue())) {
+                    omElement.declareDefaultNamespace(attribute.getValue());
+                }
+            } else if (attributeName.startsWith("xmlns:")) {
+                omElement.declareNamespace(attribute.getValue(), attribute.getLocalName());
+            } else {
+                OMNamespace attributeNamespace = null;
+                if (attribute.getNamespaceURI() != null && !attribute.getNamespaceURI().isEmpty()) {
+                    attributeNamespace = fac.createOMNamespace(attribute.getNamespaceURI(),
+                            attribute.getPrefix() == null ? "" : attribute.getPrefix());
+                }
+                String attributeLocalName = attribute.getLocalName() != null ? attribute.getLocalName() :
+                        attributeName;
+                omElement.addAttribute(attributeLocalName, attribute.getValue(), attributeNamespace);
+            }
+        }
+
+        for (Node child = domElement.getFirstChild(); child != null; child = child.getNextSibling()) {
+            switch (child.getNodeType()) {
+                case Node.ELEMENT_NODE:
+                    toOMElement((Element) child, omElement);
+                    break;
+                case Node.TEXT_NODE:
+                    fac.createOMText(omElement, child.getNodeValue());
+                    break;
+                case Node.CDATA_SECTION_NODE:
+                    fac.createOMText(omElement, child.getNodeValue(), XMLStreamConstants.CDATA);
+                    break;
+                case Node.COMMENT_NODE:
+                    fac.createOMComment(omElement, child.getNodeValue());
+                    break;
+                default:
+                    break;
+            }
+        }
+        return omElement;
+    }
+
     public static OMElement generateHL7RawMessaegElement(String hl7XmlMessage) {
         OMElement hl7Element = omFactory.createOMElement(new QName("rawMessage"));
         OMText rawMessage = hl7Element.getOMFactory().createOMText(hl7Element, hl7XmlMessage, XMLStreamConstants.CDATA);
@@ -268,6 +344,10 @@ public class HL7MessageUtils {
     }
 
     public static Message createNack(Message hl7Msg, String errorMsg) throws HL7Exception {
+        return createNack(hl7Msg, errorMsg, AcknowledgmentCode.AE);
+    }
+
+    public static Message createNack(Message hl7Msg, String errorMsg, AcknowledgmentCode code) throws HL7Exception {
         if (errorMsg == null) {
             errorMsg = "";
         }
@@ -275,7 +355,7 @@ public class HL7MessageUtils {
             return createDefaultNackMessage(errorMsg);
         } else {
             try {
-                return hl7Msg.generateACK(AcknowledgmentCode.AE, new HL7Exception(errorMsg));
+                return hl7Msg.generateACK(code, new HL7Exception(errorMsg));
             } catch (IOException e) {
                 throw new HL7Exception(e);
             }
@@ -0,0 +1,241 @@
+package org.wso2.carbon.inbound.endpoint.protocol.hl7.util;
+
+import ca.uhn.hl7v2.AcknowledgmentCode;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.inbound.endpoint.common.CountBaseline;
+import org.wso2.carbon.inbound.endpoint.common.LogThrottle;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * Worker threads which inject the messages received by one or more HL7 inbound endpoints into the mediation. The
+ * pool keeps the core number of threads and queues the messages arriving while they are all busy. Once a bounded
+ * queue is full the pool grows up to the maximum number of threads, and the messages arriving after that are rejected
+ * so that the endpoint answers them with a NACK instead of blocking the I/O reactor. Pools are created and shared by
+ * name through the {@link HL7ExecutorServiceFactory}.
+ */
+public class HL7WorkerPool implements HL7WorkerPoolMBean {
+    private static final Log log = LogFactory.getLog(HL7WorkerPool.class);
+
+    private static final long KEEP_ALIVE_MILLIS = 60000;
+
+    /* the rejected messages are logged once in this many messages */
+    private static final LogThrottle REJECTION_LOG_THROTTLE = new LogThrottle(100);
+
+    /**
+     * The NACK sent for a message which arrives while the pool is saturated.
+     */
+    public enum RejectionPolicy {
+        /**
+         * Answer with an application error (AE), the sender may retry the message.
+         */
+        ERROR(AcknowledgmentCode.AE),
+        /**
+         * Answer with an application reject (AR).
+         */
+        REJECT(AcknowledgmentCode.AR);
+
+        private final AcknowledgmentCode acknowledgmentCode;
+
+        RejectionPolicy(AcknowledgmentCode acknowledgmentCode) {
+            this.acknowledgmentCode = acknowledgmentCode;
+        }
+
+        public AcknowledgmentCode getAcknowledgmentCode() {
+            return acknowledgmentCode;
+        }
+
+        /**
+         * @param value name of the policy or its acknowledgment code, case insensitive
+         * @return the policy, or null if the value is not a known policy
+         */
+        public static RejectionPolicy fromString(String value) {
+            if (value == null) {
+                return null;
+            }
+            String trimmed = value.trim();
+            for (RejectionPolicy policy : values()) {
+                if (policy.name().equalsIgnoreCase(trimmed)
+                        || policy.acknowledgmentCode.name().equalsIgnoreCase(trimmed)) {
+                    return policy;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final String name;
+    private final int queueCapacity;
+    private final RejectionPolicy rejectionPolicy;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /* the completed count of the executor can not be reset, hence it is counted from a baseline */
+    private final CountBaseline completedCount = new CountBaseline();
+
+    /* number of endpoints using the pool, guarded by the HL7ExecutorServiceFactory */
+    private int endpointCount;
+
+    HL7WorkerPool(String name, int corePoolSize, int maxPoolSize, int queueCapacity,
+                  RejectionPolicy rejectionPolicy, ThreadFactory threadFactory) {
+        this.name = name;
+        this.queueCapacity = queueCapacity > 0 ? queueCapacity : -1;
+        this.rejectionPolicy = rejectionPolicy;
+
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new LinkedBlockingQueue<Runnable>(queueCapacity)
+                : new LinkedBlockingQueue<Runnable>();
+        this.executor = new ThreadPoolExecutor(corePoolSize, maxPoolSize, KEEP_ALIVE_MILLIS, TimeUnit.MILLISECONDS,
+                queue, threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Hands a message over to a worker thread.
+     *
+     * @param task the task which injects the message
+     * @return false if the pool is saturated or shut down, and the message must be answered with a NACK
+     */
+    public boolean submit(Callable<Boolean> task) {
+        try {
+            executor.submit(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            long count = rejectedCount.incrementAndGet();
+            if (REJECTION_LOG_THROTTLE.shouldLog(count)) {
+                log.warn("HL7 worker pool '" + name + "' is saturated. " + count + " message(s) have been answered "
+                        + "with a NACK so far.");
+            }
+            return false;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    boolean hasConfiguration(int corePoolSize, int maxPoolSize, int queueCapacity, RejectionPolicy rejectionPolicy) {
+        return executor.getCorePoolSize() == corePoolSize && executor.getMaximumPoolSize() == maxPoolSize
+                && this.queueCapacity == (queueCapacity > 0 ? queueCapacity : -1)
+                && this.rejectionPolicy == rejectionPolicy;
+    }
+
+    int acquire() {
+        return ++endpointCount;
+    }
+
+    int release() {
+        return --endpointCount;
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * @return the acknowledgment code of the NACK sent for a message rejected by the pool
+     */
+    public AcknowledgmentCode getRejectionAcknowledgmentCode() {
+        return rejectionPolicy.getAcknowledgmentCode();
+    }
+
+    @Override
+    public int getCorePoolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    @Override
+    public int getMaxPoolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    @Override
+    public int getPoolSize() {
+        return executor.getPoolSize();
+    }
+
+    @Override
+    public int getLargestPoolSize() {
+        return executor.getLargestPoolSize();
+    }
+
+    @Override
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public double getUtilization() {
+        return executor.getActiveCount() * 100.0 / executor.getMaximumPoolSize();
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public long getCompletedCount() {
+        return completedCount.since(executor.getCompletedTaskCount());
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    @Override
+    public String getRejectionPolicy() {
+        return rejectionPolicy.getAcknowledgmentCode().name();
+    }
+
+    @Override
+    public int getEndpointCount() {
+        synchronized (HL7ExecutorServiceFactory.class) {
+            return endpointCount;
+        }
+    }
+
+    @Override
+    public void resetStatistics() {
+        rejectedCount.set(0);
+        completedCount.reset(executor.getCompletedTaskCount());
+    }
+
+    @Override
+    public String toString() {
+        return "core size " + executor.getCorePoolSize() + ", max size " + executor.getMaximumPoolSize()
+                + ", queue capacity " + (queueCapacity > 0 ? String.valueOf(queueCapacity) : "unbounded")
+                + ", rejection policy " + rejectionPolicy;
+    }
+}
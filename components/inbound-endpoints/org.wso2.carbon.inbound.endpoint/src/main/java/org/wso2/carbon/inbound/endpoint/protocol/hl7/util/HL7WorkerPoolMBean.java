@@ -0,0 +1,87 @@
+package org.wso2.carbon.inbound.endpoint.protocol.hl7.util;
+
+import org.wso2.carbon.inbound.endpoint.common.StatisticsMBean;
+
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * The interface for MBean used to expose the utilization of a {@link HL7WorkerPool} used by HL7 inbound endpoints.
+ */
+public interface HL7WorkerPoolMBean extends StatisticsMBean {
+
+    /**
+     * @return number of threads kept in the pool even when they are idle
+     */
+    int getCorePoolSize();
+
+    /**
+     * @return maximum number of threads of the pool
+     */
+    int getMaxPoolSize();
+
+    /**
+     * @return current number of threads in the pool
+     */
+    int getPoolSize();
+
+    /**
+     * @return largest number of threads which have been in the pool at the same time
+     */
+    int getLargestPoolSize();
+
+    /**
+     * @return number of threads processing a message
+     */
+    int getActiveCount();
+
+    /**
+     * @return percentage of the maximum number of threads processing a message
+     */
+    double getUtilization();
+
+    /**
+     * @return maximum number of messages waiting for a thread, or -1 if the queue is not bounded
+     */
+    int getQueueCapacity();
+
+    /**
+     * @return number of messages waiting for a thread
+     */
+    int getQueueDepth();
+
+    /**
+     * @return number of messages processed by the pool
+     */
+    long getCompletedCount();
+
+    /**
+     * @return number of messages answered with a NACK since the pool is saturated
+     */
+    long getRejectedCount();
+
+    /**
+     * @return the acknowledgment code of the NACK sent when the pool is saturated
+     */
+    String getRejectionPolicy();
+
+    /**
+     * @return number of HL7 inbound endpoints using the pool
+     */
+    int getEndpointCount();
+}
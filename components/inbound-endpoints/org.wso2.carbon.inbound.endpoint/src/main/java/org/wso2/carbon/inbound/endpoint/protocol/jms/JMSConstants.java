@@ -236,6 +236,34 @@ public class JMSConstants {
 
     public static final String JMS_RETRY_DURATION = "transport.jms.retry.duration";
 
+    /**
+     * Maximum number of messages received and committed or acknowledged together by the polling inbound endpoint
+     */
+    public static final String BATCH_SIZE = "transport.jms.BatchSize";
+
+    /**
+     * Maximum time in milliseconds the polling inbound endpoint waits for the messages of a batch
+     */
+    public static final String BATCH_TIMEOUT = "transport.jms.BatchTimeout";
+
+    public static final int DEFAULT_BATCH_SIZE = 1;
+
+    public static final long DEFAULT_BATCH_TIMEOUT = 1000;
+
+    /**
+     * Number of worker threads a polling consumer injects the messages of a batch with, where the messages with the
+     * same ordering key are injected in order by the same worker. The batches require a transacted session or client
+     * acknowledgement
+     */
+    public static final String ORDERED_WORKERS = "transport.jms.OrderedWorkers";
+
+    /**
+     * Message property whose value is the ordering key of a message injected by the ordered workers
+     */
+    public static final String ORDERING_KEY_PROPERTY = "transport.jms.OrderingKeyProperty";
+
+    public static final String DEFAULT_ORDERING_KEY_PROPERTY = "JMSXGroupID";
+
     /**
      *  JMS 2.0 Parameters
      */
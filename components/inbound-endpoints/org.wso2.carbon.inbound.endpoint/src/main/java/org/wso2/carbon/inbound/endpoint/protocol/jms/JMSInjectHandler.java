@@ -17,18 +17,23 @@
  */
 package org.wso2.carbon.inbound.endpoint.protocol.jms;
 
+import org.apache.axiom.attachments.ByteArrayDataSource;
 import org.apache.axiom.om.OMAbstractFactory;
 import org.apache.axiom.om.OMElement;
 import org.apache.axiom.om.OMFactory;
 import org.apache.axiom.om.OMNamespace;
 import org.apache.axiom.om.util.UUIDGenerator;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.Constants;
 import org.apache.axis2.builder.Builder;
 import org.apache.axis2.builder.BuilderUtil;
 import org.apache.axis2.builder.SOAPBuilder;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.format.DataSourceMessageBuilder;
+import org.apache.axis2.format.TextMessageBuilder;
 import org.apache.axis2.transport.TransportUtils;
-import org.apache.commons.io.input.AutoCloseInputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.ReaderInputStream;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.synapse.SynapseConstants;
@@ -46,10 +51,16 @@ import org.wso2.carbon.inbound.endpoint.protocol.jms.factory.CachedJMSConnection
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
 import java.io.ByteArrayInputStream;
-import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.jms.BytesMessage;
 import javax.jms.Connection;
 import javax.jms.Destination;
@@ -67,14 +78,41 @@ public class JMSInjectHandler {
 
     private static final Log log = LogFactory.getLog(JMSInjectHandler.class);
 
+    /* Upper limits of the builders and reply senders kept, as both are keyed by values taken from the messages */
+    private static final int MAX_CACHED_BUILDERS = 32;
+    private static final int MAX_CACHED_REPLY_SENDERS = 64;
+
+    /* Builder used when no builder is found for the content type, which is stateless as the builders of Axis2 */
+    private static final Builder SOAP_BUILDER = new SOAPBuilder();
+
     private String injectingSeq;
     private String onErrorSeq;
     private boolean sequential;
     private SynapseEnvironment synapseEnvironment;
     private Properties jmsProperties;
+    private final String contentTypeProperty;
+    private final String defaultContentType;
+    private final String strUserName;
+    private final String strPassword;
+    // JMS properties of the reply connection factories, which do not cache the sessions used by concurrent replies
+    private final Properties replyProperties;
     //Following is used when using reply destination
-    private Connection connection;
-    private Destination replyDestination;
+    private volatile Connection connection;
+    private volatile Destination replyDestination;
+
+    // resolved when the first message is injected, since the endpoint may not be deployed when this is created
+    private volatile InjectionContext injectionContext;
+    private final ConcurrentMap<String, Builder> builders = new ConcurrentHashMap<>();
+    // reply factory and senders of the current connection, guarded by this handler
+    private CachedJMSConnectionFactory replyConnectionFactory;
+    private Connection replyConnection;
+    private final Map<Destination, JMSReplySender> replySenders =
+            new LinkedHashMap<Destination, JMSReplySender>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Destination, JMSReplySender> eldest) {
+                    return size() > MAX_CACHED_REPLY_SENDERS;
+                }
+            };
     
     public JMSInjectHandler(String injectingSeq, String onErrorSeq, boolean sequential,
             SynapseEnvironment synapseEnvironment, Properties jmsProperties) {
@@ -83,39 +121,59 @@ public class JMSInjectHandler {
         this.sequential = sequential;
         this.synapseEnvironment = synapseEnvironment;
         this.jmsProperties = jmsProperties;
-
+        this.contentTypeProperty = jmsProperties.getProperty(JMSConstants.CONTENT_TYPE_PROPERTY);
+        this.defaultContentType = jmsProperties.getProperty(JMSConstants.CONTENT_TYPE);
+        this.strUserName = jmsProperties.getProperty(JMSConstants.PARAM_JMS_USERNAME);
+        this.strPassword = jmsProperties.getProperty(JMSConstants.PARAM_JMS_PASSWORD);
+        this.replyProperties = new Properties();
+        this.replyProperties.putAll(jmsProperties);
+        this.replyProperties.setProperty(JMSConstants.PARAM_CACHE_LEVEL,
+                String.valueOf(JMSConstants.CACHE_CONNECTION));
     }
 
     /**
      * Invoke the mediation logic for the passed message
      * */
     public boolean invoke(Object object, String name) throws SynapseException{
+        return prepare((Message) object, name, false).inject();
+    }
 
-        Message msg = (Message) object;
+    /**
+     * Reads the message into its message context, so that it can be injected by another thread without using the
+     * message, as the messages are bound to the session which received them. The payload is built in full, hence the
+     * message is not read while it is injected.
+     *
+     * @param msg  the received message
+     * @param name the name of the inbound endpoint
+     * @return the message to be injected
+     * @throws SynapseException if the message cannot be read
+     */
+    public PreparedMessage prepare(Message msg, String name) throws SynapseException {
+        return prepare(msg, name, true);
+    }
+
+    private PreparedMessage prepare(Message msg, String name, boolean buildPayload) throws SynapseException {
         try {
             org.apache.synapse.MessageContext msgCtx = createMessageContext();
             msgCtx.setProperty(SynapseConstants.INBOUND_ENDPOINT_NAME, name);
             msgCtx.setProperty(SynapseConstants.ARTIFACT_NAME, SynapseConstants.FAIL_SAFE_MODE_INBOUND_ENDPOINT + name);
             msgCtx.setProperty(SynapseConstants.IS_INBOUND, true);
-            InboundEndpoint inboundEndpoint = msgCtx.getConfiguration().getInboundEndpoint(name);
+            InjectionContext context = getInjectionContext(msgCtx, name);
 
             // Adding inbound endpoint parameters as synapse properties
-            Map<String, String> parametersMap = inboundEndpoint.getParametersMap();
-            for (Map.Entry<String, String> entry : parametersMap.entrySet()) {
+            for (Map.Entry<String, String> entry : context.parameters) {
                 msgCtx.setProperty(entry.getKey(), entry.getValue());
             }
 
-            CustomLogSetter.getInstance().setLogAppender(inboundEndpoint.getArtifactContainerName());
+            CustomLogSetter.getInstance().setLogAppender(context.artifactContainerName);
             String contentType = null;
 
-            String contentTypeProperty =
-                    jmsProperties.getProperty(JMSConstants.CONTENT_TYPE_PROPERTY);
             if (contentTypeProperty != null) {
                 contentType = msg.getStringProperty(contentTypeProperty);
             }
 
             if (contentType == null || contentType.trim().isEmpty()) {
-                contentType = jmsProperties.getProperty(JMSConstants.CONTENT_TYPE);
+                contentType = defaultContentType;
             }
 
             if (contentType == null) {
@@ -132,11 +190,7 @@ public class JMSInjectHandler {
             MessageContext axis2MsgCtx =
                     ((org.apache.synapse.core.axis2.Axis2MessageContext) msgCtx).getAxis2MessageContext();
 
-            String hyphenSupport = JMSConstants.DEFAULT_HYPHEN_SUPPORT;
-            if (inboundEndpoint.getParameter(JMSConstants.PARAM_JMS_HYPHEN_MODE) != null) {
-                hyphenSupport = inboundEndpoint.getParameter(JMSConstants.PARAM_JMS_HYPHEN_MODE);
-            }
-            axis2MsgCtx.setProperty(JMSConstants.PARAM_JMS_HYPHEN_MODE, hyphenSupport);
+            axis2MsgCtx.setProperty(JMSConstants.PARAM_JMS_HYPHEN_MODE, context.hyphenSupport);
 
             //setting transport headers
             Map<String, Object> transportHeaders = JMSUtils.getTransportHeaders(msg, axis2MsgCtx);
@@ -166,63 +220,38 @@ public class JMSInjectHandler {
                       
             // Handle dual channel
             Destination replyTo = msg.getJMSReplyTo();
+            if (replyTo == null) {
+                replyTo = replyDestination;
+            }
             if (replyTo != null) {
-                // Create the cachedJMSConnectionFactory with the existing
-                // connection
-                CachedJMSConnectionFactory cachedJMSConnectionFactory =
-                                                                        new CachedJMSConnectionFactory(
-                                                                                                       jmsProperties,
-                                                                                                       connection);
-                String strUserName = jmsProperties.getProperty(JMSConstants.PARAM_JMS_USERNAME);
-                String strPassword = jmsProperties.getProperty(JMSConstants.PARAM_JMS_PASSWORD);
-                JMSReplySender jmsReplySender =
-                                                new JMSReplySender(replyTo,
-                                                                   cachedJMSConnectionFactory,
-                                                                   strUserName, strPassword);
-                msgCtx.setProperty(InboundEndpointConstants.INBOUND_ENDPOINT_RESPONSE_WORKER,
-                                   jmsReplySender);
-            } else if (replyDestination != null) {
-                // Create the cachedJMSConnectionFactory with the existing
-                // connection
-                CachedJMSConnectionFactory cachedJMSConnectionFactory =
-                                                                        new CachedJMSConnectionFactory(
-                                                                                                       jmsProperties,
-                                                                                                       connection);
-                String strUserName = jmsProperties.getProperty(JMSConstants.PARAM_JMS_USERNAME);
-                String strPassword = jmsProperties.getProperty(JMSConstants.PARAM_JMS_PASSWORD);
-                JMSReplySender jmsReplySender =
-                                                new JMSReplySender(replyDestination,
-                                                                   cachedJMSConnectionFactory,
-                                                                   strUserName, strPassword);
                 msgCtx.setProperty(InboundEndpointConstants.INBOUND_ENDPOINT_RESPONSE_WORKER,
-                                   jmsReplySender);
+                                   getReplySender(replyTo));
             }
             
             // Determine the message builder to use
             Builder builder;
             if (contentType == null) {
                 log.debug("No content type specified. Using SOAP builder.");
-                builder = new SOAPBuilder();
+                builder = SOAP_BUILDER;
             } else {
-                int index = contentType.indexOf(';');
-                String type = index > 0 ? contentType.substring(0, index) : contentType;
-                builder = BuilderUtil.getBuilderFromSelector(type, axis2MsgCtx);
-                if (builder == null) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("No message builder found for type '" + type
-                                + "'. Falling back to SOAP.");
-                    }
-                    builder = new SOAPBuilder();
-                }
+                builder = getBuilder(contentType, axis2MsgCtx);
             }
             OMElement documentElement = null;
             // set the message payload to the message context
             try {
                 if (msg instanceof TextMessage) {
-                    String message = ((TextMessage) msg).getText();
-                    InputStream in = new AutoCloseInputStream(new ByteArrayInputStream(
-                            message.getBytes()));
-                    documentElement = builder.processDocument(in, contentType, axis2MsgCtx);
+                    documentElement = buildTextMessage(builder, ((TextMessage) msg).getText(), contentType,
+                            axis2MsgCtx);
+                } else if (msg instanceof BytesMessage && buildPayload) {
+                    // the body is copied, since a data source would read the message while it is injected
+                    byte[] body = IOUtils.toByteArray(new BytesMessageDataSource((BytesMessage) msg).getInputStream());
+                    if (builder instanceof DataSourceMessageBuilder) {
+                        documentElement = ((DataSourceMessageBuilder) builder).processDocument(
+                                new ByteArrayDataSource(body), contentType, axis2MsgCtx);
+                    } else {
+                        documentElement = builder.processDocument(new ByteArrayInputStream(body), contentType,
+                                axis2MsgCtx);
+                    }
                 } else if (msg instanceof BytesMessage) {
                     if (builder instanceof DataSourceMessageBuilder) {
                         documentElement = ((DataSourceMessageBuilder) builder).processDocument(
@@ -235,18 +264,15 @@ public class JMSInjectHandler {
                 } else if (msg instanceof MapMessage) {
                     documentElement = convertJMSMapToXML((MapMessage) msg);
                 }
+                if (buildPayload && documentElement != null) {
+                    documentElement.build();
+                }
             } catch (Exception ex) {
                 // Handle message building error
                 log.error("Error while building the message", ex);
                 msgCtx.setProperty(SynapseConstants.ERROR_CODE, GenericConstants.INBOUND_BUILD_ERROR);
                 msgCtx.setProperty(SynapseConstants.ERROR_MESSAGE, ex.getMessage());
-                SequenceMediator faultSequence = getFaultSequence(msgCtx, inboundEndpoint);
-                faultSequence.mediate(msgCtx);
-
-                if (isRollback(msgCtx) || isToRecover(msgCtx)) {
-                    return false;
-                }
-                return true;
+                return new ReadMessage(msgCtx, context, false);
             }
 
             // Setting JMSXDeliveryCount header on the message context
@@ -259,14 +285,43 @@ public class JMSInjectHandler {
                 }
             }
 
-            // Inject the message to the sequence.
             msgCtx.setEnvelope(TransportUtils.createSOAPEnvelope(documentElement));
+            return new ReadMessage(msgCtx, context, true);
+        } catch (SynapseException se) {
+            throw se;
+        } catch (Exception e) {
+            log.error("Error while processing the JMS Message", e);
+            throw new SynapseException("Error while processing the JMS Message", e);
+        }
+    }
+
+    /**
+     * Injects the message read into the message context, or mediates the fault sequence if the message could not be
+     * built.
+     *
+     * @return true if the message is to be committed or acknowledged
+     */
+    private boolean inject(org.apache.synapse.MessageContext msgCtx, InjectionContext context, boolean built)
+            throws SynapseException {
+        InboundEndpoint inboundEndpoint = context.inboundEndpoint;
+        try {
+            CustomLogSetter.getInstance().setLogAppender(context.artifactContainerName);
+            if (!built) {
+                SequenceMediator faultSequence = getFaultSequence(msgCtx, inboundEndpoint);
+                faultSequence.mediate(msgCtx);
+                return !(isRollback(msgCtx) || isToRecover(msgCtx));
+            }
+            // Inject the message to the sequence.
             if (injectingSeq == null || injectingSeq.equals("")) {
                 log.error("Sequence name not specified. Sequence : " + injectingSeq);
                 return false;
             }
+            // The sequences are looked up for each message rather than kept in the injection context, as they are
+            // hot deployed apart from the inbound endpoint. A sequence deployed again replaces the instance held by
+            // the configuration without deploying the endpoint again, hence a sequence kept for the lifetime of the
+            // endpoint would keep mediating with the undeployed instance.
             SequenceMediator seq = (SequenceMediator) synapseEnvironment.getSynapseConfiguration()
-                    .getSequence(injectingSeq);           
+                    .getSequence(injectingSeq);
             if (seq != null) {
                 if (log.isDebugEnabled()) {
                     log.debug("injecting message to sequence : " + injectingSeq);
@@ -297,6 +352,87 @@ public class JMSInjectHandler {
         return true;
     }
 
+    /**
+     * Returns the parts of the injection which are the same for all the messages of the inbound endpoint, which are
+     * resolved once since the inbound endpoint is deployed again when its parameters change.
+     */
+    private InjectionContext getInjectionContext(org.apache.synapse.MessageContext msgCtx, String name) {
+        InjectionContext context = injectionContext;
+        if (context == null) {
+            InboundEndpoint inboundEndpoint = msgCtx.getConfiguration().getInboundEndpoint(name);
+            if (inboundEndpoint == null) {
+                throw new SynapseException("Inbound endpoint " + name + " is not found");
+            }
+            context = new InjectionContext(inboundEndpoint);
+            injectionContext = context;
+        }
+        return context;
+    }
+
+    /**
+     * Resolves the builder of the content type once, as the builders are registered when Axis2 is started. Only the
+     * first content types seen are kept, so that content types taken from the messages do not grow the cache.
+     */
+    private Builder getBuilder(String contentType, MessageContext axis2MsgCtx) throws AxisFault {
+        int index = contentType.indexOf(';');
+        String type = index > 0 ? contentType.substring(0, index) : contentType;
+        Builder builder = builders.get(type);
+        if (builder == null) {
+            builder = BuilderUtil.getBuilderFromSelector(type, axis2MsgCtx);
+            if (builder == null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("No message builder found for type '" + type
+                            + "'. Falling back to SOAP.");
+                }
+                builder = SOAP_BUILDER;
+            }
+            if (builders.size() < MAX_CACHED_BUILDERS) {
+                builders.putIfAbsent(type, builder);
+            }
+        } else if (builder != SOAP_BUILDER) {
+            // the builder selector responds with the received content type, which is skipped for a cached builder
+            axis2MsgCtx.setProperty(Constants.Configuration.MESSAGE_TYPE, type);
+        }
+        return builder;
+    }
+
+    /**
+     * Builds a text message without encoding the whole text to bytes. Text builders read the text as it is, while
+     * the other builders read it through a stream which encodes the text as it is read.
+     */
+    private OMElement buildTextMessage(Builder builder, String text, String contentType, MessageContext axis2MsgCtx)
+            throws AxisFault {
+        if (builder instanceof TextMessageBuilder) {
+            return ((TextMessageBuilder) builder).processDocument(text, contentType, axis2MsgCtx);
+        }
+        String charset = contentType != null ? BuilderUtil.getCharSetEncoding(contentType) : null;
+        if (charset == null) {
+            charset = MessageContext.DEFAULT_CHAR_SET_ENCODING;
+        }
+        axis2MsgCtx.setProperty(Constants.Configuration.CHARACTER_SET_ENCODING, charset);
+        return builder.processDocument(new ReaderInputStream(new StringReader(text), charset), contentType,
+                axis2MsgCtx);
+    }
+
+    /**
+     * Returns the reply sender of the destination. The senders share a connection factory bound to the current
+     * connection of the consumer, so that the factory is not looked up again for each reply.
+     */
+    private synchronized JMSReplySender getReplySender(Destination destination) {
+        Connection currentConnection = connection;
+        if (replyConnectionFactory == null || replyConnection != currentConnection) {
+            replyConnectionFactory = new CachedJMSConnectionFactory(replyProperties, currentConnection);
+            replyConnection = currentConnection;
+            replySenders.clear();
+        }
+        JMSReplySender replySender = replySenders.get(destination);
+        if (replySender == null) {
+            replySender = new JMSReplySender(destination, replyConnectionFactory, strUserName, strPassword);
+            replySenders.put(destination, replySender);
+        }
+        return replySender;
+    }
+
     /**
      * Evaluate if JMS session need to be rollback judging
      * from properties set to message context
@@ -386,4 +522,56 @@ public class JMSInjectHandler {
         return faultSequence;
     }
 
+    /**
+     * A message read into its message context, which is injected apart from the session which received it.
+     */
+    public interface PreparedMessage {
+
+        /**
+         * Injects the message.
+         *
+         * @return true if the message is to be committed or acknowledged
+         * @throws SynapseException if the message cannot be injected
+         */
+        boolean inject() throws SynapseException;
+    }
+
+    private final class ReadMessage implements PreparedMessage {
+
+        private final org.apache.synapse.MessageContext msgCtx;
+        private final InjectionContext context;
+        private final boolean built;
+
+        private ReadMessage(org.apache.synapse.MessageContext msgCtx, InjectionContext context, boolean built) {
+            this.msgCtx = msgCtx;
+            this.context = context;
+            this.built = built;
+        }
+
+        @Override
+        public boolean inject() throws SynapseException {
+            return JMSInjectHandler.this.inject(msgCtx, context, built);
+        }
+    }
+
+    /**
+     * The inbound endpoint and its parameters, as applied to each injected message. The injecting and fault
+     * sequences are not part of it, as they may be deployed again while the inbound endpoint is not.
+     */
+    private static final class InjectionContext {
+
+        private final InboundEndpoint inboundEndpoint;
+        private final List<Map.Entry<String, String>> parameters;
+        private final String artifactContainerName;
+        private final String hyphenSupport;
+
+        private InjectionContext(InboundEndpoint inboundEndpoint) {
+            this.inboundEndpoint = inboundEndpoint;
+            this.parameters = Collections.unmodifiableList(
+                    new ArrayList<>(new LinkedHashMap<>(inboundEndpoint.getParametersMap()).entrySet()));
+            this.artifactContainerName = inboundEndpoint.getArtifactContainerName();
+            String hyphenMode = inboundEndpoint.getParameter(JMSConstants.PARAM_JMS_HYPHEN_MODE);
+            this.hyphenSupport = hyphenMode != null ? hyphenMode : JMSConstants.DEFAULT_HYPHEN_SUPPORT;
+        }
+    }
 }
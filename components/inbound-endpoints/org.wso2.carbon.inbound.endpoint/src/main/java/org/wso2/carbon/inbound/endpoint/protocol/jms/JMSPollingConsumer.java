@@ -20,10 +20,21 @@ package org.wso2.carbon.inbound.endpoint.protocol.jms;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.synapse.SynapseException;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.inbound.endpoint.protocol.jms.factory.CachedJMSConnectionFactory;
+import org.wso2.carbon.inbound.endpoint.protocol.jms.factory.SharedJMSConnection;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import javax.jms.Connection;
 import javax.jms.Destination;
 import javax.jms.JMSException;
@@ -73,9 +84,34 @@ public class JMSPollingConsumer {
     // resets the JMS connection after the polling suspension is enabled.
     // This will create a new subscription
     private boolean resetConnectionAfterPollingSuspension = false;
+    // whether a message was received during the last poll cycle
+    private boolean messageReceived = false;
+    private int batchSize = JMSConstants.DEFAULT_BATCH_SIZE;
+    private long batchTimeout = JMSConstants.DEFAULT_BATCH_TIMEOUT;
+    // number of messages to be processed one at a time after a batch is rolled back
+    private int isolatedMessageCount = 0;
+    private int orderedWorkerCount = 0;
+    private String orderingKeyProperty = JMSConstants.DEFAULT_ORDERING_KEY_PROPERTY;
+    // single threaded executors injecting the messages of a batch, created on the first batch
+    private ExecutorService[] orderedWorkers;
+    // spreads the messages without an ordering key over the workers
+    private int nextWorker = 0;
 
     public JMSPollingConsumer( Properties jmsProperties, long scanInterval, String name) {
-        this.jmsConnectionFactory = new CachedJMSConnectionFactory(jmsProperties);
+        this(jmsProperties, scanInterval, name, null);
+    }
+
+    /**
+     * @param sharedConnection connection shared with the other consumers of the inbound endpoint, or null if this
+     *                         consumer creates a connection of its own
+     */
+    public JMSPollingConsumer(Properties jmsProperties, long scanInterval, String name,
+                              SharedJMSConnection sharedConnection) {
+        if (sharedConnection != null) {
+            this.jmsConnectionFactory = new CachedJMSConnectionFactory(jmsProperties, sharedConnection);
+        } else {
+            this.jmsConnectionFactory = new CachedJMSConnectionFactory(jmsProperties);
+        }
         strUserName = jmsProperties.getProperty(JMSConstants.PARAM_JMS_USERNAME);
         strPassword = jmsProperties.getProperty(JMSConstants.PARAM_JMS_PASSWORD);
         this.name = name;
@@ -150,6 +186,43 @@ public class JMSPollingConsumer {
                 this.reconnectDuration = null;
             }
         }
+        String strBatchSize = jmsProperties.getProperty(JMSConstants.BATCH_SIZE);
+        if (strBatchSize != null) {
+            try {
+                this.batchSize = Math.max(1, Integer.parseInt(strBatchSize.trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid value for " + JMSConstants.BATCH_SIZE + " : " + strBatchSize);
+            }
+        }
+        String strBatchTimeout = jmsProperties.getProperty(JMSConstants.BATCH_TIMEOUT);
+        if (strBatchTimeout != null) {
+            try {
+                this.batchTimeout = Math.max(0, Long.parseLong(strBatchTimeout.trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid value for " + JMSConstants.BATCH_TIMEOUT + " : " + strBatchTimeout);
+            }
+        }
+        String strOrderedWorkers = jmsProperties.getProperty(JMSConstants.ORDERED_WORKERS);
+        if (strOrderedWorkers != null) {
+            try {
+                this.orderedWorkerCount = Integer.parseInt(strOrderedWorkers.trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid value for " + JMSConstants.ORDERED_WORKERS + " : " + strOrderedWorkers);
+            }
+            if (orderedWorkerCount > 1 && batchSize == 1) {
+                logger.warn(JMSConstants.ORDERED_WORKERS + " of Inbound Endpoint " + name + " requires a "
+                        + JMSConstants.BATCH_SIZE + " greater than 1. Messages will be injected one at a time.");
+            } else if (orderedWorkerCount > 1 && !isCommittedByConsumer()) {
+                // an automatically acknowledged message would be lost if its injection fails
+                logger.warn(JMSConstants.ORDERED_WORKERS + " of Inbound Endpoint " + name + " requires a "
+                        + "transacted session or CLIENT_ACKNOWLEDGE. Messages will be injected one at a time.");
+                orderedWorkerCount = 0;
+            }
+        }
+        String strOrderingKeyProperty = jmsProperties.getProperty(JMSConstants.ORDERING_KEY_PROPERTY);
+        if (strOrderingKeyProperty != null && !strOrderingKeyProperty.trim().isEmpty()) {
+            this.orderingKeyProperty = strOrderingKeyProperty.trim();
+        }
         this.replyDestinationName = jmsProperties.getProperty(JMSConstants.PARAM_REPLY_DESTINATION);
         this.scanInterval = scanInterval;
         this.lastRanTime = null;
@@ -172,6 +245,17 @@ public class JMSPollingConsumer {
      * interval. Timestamp based check is done to avoid that.
      */
     public void execute() {
+        execute(true);
+    }
+
+    /**
+     * Runs a poll cycle unless the polling is suspended.
+     *
+     * @param checkInterval whether to skip the cycle when the previous cycle started less than the scan interval ago
+     * @return true if at least one message was received during the cycle
+     */
+    public boolean execute(boolean checkInterval) {
+        messageReceived = false;
         try {
             logger.debug("Executing : JMS Inbound EP : ");
             // Check if the cycles are running in correct interval and start
@@ -179,7 +263,7 @@ public class JMSPollingConsumer {
             if (pollingSuspensionLimit == 0) {
                 logger.info("Polling is suspended permanently since \""
                         + JMSConstants.JMS_CLIENT_POLLING_RETRIES_BEFORE_SUSPENSION + "\" is Zero.");
-                return;
+                return false;
             }
 
             long currentTime = (new Date()).getTime();
@@ -195,11 +279,11 @@ public class JMSPollingConsumer {
                                 "Polling is suspended. Polling will be re-activated in " + (pollingSuspensionPeriod - (
                                         currentTime - lastRanTime)) + " milliseconds.");
                     }
-                    return;
+                    return false;
                 }
             }
 
-            if (lastRanTime == null || ((lastRanTime + (scanInterval)) <= currentTime)) {
+            if (!checkInterval || lastRanTime == null || ((lastRanTime + (scanInterval)) <= currentTime)) {
                 lastRanTime = currentTime;
                 poll();
             } else if (logger.isDebugEnabled()) {
@@ -211,16 +295,20 @@ public class JMSPollingConsumer {
         } catch (Exception e) {
             logger.error("Error while retrieving or injecting JMS message. " + e.getMessage(), e);
         }
+        return messageReceived;
     }
 
     /**
      * Resets the JMS connection if the polling is restarted. This will enable making a new connection
-     * and the redelivery attempts that were accounted earlier will be discarded.
+     * and the redelivery attempts that were accounted earlier will be discarded. A shared connection is created again
+     * by the next poll, and is closed once the other consumers release it.
      */
     private void resetConnection() {
         logger.info("Resetting the JMS connection.");
         destroy();
-        jmsConnectionFactory.createConnection(strUserName, strPassword);
+        if (!jmsConnectionFactory.isConnectionShared()) {
+            jmsConnectionFactory.createConnection(strUserName, strPassword);
+        }
     }
 
     /**
@@ -280,7 +368,18 @@ public class JMSPollingConsumer {
                 logger.debug("Inbound JMS Endpoint. No JMS message received.");
                 return null;
             }
+            messageReceived = true;
             while (msg != null) {
+                if (injectHandler != null && isBatchEnabled()) {
+                    if (injectBatch(msg)) {
+                        break;
+                    }
+                    msg = receiveMessage(messageConsumer);
+                    continue;
+                }
+                if (isolatedMessageCount > 0) {
+                    isolatedMessageCount--;
+                }
                 if (JMSUtils.inferJMSMessageType(msg) == null) {
                     logger.error("Invalid JMS Message type.");
                     return null;
@@ -355,24 +454,8 @@ public class JMSPollingConsumer {
                         }
                     }
 
-                    if (pollingSuspensionEnabled) {
-                        if (!commitOrAck) {
-                            currentNegativeCommitOrAckCount++;
-                            if (currentNegativeCommitOrAckCount >= pollingSuspensionLimit) {
-                                pollingSuspended = true;
-                                currentNegativeCommitOrAckCount = 0;
-                                logger.info(
-                                        "Suspending polling as the pollingSuspensionLimit of " + pollingSuspensionLimit
-                                                + " reached. Polling will be re-started after "
-                                                + pollingSuspensionPeriod + " milliseconds");
-                                if (resetConnectionAfterPollingSuspension) {
-                                    resetConnection();
-                                }
-                                break;
-                            }
-                        } else {
-                            currentNegativeCommitOrAckCount = 0;
-                        }
+                    if (updatePollingSuspension(commitOrAck)) {
+                        break;
                     }
 
                 } else {
@@ -438,6 +521,12 @@ public class JMSPollingConsumer {
     }
 
     public void destroy() {
+        if (orderedWorkers != null) {
+            for (ExecutorService worker : orderedWorkers) {
+                worker.shutdown();
+            }
+            orderedWorkers = null;
+        }
         synchronized (jmsConnectionFactory) {
             if (messageConsumer != null) {
                 jmsConnectionFactory.closeConsumer(messageConsumer, true);
@@ -451,6 +540,232 @@ public class JMSPollingConsumer {
         }
     }
     
+    /**
+     * Batches are used when the messages are committed or acknowledged by the consumer, i.e. when the session is
+     * transacted or uses client acknowledgement, except for the messages isolated after a failed batch.
+     */
+    private boolean isBatchEnabled() {
+        return batchSize > 1 && isolatedMessageCount == 0 && isCommittedByConsumer();
+    }
+
+    private boolean isCommittedByConsumer() {
+        return jmsConnectionFactory.isTransactedSession()
+                || jmsConnectionFactory.getSessionAckMode() == Session.CLIENT_ACKNOWLEDGE;
+    }
+
+    /**
+     * Injects up to the batch size of messages received within the batch timeout, starting with the given message,
+     * and commits or acknowledges them at once. If a message of the batch fails, the messages received so far are
+     * rolled back or recovered together, since neither a transaction nor a client acknowledgement can exclude a
+     * single message. The messages of the failed batch are then processed one at a time when they are redelivered,
+     * so that only the failing message is rolled back again.
+     * <p>
+     * When the ordered workers are enabled the messages of the batch are injected concurrently, where the messages
+     * with the same ordering key are injected one after the other by the same worker in the order they are received.
+     * The messages are read by the polling thread, since they are bound to its session, and the batch is committed or
+     * rolled back once all its messages are injected.
+     * </p>
+     *
+     * @param firstMessage the first message of the batch
+     * @return true if the polling is suspended due to the failure of the batch
+     * @throws JMSException if the batch cannot be received, committed or rolled back
+     */
+    private boolean injectBatch(Message firstMessage) throws JMSException {
+        long deadline = System.currentTimeMillis() + batchTimeout;
+        if (replyDestination != null) {
+            injectHandler.setReplyDestination(replyDestination);
+        }
+        injectHandler.setConnection(connection);
+
+        Message msg = firstMessage;
+        Message lastMsg = null;
+        int count = 0;
+        boolean commitOrAck = true;
+        List<Future<Boolean>> results = orderedWorkerCount > 1 ? new ArrayList<Future<Boolean>>() : null;
+        while (msg != null) {
+            lastMsg = msg;
+            count++;
+            if (JMSUtils.inferJMSMessageType(msg) == null) {
+                logger.error("Invalid JMS Message type.");
+                commitOrAck = false;
+                break;
+            }
+            if (results != null) {
+                try {
+                    results.add(dispatch(msg));
+                } catch (SynapseException e) {
+                    logger.error("Error while reading a JMS message of Inbound Endpoint " + name, e);
+                    commitOrAck = false;
+                    break;
+                }
+            } else {
+                commitOrAck = injectHandler.invoke(msg, name);
+            }
+            if (!commitOrAck || count >= batchSize) {
+                break;
+            }
+            long remainingTime = deadline - System.currentTimeMillis();
+            if (remainingTime <= 0) {
+                break;
+            }
+            msg = messageConsumer.receive(remainingTime);
+        }
+        if (results != null) {
+            commitOrAck = awaitInjection(results) && commitOrAck;
+        }
+
+        if (jmsConnectionFactory.isTransactedSession() && session.getTransacted()) {
+            if (commitOrAck) {
+                session.commit();
+            } else {
+                session.rollback();
+            }
+        } else if (commitOrAck) {
+            // acknowledges all the messages of the batch consumed by the session
+            lastMsg.acknowledge();
+        } else {
+            jmsConnectionFactory.recoverSession(session, false);
+            // Need to create a new consumer and session since
+            // we need to rollback the messages
+            jmsConnectionFactory.closeConsumer(messageConsumer);
+            jmsConnectionFactory.closeSession(session);
+            session = jmsConnectionFactory.getSession(connection);
+            messageConsumer = jmsConnectionFactory.getMessageConsumer(session, destination);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Batch of " + count + " messages ending with message : " + lastMsg.getJMSMessageID()
+                    + (commitOrAck ? " committed" : " rolled back"));
+        }
+        if (!commitOrAck) {
+            isolatedMessageCount = count;
+        }
+        return updatePollingSuspension(commitOrAck);
+    }
+
+    /**
+     * Reads the message and injects it with the worker selected by its ordering key. The messages without an ordering
+     * key are spread over the workers in turn.
+     */
+    private Future<Boolean> dispatch(Message msg) throws JMSException {
+        ExecutorService[] workers = getOrderedWorkers();
+        String key = msg.getStringProperty(orderingKeyProperty);
+        int worker;
+        if (key != null) {
+            worker = (key.hashCode() & Integer.MAX_VALUE) % workers.length;
+        } else {
+            worker = nextWorker;
+            nextWorker = (nextWorker + 1) % workers.length;
+        }
+        return workers[worker].submit(new OrderedInjection(injectHandler.prepare(msg, name)));
+    }
+
+    /**
+     * Waits until all the dispatched messages are injected, even after one of them fails, so that the batch is not
+     * committed or rolled back while its messages are being injected.
+     *
+     * @return true if all the messages are injected successfully
+     */
+    private boolean awaitInjection(List<Future<Boolean>> results) {
+        boolean commitOrAck = true;
+        boolean interrupted = false;
+        for (Future<Boolean> result : results) {
+            while (true) {
+                try {
+                    if (!result.get()) {
+                        commitOrAck = false;
+                    }
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    logger.error("Error while injecting a JMS message of Inbound Endpoint " + name, e.getCause());
+                    commitOrAck = false;
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return commitOrAck;
+    }
+
+    /**
+     * Injects a message read by the polling thread on an ordered worker, in the tenant of the polling thread since the
+     * workers do not belong to a tenant.
+     */
+    private static final class OrderedInjection implements Callable<Boolean> {
+
+        private final JMSInjectHandler.PreparedMessage message;
+        private final String tenantDomain;
+
+        private OrderedInjection(JMSInjectHandler.PreparedMessage message) {
+            this.message = message;
+            this.tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
+        }
+
+        @Override
+        public Boolean call() {
+            if (tenantDomain == null || MultitenantConstants.SUPER_TENANT_DOMAIN_NAME.equals(tenantDomain)) {
+                return message.inject();
+            }
+            PrivilegedCarbonContext.startTenantFlow();
+            try {
+                PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomain, true);
+                return message.inject();
+            } finally {
+                PrivilegedCarbonContext.endTenantFlow();
+            }
+        }
+    }
+
+    private ExecutorService[] getOrderedWorkers() {
+        if (orderedWorkers == null) {
+            ExecutorService[] workers = new ExecutorService[orderedWorkerCount];
+            for (int i = 0; i < workers.length; i++) {
+                final String threadName = "jms-inbound-" + name + "-worker-" + i;
+                workers[i] = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        return new Thread(runnable, threadName);
+                    }
+                });
+            }
+            orderedWorkers = workers;
+        }
+        return orderedWorkers;
+    }
+
+    /**
+     * Counts the consecutive messages or batches which are not committed or acknowledged, and suspends the polling
+     * once they reach the polling suspension limit.
+     *
+     * @param commitOrAck whether the last message or batch is committed or acknowledged
+     * @return true if the polling is suspended
+     */
+    private boolean updatePollingSuspension(boolean commitOrAck) {
+        if (pollingSuspensionEnabled) {
+            if (!commitOrAck) {
+                currentNegativeCommitOrAckCount++;
+                if (currentNegativeCommitOrAckCount >= pollingSuspensionLimit) {
+                    pollingSuspended = true;
+                    currentNegativeCommitOrAckCount = 0;
+                    logger.info(
+                            "Suspending polling as the pollingSuspensionLimit of " + pollingSuspensionLimit
+                                    + " reached. Polling will be re-started after "
+                                    + pollingSuspensionPeriod + " milliseconds");
+                    if (resetConnectionAfterPollingSuspension) {
+                        resetConnection();
+                    }
+                    return true;
+                }
+            } else {
+                currentNegativeCommitOrAckCount = 0;
+            }
+        }
+        return false;
+    }
+
     private Message receiveMessage(MessageConsumer messageConsumer) throws JMSException{
         Message msg = null;
         if(iReceiveTimeout == null){
@@ -30,6 +30,7 @@ import org.apache.synapse.task.TaskStartupObserver;
 import org.wso2.carbon.inbound.endpoint.common.InboundRequestProcessorImpl;
 import org.wso2.carbon.inbound.endpoint.common.InboundTask;
 import org.wso2.carbon.inbound.endpoint.protocol.PollingConstants;
+import org.wso2.carbon.inbound.endpoint.protocol.jms.factory.SharedJMSConnection;
 
 public class JMSProcessor extends InboundRequestProcessorImpl implements TaskStartupObserver, InboundTaskProcessor {
 
@@ -43,6 +44,7 @@ public class JMSProcessor extends InboundRequestProcessorImpl implements TaskSta
     private String injectingSeq;
     private String onErrorSeq;
     private int concurrentConsumers;
+    private SharedJMSConnection sharedConnection;
 
     public JMSProcessor(InboundProcessorParams params) {
         this.name = params.getName();
@@ -85,8 +87,13 @@ public class JMSProcessor extends InboundRequestProcessorImpl implements TaskSta
      */
     public void init() {
         log.info("Initializing inbound JMS listener for inbound endpoint " + name);
+        if (concurrentConsumers > 1 && isConnectionCached()) {
+            // the consumers use sessions of their own on a single connection
+            sharedConnection = new SharedJMSConnection();
+        }
         for (int consumers = 0; consumers < concurrentConsumers; consumers++) {
-            JMSPollingConsumer jmsPollingConsumer = new JMSPollingConsumer( jmsProperties, interval, name);
+            JMSPollingConsumer jmsPollingConsumer = new JMSPollingConsumer(jmsProperties, interval, name,
+                    sharedConnection);
             jmsPollingConsumer.registerHandler(new JMSInjectHandler(injectingSeq, onErrorSeq, sequential,
                     synapseEnvironment, jmsProperties));
             pollingConsumers.add(jmsPollingConsumer);
@@ -101,8 +108,20 @@ public class JMSProcessor extends InboundRequestProcessorImpl implements TaskSta
         for (JMSPollingConsumer pollingConsumer : pollingConsumers) {
             pollingConsumer.destroy();
         }
+        if (sharedConnection != null) {
+            sharedConnection.close();
+        }
         super.destroy();
     }
+
+    private boolean isConnectionCached() {
+        String cacheLevel = jmsProperties.getProperty(JMSConstants.PARAM_CACHE_LEVEL);
+        try {
+            return cacheLevel != null && Integer.parseInt(cacheLevel.trim()) >= JMSConstants.CACHE_CONNECTION;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
     /**
      * Register/start the schedule service
      * */
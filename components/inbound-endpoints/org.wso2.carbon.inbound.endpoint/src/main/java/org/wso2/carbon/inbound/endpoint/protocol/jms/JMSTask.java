@@ -21,6 +21,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.synapse.core.SynapseEnvironment;
 import org.wso2.carbon.inbound.endpoint.common.InboundTask;
+import org.wso2.carbon.inbound.endpoint.common.ScheduledPollingTask;
 import org.wso2.carbon.ntask.core.impl.LocalTaskActionListener;
 
 import java.util.Properties;
@@ -31,7 +32,7 @@ import java.util.Properties;
  * is required
  * 
  */
-public class JMSTask extends InboundTask implements LocalTaskActionListener {
+public class JMSTask extends InboundTask implements LocalTaskActionListener, ScheduledPollingTask {
     private static final Log logger = LogFactory.getLog(JMSTask.class.getName());
 
     private JMSPollingConsumer jmsPollingConsumer;
@@ -47,6 +48,12 @@ public class JMSTask extends InboundTask implements LocalTaskActionListener {
         jmsPollingConsumer.execute();
     }
 
+    @Override
+    public boolean executeCycle() {
+        logger.debug("Executing JMS Task Cycle.");
+        return jmsPollingConsumer.execute(false);
+    }
+
     @Override
     public Properties getInboundProperties() {
         return jmsPollingConsumer.getInboundProperites();
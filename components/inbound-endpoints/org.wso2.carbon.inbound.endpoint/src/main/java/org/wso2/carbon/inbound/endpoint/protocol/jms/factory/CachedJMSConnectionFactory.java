@@ -33,6 +33,11 @@ public class CachedJMSConnectionFactory extends JMSConnectionFactory {
     private Connection cachedConnection = null;
     private Session cachedSession = null;
     private MessageConsumer cachedMessageConsumer = null;
+    private SharedJMSConnection sharedConnection = null;
+    // the shared connection acquired by this factory and not yet released
+    private Connection acquiredConnection = null;
+    // the shared connection of the cached session and consumer
+    private Connection lastAcquiredConnection = null;
     
     public CachedJMSConnectionFactory(Properties properties) {
         super(properties);
@@ -44,6 +49,16 @@ public class CachedJMSConnectionFactory extends JMSConnectionFactory {
         this.cachedConnection = cachedConnection;
         setValues(properties);
     }
+
+    /**
+     * Creates a factory which uses the given connection shared with the other consumers of the inbound endpoint,
+     * while the session and the consumer are cached by this factory according to the cache level.
+     */
+    public CachedJMSConnectionFactory(Properties properties, SharedJMSConnection sharedConnection) {
+        super(properties);
+        this.sharedConnection = sharedConnection;
+        setValues(properties);
+    }
     
     private void setValues(Properties properties){
         String cacheLevel = properties.getProperty(JMSConstants.PARAM_CACHE_LEVEL);
@@ -75,6 +90,9 @@ public class CachedJMSConnectionFactory extends JMSConnectionFactory {
             logger.error("JMS Exception while starting connection for factory '"
                     + this.connectionFactoryString + "' ", e);
             resetCache();
+            if (sharedConnection != null) {
+                releaseSharedConnection(connection, true);
+            }
             return null;
         }        
         return connection;
@@ -82,18 +100,61 @@ public class CachedJMSConnectionFactory extends JMSConnectionFactory {
 
     @Override
     public Connection createConnection(String userName, String password){
-        Connection connection;
-        if(userName == null || password == null){
-        	connection = super.createConnection();
-        }else{
-        	connection = super.createConnection(userName, password);
+        if (sharedConnection != null) {
+            return acquireSharedConnection(userName, password);
         }
+        Connection connection = newConnection(userName, password);
         if (this.cacheLevel >= JMSConstants.CACHE_CONNECTION) {
             cachedConnection = connection;
         }
         return connection;
     }
 
+    /**
+     * Acquires the shared connection once until it is released, so that each consumer is counted once by the shared
+     * connection. The cached session and consumer are dropped when the connection is created again, since they
+     * belong to the connection invalidated by another consumer.
+     */
+    private synchronized Connection acquireSharedConnection(String userName, String password) {
+        if (acquiredConnection == null) {
+            acquiredConnection = sharedConnection.acquire(this, userName, password);
+            if (acquiredConnection != null && acquiredConnection != lastAcquiredConnection) {
+                resetCache();
+                lastAcquiredConnection = acquiredConnection;
+            }
+        }
+        return acquiredConnection;
+    }
+
+    /**
+     * Releases the shared connection if it is the connection acquired by this factory, after invalidating it if it
+     * has failed. Releasing it again has no effect, as the consumers release their resources once more after a
+     * failure.
+     */
+    private synchronized void releaseSharedConnection(Connection connection, boolean invalidate) {
+        if (invalidate) {
+            sharedConnection.invalidate(connection);
+        }
+        if (connection != null && connection == acquiredConnection) {
+            acquiredConnection = null;
+            sharedConnection.release(connection);
+        }
+    }
+
+    /**
+     * @return true if the connection is shared with the other consumers of the inbound endpoint
+     */
+    public boolean isConnectionShared() {
+        return sharedConnection != null;
+    }
+
+    Connection newConnection(String userName, String password) {
+        if (userName == null || password == null) {
+            return super.createConnection();
+        }
+        return super.createConnection(userName, password);
+    }
+
     @Override
     public Session getSession(Connection connection) {
         if (cachedSession == null) {
@@ -146,6 +207,11 @@ public class CachedJMSConnectionFactory extends JMSConnectionFactory {
     }    
     
     public boolean closeConnection() {
+        if (sharedConnection != null) {
+            // the other consumers keep using the connection until they release it
+            releaseSharedConnection(acquiredConnection, true);
+            return true;
+        }
         try {
             if (cachedConnection != null) {
                 cachedConnection.close();
@@ -171,6 +237,12 @@ public class CachedJMSConnectionFactory extends JMSConnectionFactory {
     }
     
     public boolean closeConnection(Connection connection, boolean forcefully) {
+        if (sharedConnection != null) {
+            // the shared connection is kept open for the other consumers, and is only closed once they release it
+            // if it has failed
+            releaseSharedConnection(connection, forcefully);
+            return false;
+        }
         try {
             if (this.cacheLevel < JMSConstants.CACHE_CONNECTION || forcefully) {
                 connection.close();
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.inbound.endpoint.protocol.jms.factory;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import javax.jms.Connection;
+import javax.jms.JMSException;
+
+/**
+ * A JMS connection shared by the concurrent consumers of an inbound endpoint. A JMS connection can be used by many
+ * threads, so the consumers only need a session and a consumer of their own. The connection is created by the first
+ * consumer which needs it and is created again after it is invalidated due to a failure. The consumers acquire the
+ * connection for each poll and release it afterwards, and an invalidated connection is only closed once it is
+ * released by all the consumers still using it.
+ */
+public class SharedJMSConnection {
+
+    private static final Log logger = LogFactory.getLog(SharedJMSConnection.class);
+
+    private Connection connection;
+
+    // number of consumers using each connection, including the invalidated connections which are still in use
+    private final Map<Connection, Integer> users = new IdentityHashMap<>();
+
+    synchronized Connection acquire(CachedJMSConnectionFactory factory, String userName, String password) {
+        if (connection == null) {
+            connection = factory.newConnection(userName, password);
+            if (connection == null) {
+                return null;
+            }
+        }
+        Integer count = users.get(connection);
+        users.put(connection, count == null ? 1 : count + 1);
+        return connection;
+    }
+
+    /**
+     * Releases a connection acquired by a consumer, closing it if it is invalidated and no other consumer uses it.
+     *
+     * @param connection the connection used by the consumer
+     */
+    synchronized void release(Connection connection) {
+        Integer count = users.get(connection);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            users.put(connection, count - 1);
+            return;
+        }
+        users.remove(connection);
+        if (connection != this.connection) {
+            close(connection);
+        }
+    }
+
+    /**
+     * Invalidates the given connection if it is still the shared connection, so that the next consumer creates it
+     * again. A consumer which failed with an older connection does not invalidate the connection created again by
+     * another consumer, and the consumers still using the invalidated connection can complete their polls.
+     *
+     * @param connection the connection used by the consumer
+     */
+    synchronized void invalidate(Connection connection) {
+        if (connection != null && connection == this.connection) {
+            this.connection = null;
+            if (!users.containsKey(connection)) {
+                close(connection);
+            }
+        }
+    }
+
+    /**
+     * Closes the shared connection and the invalidated connections, whether they are in use or not.
+     */
+    public synchronized void close() {
+        if (connection != null && !users.containsKey(connection)) {
+            close(connection);
+        }
+        connection = null;
+        for (Connection usedConnection : users.keySet()) {
+            close(usedConnection);
+        }
+        users.clear();
+    }
+
+    private void close(Connection connection) {
+        try {
+            connection.close();
+        } catch (JMSException e) {
+            logger.error("JMS Exception while closing the shared connection.", e);
+        }
+    }
+}
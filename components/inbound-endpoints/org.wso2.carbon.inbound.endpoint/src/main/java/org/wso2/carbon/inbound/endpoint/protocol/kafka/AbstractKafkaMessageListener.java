@@ -36,12 +36,13 @@ public abstract class AbstractKafkaMessageListener {
             .getLog(KAFKAMessageListener.class.getName());
 
     /**
-     * the consumer types are high level and simple,high level is used for kafka high level configuration
-     * and simple is used for kafka low level configuration
+     * the consumer types are high level, simple and group,high level is used for kafka high level configuration,
+     * simple is used for kafka low level configuration and group is used for the consumer group coordinated by the
+     * kafka brokers
      */
     public static enum CONSUMER_TYPE {
 
-        HIGHLEVEL("highlevel"), SIMPLE("simple");
+        HIGHLEVEL("highlevel"), SIMPLE("simple"), GROUP("group");
         String name;
 
         private CONSUMER_TYPE(String name) {
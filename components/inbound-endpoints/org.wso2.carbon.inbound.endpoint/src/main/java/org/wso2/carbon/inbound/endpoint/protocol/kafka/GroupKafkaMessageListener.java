@@ -0,0 +1,619 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.inbound.endpoint.protocol.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.synapse.SynapseException;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Consumes the messages as a member of a consumer group coordinated by the kafka brokers.
+ * <p>
+ * Each poll cycle receives up to max.poll.records messages. The messages of each partition are injected in order by
+ * the worker thread the partition is assigned to, while the partition is paused so that the next cycles keep polling
+ * the other partitions without receiving it again. Once the messages of a partition are injected, their offsets are
+ * committed asynchronously and the partition is resumed. If a message is not injected, it is injected again, waiting
+ * injection.retry.backoff.ms before the first retry and twice as long before each next one, until it is injected, so
+ * that by default no message is lost while the partition stays paused. If injection.retries is set, the message is
+ * then sent to the error.topic if one is set, or skipped if injection.failure.skip is true, and the partition is
+ * committed past it. Otherwise, or if the message cannot be sent to the error topic, or the consumer is closed while
+ * it is retried, the partition is moved back to the message so that it is received again. When partitions are revoked by a rebalance, their messages being
+ * injected are waited for and their offsets are committed before the partitions are handed over to another member.
+ * </p>
+ */
+public class GroupKafkaMessageListener extends AbstractKafkaMessageListener {
+
+    private static final long CLOSE_TIMEOUT = 30000;
+
+    private final long pollTimeout;
+    private final int injectionRetries;
+    private final long injectionRetryBackoff;
+    private final boolean skipFailedMessages;
+    private final String errorTopic;
+
+    /* The kafka consumer is not thread safe, hence it is only used while holding the lock of this listener */
+    private Consumer<byte[], byte[]> consumer;
+    private ConsumerRecords<byte[], byte[]> polledRecords;
+    private final Map<TopicPartition, Future<PartitionResult>> injections = new HashMap<>();
+    private final Map<TopicPartition, OffsetAndMetadata> pendingOffsets = new HashMap<>();
+    private ExecutorService[] workers;
+    private volatile boolean closed;
+    /* The producer sending the messages which are not injected to the error topic, which is thread safe */
+    private volatile Producer<byte[], byte[]> errorProducer;
+
+    public GroupKafkaMessageListener(int threadCount, List<String> topics, Properties kafkaProperties,
+                                     InjectHandler injectHandler) {
+        this.threadCount = threadCount;
+        this.topics = topics;
+        this.kafkaProperties = kafkaProperties;
+        this.injectHandler = injectHandler;
+        this.pollTimeout = getLongProperty(KAFKAConstants.POLL_TIMEOUT, KAFKAConstants.DEFAULT_POLL_TIMEOUT);
+        this.injectionRetries = (int) getLongProperty(KAFKAConstants.INJECTION_RETRIES,
+                KAFKAConstants.DEFAULT_INJECTION_RETRIES);
+        this.injectionRetryBackoff = Math.max(0, getLongProperty(KAFKAConstants.INJECTION_RETRY_BACKOFF,
+                KAFKAConstants.DEFAULT_INJECTION_RETRY_BACKOFF));
+        String skip = kafkaProperties.getProperty(KAFKAConstants.INJECTION_FAILURE_SKIP);
+        this.skipFailedMessages = skip != null && !skip.trim().isEmpty() ? Boolean.parseBoolean(skip.trim())
+                : KAFKAConstants.DEFAULT_INJECTION_FAILURE_SKIP;
+        String topic = kafkaProperties.getProperty(KAFKAConstants.ERROR_TOPIC);
+        this.errorTopic = topic != null && !topic.trim().isEmpty() ? topic.trim() : null;
+    }
+
+    private long getLongProperty(String name, long defaultValue) {
+        String value = kafkaProperties.getProperty(name);
+        if (value != null && !value.trim().isEmpty()) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value for " + name + " : " + value + ". Using the default value " + defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Create the kafka consumer and subscribe to the topics
+     */
+    @Override
+    public synchronized boolean createKafkaConsumerConnector() throws Exception {
+        if (closed) {
+            return false;
+        }
+        if (consumer == null) {
+            log.info("Creating Kafka consumer of group " + kafkaProperties.getProperty(KAFKAConstants.GROUP_ID));
+            try {
+                consumer = createConsumer(getConsumerProperties());
+                start();
+                if (errorTopic != null && errorProducer == null) {
+                    errorProducer = createProducer(getProducerProperties());
+                }
+            } catch (KafkaException e) {
+                consumer = null;
+                throw new SynapseException("Error in creating Kafka consumer", e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates the kafka consumer, which can be overridden to consume from a consumer other than a kafka consumer.
+     *
+     * @param consumerProperties kafka consumer configuration
+     * @return the consumer
+     */
+    protected Consumer<byte[], byte[]> createConsumer(Properties consumerProperties) {
+        return new KafkaConsumer<>(consumerProperties);
+    }
+
+    /**
+     * Creates the producer of the error topic, which can be overridden to send to a producer other than a kafka
+     * producer.
+     *
+     * @param producerProperties kafka producer configuration
+     * @return the producer
+     */
+    protected Producer<byte[], byte[]> createProducer(Properties producerProperties) {
+        return new KafkaProducer<>(producerProperties);
+    }
+
+    /**
+     * Subscribes to the topics, or to the topics matched by the topic filter.
+     */
+    @Override
+    public void start() throws Exception {
+        ConsumerRebalanceListener rebalanceListener = new RebalanceListener();
+        List<String> topicNames = new ArrayList<>();
+        if (topics != null) {
+            for (String topic : topics) {
+                if (!topic.trim().isEmpty()) {
+                    topicNames.add(topic.trim());
+                }
+            }
+        }
+        String topicFilter = kafkaProperties.getProperty(KAFKAConstants.TOPIC_FILTER);
+        if (!topicNames.isEmpty()) {
+            consumer.subscribe(topicNames, rebalanceListener);
+        } else if (topicFilter != null && !topicFilter.trim().isEmpty()) {
+            String fromWhiteList = kafkaProperties.getProperty(KAFKAConstants.FILTER_FROM_WHITE_LIST);
+            if (fromWhiteList == null || fromWhiteList.isEmpty() || Boolean.parseBoolean(fromWhiteList)) {
+                consumer.subscribe(Pattern.compile(topicFilter.trim()), rebalanceListener);
+            } else {
+                consumer.subscribe(Pattern.compile("(?!(" + topicFilter.trim() + ")$).*"), rebalanceListener);
+            }
+        } else {
+            throw new SynapseException("Either " + KAFKAConstants.TOPICS + " or " + KAFKAConstants.TOPIC_FILTER
+                    + " must be set for the Kafka consumer group");
+        }
+    }
+
+    /**
+     * Completes the injections which are done, commits their offsets and polls the next messages.
+     *
+     * @return true if messages are received
+     */
+    @Override
+    public synchronized boolean hasNext() {
+        if (closed || consumer == null) {
+            return false;
+        }
+        try {
+            completeInjections(null, false);
+            commitOffsets();
+            polledRecords = consumer.poll(pollTimeout);
+            return !polledRecords.isEmpty();
+        } catch (WakeupException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Kafka consumer is woken up to be closed.");
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Hands over the polled messages of each partition to the worker of the partition.
+     */
+    @Override
+    public synchronized void injectMessageToESB(String name) {
+        ConsumerRecords<byte[], byte[]> records = polledRecords;
+        polledRecords = null;
+        if (records == null || records.isEmpty() || closed) {
+            return;
+        }
+        ExecutorService[] partitionWorkers = getWorkers(name);
+        String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
+        for (TopicPartition partition : records.partitions()) {
+            int worker = (partition.hashCode() & Integer.MAX_VALUE) % partitionWorkers.length;
+            injections.put(partition, partitionWorkers[worker].submit(
+                    new PartitionInjection(name, tenantDomain, records.records(partition))));
+        }
+        consumer.pause(records.partitions());
+    }
+
+    /**
+     * Waits for the messages being injected, commits the offsets of the injected messages and closes the consumer.
+     * The injections are waited for without holding the lock of this listener, so that a poll cycle in progress is
+     * not blocked while the messages are injected or retried. The injections which are not completed within the close
+     * timeout are interrupted, and their messages are received again by the next member of the group.
+     */
+    @Override
+    public void destroy() {
+        closed = true;
+        Consumer<byte[], byte[]> currentConsumer = consumer;
+        if (currentConsumer != null) {
+            // stops a poll in progress, so that the lock is released
+            currentConsumer.wakeup();
+        }
+        ExecutorService[] currentWorkers;
+        synchronized (this) {
+            currentWorkers = workers;
+            workers = null;
+        }
+        if (currentWorkers != null) {
+            awaitTermination(currentWorkers);
+        }
+        synchronized (this) {
+            closeErrorProducer();
+            if (consumer == null) {
+                return;
+            }
+            try {
+                completeInjections(null, false);
+                commitOffsetsSync();
+            } catch (KafkaException e) {
+                log.warn("Error while committing the offsets of Kafka consumer before closing it", e);
+            } finally {
+                try {
+                    consumer.close();
+                } catch (KafkaException e) {
+                    log.warn("Error while closing Kafka consumer", e);
+                }
+                consumer = null;
+                injections.clear();
+                pendingOffsets.clear();
+            }
+            log.info("Kafka consumer is closed");
+        }
+    }
+
+    private void awaitTermination(ExecutorService[] currentWorkers) {
+        for (ExecutorService worker : currentWorkers) {
+            worker.shutdown();
+        }
+        long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT;
+        try {
+            for (ExecutorService worker : currentWorkers) {
+                long remainingTime = deadline - System.currentTimeMillis();
+                if (remainingTime <= 0 || !worker.awaitTermination(remainingTime, TimeUnit.MILLISECONDS)) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (ExecutorService worker : currentWorkers) {
+            if (!worker.isTerminated()) {
+                log.warn("Messages of Kafka consumer are still being injected after " + CLOSE_TIMEOUT
+                        + " milliseconds. The injections are interrupted and their messages are not committed.");
+                for (ExecutorService pendingWorker : currentWorkers) {
+                    pendingWorker.shutdownNow();
+                }
+                break;
+            }
+        }
+    }
+
+    private void closeErrorProducer() {
+        Producer<byte[], byte[]> producer = errorProducer;
+        errorProducer = null;
+        if (producer != null) {
+            try {
+                producer.close();
+            } catch (KafkaException e) {
+                log.warn("Error while closing the Kafka producer of the error topic " + errorTopic, e);
+            }
+        }
+    }
+
+    private Properties getConsumerProperties() {
+        Properties consumerProperties = new Properties();
+        Set<String> configNames = ConsumerConfig.configNames();
+        for (String key : kafkaProperties.stringPropertyNames()) {
+            if (configNames.contains(key)) {
+                consumerProperties.setProperty(key, kafkaProperties.getProperty(key));
+            }
+        }
+        // offsets are committed once the messages are injected
+        consumerProperties.setProperty(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        consumerProperties.setProperty(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG,
+                ByteArrayDeserializer.class.getName());
+        consumerProperties.setProperty(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG,
+                ByteArrayDeserializer.class.getName());
+        return consumerProperties;
+    }
+
+    private Properties getProducerProperties() {
+        Properties producerProperties = new Properties();
+        Set<String> configNames = ProducerConfig.configNames();
+        for (String key : kafkaProperties.stringPropertyNames()) {
+            if (configNames.contains(key)) {
+                producerProperties.setProperty(key, kafkaProperties.getProperty(key));
+            }
+        }
+        producerProperties.setProperty(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
+                ByteArraySerializer.class.getName());
+        producerProperties.setProperty(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
+                ByteArraySerializer.class.getName());
+        return producerProperties;
+    }
+
+    /**
+     * Completes the injections of the given partitions, or of all the partitions if none are given. The offsets of
+     * the injected messages are added to the pending offsets, a partition with a message which is not injected is
+     * moved back to the message, and the partitions are resumed.
+     *
+     * @param partitions partitions whose injections are completed, or null for all the partitions
+     * @param wait       whether to wait for the injections in progress, or to complete only those which are done
+     */
+    private void completeInjections(Collection<TopicPartition> partitions, boolean wait) {
+        if (injections.isEmpty()) {
+            return;
+        }
+        Set<TopicPartition> assignment = consumer.assignment();
+        List<TopicPartition> completed = new ArrayList<>();
+        Iterator<Map.Entry<TopicPartition, Future<PartitionResult>>> iterator = injections.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<TopicPartition, Future<PartitionResult>> entry = iterator.next();
+            TopicPartition partition = entry.getKey();
+            if ((partitions != null && !partitions.contains(partition)) || (!wait && !entry.getValue().isDone())) {
+                continue;
+            }
+            iterator.remove();
+            PartitionResult result = getResult(partition, entry.getValue());
+            if (result == null) {
+                continue;
+            }
+            if (result.nextOffset >= 0) {
+                pendingOffsets.put(partition, new OffsetAndMetadata(result.nextOffset));
+            }
+            if (assignment.contains(partition)) {
+                if (result.failedOffset >= 0) {
+                    consumer.seek(partition, result.failedOffset);
+                }
+                completed.add(partition);
+            }
+        }
+        if (!completed.isEmpty()) {
+            consumer.resume(completed);
+        }
+    }
+
+    private PartitionResult getResult(TopicPartition partition, Future<PartitionResult> injection) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return injection.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    log.error("Error while injecting the messages of " + partition, e.getCause());
+                    return null;
+                } catch (CancellationException e) {
+                    return null;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void commitOffsets() {
+        if (pendingOffsets.isEmpty()) {
+            return;
+        }
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>(pendingOffsets);
+        pendingOffsets.clear();
+        consumer.commitAsync(offsets, new OffsetCommitCallback() {
+            @Override
+            public void onComplete(Map<TopicPartition, OffsetAndMetadata> offsets, Exception exception) {
+                if (exception != null) {
+                    log.warn("Error while committing the offsets " + offsets + " of Kafka consumer", exception);
+                } else if (log.isDebugEnabled()) {
+                    log.debug("Committed the offsets " + offsets + " of Kafka consumer");
+                }
+            }
+        });
+    }
+
+    private void commitOffsetsSync() {
+        if (pendingOffsets.isEmpty()) {
+            return;
+        }
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>(pendingOffsets);
+        pendingOffsets.clear();
+        try {
+            consumer.commitSync(offsets);
+        } catch (WakeupException e) {
+            // the wake up meant for a poll is consumed by the commit
+            consumer.commitSync(offsets);
+        }
+    }
+
+    private ExecutorService[] getWorkers(String name) {
+        if (workers == null) {
+            ExecutorService[] partitionWorkers = new ExecutorService[threadCount];
+            for (int i = 0; i < partitionWorkers.length; i++) {
+                final String threadName = "kafka-inbound-" + name + "-worker-" + i;
+                partitionWorkers[i] = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        return new Thread(runnable, threadName);
+                    }
+                });
+            }
+            workers = partitionWorkers;
+        }
+        return workers;
+    }
+
+    /**
+     * Commits the offsets of the revoked partitions before they are handed over to another member of the group.
+     */
+    private class RebalanceListener implements ConsumerRebalanceListener {
+
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            if (log.isDebugEnabled()) {
+                log.debug("Kafka partitions " + partitions + " are revoked");
+            }
+            completeInjections(partitions, true);
+            try {
+                commitOffsetsSync();
+            } catch (KafkaException e) {
+                log.warn("Error while committing the offsets of the revoked Kafka partitions " + partitions, e);
+            }
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            if (log.isDebugEnabled()) {
+                log.debug("Kafka partitions " + partitions + " are assigned");
+            }
+        }
+    }
+
+    /**
+     * Injects the messages of a partition in order, retrying a message which is not injected before it is sent to the
+     * error topic or skipped, until a message can neither be injected nor sent to the error topic or skipped.
+     */
+    private class PartitionInjection implements Callable<PartitionResult> {
+
+        private final String name;
+        private final String tenantDomain;
+        private final List<ConsumerRecord<byte[], byte[]>> records;
+
+        PartitionInjection(String name, String tenantDomain, List<ConsumerRecord<byte[], byte[]>> records) {
+            this.name = name;
+            this.tenantDomain = tenantDomain;
+            this.records = records;
+        }
+
+        @Override
+        public PartitionResult call() {
+            if (tenantDomain == null || MultitenantConstants.SUPER_TENANT_DOMAIN_NAME.equals(tenantDomain)) {
+                return inject();
+            }
+            PrivilegedCarbonContext.startTenantFlow();
+            try {
+                PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomain, true);
+                return inject();
+            } finally {
+                PrivilegedCarbonContext.endTenantFlow();
+            }
+        }
+
+        private PartitionResult inject() {
+            long nextOffset = -1;
+            for (ConsumerRecord<byte[], byte[]> record : records) {
+                if (!injectWithRetries(record)) {
+                    // a message retried while the consumer is closed is received again by the next member
+                    if (closed || Thread.currentThread().isInterrupted() || !skip(record)) {
+                        return new PartitionResult(nextOffset, record.offset());
+                    }
+                }
+                nextOffset = record.offset() + 1;
+            }
+            return new PartitionResult(nextOffset, -1);
+        }
+
+        private boolean injectWithRetries(ConsumerRecord<byte[], byte[]> record) {
+            long backoff = injectionRetryBackoff;
+            for (int retry = 0; ; retry++) {
+                if (injectOnce(record)) {
+                    return true;
+                }
+                if (closed || (injectionRetries >= 0 && retry >= injectionRetries)) {
+                    return false;
+                }
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                backoff = Math.min(backoff * 2, KAFKAConstants.MAX_INJECTION_RETRY_BACKOFF);
+            }
+        }
+
+        private boolean injectOnce(ConsumerRecord<byte[], byte[]> record) {
+            try {
+                return injectHandler.invoke(record.value(), name);
+            } catch (RuntimeException e) {
+                log.error("Error while injecting the Kafka message at offset " + record.offset() + " of "
+                        + record.topic() + "-" + record.partition(), e);
+                return false;
+            }
+        }
+
+        /**
+         * Sends the message which is not injected to the error topic, or skips it if no error topic is set and the
+         * failed messages are skipped.
+         *
+         * @return true if the message can be committed
+         */
+        private boolean skip(ConsumerRecord<byte[], byte[]> record) {
+            String message = "Kafka message at offset " + record.offset() + " of " + record.topic() + "-"
+                    + record.partition() + " is not injected after " + injectionRetries + " retries";
+            Producer<byte[], byte[]> producer = errorProducer;
+            if (producer == null) {
+                if (!skipFailedMessages) {
+                    log.error(message + ". The message will be received again.");
+                    return false;
+                }
+                log.error(message + ". The message is skipped.");
+                return true;
+            }
+            try {
+                producer.send(new ProducerRecord<>(errorTopic, null, record.key(), record.value(),
+                        record.headers())).get();
+                log.error(message + ". The message is sent to the error topic " + errorTopic);
+                return true;
+            } catch (ExecutionException e) {
+                log.error(message + ". The message cannot be sent to the error topic " + errorTopic
+                        + " and will be received again.", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (KafkaException e) {
+                log.error(message + ". The message cannot be sent to the error topic " + errorTopic
+                        + " and will be received again.", e);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The offset to be committed for a partition, and the offset of the message which is not injected.
+     */
+    private static class PartitionResult {
+
+        private final long nextOffset;
+        private final long failedOffset;
+
+        PartitionResult(long nextOffset, long failedOffset) {
+            this.nextOffset = nextOffset;
+            this.failedOffset = failedOffset;
+        }
+    }
+}
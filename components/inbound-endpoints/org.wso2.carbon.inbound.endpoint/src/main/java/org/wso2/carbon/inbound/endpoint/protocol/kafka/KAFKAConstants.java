@@ -56,6 +56,44 @@ public class KAFKAConstants {
 
     public static final String CONSUMER_TIMEOUT = "consumer.timeout.ms";
 
+    public static final String BOOTSTRAP_SERVERS = "bootstrap.servers";
+
+    public static final String MAX_POLL_RECORDS = "max.poll.records";
+
+    public static final String POLL_TIMEOUT = "poll.timeout.ms";
+
+    public static final long DEFAULT_POLL_TIMEOUT = 1000;
+
+    /**
+     * Number of times a message of a consumer group is injected again before it is sent to the error topic, skipped or
+     * received again, where a negative value injects the message again until it is injected
+     */
+    public static final String INJECTION_RETRIES = "injection.retries";
+
+    public static final int DEFAULT_INJECTION_RETRIES = -1;
+
+    /**
+     * Whether a message of a consumer group which is not injected after the retries, and which is not sent to the
+     * error topic, is skipped instead of being received again
+     */
+    public static final String INJECTION_FAILURE_SKIP = "injection.failure.skip";
+
+    public static final boolean DEFAULT_INJECTION_FAILURE_SKIP = false;
+
+    /**
+     * Time waited before injecting a message of a consumer group again, which is doubled after each retry
+     */
+    public static final String INJECTION_RETRY_BACKOFF = "injection.retry.backoff.ms";
+
+    public static final long DEFAULT_INJECTION_RETRY_BACKOFF = 1000;
+
+    public static final long MAX_INJECTION_RETRY_BACKOFF = 60000;
+
+    /**
+     * Topic the messages of a consumer group which are not injected after the retries are sent to
+     */
+    public static final String ERROR_TOPIC = "error.topic";
+
     public static final int SO_TIMEOUT = 100000;
 
     public static final int BUFFER_SIZE = 64 * 1024;
@@ -38,6 +38,7 @@ public class KAFKAPollingConsumer {
     protected AbstractKafkaMessageListener messageListener;
     private long scanInterval;
     private Long lastRanTime;
+    private boolean messageInjected;
     private String name;
 
     /**
@@ -97,21 +98,41 @@ public class KAFKAPollingConsumer {
                                         .getName())) {
                     messageListener = new SimpleKafkaMessageListener(
                             kafkaProperties, injectHandler);
+                } else if (kafkaProperties
+                        .getProperty(KAFKAConstants.CONSUMER_TYPE)
+                        .equalsIgnoreCase(
+                                AbstractKafkaMessageListener.CONSUMER_TYPE.GROUP
+                                        .getName())) {
+                    messageListener = new GroupKafkaMessageListener(threadCount, topics,
+                            kafkaProperties, injectHandler);
                 }
             } catch (Exception e) {
-                log.error("The consumer type should be high level or simple." + e.getMessage(), e);
-                throw new SynapseException("The consumer type should be high level or simple", e);
+                log.error("The consumer type should be high level, simple or group." + e.getMessage(), e);
+                throw new SynapseException("The consumer type should be high level, simple or group", e);
             }
         }
     }
 
     public void execute() {
+        execute(true);
+    }
+
+    /**
+     * Runs a poll cycle.
+     *
+     * @param checkInterval whether to skip the cycle when the previous cycle started less than the scan interval ago
+     * @return true if a message was injected during the cycle. Cycles consuming from multiple topics always
+     * return true, since they do not tell whether any of the topics had a message, and an adaptive schedule must
+     * not back off while the topics may still have messages.
+     */
+    public boolean execute(boolean checkInterval) {
+        messageInjected = false;
         try {
             log.debug("Executing : KAFKA Inbound EP : ");
             // Check if the cycles are running in correct interval and start
             // scan
             long currentTime = (new Date()).getTime();
-            if (lastRanTime == null || ((lastRanTime + (scanInterval)) <= currentTime)) {
+            if (!checkInterval || lastRanTime == null || ((lastRanTime + (scanInterval)) <= currentTime)) {
                 lastRanTime = currentTime;
                 poll();
             } else if (log.isDebugEnabled()) {
@@ -123,6 +144,7 @@ public class KAFKAPollingConsumer {
         } catch (Exception e) {
             log.error("Error while retrieving or injecting KAFKA message." + e.getMessage(), e);
         }
+        return messageInjected;
     }
 
     /**
@@ -154,12 +176,15 @@ public class KAFKAPollingConsumer {
             if (messageListener.hasMultipleTopicsToConsume()) {
                 if (injectHandler != null) {
                     messageListener.consumeMultipleTopics(name);
+                    // whether any of the topics had a message is unknown, hence the cycle is treated as having work
+                    messageInjected = true;
                 } else {
                     return null;
                 }
             } else {
                 if (injectHandler != null && messageListener.hasNext()) {
                     messageListener.injectMessageToESB(name);
+                    messageInjected = true;
                 } else {
                     return null;
                 }
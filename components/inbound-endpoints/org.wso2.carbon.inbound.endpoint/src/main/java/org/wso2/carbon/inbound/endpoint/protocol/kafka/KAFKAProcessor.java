@@ -132,6 +132,9 @@ public class KAFKAProcessor extends InboundRequestProcessorImpl implements TaskS
         } catch (Exception e) {
             log.error("Error while shutdown the consumer connector" + e.getMessage(), e);
         }
+        if (pollingConsumer != null && pollingConsumer.messageListener != null) {
+            pollingConsumer.messageListener.destroy();
+        }
         super.destroy();
     }
 
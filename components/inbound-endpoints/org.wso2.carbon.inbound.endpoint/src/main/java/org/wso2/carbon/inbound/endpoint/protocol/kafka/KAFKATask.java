@@ -21,10 +21,11 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.synapse.core.SynapseEnvironment;
 import org.wso2.carbon.inbound.endpoint.common.InboundTask;
+import org.wso2.carbon.inbound.endpoint.common.ScheduledPollingTask;
 
 import java.util.Properties;
 
-public class KAFKATask extends InboundTask {
+public class KAFKATask extends InboundTask implements ScheduledPollingTask {
     private static final Log logger = LogFactory.getLog(KAFKATask.class
             .getName());
     private KAFKAPollingConsumer kafkaPollingConsumer;
@@ -48,6 +49,12 @@ public class KAFKATask extends InboundTask {
         kafkaPollingConsumer.execute();
     }
 
+    @Override
+    public boolean executeCycle() {
+        logger.debug("Executing cycle.");
+        return kafkaPollingConsumer.execute(false);
+    }
+
     @Override
     public Properties getInboundProperties() {
         return kafkaPollingConsumer.getInboundProperties();
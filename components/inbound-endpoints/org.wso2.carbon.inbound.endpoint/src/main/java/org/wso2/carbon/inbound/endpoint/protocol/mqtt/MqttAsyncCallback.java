@@ -48,6 +48,7 @@ public class MqttAsyncCallback extends OneTimeTriggerAbstractCallback implements
     private MqttConnectOptions connectOptions;
     private MqttConnectionConsumer connectionConsumer;
     private MqttConnectionListener connectionListener;
+    private volatile MqttMessageDispatcher messageDispatcher;
 
     public MqttAsyncCallback(MqttAsyncClient mqttAsyncClient, MqttInjectHandler injectHandler,
                              MqttConnectionFactory confac, MqttConnectOptions connectOptions,
@@ -115,7 +116,29 @@ public class MqttAsyncCallback extends OneTimeTriggerAbstractCallback implements
             super.startInboundTenantLoading(inboundIdentifier);
             //un-register tenant loading flag for inbound identifier
             clientManager.unRegisterInboundTenantLoadingFlag(inboundIdentifier);
+        }
+        MqttMessageDispatcher dispatcher = messageDispatcher;
+        if (dispatcher == null) {
+            inject(topic, mqttMessage);
+            return;
+        }
+        try {
+            dispatcher.dispatch(topic, mqttMessage);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // the message is not acknowledged, hence the broker delivers a QoS 1 or 2 message again
+            throw new MqttException(e);
+        }
+    }
 
+    /**
+     * Inject the message into the sequence, on the callback thread or on a worker of the message dispatcher
+     *
+     * @param topic       topic the message is received from
+     * @param mqttMessage the received message
+     */
+    private void inject(String topic, MqttMessage mqttMessage) {
+        if (super.isInboundRunnerMode()) {
             try {
                 PrivilegedCarbonContext.startTenantFlow();
                 PrivilegedCarbonContext privilegedCarbonContext =
@@ -130,6 +153,27 @@ public class MqttAsyncCallback extends OneTimeTriggerAbstractCallback implements
         }
     }
 
+    /**
+     * Start handing the messages off to a pool of workers if mqtt.worker.pool.size is set, so that the mediation
+     * does not hold up the callback thread of the client. The client acknowledges a message once it is handed off,
+     * and it stops receiving while the hand-off waits for room in the queue of the workers.
+     */
+    public void initMessageDispatcher() {
+        if (messageDispatcher != null) {
+            return;
+        }
+        messageDispatcher = MqttMessageDispatcher.create(name, mqttProperties,
+                new MqttMessageDispatcher.MessageHandler() {
+                    @Override
+                    public void handle(String topic, MqttMessage message) {
+                        inject(topic, message);
+                    }
+                });
+        if (messageDispatcher != null) {
+            messageDispatcher.start();
+        }
+    }
+
     @Override
     public void deliveryComplete(IMqttDeliveryToken iMqttDeliveryToken) {
     }
@@ -155,6 +199,10 @@ public class MqttAsyncCallback extends OneTimeTriggerAbstractCallback implements
         if (connectionListener != null) {
             this.connectionListener.shutdown();
         }
+        if (messageDispatcher != null) {
+            messageDispatcher.shutdown();
+            messageDispatcher = null;
+        }
     }
 
     /**
@@ -35,6 +35,12 @@ public class MqttConstants {
     public static final String MQTT_CLIENT_ID = "mqtt.client.id";
     public static final String MQTT_RECONNECTION_INTERVAL = "mqtt.reconnection.interval";
 
+    //message dispatch related parameters
+    public static final String MQTT_WORKER_POOL_SIZE = "mqtt.worker.pool.size";
+    public static final String MQTT_WORKER_QUEUE_CAPACITY = "mqtt.worker.queue.capacity";
+    public static final String MQTT_BACKPRESSURE_POLICY = "mqtt.worker.backpressure.policy";
+    public static final int DEFAULT_WORKER_QUEUE_CAPACITY = 1000;
+
     //SSL related parameters
     public static final String MQTT_SSL_ENABLE = "mqtt.ssl.enable";
     public static final String MQTT_SSL_KEYSTORE_LOCATION = "mqtt.ssl.keystore.location";
@@ -184,6 +184,7 @@ public class MqttListener extends InboundOneTimeTriggerRequestProcessor {
             mqttAsyncCallback = new MqttAsyncCallback(mqttAsyncClient, injectHandler,
                     confac, connectOptions, mqttProperties);
             mqttAsyncCallback.setName(params.getName());
+            mqttAsyncCallback.initMessageDispatcher();
             connectionConsumer = new MqttConnectionConsumer(connectOptions, mqttAsyncClient,
                     confac, mqttProperties, name);
             mqttAsyncCallback.setMqttConnectionConsumer(connectionConsumer);
@@ -0,0 +1,351 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.inbound.endpoint.protocol.mqtt;
+
+import org.apache.commons.lang.math.NumberUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.wso2.carbon.inbound.endpoint.common.LogThrottle;
+import org.wso2.carbon.inbound.endpoint.common.StatisticsMBeans;
+
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands the messages received by an MQTT inbound endpoint off the callback thread of the MQTT client to a pool of
+ * workers, so that a slow mediation flow does not hold up the client from receiving the other messages and from
+ * keeping the connection alive.
+ * <p>
+ * The messages wait for a worker in a bounded queue. When a message arrives while the queue is full, the
+ * {@link BackpressurePolicy} decides whether the client waits for room or a message is discarded. The client
+ * acknowledges a QoS 1 or 2 message to the broker once it is handed off, hence such a message is never discarded and
+ * the client always waits for room for it, which in turn holds the acknowledgement until there is room. While the
+ * client waits, it stops reading from the connection once its own small queue of arrived messages is full, so the
+ * backpressure reaches the broker without manual acknowledgements. The QoS 1 and 2 messages waiting in the queue are
+ * already acknowledged, hence up to a queue capacity of them can be lost if the server stops abruptly.
+ * </p>
+ * <p>
+ * The messages are processed in the order they arrive only when there is a single worker.
+ * </p>
+ */
+public class MqttMessageDispatcher implements MqttMessageDispatcherMBean {
+
+    private static final Log log = LogFactory.getLog(MqttMessageDispatcher.class);
+
+    private static final long WORKER_POLL_TIMEOUT = 500;
+
+    private static final long SHUTDOWN_TIMEOUT = 10000;
+
+    /* the discarded messages are logged once in this many messages */
+    private static final LogThrottle DISCARD_LOG_THROTTLE = new LogThrottle(1000);
+
+    /**
+     * What is done with a message which arrives while the queue is full.
+     */
+    public enum BackpressurePolicy {
+        /**
+         * The client waits until there is room in the queue.
+         */
+        BLOCK,
+        /**
+         * The oldest QoS 0 message in the queue is discarded, the client waits if there is none.
+         */
+        DROP_OLDEST,
+        /**
+         * A QoS 0 message is discarded, the client waits for room for a QoS 1 or 2 message.
+         */
+        REJECT;
+
+        static BackpressurePolicy fromString(String policy) {
+            if (policy == null || policy.trim().isEmpty()) {
+                return BLOCK;
+            }
+            try {
+                return valueOf(policy.trim().toUpperCase().replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid MQTT backpressure policy " + policy + ", using " + BLOCK);
+                return BLOCK;
+            }
+        }
+    }
+
+    /**
+     * Processes a message on a worker.
+     */
+    public interface MessageHandler {
+
+        void handle(String topic, MqttMessage message);
+    }
+
+    private final String name;
+    private final int poolSize;
+    private final int queueCapacity;
+    private final BackpressurePolicy policy;
+    private final MessageHandler handler;
+    private final BlockingQueue<QueuedMessage> queue;
+    private final Thread[] workers;
+
+    private volatile boolean running;
+
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLong dispatchedCount = new AtomicLong();
+    private final AtomicLong processedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong blockedTimeNanos = new AtomicLong();
+
+    public MqttMessageDispatcher(String name, int poolSize, int queueCapacity, BackpressurePolicy policy,
+                                 MessageHandler handler) {
+        this.name = name;
+        this.poolSize = poolSize;
+        this.queueCapacity = queueCapacity;
+        this.policy = policy;
+        this.handler = handler;
+        this.queue = new LinkedBlockingQueue<QueuedMessage>(queueCapacity);
+        this.workers = new Thread[poolSize];
+    }
+
+    /**
+     * Creates the dispatcher of an MQTT inbound endpoint as configured with the mqtt.worker.* parameters.
+     *
+     * @param name           name of the inbound endpoint
+     * @param mqttProperties parameters of the inbound endpoint
+     * @param handler        processes the messages on the workers
+     * @return the dispatcher, or null if the messages are to be processed on the callback thread of the client
+     */
+    public static MqttMessageDispatcher create(String name, Properties mqttProperties, MessageHandler handler) {
+        int poolSize = NumberUtils.toInt(mqttProperties.getProperty(MqttConstants.MQTT_WORKER_POOL_SIZE), 0);
+        if (poolSize <= 0) {
+            return null;
+        }
+        int queueCapacity = NumberUtils.toInt(mqttProperties.getProperty(MqttConstants.MQTT_WORKER_QUEUE_CAPACITY),
+                MqttConstants.DEFAULT_WORKER_QUEUE_CAPACITY);
+        if (queueCapacity <= 0) {
+            log.warn("Invalid MQTT worker queue capacity " + queueCapacity + " for the inbound endpoint " + name
+                    + ", using " + MqttConstants.DEFAULT_WORKER_QUEUE_CAPACITY);
+            queueCapacity = MqttConstants.DEFAULT_WORKER_QUEUE_CAPACITY;
+        }
+        BackpressurePolicy policy =
+                BackpressurePolicy.fromString(mqttProperties.getProperty(MqttConstants.MQTT_BACKPRESSURE_POLICY));
+        return new MqttMessageDispatcher(name, poolSize, queueCapacity, policy, handler);
+    }
+
+    /**
+     * Starts the workers and registers the statistics MBean.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Thread(new Worker(), "mqtt-inbound-" + name + "-worker-" + (i + 1));
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+        StatisticsMBeans.register(this, StatisticsMBeans.MQTT_DISPATCHER_CATEGORY, name);
+        log.info("MQTT inbound endpoint " + name + " processes the messages with " + poolSize + " workers, "
+                + "queue capacity " + queueCapacity + " and backpressure policy " + policy);
+    }
+
+    /**
+     * Hands a message off to the workers, applying the backpressure policy if the queue is full.
+     *
+     * @param topic   topic the message is received from
+     * @param message the received message
+     * @throws InterruptedException if the thread is interrupted while waiting for room in the queue
+     */
+    public void dispatch(String topic, MqttMessage message) throws InterruptedException {
+        QueuedMessage queuedMessage = new QueuedMessage(topic, message);
+        if (!queue.offer(queuedMessage)) {
+            if (message.getQos() == 0 && policy == BackpressurePolicy.REJECT) {
+                logDiscarded(rejectedCount.incrementAndGet(), "arrived while the queue is full");
+                return;
+            }
+            boolean queued = false;
+            if (message.getQos() == 0 && policy == BackpressurePolicy.DROP_OLDEST) {
+                while (!queued && dropOldest()) {
+                    queued = queue.offer(queuedMessage);
+                }
+            }
+            if (!queued) {
+                long start = System.nanoTime();
+                queue.put(queuedMessage);
+                blockedTimeNanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+        dispatchedCount.incrementAndGet();
+        int depth = queue.size();
+        int maxDepth;
+        while (depth > (maxDepth = maxQueueDepth.get()) && !maxQueueDepth.compareAndSet(maxDepth, depth)) {
+            // retry until the max depth is at least the current depth
+        }
+    }
+
+    /**
+     * Stops the workers once they process the queued messages, since the messages are already acknowledged to the
+     * broker. The workers which are still busy after the shutdown timeout are interrupted.
+     */
+    public synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        StatisticsMBeans.unregister(StatisticsMBeans.MQTT_DISPATCHER_CATEGORY, name);
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT;
+        try {
+            for (Thread worker : workers) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining > 0) {
+                    worker.join(remaining);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Thread worker : workers) {
+            if (worker.isAlive()) {
+                worker.interrupt();
+            }
+        }
+        if (!queue.isEmpty()) {
+            log.warn(queue.size() + " messages of the MQTT inbound endpoint " + name + " are not processed since "
+                    + "the workers did not stop within " + SHUTDOWN_TIMEOUT + "ms");
+            queue.clear();
+        }
+    }
+
+    private boolean dropOldest() {
+        for (Iterator<QueuedMessage> iterator = queue.iterator(); iterator.hasNext(); ) {
+            if (iterator.next().message.getQos() == 0) {
+                iterator.remove();
+                logDiscarded(droppedCount.incrementAndGet(), "dropped from the head of the full queue");
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void logDiscarded(long count, String reason) {
+        if (DISCARD_LOG_THROTTLE.shouldLog(count)) {
+            log.warn("MQTT inbound endpoint " + name + " discarded " + count + " QoS 0 messages so far which were "
+                    + reason);
+        }
+    }
+
+    @Override
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    @Override
+    public String getBackpressurePolicy() {
+        return policy.name();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    @Override
+    public long getDispatchedCount() {
+        return dispatchedCount.get();
+    }
+
+    @Override
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    @Override
+    public long getBlockedTime() {
+        return TimeUnit.NANOSECONDS.toMillis(blockedTimeNanos.get());
+    }
+
+    @Override
+    public void resetStatistics() {
+        maxQueueDepth.set(0);
+        dispatchedCount.set(0);
+        processedCount.set(0);
+        droppedCount.set(0);
+        rejectedCount.set(0);
+        blockedTimeNanos.set(0);
+    }
+
+    private static final class QueuedMessage {
+
+        private final String topic;
+        private final MqttMessage message;
+
+        private QueuedMessage(String topic, MqttMessage message) {
+            this.topic = topic;
+            this.message = message;
+        }
+    }
+
+    private final class Worker implements Runnable {
+
+        @Override
+        public void run() {
+            while (running || !queue.isEmpty()) {
+                QueuedMessage queuedMessage;
+                try {
+                    queuedMessage = queue.poll(WORKER_POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (queuedMessage == null) {
+                    continue;
+                }
+                try {
+                    handler.handle(queuedMessage.topic, queuedMessage.message);
+                } catch (RuntimeException e) {
+                    log.error("Error while processing a message of the MQTT inbound endpoint " + name
+                            + " received from the topic " + queuedMessage.topic, e);
+                } finally {
+                    processedCount.incrementAndGet();
+                }
+            }
+        }
+    }
+}
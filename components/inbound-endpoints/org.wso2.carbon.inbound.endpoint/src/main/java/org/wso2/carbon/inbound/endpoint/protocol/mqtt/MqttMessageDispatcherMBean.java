@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.inbound.endpoint.protocol.mqtt;
+
+import org.wso2.carbon.inbound.endpoint.common.StatisticsMBean;
+
+/**
+ * The interface for MBean used to expose the hand-off queue statistics of an MQTT inbound endpoint whose messages
+ * are processed by a {@link MqttMessageDispatcher}.
+ */
+public interface MqttMessageDispatcherMBean extends StatisticsMBean {
+
+    /**
+     * @return number of worker threads processing the messages
+     */
+    int getPoolSize();
+
+    /**
+     * @return maximum number of messages waiting for a worker
+     */
+    int getQueueCapacity();
+
+    /**
+     * @return the policy applied when a message arrives while the queue is full
+     */
+    String getBackpressurePolicy();
+
+    /**
+     * @return number of messages waiting for a worker
+     */
+    int getQueueDepth();
+
+    /**
+     * @return maximum number of messages which waited for a worker at the same time
+     */
+    int getMaxQueueDepth();
+
+    /**
+     * @return number of messages handed off to the workers
+     */
+    long getDispatchedCount();
+
+    /**
+     * @return number of messages processed by the workers
+     */
+    long getProcessedCount();
+
+    /**
+     * @return number of QoS 0 messages discarded from the head of the full queue to make room for a new message
+     */
+    long getDroppedCount();
+
+    /**
+     * @return number of QoS 0 messages discarded since they arrived while the queue is full
+     */
+    long getRejectedCount();
+
+    /**
+     * @return total time the MQTT client waited for room in the full queue in milliseconds
+     */
+    long getBlockedTime();
+}
@@ -16,13 +16,19 @@
 package org.wso2.carbon.inbound.endpoint.protocol.nats;
 
 import io.nats.client.Connection;
+import io.nats.client.Consumer;
+import io.nats.client.ErrorListener;
+import io.nats.client.Message;
 import io.nats.client.Options;
 import io.nats.client.Nats;
 import io.nats.client.Dispatcher;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.inbound.endpoint.common.LogThrottle;
+import org.wso2.carbon.inbound.endpoint.common.StatisticsMBeans;
 
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
@@ -39,22 +45,52 @@ import java.security.UnrecoverableKeyException;
 import java.security.KeyManagementException;
 import java.security.cert.CertificateException;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Core listener class which uses core NATS connection to receive messages.
+ * <p>
+ * If worker.pool.size is set, the messages are injected by a pool of workers instead of the NATS dispatcher thread,
+ * with at most max.in.flight messages handed to the workers at a time. The dispatcher thread waits once the limit is
+ * reached, so that the messages received during a burst are held back in the NATS client. The client drops the
+ * messages and reports a slow consumer once pending.messages.limit or pending.bytes.limit is exceeded, instead of the
+ * burst piling up in the mediation engine.
+ * </p>
  */
 public class CoreListener implements NatsMessageListener {
 
     private static final Log log = LogFactory.getLog(CoreListener.class.getName());
+
+    private static final long WORKER_SHUTDOWN_TIMEOUT = 10;
+
+    /* the slow consumer events are logged once in this many events */
+    private static final LogThrottle SLOW_CONSUMER_LOG_THROTTLE = new LogThrottle(100);
+
     private String subject;
     private NatsInjectHandler injectHandler;
     private Properties natsProperties;
     private Connection connection;
+    private final int workerPoolSize;
+    private final int maxInFlight;
+    private final NatsConsumerMetrics metrics;
+    private ExecutorService workerPool;
+    private Semaphore inFlightPermits;
+    private String metricsId;
 
     public CoreListener(String subject, NatsInjectHandler injectHandler, Properties natsProperties) {
         this.subject = subject;
         this.injectHandler = injectHandler;
         this.natsProperties = natsProperties;
+        this.workerPoolSize = Math.max(0,
+                NumberUtils.toInt(natsProperties.getProperty(NatsConstants.WORKER_POOL_SIZE), 0));
+        int configuredMaxInFlight = NumberUtils.toInt(natsProperties.getProperty(NatsConstants.MAX_IN_FLIGHT), 0);
+        this.maxInFlight = configuredMaxInFlight > 0 ? configuredMaxInFlight : workerPoolSize;
+        this.metrics = new NatsConsumerMetrics(workerPoolSize, maxInFlight);
     }
 
     /**
@@ -118,6 +154,10 @@ public class CoreListener implements NatsMessageListener {
                 builder.sslContext(sslContext);
             }
         }
+
+        // count the slow consumer events, keeping the error listener configured with io.nats.client.errorlistener
+        ErrorListener configuredErrorListener = builder.build().getErrorListener();
+        builder.errorListener(new FlowControlErrorListener(configuredErrorListener));
         return Nats.connect(builder.build());
     }
 
@@ -128,14 +168,23 @@ public class CoreListener implements NatsMessageListener {
      */
     @Override public void initializeConsumer(String sequenceName) throws IOException, InterruptedException {
         if (createConnection()) {
+            if (workerPoolSize > 0 && workerPool == null) {
+                workerPool = createWorkerPool(sequenceName);
+                inFlightPermits = new Semaphore(maxInFlight);
+            }
             Dispatcher dispatcher;
             dispatcher = connection.createDispatcher(natsMessage -> {
                 if (natsMessage != null) {
-                    String message = new String(natsMessage.getData(), StandardCharsets.UTF_8);
                     if (log.isDebugEnabled()) {
-                        log.debug("Message Received to NATS Inbound EP: " + message);
+                        log.debug("Message Received to NATS Inbound EP: "
+                                + new String(natsMessage.getData(), StandardCharsets.UTF_8));
+                    }
+                    metrics.messageReceived();
+                    if (workerPool == null) {
+                        inject(natsMessage, sequenceName, false);
+                    } else {
+                        dispatch(natsMessage, sequenceName);
                     }
-                    injectHandler.invoke(message.getBytes(), sequenceName, natsMessage.getReplyTo(), connection);
                 } else {
                     if (log.isDebugEnabled()) {
                         log.debug("Message is null.");
@@ -143,6 +192,19 @@ public class CoreListener implements NatsMessageListener {
                 }
             });
 
+            String pendingMessagesLimit = natsProperties.getProperty(NatsConstants.PENDING_MESSAGES_LIMIT);
+            String pendingBytesLimit = natsProperties.getProperty(NatsConstants.PENDING_BYTES_LIMIT);
+            if (StringUtils.isNotEmpty(pendingMessagesLimit) || StringUtils.isNotEmpty(pendingBytesLimit)) {
+                dispatcher.setPendingLimits(
+                        NumberUtils.toLong(pendingMessagesLimit, Consumer.DEFAULT_MAX_MESSAGES),
+                        NumberUtils.toLong(pendingBytesLimit, Consumer.DEFAULT_MAX_BYTES));
+            }
+            metrics.setConsumer(dispatcher);
+            if (metricsId == null) {
+                metricsId = sequenceName;
+                StatisticsMBeans.register(metrics, StatisticsMBeans.NATS_CONSUMER_CATEGORY, metricsId);
+            }
+
             String queueGroup = natsProperties.getProperty(NatsConstants.QUEUE_GROUP);
             if (StringUtils.isNotEmpty(queueGroup)) {
                 dispatcher.subscribe(subject, queueGroup);
@@ -152,6 +214,73 @@ public class CoreListener implements NatsMessageListener {
         }
     }
 
+    /**
+     * Hand the message to the workers, waiting on the NATS dispatcher thread while max.in.flight messages are being
+     * injected.
+     *
+     * @param natsMessage  the received message.
+     * @param endpointName the name of the inbound endpoint.
+     */
+    private void dispatch(Message natsMessage, String endpointName) {
+        try {
+            inFlightPermits.acquire();
+        } catch (InterruptedException e) {
+            // the dispatcher is being stopped
+            Thread.currentThread().interrupt();
+            return;
+        }
+        metrics.messageDispatched();
+        try {
+            workerPool.execute(() -> inject(natsMessage, endpointName, true));
+        } catch (RejectedExecutionException e) {
+            log.warn("The NATS message is not injected since the inbound endpoint " + endpointName + " is stopped.");
+            inFlightPermits.release();
+            metrics.messageRejected();
+        }
+    }
+
+    /**
+     * Inject the message into the sequence.
+     *
+     * @param natsMessage  the received message.
+     * @param endpointName the name of the inbound endpoint.
+     * @param dispatched   whether the message is handed to the workers.
+     */
+    private void inject(Message natsMessage, String endpointName, boolean dispatched) {
+        try {
+            injectHandler.invoke(natsMessage.getData(), endpointName, natsMessage.getReplyTo(), connection);
+        } catch (RuntimeException e) {
+            if (!dispatched) {
+                throw e;
+            }
+            log.error("Error while injecting the NATS message received by the inbound endpoint " + endpointName, e);
+        } finally {
+            if (dispatched) {
+                inFlightPermits.release();
+            }
+            metrics.messageProcessed(dispatched);
+        }
+    }
+
+    private ExecutorService createWorkerPool(String endpointName) {
+        AtomicInteger workerCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(workerPoolSize, runnable -> {
+            Thread thread = new Thread(runnable, "nats-inbound-" + endpointName + "-worker-"
+                    + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the flow control statistics of the endpoint.
+     *
+     * @return the statistics.
+     */
+    public NatsConsumerMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Close the connection to NATS server and set connection to null.
      */
@@ -164,6 +293,65 @@ public class CoreListener implements NatsMessageListener {
             log.error("An error occurred while closing the connection. ", e);
         }
         connection = null;
+        if (workerPool != null) {
+            workerPool.shutdown();
+            try {
+                if (!workerPool.awaitTermination(WORKER_SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+                    log.warn("The NATS messages being injected are not completed within " + WORKER_SHUTDOWN_TIMEOUT
+                            + " seconds.");
+                    workerPool.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                workerPool.shutdownNow();
+            }
+            workerPool = null;
+        }
+        if (metricsId != null) {
+            StatisticsMBeans.unregister(StatisticsMBeans.NATS_CONSUMER_CATEGORY, metricsId);
+            metricsId = null;
+        }
+        metrics.setConsumer(null);
+    }
+
+    /**
+     * Error listener which counts the slow consumer events of the connection and delegates the events to the error
+     * listener configured for the connection, if any.
+     */
+    private class FlowControlErrorListener implements ErrorListener {
+
+        private final ErrorListener delegate;
+
+        FlowControlErrorListener(ErrorListener delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override public void errorOccurred(Connection conn, String error) {
+            if (delegate != null) {
+                delegate.errorOccurred(conn, error);
+            } else {
+                log.error("An error occurred in the NATS connection: " + error);
+            }
+        }
+
+        @Override public void exceptionOccurred(Connection conn, Exception exp) {
+            if (delegate != null) {
+                delegate.exceptionOccurred(conn, exp);
+            } else {
+                log.error("An exception occurred in the NATS connection. ", exp);
+            }
+        }
+
+        @Override public void slowConsumerDetected(Connection conn, Consumer consumer) {
+            long count = metrics.slowConsumerDetected();
+            if (SLOW_CONSUMER_LOG_THROTTLE.shouldLog(count)) {
+                log.warn("The NATS inbound endpoint on the subject " + subject + " is a slow consumer, " + count
+                        + " times so far. " + consumer.getDroppedCount() + " messages are dropped.");
+            }
+            if (delegate != null) {
+                delegate.slowConsumerDetected(conn, consumer);
+            }
+        }
     }
 
     /**
@@ -61,6 +61,10 @@ public class NatsConstants {
     public static final String TLS_KEY_MANAGER_ALGORITHM = "tls.key.manager.algorithm";
     public static final String TLS_TRUST_MANAGER_ALGORITHM = "tls.trust.manager.algorithm";
     public static final String CONTENT_TYPE = "content.type";
+    public static final String WORKER_POOL_SIZE = "worker.pool.size";
+    public static final String MAX_IN_FLIGHT = "max.in.flight";
+    public static final String PENDING_MESSAGES_LIMIT = "pending.messages.limit";
+    public static final String PENDING_BYTES_LIMIT = "pending.bytes.limit";
 
     // Core NATS default values
     static final String DEFAULT_TLS_ALGORITHM = "SunX509";
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.carbon.inbound.endpoint.protocol.nats;
+
+import io.nats.client.Consumer;
+import org.wso2.carbon.inbound.endpoint.common.CountBaseline;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Flow control statistics of a core NATS inbound endpoint. The pending and dropped message counts are read from the
+ * NATS dispatcher of the endpoint, the other statistics are counted by the {@link CoreListener}.
+ */
+public class NatsConsumerMetrics implements NatsConsumerMetricsMBean {
+
+    private final int poolSize;
+    private final int maxInFlight;
+
+    private volatile Consumer consumer;
+
+    private final AtomicLong inFlightCount = new AtomicLong();
+    private final AtomicLong receivedCount = new AtomicLong();
+    private final AtomicLong processedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong slowConsumerCount = new AtomicLong();
+
+    /* the dropped count of the consumer can not be reset, hence it is counted from a baseline */
+    private final CountBaseline droppedCount = new CountBaseline();
+
+    public NatsConsumerMetrics(int poolSize, int maxInFlight) {
+        this.poolSize = poolSize;
+        this.maxInFlight = maxInFlight;
+    }
+
+    void setConsumer(Consumer consumer) {
+        this.consumer = consumer;
+        droppedCount.reset(0);
+    }
+
+    void messageReceived() {
+        receivedCount.incrementAndGet();
+    }
+
+    void messageDispatched() {
+        inFlightCount.incrementAndGet();
+    }
+
+    void messageProcessed(boolean dispatched) {
+        if (dispatched) {
+            inFlightCount.decrementAndGet();
+        }
+        processedCount.incrementAndGet();
+    }
+
+    void messageRejected() {
+        inFlightCount.decrementAndGet();
+        rejectedCount.incrementAndGet();
+    }
+
+    long slowConsumerDetected() {
+        return slowConsumerCount.incrementAndGet();
+    }
+
+    @Override
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    @Override
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    @Override
+    public int getInFlightCount() {
+        return (int) inFlightCount.get();
+    }
+
+    @Override
+    public long getReceivedCount() {
+        return receivedCount.get();
+    }
+
+    @Override
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    @Override
+    public long getPendingMessageCount() {
+        Consumer currentConsumer = consumer;
+        return currentConsumer != null ? currentConsumer.getPendingMessageCount() : 0;
+    }
+
+    @Override
+    public long getPendingByteCount() {
+        Consumer currentConsumer = consumer;
+        return currentConsumer != null ? currentConsumer.getPendingByteCount() : 0;
+    }
+
+    @Override
+    public long getDroppedCount() {
+        Consumer currentConsumer = consumer;
+        return currentConsumer != null ? droppedCount.since(currentConsumer.getDroppedCount()) : 0;
+    }
+
+    @Override
+    public long getSlowConsumerCount() {
+        return slowConsumerCount.get();
+    }
+
+    @Override
+    public void resetStatistics() {
+        receivedCount.set(0);
+        processedCount.set(0);
+        rejectedCount.set(0);
+        slowConsumerCount.set(0);
+        Consumer currentConsumer = consumer;
+        droppedCount.reset(currentConsumer != null ? currentConsumer.getDroppedCount() : 0);
+    }
+}
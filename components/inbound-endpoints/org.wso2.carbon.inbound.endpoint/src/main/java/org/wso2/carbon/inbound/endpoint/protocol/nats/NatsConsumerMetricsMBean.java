@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.carbon.inbound.endpoint.protocol.nats;
+
+import org.wso2.carbon.inbound.endpoint.common.StatisticsMBean;
+
+/**
+ * The interface for MBean used to expose the flow control statistics of a core NATS inbound endpoint.
+ */
+public interface NatsConsumerMetricsMBean extends StatisticsMBean {
+
+    /**
+     * @return number of worker threads injecting the messages, 0 if the messages are injected by the NATS dispatcher
+     */
+    int getPoolSize();
+
+    /**
+     * @return maximum number of messages handed to the workers which are not injected yet
+     */
+    int getMaxInFlight();
+
+    /**
+     * @return number of messages handed to the workers which are not injected yet
+     */
+    int getInFlightCount();
+
+    /**
+     * @return number of messages received by the endpoint
+     */
+    long getReceivedCount();
+
+    /**
+     * @return number of messages injected by the endpoint
+     */
+    long getProcessedCount();
+
+    /**
+     * @return number of messages which are not injected since the endpoint was being stopped when they were received
+     */
+    long getRejectedCount();
+
+    /**
+     * @return number of messages received from the server which wait in the NATS client to be dispatched
+     */
+    long getPendingMessageCount();
+
+    /**
+     * @return number of bytes received from the server which wait in the NATS client to be dispatched
+     */
+    long getPendingByteCount();
+
+    /**
+     * @return number of messages dropped by the NATS client since the pending limits were exceeded
+     */
+    long getDroppedCount();
+
+    /**
+     * @return number of times the NATS client reported the endpoint as a slow consumer
+     */
+    long getSlowConsumerCount();
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.inbound.endpoint.protocol.rabbitmq;
+
+import java.util.TreeMap;
+
+/**
+ * Tracks the deliveries of a channel which are settled out of order, so that the acknowledged deliveries are
+ * acknowledged together with multiple=true up to the highest delivery tag below which all the deliveries are settled.
+ * A delivery is settled once it is to be acknowledged, or once it is rejected or acknowledged on its own. A single
+ * acknowledgement with multiple=true does not affect the deliveries which are already rejected or acknowledged, but
+ * it must not cover a delivery which is still being processed.
+ */
+public class DeliveryTagTracker {
+
+    /* all the deliveries up to this tag are settled */
+    private long settledTag;
+
+    /* the settled deliveries above the settled tag, mapped to whether they are to be acknowledged */
+    private final TreeMap<Long, Boolean> settledAhead = new TreeMap<>();
+
+    /* whether a delivery up to the settled tag is to be acknowledged */
+    private boolean acknowledgementPending;
+
+    /**
+     * Records a settled delivery.
+     *
+     * @param deliveryTag the delivery tag of the settled delivery
+     * @param acknowledge true if the delivery is to be acknowledged, false if it is already rejected or acknowledged
+     * @return the delivery tag to be acknowledged with multiple=true, or -1 if there is nothing to be acknowledged
+     */
+    public synchronized long settle(long deliveryTag, boolean acknowledge) {
+        if (deliveryTag <= settledTag) {
+            return -1;
+        }
+        settledAhead.put(deliveryTag, acknowledge);
+        long acknowledgedTag = -1;
+        Boolean nextAcknowledge;
+        while ((nextAcknowledge = settledAhead.remove(settledTag + 1)) != null) {
+            settledTag++;
+            acknowledgementPending |= nextAcknowledge;
+        }
+        if (acknowledgementPending) {
+            acknowledgedTag = settledTag;
+            acknowledgementPending = false;
+        }
+        return acknowledgedTag;
+    }
+
+    /**
+     * @return the number of settled deliveries waiting for a delivery before them to be settled
+     */
+    public synchronized int getPendingCount() {
+        return settledAhead.size();
+    }
+}
@@ -23,26 +23,30 @@ import org.apache.commons.logging.LogFactory;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Keeps the channels subscribed to each subscriber path of the WebSocket inbound endpoints, so that the responses can
+ * be broadcast to them. The subscribers of a path are kept in a concurrent map keyed by their channel identifier, hence
+ * joining and leaving a path take constant time and only contend with the changes to the same path. Broadcasting
+ * iterates the subscribers without any locking or copying, and sees the subscribers which join or leave meanwhile at
+ * most once.
+ */
 public class WebsocketSubscriberPathManager {
 
-    private static WebsocketSubscriberPathManager instance = null;
+    private static final WebsocketSubscriberPathManager instance = new WebsocketSubscriberPathManager();
     private static final Log log = LogFactory.getLog(WebsocketSubscriberPathManager.class);
 
-    private ConcurrentHashMap<String, ConcurrentHashMap<String, List<InboundWebsocketChannelContext>>>
-            inboundSubscriberPathMap = new ConcurrentHashMap<String, ConcurrentHashMap<String, List<InboundWebsocketChannelContext>>>();
-
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, ConcurrentHashMap<String,
+            InboundWebsocketChannelContext>>> inboundSubscriberPathMap = new ConcurrentHashMap<>();
 
     public static WebsocketSubscriberPathManager getInstance() {
-        if (instance == null) {
-            instance = new WebsocketSubscriberPathManager();
-        }
         return instance;
     }
 
-
     public void addChannelContext(String inboundName,
                                   String subscriberPath,
                                   InboundWebsocketChannelContext ctx) {
@@ -50,30 +54,23 @@ public class WebsocketSubscriberPathManager {
             log.debug("Adding Channel Context with channelID: " + ctx.getChannelIdentifier() + ", in the Thread,ID: "
                               + Thread.currentThread().getName() + "," + Thread.currentThread().getId());
         }
-        ConcurrentHashMap<String, List<InboundWebsocketChannelContext>> subscriberPathMap =
-                inboundSubscriberPathMap.get(inboundName);
-        if (subscriberPathMap == null) {
-            subscriberPathMap = new ConcurrentHashMap<String, List<InboundWebsocketChannelContext>>();
-            ArrayList<InboundWebsocketChannelContext> listContext = new ArrayList<InboundWebsocketChannelContext>();
-            listContext.add(ctx);
-            subscriberPathMap.put(subscriberPath, listContext);
-            inboundSubscriberPathMap.put(inboundName, subscriberPathMap);
-        } else {
-            List<InboundWebsocketChannelContext> listContext = subscriberPathMap.get(subscriberPath);
-            if (listContext == null) {
-                listContext = new ArrayList<InboundWebsocketChannelContext>();
-                listContext.add(ctx);
-                subscriberPathMap.put(subscriberPath, listContext);
-            } else {
-                listContext.add(ctx);
+        ConcurrentHashMap<String, ConcurrentHashMap<String, InboundWebsocketChannelContext>> subscriberPathMap =
+                inboundSubscriberPathMap.computeIfAbsent(inboundName, name -> new ConcurrentHashMap<>());
+        // the subscribers of the path are added to and removed from the map atomically, so that a subscriber is not
+        // added to the subscribers of a path while they are being removed from the map since they are empty
+        subscriberPathMap.compute(subscriberPath, (path, subscribers) -> {
+            if (subscribers == null) {
+                subscribers = new ConcurrentHashMap<>();
             }
-        }
+            subscribers.put(ctx.getChannelIdentifier(), ctx);
+            return subscribers;
+        });
     }
 
     public void removeChannelContext(String inboundName,
                                      String subscriberPath,
                                      InboundWebsocketChannelContext ctx) {
-        ConcurrentHashMap<String, List<InboundWebsocketChannelContext>> subscriberPathMap =
+        ConcurrentHashMap<String, ConcurrentHashMap<String, InboundWebsocketChannelContext>> subscriberPathMap =
                 inboundSubscriberPathMap.get(inboundName);
         if (subscriberPathMap == null) {
             if (log.isDebugEnabled()) {
@@ -83,60 +80,65 @@ public class WebsocketSubscriberPathManager {
             }
             return;
         }
-        List<InboundWebsocketChannelContext> listContext = subscriberPathMap.get(subscriberPath);
-        if (listContext == null) {
-            if (log.isDebugEnabled()) {
-                log.debug("ListContext does not exist for SubscriberPath : " + subscriberPath
-                        + ", in the Thread,ID: " + Thread.currentThread().getName() + ","
-                        + Thread.currentThread().getId());
-            }
-            return;
-        }
-        for (Object context : listContext.toArray()) {
-            if (context == null) {
-                if (log.isDebugEnabled()) {
-                    log.debug("ListContext has null contents : " + listContext.toArray().toString()
-                            + ", in the Thread,ID: " + Thread.currentThread().getName() + ","
-                            + Thread.currentThread().getId());
-                }
-                continue;
-            }
-            if (((InboundWebsocketChannelContext) context).getChannelIdentifier()
-                    .equals(ctx.getChannelIdentifier())) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Removing Channel Context with channelID: " + ctx.getChannelIdentifier()
-                                      + ", in the Thread,ID: " + Thread.currentThread().getName() + ","
-                                      + Thread.currentThread().getId());
-                }
-                listContext.remove(context);
-                break;
-            }
-        }
-        if (listContext.isEmpty()) {
-            listContext.clear();
-            subscriberPathMap.remove(subscriberPath);
-        }
-        if (subscriberPathMap.isEmpty()) {
-            subscriberPathMap.clear();
-            inboundSubscriberPathMap.remove(inboundName);
+        ConcurrentHashMap<String, InboundWebsocketChannelContext> remaining =
+                subscriberPathMap.computeIfPresent(subscriberPath, (path, subscribers) -> {
+                    if (subscribers.remove(ctx.getChannelIdentifier()) != null && log.isDebugEnabled()) {
+                        log.debug("Removing Channel Context with channelID: " + ctx.getChannelIdentifier()
+                                          + ", in the Thread,ID: " + Thread.currentThread().getName() + ","
+                                          + Thread.currentThread().getId());
+                    }
+                    return subscribers.isEmpty() ? null : subscribers;
+                });
+        if (remaining == null && log.isDebugEnabled()) {
+            log.debug("No subscribers remain for SubscriberPath : " + subscriberPath
+                    + ", in the Thread,ID: " + Thread.currentThread().getName() + ","
+                    + Thread.currentThread().getId());
         }
     }
 
+    /**
+     * @return a snapshot of the channels subscribed to the path, which is empty if the path has no subscribers
+     */
     public List<InboundWebsocketChannelContext> getSubscriberPathChannelContextList(String inboundName,
                                                                                     String subscriberPath) {
-        if (inboundSubscriberPathMap.get(inboundName) != null) {
-            return inboundSubscriberPathMap.get(inboundName).get(subscriberPath);
+        Map<String, InboundWebsocketChannelContext> subscribers = getSubscribers(inboundName, subscriberPath);
+        if (subscribers != null) {
+            return new ArrayList<>(subscribers.values());
         }
         return Collections.emptyList();
     }
 
+    /**
+     * @return number of channels subscribed to the path
+     */
+    public int getSubscriberCount(String inboundName, String subscriberPath) {
+        Map<String, InboundWebsocketChannelContext> subscribers = getSubscribers(inboundName, subscriberPath);
+        return subscribers != null ? subscribers.size() : 0;
+    }
+
+    /**
+     * @return number of channels subscribed to each subscriber path of the inbound endpoint
+     */
+    public Map<String, Integer> getSubscriberCounts(String inboundName) {
+        ConcurrentHashMap<String, ConcurrentHashMap<String, InboundWebsocketChannelContext>> subscriberPathMap =
+                inboundSubscriberPathMap.get(inboundName);
+        if (subscriberPathMap == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Integer> counts = new HashMap<>();
+        for (Map.Entry<String, ConcurrentHashMap<String, InboundWebsocketChannelContext>> entry
+                : subscriberPathMap.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().size());
+        }
+        return counts;
+    }
+
     public void broadcastOnSubscriberPath(WebSocketFrame frame,
                                           String inboundName,
                                           String subscriberPath) {
-        List<InboundWebsocketChannelContext> contextList =
-                getSubscriberPathChannelContextList(inboundName, subscriberPath);
-        if (contextList != null) {
-            for (InboundWebsocketChannelContext context : contextList) {
+        Map<String, InboundWebsocketChannelContext> subscribers = getSubscribers(inboundName, subscriberPath);
+        if (subscribers != null) {
+            for (InboundWebsocketChannelContext context : subscribers.values()) {
                 WebSocketFrame duplicatedFrame = frame.duplicate();
                 context.writeToChannel(duplicatedFrame.retain());
             }
@@ -147,14 +149,21 @@ public class WebsocketSubscriberPathManager {
                                                    String inboundName,
                                                    String subscriberPath,
                                                    InboundWebsocketChannelContext ctx) {
-        List<InboundWebsocketChannelContext> contextList =
-                getSubscriberPathChannelContextList(inboundName, subscriberPath);
-        for (InboundWebsocketChannelContext context : contextList) {
-            if (!context.getChannelIdentifier().equals(ctx.getChannelIdentifier())) {
-                WebSocketFrame duplicatedFrame = frame.duplicate();
-                context.writeToChannel(duplicatedFrame.retain());
+        Map<String, InboundWebsocketChannelContext> subscribers = getSubscribers(inboundName, subscriberPath);
+        if (subscribers != null) {
+            for (Map.Entry<String, InboundWebsocketChannelContext> entry : subscribers.entrySet()) {
+                if (!entry.getKey().equals(ctx.getChannelIdentifier())) {
+                    WebSocketFrame duplicatedFrame = frame.duplicate();
+                    entry.getValue().writeToChannel(duplicatedFrame.retain());
+                }
             }
         }
     }
 
+    private Map<String, InboundWebsocketChannelContext> getSubscribers(String inboundName, String subscriberPath) {
+        ConcurrentHashMap<String, ConcurrentHashMap<String, InboundWebsocketChannelContext>> subscriberPathMap =
+                inboundSubscriberPathMap.get(inboundName);
+        return subscriberPathMap != null ? subscriberPathMap.get(subscriberPath) : null;
+    }
+
 }
@@ -0,0 +1,235 @@
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ * <p>
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package endpoint.common.tests;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import org.apache.synapse.core.SynapseEnvironment;
+import org.junit.Test;
+import org.wso2.carbon.inbound.endpoint.common.InboundPollingScheduler;
+import org.wso2.carbon.inbound.endpoint.common.InboundRunner;
+import org.wso2.carbon.inbound.endpoint.common.InboundTask;
+import org.wso2.carbon.inbound.endpoint.common.ScheduledPollingTask;
+
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests running the poll cycles of the runners of an endpoint on the shared threads of the
+ * {@link InboundPollingScheduler}, limited by a {@link InboundPollingScheduler.ConcurrencyLimit}.
+ */
+public class InboundPollingSchedulerTest extends TestCase {
+
+    /* long enough for a runner to run a single cycle during a test */
+    private static final long LONG_INTERVAL = 60000;
+
+    private static final long TIMEOUT = 5000;
+
+    /**
+     * Test running a single cycle of the endpoint at a time, and handing the permit over to the waiting runner once
+     * the running cycle completes
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        InboundPollingScheduler.ConcurrencyLimit limit = new InboundPollingScheduler.ConcurrencyLimit(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        BlockingTask first = new BlockingTask(running, maxRunning);
+        BlockingTask second = new BlockingTask(running, maxRunning);
+
+        InboundPollingScheduler.ScheduledRunner firstRunner = schedule(first, LONG_INTERVAL, limit);
+        Assert.assertTrue(first.awaitCycleStarted());
+        InboundPollingScheduler.ScheduledRunner secondRunner = schedule(second, LONG_INTERVAL, limit);
+        Assert.assertFalse("The second runner must wait for the running cycle",
+                second.started.tryAcquire(200, TimeUnit.MILLISECONDS));
+
+        first.completeCycle();
+        Assert.assertTrue("The permit must be handed over to the waiting runner", second.awaitCycleStarted());
+        second.completeCycle();
+        Assert.assertEquals(1, maxRunning.get());
+
+        firstRunner.stop();
+        secondRunner.stop();
+    }
+
+    /**
+     * Test running the cycles of the runners of an endpoint at the same time up to the limit
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrentCyclesUpToLimit() throws Exception {
+        InboundPollingScheduler.ConcurrencyLimit limit = new InboundPollingScheduler.ConcurrencyLimit(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        BlockingTask first = new BlockingTask(running, maxRunning);
+        BlockingTask second = new BlockingTask(running, maxRunning);
+        BlockingTask third = new BlockingTask(running, maxRunning);
+
+        InboundPollingScheduler.ScheduledRunner firstRunner = schedule(first, LONG_INTERVAL, limit);
+        InboundPollingScheduler.ScheduledRunner secondRunner = schedule(second, LONG_INTERVAL, limit);
+        Assert.assertTrue(first.awaitCycleStarted());
+        Assert.assertTrue(second.awaitCycleStarted());
+        InboundPollingScheduler.ScheduledRunner thirdRunner = schedule(third, LONG_INTERVAL, limit);
+        Assert.assertFalse(third.started.tryAcquire(200, TimeUnit.MILLISECONDS));
+
+        second.completeCycle();
+        Assert.assertTrue(third.awaitCycleStarted());
+        first.completeCycle();
+        third.completeCycle();
+        Assert.assertEquals(2, maxRunning.get());
+
+        firstRunner.stop();
+        secondRunner.stop();
+        thirdRunner.stop();
+    }
+
+    /**
+     * Test that stopping a runner waits for its running cycle to complete, and that no cycle runs afterwards
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testStopWaitsForRunningCycle() throws Exception {
+        BlockingTask task = new BlockingTask(new AtomicInteger(), new AtomicInteger());
+        final InboundPollingScheduler.ScheduledRunner runner =
+                schedule(task, 0, new InboundPollingScheduler.ConcurrencyLimit(1));
+        Assert.assertTrue(task.awaitCycleStarted());
+
+        Thread stopping = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runner.stop();
+            }
+        });
+        stopping.start();
+        stopping.join(200);
+        Assert.assertTrue("Stop must wait for the running cycle", stopping.isAlive());
+
+        task.completeCycle();
+        stopping.join(TIMEOUT);
+        Assert.assertFalse(stopping.isAlive());
+        int cycles = task.completedCycles.get();
+        // the runner would poll again right away as its interval is 0
+        Assert.assertFalse("No cycle must run once the runner is stopped",
+                task.started.tryAcquire(200, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(cycles, task.completedCycles.get());
+    }
+
+    /**
+     * Test that a runner stopped while it waits for a permit passes the permit on, so that it is not lost
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testStopWhileWaitingForPermit() throws Exception {
+        InboundPollingScheduler.ConcurrencyLimit limit = new InboundPollingScheduler.ConcurrencyLimit(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        BlockingTask first = new BlockingTask(running, maxRunning);
+        BlockingTask waiting = new BlockingTask(running, maxRunning);
+        BlockingTask next = new BlockingTask(running, maxRunning);
+
+        InboundPollingScheduler.ScheduledRunner firstRunner = schedule(first, LONG_INTERVAL, limit);
+        Assert.assertTrue(first.awaitCycleStarted());
+        InboundPollingScheduler.ScheduledRunner waitingRunner = schedule(waiting, LONG_INTERVAL, limit);
+        waitingRunner.stop();
+
+        first.completeCycle();
+        InboundPollingScheduler.ScheduledRunner nextRunner = schedule(next, LONG_INTERVAL, limit);
+        Assert.assertTrue("The permit handed over to the stopped runner must be released",
+                next.awaitCycleStarted());
+        next.completeCycle();
+        Assert.assertEquals("The stopped runner must not run a cycle", 0, waiting.completedCycles.get());
+
+        firstRunner.stop();
+        nextRunner.stop();
+    }
+
+    private static InboundPollingScheduler.ScheduledRunner schedule(BlockingTask task, long interval,
+                                                                    InboundPollingScheduler.ConcurrencyLimit limit) {
+        return InboundPollingScheduler.getInstance().schedule(new InboundRunner(task, interval, null, false), limit);
+    }
+
+    /**
+     * A task whose cycles run until the test completes them.
+     */
+    private static final class BlockingTask extends InboundTask implements ScheduledPollingTask {
+
+        private final Semaphore started = new Semaphore(0);
+        private final Semaphore completion = new Semaphore(0);
+        private final AtomicInteger completedCycles = new AtomicInteger();
+        private final AtomicInteger running;
+        private final AtomicInteger maxRunning;
+
+        private BlockingTask(AtomicInteger running, AtomicInteger maxRunning) {
+            this.running = running;
+            this.maxRunning = maxRunning;
+        }
+
+        @Override
+        public boolean executeCycle() {
+            int current = running.incrementAndGet();
+            int max;
+            do {
+                max = maxRunning.get();
+            } while (current > max && !maxRunning.compareAndSet(max, current));
+            started.release();
+            try {
+                completion.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+                completedCycles.incrementAndGet();
+            }
+            return false;
+        }
+
+        private boolean awaitCycleStarted() throws InterruptedException {
+            return started.tryAcquire(TIMEOUT, TimeUnit.MILLISECONDS);
+        }
+
+        private void completeCycle() {
+            completion.release();
+        }
+
+        @Override
+        protected void taskExecute() {
+            executeCycle();
+        }
+
+        @Override
+        public Properties getInboundProperties() {
+            return new Properties();
+        }
+
+        @Override
+        public void init(SynapseEnvironment synapseEnvironment) {
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ * <p>
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package endpoint.common.tests;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import org.apache.synapse.core.SynapseEnvironment;
+import org.junit.Test;
+import org.wso2.carbon.inbound.endpoint.common.InboundRunner;
+import org.wso2.carbon.inbound.endpoint.common.InboundTask;
+import org.wso2.carbon.inbound.endpoint.common.LogThrottle;
+import org.wso2.carbon.inbound.endpoint.common.ScheduledPollingTask;
+import org.wso2.carbon.inbound.endpoint.protocol.PollingConstants;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the time of the poll cycles scheduled by the {@link InboundRunner}, on a clock which only moves when a cycle
+ * takes time or the test waits for the next cycle.
+ */
+public class InboundRunnerTest extends TestCase {
+
+    private static final long INTERVAL = 100;
+
+    /**
+     * Test starting each cycle an interval after the previous cycle started, regardless of the time taken by the cycle
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFixedRate() throws Exception {
+        PollingTask task = new PollingTask(new Properties());
+        ClockedRunner runner = new ClockedRunner(task, INTERVAL);
+
+        task.cycleTime = 30;
+        Assert.assertEquals(ms(100), runner.runCycle());
+        runner.now = ms(100);
+        Assert.assertEquals("The time taken by the cycle must not delay the next cycle", ms(200), runner.runCycle());
+        runner.now = ms(215);
+        Assert.assertEquals(ms(300), runner.runCycle());
+        Assert.assertEquals(15, runner.getMetrics().getLastLag());
+        Assert.assertEquals(3, runner.getMetrics().getCycleCount());
+        Assert.assertEquals(0, runner.getMetrics().getSkippedCycleCount());
+        Assert.assertEquals(30, runner.getMetrics().getMaxCycleTime());
+        Assert.assertEquals(PollingConstants.INBOUND_SCHEDULE_MODE_FIXED_RATE, runner.getMetrics().getScheduleMode());
+    }
+
+    /**
+     * Test running a single overdue cycle right away and dropping the rest when a cycle takes several intervals
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testCatchUp() throws Exception {
+        PollingTask task = new PollingTask(new Properties());
+        ClockedRunner runner = new ClockedRunner(task, INTERVAL);
+
+        task.cycleTime = 350;
+        // the cycles due at 100, 200 and 300 are overdue, only the last one runs
+        Assert.assertEquals(ms(300), runner.runCycle());
+        Assert.assertEquals(2, runner.getMetrics().getSkippedCycleCount());
+
+        task.cycleTime = 10;
+        Assert.assertEquals("The schedule must resume from the overdue cycle", ms(400), runner.runCycle());
+        Assert.assertEquals(50, runner.getMetrics().getLastLag());
+        Assert.assertEquals(2, runner.getMetrics().getSkippedCycleCount());
+    }
+
+    /**
+     * Test running up to the configured number of overdue cycles back to back
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testCatchUpCycles() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(PollingConstants.INBOUND_SCHEDULE_MAX_CATCH_UP_CYCLES, "3");
+        PollingTask task = new PollingTask(properties);
+        ClockedRunner runner = new ClockedRunner(task, INTERVAL);
+
+        task.cycleTime = 350;
+        Assert.assertEquals("All the overdue cycles must run", ms(100), runner.runCycle());
+        task.cycleTime = 10;
+        Assert.assertEquals(ms(200), runner.runCycle());
+        Assert.assertEquals(ms(300), runner.runCycle());
+        Assert.assertEquals(ms(400), runner.runCycle());
+        Assert.assertEquals(0, runner.getMetrics().getSkippedCycleCount());
+
+        task.cycleTime = 550;
+        runner.now = ms(400);
+        // the cycles due at 500 to 900 are overdue, the last 3 of them run
+        Assert.assertEquals(ms(700), runner.runCycle());
+        Assert.assertEquals(2, runner.getMetrics().getSkippedCycleCount());
+    }
+
+    /**
+     * Test polling again right away after an active cycle, and doubling the wait after each idle cycle up to the
+     * maximum idle interval
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testAdaptive() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(PollingConstants.INBOUND_SCHEDULE_MODE, PollingConstants.INBOUND_SCHEDULE_MODE_ADAPTIVE);
+        properties.setProperty(PollingConstants.INBOUND_SCHEDULE_MAX_IDLE_INTERVAL, "400");
+        PollingTask task = new PollingTask(properties);
+        ClockedRunner runner = new ClockedRunner(task, INTERVAL);
+        Assert.assertEquals(PollingConstants.INBOUND_SCHEDULE_MODE_ADAPTIVE, runner.getMetrics().getScheduleMode());
+        task.cycleTime = 10;
+
+        task.active = true;
+        Assert.assertEquals("An active cycle must be followed by the next cycle right away", ms(10),
+                runner.runCycle());
+        Assert.assertEquals(ms(20), runner.runCycle());
+
+        task.active = false;
+        Assert.assertEquals(ms(30 + 100), runner.runCycle());
+        runner.now = ms(130);
+        Assert.assertEquals(ms(140 + 200), runner.runCycle());
+        runner.now = ms(340);
+        Assert.assertEquals(ms(350 + 400), runner.runCycle());
+        runner.now = ms(750);
+        Assert.assertEquals("The wait must not exceed the maximum idle interval", ms(760 + 400), runner.runCycle());
+
+        runner.now = ms(1160);
+        task.active = true;
+        Assert.assertEquals(ms(1170), runner.runCycle());
+        task.active = false;
+        Assert.assertEquals("The wait must start again at the interval after an active cycle", ms(1180 + 100),
+                runner.runCycle());
+
+        Assert.assertEquals(8, runner.getMetrics().getCycleCount());
+        Assert.assertEquals(3, runner.getMetrics().getActiveCycleCount());
+        Assert.assertEquals(0, runner.getMetrics().getSkippedCycleCount());
+    }
+
+    /**
+     * Test running the cycles back to back when the interval is zero
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testZeroInterval() throws Exception {
+        PollingTask task = new PollingTask(new Properties());
+        ClockedRunner runner = new ClockedRunner(task, 0);
+        task.cycleTime = 10;
+        Assert.assertEquals(ms(10), runner.runCycle());
+        Assert.assertEquals(ms(20), runner.runCycle());
+        Assert.assertEquals(0, runner.getMetrics().getSkippedCycleCount());
+    }
+
+    /**
+     * Test resetting the statistics of the runner
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testResetStatistics() throws Exception {
+        PollingTask task = new PollingTask(new Properties());
+        ClockedRunner runner = new ClockedRunner(task, INTERVAL);
+        task.cycleTime = 350;
+        runner.runCycle();
+        runner.getMetrics().resetStatistics();
+        Assert.assertEquals(0, runner.getMetrics().getCycleCount());
+        Assert.assertEquals(0, runner.getMetrics().getSkippedCycleCount());
+        Assert.assertEquals(0, runner.getMetrics().getMaxCycleTime());
+        Assert.assertEquals(0.0, runner.getMetrics().getAverageCycleTime(), 0.0);
+
+        task.cycleTime = 10;
+        runner.runCycle();
+        Assert.assertEquals(1, runner.getMetrics().getCycleCount());
+        Assert.assertEquals(10, runner.getMetrics().getMaxCycleTime());
+    }
+
+    /**
+     * Test logging the first occurrence of an event and then one in every interval occurrences
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testLogThrottle() throws Exception {
+        LogThrottle throttle = new LogThrottle(100);
+        Assert.assertTrue(throttle.shouldLog(1));
+        Assert.assertFalse(throttle.shouldLog(2));
+        Assert.assertFalse(throttle.shouldLog(99));
+        Assert.assertTrue(throttle.shouldLog(100));
+        Assert.assertFalse(throttle.shouldLog(101));
+        Assert.assertTrue(throttle.shouldLog(200));
+        Assert.assertFalse(throttle.shouldLog(0));
+    }
+
+    private static long ms(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * A runner whose clock is set by the test and moved by the cycles of its task.
+     */
+    private static final class ClockedRunner extends InboundRunner {
+
+        private long now;
+
+        private ClockedRunner(PollingTask task, long interval) {
+            super(task, interval, null, false);
+            task.runner = this;
+        }
+
+        @Override
+        protected long nanoTime() {
+            return now;
+        }
+    }
+
+    /**
+     * A task whose cycles take the given time on the clock of its runner.
+     */
+    private static final class PollingTask extends InboundTask implements ScheduledPollingTask {
+
+        private final Properties properties;
+        private ClockedRunner runner;
+        private long cycleTime;
+        private boolean active;
+
+        private PollingTask(Properties properties) {
+            this.properties = properties;
+        }
+
+        @Override
+        public boolean executeCycle() {
+            runner.now += ms(cycleTime);
+            return active;
+        }
+
+        @Override
+        protected void taskExecute() {
+            executeCycle();
+        }
+
+        @Override
+        public Properties getInboundProperties() {
+            return properties;
+        }
+
+        @Override
+        public void init(SynapseEnvironment synapseEnvironment) {
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+}
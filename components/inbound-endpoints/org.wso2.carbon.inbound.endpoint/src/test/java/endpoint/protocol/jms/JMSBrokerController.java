@@ -151,6 +151,19 @@ public class JMSBrokerController {
         }
     }
 
+    public TextMessage pushMessage(String messageContent, String propertyName, String propertyValue) {
+        TextMessage message = null;
+        try {
+            message = this.session.createTextMessage(messageContent);
+            message.setStringProperty(propertyName, propertyValue);
+            this.producer.send(message);
+        } catch (JMSException e) {
+            log.error("Error while sending message", e);
+            Assert.fail();
+        }
+        return message;
+    }
+
     public BytesMessage createBytesMessage(byte[] payload) {
         BytesMessage bm = null;
         try {
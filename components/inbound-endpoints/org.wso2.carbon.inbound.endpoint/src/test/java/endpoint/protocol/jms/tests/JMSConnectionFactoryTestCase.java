@@ -27,6 +27,7 @@ import org.junit.Test;
 import org.wso2.carbon.inbound.endpoint.protocol.jms.JMSConstants;
 import org.wso2.carbon.inbound.endpoint.protocol.jms.factory.CachedJMSConnectionFactory;
 import org.wso2.carbon.inbound.endpoint.protocol.jms.factory.JMSConnectionFactory;
+import org.wso2.carbon.inbound.endpoint.protocol.jms.factory.SharedJMSConnection;
 
 import javax.jms.Connection;
 import javax.jms.MessageConsumer;
@@ -445,4 +446,59 @@ public class JMSConnectionFactoryTestCase extends TestCase {
             brokerController.stopProcess();
         }
     }
+
+    /**
+     * Test a connection shared by concurrent consumers, which is kept open for the other consumers when a consumer
+     * fails with it, and closed once they release it
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testSharedConnection() throws Exception {
+        String queueName = "testSharedConnection";
+        Properties jmsProperties = JMSTestsUtils.getJMSPropertiesForDestination(queueName, PROVIDER_URL, true);
+        JMSBrokerController brokerController = new JMSBrokerController(PROVIDER_URL, jmsProperties);
+        SharedJMSConnection sharedConnection = new SharedJMSConnection();
+        try {
+            brokerController.startProcess();
+            Queue queue = brokerController.connect(queueName, true);
+            brokerController.pushMessage("message1");
+            CachedJMSConnectionFactory failingFactory = new CachedJMSConnectionFactory(jmsProperties,
+                    sharedConnection);
+            CachedJMSConnectionFactory factory = new CachedJMSConnectionFactory(jmsProperties, sharedConnection);
+            Connection connection1 = failingFactory.getConnection(null, null);
+            Connection connection2 = factory.getConnection(null, null);
+            Assert.assertSame("The connection is not shared", connection1, connection2);
+
+            failingFactory.closeConnection(connection1, true);
+            Assert.assertFalse("The connection is closed while it is in use",
+                    ((ActiveMQConnection) connection2).isClosed());
+            Session session = factory.getSession(connection2);
+            MessageConsumer consumer = factory.getMessageConsumer(session, queue);
+            Assert.assertNotNull("The connection in use cannot receive messages", consumer.receive(1000));
+            // the resources are released again after a failure, which has no effect
+            failingFactory.closeConnection(connection1, false);
+            Connection connection3 = failingFactory.getConnection(null, null);
+            Assert.assertNotSame("The failed connection is not created again", connection1, connection3);
+
+            factory.closeConsumer(consumer);
+            factory.closeSession(session);
+            factory.closeConnection(connection2, false);
+            Assert.assertTrue("The failed connection is not closed once it is released",
+                    ((ActiveMQConnection) connection2).isClosed());
+            Assert.assertSame("The connection created again is not shared", connection3,
+                    factory.getConnection(null, null));
+
+            failingFactory.closeConnection();
+            Assert.assertFalse("The connection is closed while it is in use",
+                    ((ActiveMQConnection) connection3).isClosed());
+            factory.closeConnection(connection3, false);
+            Assert.assertTrue("The failed connection is not closed once it is released",
+                    ((ActiveMQConnection) connection3).isClosed());
+        } finally {
+            sharedConnection.close();
+            brokerController.disconnect();
+            brokerController.stopProcess();
+        }
+    }
 }
@@ -0,0 +1,265 @@
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ * <p>
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package endpoint.protocol.jms.tests;
+
+import endpoint.protocol.jms.JMSTestsUtils;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.apache.axiom.om.OMElement;
+import org.apache.axis2.Constants;
+import org.apache.axis2.builder.ApplicationXMLBuilder;
+import org.apache.axis2.builder.Builder;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.axis2.format.PlainTextBuilder;
+import org.apache.synapse.MessageContext;
+import org.apache.synapse.config.SynapseConfiguration;
+import org.apache.synapse.core.axis2.Axis2MessageContext;
+import org.apache.synapse.core.axis2.Axis2SynapseEnvironment;
+import org.apache.synapse.inbound.InboundEndpoint;
+import org.apache.synapse.inbound.InboundEndpointConstants;
+import org.apache.synapse.mediators.base.SequenceMediator;
+import org.junit.Test;
+import org.wso2.carbon.inbound.endpoint.protocol.jms.JMSConstants;
+import org.wso2.carbon.inbound.endpoint.protocol.jms.JMSInjectHandler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import javax.jms.Connection;
+import javax.jms.Destination;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests the parts of the injection of a JMS message which are resolved once for the inbound endpoint, i.e. the
+ * builders of the content types and the reply senders, and the building of text messages in their charset.
+ */
+public class JMSInjectHandlerTest extends TestCase {
+
+    private static final String PROVIDER_URL = "tcp://127.0.0.1:61616";
+    private static final String INBOUND_EP_NAME = "testInjection";
+    private static final String SEQUENCE_NAME = "testInjectionSequence";
+    private static final String CONTENT_TYPE_PROPERTY = "contentType";
+
+    private final List<MessageContext> injectedMessages = new ArrayList<>();
+    private final List<SequenceMediator> injectedSequences = new ArrayList<>();
+    private SynapseConfiguration synapseConfiguration;
+    private final Map<String, Integer> builderLookups = new HashMap<>();
+
+    /**
+     * Test that the builder of a content type is looked up once, whatever its parameters, while the message type is
+     * still set on each message
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testBuilderCache() throws Exception {
+        JMSInjectHandler injectHandler = createInjectHandler();
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(injectHandler.invoke(createMessage("<data>" + i + "</data>", "application/xml"),
+                    INBOUND_EP_NAME));
+        }
+        injectHandler.invoke(createMessage("<data/>", "application/xml; charset=UTF-8"), INBOUND_EP_NAME);
+        Assert.assertEquals("The builder is not cached", Integer.valueOf(1), builderLookups.get("application/xml"));
+        Assert.assertEquals(4, injectedMessages.size());
+        for (MessageContext msgCtx : injectedMessages) {
+            Assert.assertEquals("application/xml", getAxis2MessageContext(msgCtx)
+                    .getProperty(Constants.Configuration.MESSAGE_TYPE));
+        }
+        Assert.assertEquals("2", getPayload(injectedMessages.get(2)).getText());
+    }
+
+    /**
+     * Test that the builders of the first content types are cached, so that content types taken from the messages
+     * do not grow the cache
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testBuilderCacheLimit() throws Exception {
+        JMSInjectHandler injectHandler = createInjectHandler();
+        for (int i = 0; i < 40; i++) {
+            injectHandler.invoke(createMessage("<data/>", "application/x-type" + i), INBOUND_EP_NAME);
+        }
+        injectHandler.invoke(createMessage("<data/>", "application/x-type0"), INBOUND_EP_NAME);
+        injectHandler.invoke(createMessage("<data/>", "application/x-type39"), INBOUND_EP_NAME);
+        Assert.assertEquals("The builder of a first content type is not cached", Integer.valueOf(1),
+                builderLookups.get("application/x-type0"));
+        Assert.assertEquals("The builder of a content type beyond the limit is cached", Integer.valueOf(2),
+                builderLookups.get("application/x-type39"));
+    }
+
+    /**
+     * Test that the reply senders are kept per destination, where the least recently used sender is dropped once
+     * the limit is reached, and that they are dropped when the connection changes
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testReplySenderCache() throws Exception {
+        JMSInjectHandler injectHandler = createInjectHandler();
+        Object firstSender = getReplySender(injectHandler, "reply0");
+        Assert.assertNotNull("No reply sender is set", firstSender);
+        Assert.assertSame("The reply sender is not cached", firstSender, getReplySender(injectHandler, "reply0"));
+        Object secondSender = getReplySender(injectHandler, "reply1");
+        for (int i = 2; i < 64; i++) {
+            getReplySender(injectHandler, "reply" + i);
+        }
+        // the first sender is used again, hence the second sender is the least recently used one
+        Assert.assertSame(firstSender, getReplySender(injectHandler, "reply0"));
+        getReplySender(injectHandler, "reply64");
+        Assert.assertSame("The recently used sender is dropped", firstSender,
+                getReplySender(injectHandler, "reply0"));
+        Assert.assertNotSame("The least recently used sender is not dropped", secondSender,
+                getReplySender(injectHandler, "reply1"));
+
+        injectHandler.setConnection(createConnection());
+        Assert.assertNotSame("The sender of the previous connection is used", firstSender,
+                getReplySender(injectHandler, "reply0"));
+    }
+
+    /**
+     * Test building text messages, which are read as text by the text builders and encoded in the charset of the
+     * content type for the other builders
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testTextMessageCharset() throws Exception {
+        JMSInjectHandler injectHandler = createInjectHandler();
+        String text = "\u20ac\u00e9\u4e2d";
+        injectHandler.invoke(createMessage("<data>" + text + "</data>", "application/xml"), INBOUND_EP_NAME);
+        injectHandler.invoke(createMessage("<data>\u00e9\u00e8</data>", "application/xml; charset=ISO-8859-1"),
+                INBOUND_EP_NAME);
+        injectHandler.invoke(createMessage(text, "text/plain"), INBOUND_EP_NAME);
+
+        Assert.assertEquals(text, getPayload(injectedMessages.get(0)).getText());
+        Assert.assertEquals("UTF-8", getAxis2MessageContext(injectedMessages.get(0))
+                .getProperty(Constants.Configuration.CHARACTER_SET_ENCODING));
+        Assert.assertEquals("\u00e9\u00e8", getPayload(injectedMessages.get(1)).getText());
+        Assert.assertEquals("ISO-8859-1", getAxis2MessageContext(injectedMessages.get(1))
+                .getProperty(Constants.Configuration.CHARACTER_SET_ENCODING));
+        Assert.assertEquals(text, getPayload(injectedMessages.get(2)).getText());
+    }
+
+    /**
+     * Test that a prepared message is read before it is injected, so that it can be injected apart from its session
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testPreparedMessage() throws Exception {
+        JMSInjectHandler injectHandler = createInjectHandler();
+        ActiveMQTextMessage message = createMessage("<data>prepared</data>", "application/xml");
+        JMSInjectHandler.PreparedMessage preparedMessage = injectHandler.prepare(message, INBOUND_EP_NAME);
+        message.clearBody();
+        Assert.assertTrue(injectedMessages.isEmpty());
+        Assert.assertTrue(preparedMessage.inject());
+        Assert.assertEquals("prepared", getPayload(injectedMessages.get(0)).getText());
+    }
+
+    /**
+     * Test that a sequence deployed again is used for the next messages, while the inbound endpoint is not deployed
+     * again
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRedeployedSequence() throws Exception {
+        JMSInjectHandler injectHandler = createInjectHandler();
+        injectHandler.invoke(createMessage("<data/>", "application/xml"), INBOUND_EP_NAME);
+        SequenceMediator redeployed = new SequenceMediator();
+        synapseConfiguration.removeSequence(SEQUENCE_NAME);
+        synapseConfiguration.addSequence(SEQUENCE_NAME, redeployed);
+        injectHandler.invoke(createMessage("<data/>", "application/xml"), INBOUND_EP_NAME);
+
+        Assert.assertEquals(2, injectedSequences.size());
+        Assert.assertNotSame(redeployed, injectedSequences.get(0));
+        Assert.assertSame("The undeployed sequence is used", redeployed, injectedSequences.get(1));
+    }
+
+    private JMSInjectHandler createInjectHandler() throws Exception {
+        AxisConfiguration axisConfiguration = new AxisConfiguration() {
+            @Override
+            public Builder getMessageBuilder(String contentType) {
+                Integer count = builderLookups.get(contentType);
+                builderLookups.put(contentType, count == null ? 1 : count + 1);
+                return super.getMessageBuilder(contentType);
+            }
+        };
+        axisConfiguration.addMessageBuilder("application/xml", new ApplicationXMLBuilder());
+        axisConfiguration.addMessageBuilder("text/plain", new PlainTextBuilder());
+        for (int i = 0; i < 40; i++) {
+            axisConfiguration.addMessageBuilder("application/x-type" + i, new ApplicationXMLBuilder());
+        }
+        synapseConfiguration = new SynapseConfiguration();
+        InboundEndpoint inboundEndpoint = new InboundEndpoint();
+        inboundEndpoint.setName(INBOUND_EP_NAME);
+        inboundEndpoint.setInjectingSeq(SEQUENCE_NAME);
+        synapseConfiguration.addInboundEndpoint(INBOUND_EP_NAME, inboundEndpoint);
+        synapseConfiguration.addSequence(SEQUENCE_NAME, new SequenceMediator());
+        Axis2SynapseEnvironment synapseEnvironment = new Axis2SynapseEnvironment(
+                new ConfigurationContext(axisConfiguration), synapseConfiguration) {
+            @Override
+            public boolean injectInbound(MessageContext synCtx, SequenceMediator seq, boolean sequential) {
+                injectedMessages.add(synCtx);
+                injectedSequences.add(seq);
+                return true;
+            }
+        };
+        Properties jmsProperties = JMSTestsUtils.getJMSPropertiesForDestination("testInjectionQueue",
+                PROVIDER_URL, true);
+        jmsProperties.put(JMSConstants.CONTENT_TYPE_PROPERTY, CONTENT_TYPE_PROPERTY);
+        return new JMSInjectHandler(SEQUENCE_NAME, null, true, synapseEnvironment, jmsProperties);
+    }
+
+    private ActiveMQTextMessage createMessage(String text, String contentType) throws Exception {
+        ActiveMQTextMessage message = new ActiveMQTextMessage();
+        message.setText(text);
+        message.setStringProperty(CONTENT_TYPE_PROPERTY, contentType);
+        message.setJMSMessageID("ID:" + text.hashCode());
+        return message;
+    }
+
+    private Object getReplySender(JMSInjectHandler injectHandler, String replyQueue) throws Exception {
+        ActiveMQTextMessage message = createMessage("<data/>", "application/xml");
+        Destination replyTo = new ActiveMQQueue(replyQueue);
+        message.setJMSReplyTo(replyTo);
+        injectHandler.invoke(message, INBOUND_EP_NAME);
+        return injectedMessages.get(injectedMessages.size() - 1)
+                .getProperty(InboundEndpointConstants.INBOUND_ENDPOINT_RESPONSE_WORKER);
+    }
+
+    private Connection createConnection() {
+        return mock(Connection.class);
+    }
+
+    private OMElement getPayload(MessageContext msgCtx) {
+        return msgCtx.getEnvelope().getBody().getFirstElement();
+    }
+
+    private org.apache.axis2.context.MessageContext getAxis2MessageContext(MessageContext msgCtx) {
+        return ((Axis2MessageContext) msgCtx).getAxis2MessageContext();
+    }
+}
@@ -0,0 +1,390 @@
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ * <p>
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package endpoint.protocol.jms.tests;
+
+import endpoint.protocol.jms.JMSBrokerController;
+import endpoint.protocol.jms.JMSTestsUtils;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import org.apache.synapse.SynapseException;
+import org.junit.Test;
+import org.wso2.carbon.inbound.endpoint.protocol.jms.JMSConstants;
+import org.wso2.carbon.inbound.endpoint.protocol.jms.JMSInjectHandler;
+import org.wso2.carbon.inbound.endpoint.protocol.jms.JMSPollingConsumer;
+import org.wso2.carbon.inbound.endpoint.protocol.jms.factory.SharedJMSConnection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Queue;
+import javax.jms.TextMessage;
+
+public class JMSPollingConsumerBatchTest extends TestCase {
+
+    private static final String PROVIDER_URL = "tcp://127.0.0.1:61616";
+    private static final String INBOUND_EP_NAME = "testBatchPolling";
+    private static final long INTERVAL = 1000;
+    private static final int MAXIMUM_REDELIVERIES = 2;
+    private static final String DEAD_LETTER_QUEUE = "ActiveMQ.DLQ";
+
+    /**
+     * Test polling a batch of messages which is committed at once when the batch timeout expires before the batch
+     * is full
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testPollingBatchFromQueue() throws Exception {
+        String queueName = "testBatchQueue1";
+        Properties jmsProperties = getBatchProperties(queueName);
+        JMSBrokerController brokerController = new JMSBrokerController(PROVIDER_URL, jmsProperties);
+        JMSPollingConsumer jmsPollingConsumer = null;
+        try {
+            brokerController.startProcess();
+            Queue queue = brokerController.connect(queueName, true);
+            brokerController.pushMessage("message1");
+            brokerController.pushMessage("message2");
+            brokerController.pushMessage("message3");
+            jmsPollingConsumer = new JMSPollingConsumer(jmsProperties, INTERVAL, INBOUND_EP_NAME);
+            RecordingInjectHandler injectHandler = new RecordingInjectHandler(jmsProperties);
+            jmsPollingConsumer.registerHandler(injectHandler);
+            jmsPollingConsumer.poll();
+            Assert.assertEquals("The messages are not injected as a batch",
+                    Arrays.asList("message1", "message2", "message3"), injectHandler.getInjectedMessages());
+            // uncommitted messages are returned to the queue once the consumer is closed
+            jmsPollingConsumer.destroy();
+            jmsPollingConsumer = null;
+            Assert.assertNull("The batch is not committed", brokerController.receiveMessage(queue));
+        } finally {
+            if (jmsPollingConsumer != null) {
+                jmsPollingConsumer.destroy();
+            }
+            brokerController.disconnect();
+            brokerController.stopProcess();
+        }
+    }
+
+    /**
+     * Test a batch with a message which always fails. The batch is rolled back as a whole, and its messages are then
+     * processed one at a time, so that the messages before the failing message are committed on their own while the
+     * failing message is rolled back again until the broker moves it to the dead letter queue. The messages after it
+     * are batched again once the isolated messages are processed
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRollbackOfFailedBatch() throws Exception {
+        String queueName = "testBatchQueue2";
+        Properties jmsProperties = getBatchProperties(queueName);
+        // redeliver the rolled back messages at once, and move the failing message to the dead letter queue after
+        // the given number of redeliveries
+        jmsProperties.put(JMSConstants.PROVIDER_URL, PROVIDER_URL + "?jms.redeliveryPolicy.maximumRedeliveries="
+                + MAXIMUM_REDELIVERIES + "&jms.redeliveryPolicy.initialRedeliveryDelay=0"
+                + "&jms.redeliveryPolicy.redeliveryDelay=0");
+        JMSBrokerController brokerController = new JMSBrokerController(PROVIDER_URL, jmsProperties);
+        JMSPollingConsumer jmsPollingConsumer = null;
+        try {
+            brokerController.startProcess();
+            Queue queue = brokerController.connect(queueName, true);
+            for (int i = 1; i <= 5; i++) {
+                brokerController.pushMessage("message" + i);
+            }
+            jmsPollingConsumer = new JMSPollingConsumer(jmsProperties, INTERVAL, INBOUND_EP_NAME);
+            RecordingInjectHandler injectHandler = new RecordingInjectHandler(jmsProperties, "message3");
+            jmsPollingConsumer.registerHandler(injectHandler);
+            int count = 0;
+            while (!injectHandler.getInjectedMessages().contains("message5") && count < 50) {
+                jmsPollingConsumer.poll();
+                count++;
+                Thread.sleep(100);
+            }
+            // the failed batch stops at the failing message, the isolated messages are redelivered in order, and
+            // the failing message is redelivered on its own until it is moved to the dead letter queue
+            Assert.assertEquals("The messages are not isolated and redelivered after the failed batch",
+                    Arrays.asList("message1", "message2", "message3", "message1", "message2", "message3",
+                            "message3", "message4", "message5"), injectHandler.getInjectedMessages());
+            Assert.assertEquals("The failing message is not redelivered until the redelivery limit",
+                    MAXIMUM_REDELIVERIES + 1,
+                    Collections.frequency(injectHandler.getInjectedMessages(), "message3"));
+            jmsPollingConsumer.destroy();
+            jmsPollingConsumer = null;
+            Assert.assertNull("The messages are not committed", brokerController.receiveMessage(queue));
+            Message deadLetter = brokerController.receiveMessage(brokerController.connect(DEAD_LETTER_QUEUE, true));
+            Assert.assertNotNull("The failing message is not moved to the dead letter queue", deadLetter);
+            Assert.assertEquals("message3", ((TextMessage) deadLetter).getText());
+        } finally {
+            if (jmsPollingConsumer != null) {
+                jmsPollingConsumer.destroy();
+            }
+            brokerController.disconnect();
+            brokerController.stopProcess();
+        }
+    }
+
+    /**
+     * Test injecting a batch with the ordered workers, where the messages with the same ordering key are injected in
+     * the order they are received, and the messages are read by the polling thread before they are injected by the
+     * workers
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testOrderedWorkers() throws Exception {
+        String queueName = "testBatchQueue3";
+        Properties jmsProperties = getBatchProperties(queueName);
+        jmsProperties.put(JMSConstants.ORDERED_WORKERS, "3");
+        jmsProperties.put(JMSConstants.ORDERING_KEY_PROPERTY, "orderKey");
+        JMSBrokerController brokerController = new JMSBrokerController(PROVIDER_URL, jmsProperties);
+        JMSPollingConsumer jmsPollingConsumer = null;
+        try {
+            brokerController.startProcess();
+            Queue queue = brokerController.connect(queueName, true);
+            for (int i = 1; i <= 9; i++) {
+                brokerController.pushMessage("key" + (i % 2) + "-message" + i, "orderKey", "key" + (i % 2));
+            }
+            jmsPollingConsumer = new JMSPollingConsumer(jmsProperties, INTERVAL, INBOUND_EP_NAME);
+            RecordingInjectHandler injectHandler = new RecordingInjectHandler(jmsProperties);
+            jmsPollingConsumer.registerHandler(injectHandler);
+            jmsPollingConsumer.poll();
+            List<String> injectedMessages = injectHandler.getInjectedMessages();
+            Assert.assertEquals("The messages of the batch are not injected", 9, injectedMessages.size());
+            List<String> key0Messages = new ArrayList<>();
+            List<String> key1Messages = new ArrayList<>();
+            for (String message : injectedMessages) {
+                (message.startsWith("key0") ? key0Messages : key1Messages).add(message);
+            }
+            Assert.assertEquals("The messages with the same key are not injected in order",
+                    Arrays.asList("key0-message2", "key0-message4", "key0-message6", "key0-message8"), key0Messages);
+            Assert.assertEquals("The messages with the same key are not injected in order",
+                    Arrays.asList("key1-message1", "key1-message3", "key1-message5", "key1-message7",
+                            "key1-message9"), key1Messages);
+            Assert.assertEquals("The messages are not read by the polling thread",
+                    Collections.singleton(Thread.currentThread().getName()), injectHandler.getReadingThreads());
+            for (String thread : injectHandler.getInjectingThreads()) {
+                Assert.assertTrue("The messages are not injected by the ordered workers: " + thread,
+                        thread.startsWith("jms-inbound-" + INBOUND_EP_NAME + "-worker-"));
+            }
+            jmsPollingConsumer.destroy();
+            jmsPollingConsumer = null;
+            Assert.assertNull("The batch is not committed", brokerController.receiveMessage(queue));
+        } finally {
+            if (jmsPollingConsumer != null) {
+                jmsPollingConsumer.destroy();
+            }
+            brokerController.disconnect();
+            brokerController.stopProcess();
+        }
+    }
+
+    /**
+     * Test that the ordered workers are not used with an automatically acknowledged session, as a message would be
+     * acknowledged before it is injected
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testOrderedWorkersWithAutoAcknowledgement() throws Exception {
+        String queueName = "testBatchQueue4";
+        Properties jmsProperties = getBatchProperties(queueName);
+        jmsProperties.put(JMSConstants.SESSION_ACK, "AUTO_ACKNOWLEDGE");
+        jmsProperties.put(JMSConstants.ORDERED_WORKERS, "3");
+        JMSBrokerController brokerController = new JMSBrokerController(PROVIDER_URL, jmsProperties);
+        JMSPollingConsumer jmsPollingConsumer = null;
+        try {
+            brokerController.startProcess();
+            Queue queue = brokerController.connect(queueName, true);
+            brokerController.pushMessage("message1");
+            brokerController.pushMessage("message2");
+            jmsPollingConsumer = new JMSPollingConsumer(jmsProperties, INTERVAL, INBOUND_EP_NAME);
+            RecordingInjectHandler injectHandler = new RecordingInjectHandler(jmsProperties);
+            jmsPollingConsumer.registerHandler(injectHandler);
+            jmsPollingConsumer.poll();
+            Assert.assertEquals(Arrays.asList("message1", "message2"), injectHandler.getInjectedMessages());
+            Assert.assertTrue("The messages are read apart from their injection",
+                    injectHandler.getReadingThreads().isEmpty());
+            Assert.assertEquals("The messages are not injected by the polling thread",
+                    Collections.singleton(Thread.currentThread().getName()), injectHandler.getInjectingThreads());
+            jmsPollingConsumer.destroy();
+            jmsPollingConsumer = null;
+            Assert.assertNull("The messages are not acknowledged", brokerController.receiveMessage(queue));
+        } finally {
+            if (jmsPollingConsumer != null) {
+                jmsPollingConsumer.destroy();
+            }
+            brokerController.disconnect();
+            brokerController.stopProcess();
+        }
+    }
+
+    /**
+     * Test concurrent consumers sharing a connection, where each message is injected once by one of the consumers
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrentConsumers() throws Exception {
+        String queueName = "testBatchQueue5";
+        final int messageCount = 40;
+        Properties jmsProperties = getBatchProperties(queueName);
+        jmsProperties.put(JMSConstants.ORDERED_WORKERS, "2");
+        JMSBrokerController brokerController = new JMSBrokerController(PROVIDER_URL, jmsProperties);
+        SharedJMSConnection sharedConnection = new SharedJMSConnection();
+        List<JMSPollingConsumer> consumers = new ArrayList<>();
+        final List<RecordingInjectHandler> injectHandlers = new ArrayList<>();
+        try {
+            brokerController.startProcess();
+            Queue queue = brokerController.connect(queueName, true);
+            List<String> expectedMessages = new ArrayList<>();
+            for (int i = 0; i < messageCount; i++) {
+                brokerController.pushMessage("message" + i);
+                expectedMessages.add("message" + i);
+            }
+            List<Thread> pollingThreads = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                final JMSPollingConsumer consumer = new JMSPollingConsumer(jmsProperties, INTERVAL, INBOUND_EP_NAME,
+                        sharedConnection);
+                RecordingInjectHandler injectHandler = new RecordingInjectHandler(jmsProperties);
+                consumer.registerHandler(injectHandler);
+                consumers.add(consumer);
+                injectHandlers.add(injectHandler);
+                pollingThreads.add(new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        long deadline = System.currentTimeMillis() + 10000;
+                        while (getInjectedMessages(injectHandlers).size() < messageCount
+                                && System.currentTimeMillis() < deadline) {
+                            consumer.poll();
+                        }
+                    }
+                }));
+            }
+            for (Thread thread : pollingThreads) {
+                thread.start();
+            }
+            for (Thread thread : pollingThreads) {
+                thread.join();
+            }
+            List<String> injectedMessages = getInjectedMessages(injectHandlers);
+            Collections.sort(injectedMessages);
+            Collections.sort(expectedMessages);
+            Assert.assertEquals("Each message is not injected once", expectedMessages, injectedMessages);
+            for (JMSPollingConsumer consumer : consumers) {
+                consumer.destroy();
+            }
+            consumers.clear();
+            Assert.assertNull("The messages are not committed", brokerController.receiveMessage(queue));
+        } finally {
+            for (JMSPollingConsumer consumer : consumers) {
+                consumer.destroy();
+            }
+            sharedConnection.close();
+            brokerController.disconnect();
+            brokerController.stopProcess();
+        }
+    }
+
+    private static List<String> getInjectedMessages(List<RecordingInjectHandler> injectHandlers) {
+        List<String> injectedMessages = new ArrayList<>();
+        for (RecordingInjectHandler injectHandler : injectHandlers) {
+            injectedMessages.addAll(injectHandler.getInjectedMessages());
+        }
+        return injectedMessages;
+    }
+
+    private Properties getBatchProperties(String queueName) {
+        Properties jmsProperties = JMSTestsUtils.getJMSPropertiesForDestination(queueName, PROVIDER_URL, true);
+        jmsProperties.put(JMSConstants.SESSION_ACK, "SESSION_TRANSACTED");
+        jmsProperties.put(JMSConstants.BATCH_SIZE, "10");
+        jmsProperties.put(JMSConstants.BATCH_TIMEOUT, "200");
+        return jmsProperties;
+    }
+
+    /**
+     * Inject handler which records the injected messages instead of mediating them, and fails the given messages
+     * each time they are injected. The messages may be read by the polling thread and injected concurrently by the
+     * ordered workers, hence the threads reading and injecting the messages are recorded as well
+     */
+    private static class RecordingInjectHandler extends JMSInjectHandler {
+
+        private final List<String> injectedMessages = Collections.synchronizedList(new ArrayList<String>());
+        private final Set<String> readingThreads = Collections.synchronizedSet(new HashSet<String>());
+        private final Set<String> injectingThreads = Collections.synchronizedSet(new HashSet<String>());
+        private final Set<String> failingMessages;
+
+        RecordingInjectHandler(Properties jmsProperties, String... failingMessages) {
+            super(null, null, true, null, jmsProperties);
+            this.failingMessages = new HashSet<>(Arrays.asList(failingMessages));
+        }
+
+        @Override
+        public boolean invoke(Object object, String name) {
+            return inject(getText((Message) object));
+        }
+
+        @Override
+        public PreparedMessage prepare(Message msg, String name) {
+            final String text = getText(msg);
+            readingThreads.add(Thread.currentThread().getName());
+            return new PreparedMessage() {
+                @Override
+                public boolean inject() {
+                    return RecordingInjectHandler.this.inject(text);
+                }
+            };
+        }
+
+        private boolean inject(String text) {
+            injectedMessages.add(text);
+            injectingThreads.add(Thread.currentThread().getName());
+            return !failingMessages.contains(text);
+        }
+
+        private String getText(Message msg) {
+            try {
+                return ((TextMessage) msg).getText();
+            } catch (JMSException e) {
+                throw new SynapseException("Unable to read the message", e);
+            }
+        }
+
+        List<String> getInjectedMessages() {
+            synchronized (injectedMessages) {
+                return new ArrayList<>(injectedMessages);
+            }
+        }
+
+        Set<String> getReadingThreads() {
+            synchronized (readingThreads) {
+                return new HashSet<>(readingThreads);
+            }
+        }
+
+        Set<String> getInjectingThreads() {
+            synchronized (injectingThreads) {
+                return new HashSet<>(injectingThreads);
+            }
+        }
+    }
+}
@@ -0,0 +1,440 @@
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ * <p>
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package endpoint.protocol.kafka.tests;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.junit.Test;
+import org.wso2.carbon.inbound.endpoint.protocol.kafka.GroupKafkaMessageListener;
+import org.wso2.carbon.inbound.endpoint.protocol.kafka.InjectHandler;
+import org.wso2.carbon.inbound.endpoint.protocol.kafka.KAFKAConstants;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class GroupKafkaMessageListenerTest extends TestCase {
+
+    private static final String TOPIC = "testGroupTopic";
+    private static final String INBOUND_EP_NAME = "testGroupConsumer";
+    private static final TopicPartition PARTITION_0 = new TopicPartition(TOPIC, 0);
+    private static final TopicPartition PARTITION_1 = new TopicPartition(TOPIC, 1);
+    private static final String ERROR_TOPIC = "testErrorTopic";
+
+    /**
+     * Test injecting the messages of each partition in order and committing their offsets once they are injected
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testInjectAndCommit() throws Exception {
+        MockConsumer<byte[], byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        RecordingInjectHandler injectHandler = new RecordingInjectHandler();
+        GroupKafkaMessageListener listener = createListener(consumer, injectHandler);
+        try {
+            Assert.assertTrue(listener.createKafkaConsumerConnector());
+            assignPartitions(consumer);
+            for (int i = 0; i < 3; i++) {
+                consumer.addRecord(record(PARTITION_0, i, "p0-message" + i));
+                consumer.addRecord(record(PARTITION_1, i, "p1-message" + i));
+            }
+            Assert.assertTrue("The messages are not polled", listener.hasNext());
+            listener.injectMessageToESB(INBOUND_EP_NAME);
+            Assert.assertEquals("The partitions being injected are not paused",
+                    new HashSet<>(Arrays.asList(PARTITION_0, PARTITION_1)), consumer.paused());
+
+            waitForCommit(listener, consumer, PARTITION_0, PARTITION_1);
+            Assert.assertEquals(3, consumer.committed(PARTITION_0).offset());
+            Assert.assertEquals(3, consumer.committed(PARTITION_1).offset());
+            Assert.assertTrue("The injected partitions are not resumed", consumer.paused().isEmpty());
+            Assert.assertEquals("The messages of the partition are not injected in order",
+                    Arrays.asList("p0-message0", "p0-message1", "p0-message2"),
+                    injectHandler.getInjectedMessages("p0"));
+            Assert.assertEquals("The messages of the partition are not injected in order",
+                    Arrays.asList("p1-message0", "p1-message1", "p1-message2"),
+                    injectHandler.getInjectedMessages("p1"));
+        } finally {
+            listener.destroy();
+        }
+        Assert.assertTrue("The consumer is not closed", consumer.closed());
+    }
+
+    /**
+     * Test a message which is not injected, which is retried until it is injected by default so that the partition is
+     * neither committed past it nor resumed
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFailedMessageIsRetriedByDefault() throws Exception {
+        MockConsumer<byte[], byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        RecordingInjectHandler injectHandler = new RecordingInjectHandler("p0-message1");
+        Properties properties = new Properties();
+        properties.setProperty(KAFKAConstants.INJECTION_RETRY_BACKOFF, "10");
+        GroupKafkaMessageListener listener = createListener(consumer, null, injectHandler, properties);
+        try {
+            Assert.assertTrue(listener.createKafkaConsumerConnector());
+            assignPartitions(consumer);
+            for (int i = 0; i < 3; i++) {
+                consumer.addRecord(record(PARTITION_0, i, "p0-message" + i));
+            }
+            Assert.assertTrue("The messages are not polled", listener.hasNext());
+            listener.injectMessageToESB(INBOUND_EP_NAME);
+            for (int count = 0; count < 50 && injectHandler.getInjectedMessages("p0-message1").size() < 6; count++) {
+                listener.hasNext();
+                Thread.sleep(100);
+            }
+
+            Assert.assertTrue("The failed message is not retried past the former default of 3 retries",
+                    injectHandler.getInjectedMessages("p0-message1").size() >= 6);
+            Assert.assertEquals("The messages after the failed message are injected",
+                    Collections.emptyList(), injectHandler.getInjectedMessages("p0-message2"));
+            Assert.assertNull("The partition is committed while the failed message is retried",
+                    consumer.committed(PARTITION_0));
+        } finally {
+            listener.destroy();
+        }
+    }
+
+    /**
+     * Test a message which is not injected after the retries, where no error topic is set and the failed messages are
+     * not skipped, so that the partition is moved back to it and it is received again
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFailedMessageIsNotSkippedByDefault() throws Exception {
+        MockConsumer<byte[], byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        RecordingInjectHandler injectHandler = new RecordingInjectHandler("p0-message2");
+        GroupKafkaMessageListener listener = createListener(consumer, null, injectHandler, getRetryProperties());
+        try {
+            Assert.assertTrue(listener.createKafkaConsumerConnector());
+            assignPartitions(consumer);
+            for (int i = 0; i < 4; i++) {
+                consumer.addRecord(record(PARTITION_0, i, "p0-message" + i));
+            }
+            Assert.assertTrue("The messages are not polled", listener.hasNext());
+            listener.injectMessageToESB(INBOUND_EP_NAME);
+
+            waitForCommit(listener, consumer, PARTITION_0);
+            Assert.assertEquals("The messages before the failed message are not committed", 2,
+                    consumer.committed(PARTITION_0).offset());
+            Assert.assertEquals("The messages after the failed message are injected",
+                    Collections.emptyList(), injectHandler.getInjectedMessages("p0-message3"));
+            Assert.assertEquals("The partition is not moved back to the failed message", 2,
+                    consumer.position(PARTITION_0));
+        } finally {
+            listener.destroy();
+        }
+    }
+
+    /**
+     * Test a message which is not injected after the retries, which is skipped when the failed messages are skipped so
+     * that the partition is committed past it
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFailedMessageIsSkipped() throws Exception {
+        MockConsumer<byte[], byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        RecordingInjectHandler injectHandler = new RecordingInjectHandler("p0-message2");
+        Properties properties = getRetryProperties();
+        properties.setProperty(KAFKAConstants.INJECTION_FAILURE_SKIP, "true");
+        GroupKafkaMessageListener listener = createListener(consumer, null, injectHandler, properties);
+        try {
+            Assert.assertTrue(listener.createKafkaConsumerConnector());
+            assignPartitions(consumer);
+            for (int i = 0; i < 4; i++) {
+                consumer.addRecord(record(PARTITION_0, i, "p0-message" + i));
+            }
+            Assert.assertTrue("The messages are not polled", listener.hasNext());
+            listener.injectMessageToESB(INBOUND_EP_NAME);
+
+            waitForCommit(listener, consumer, PARTITION_0);
+            Assert.assertEquals("The failed message is not retried before it is skipped",
+                    Arrays.asList("p0-message0", "p0-message1", "p0-message2", "p0-message2", "p0-message2",
+                            "p0-message3"), injectHandler.getInjectedMessages("p0"));
+            Assert.assertEquals("The partition is not committed past the skipped message", 4,
+                    consumer.committed(PARTITION_0).offset());
+        } finally {
+            listener.destroy();
+        }
+    }
+
+    /**
+     * Test a message which is not injected after the retries, which is sent to the error topic so that the partition
+     * is committed past it
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFailedMessageIsSentToErrorTopic() throws Exception {
+        MockConsumer<byte[], byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        MockProducer<byte[], byte[]> producer = new MockProducer<>(true, new ByteArraySerializer(),
+                new ByteArraySerializer());
+        RecordingInjectHandler injectHandler = new RecordingInjectHandler("p0-message1");
+        Properties properties = getRetryProperties();
+        properties.setProperty(KAFKAConstants.ERROR_TOPIC, ERROR_TOPIC);
+        GroupKafkaMessageListener listener = createListener(consumer, producer, injectHandler, properties);
+        try {
+            Assert.assertTrue(listener.createKafkaConsumerConnector());
+            assignPartitions(consumer);
+            for (int i = 0; i < 3; i++) {
+                consumer.addRecord(record(PARTITION_0, i, "p0-message" + i));
+            }
+            Assert.assertTrue("The messages are not polled", listener.hasNext());
+            listener.injectMessageToESB(INBOUND_EP_NAME);
+
+            waitForCommit(listener, consumer, PARTITION_0);
+            Assert.assertEquals("The partition is not committed past the failed message", 3,
+                    consumer.committed(PARTITION_0).offset());
+            List<ProducerRecord<byte[], byte[]>> sentRecords = producer.history();
+            Assert.assertEquals("The failed message is not sent to the error topic", 1, sentRecords.size());
+            Assert.assertEquals(ERROR_TOPIC, sentRecords.get(0).topic());
+            Assert.assertEquals("p0-message1", new String(sentRecords.get(0).value(), StandardCharsets.UTF_8));
+        } finally {
+            listener.destroy();
+        }
+        Assert.assertTrue("The producer of the error topic is not closed", producer.closed());
+    }
+
+    /**
+     * Test a message which can neither be injected nor sent to the error topic, where the messages before it are
+     * committed and the partition is moved back to it so that it is received again
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFailedMessageIsReceivedAgain() throws Exception {
+        MockConsumer<byte[], byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        MockProducer<byte[], byte[]> producer = new MockProducer<>(false, new ByteArraySerializer(),
+                new ByteArraySerializer());
+        RecordingInjectHandler injectHandler = new RecordingInjectHandler("p0-message2");
+        Properties properties = getRetryProperties();
+        properties.setProperty(KAFKAConstants.ERROR_TOPIC, ERROR_TOPIC);
+        GroupKafkaMessageListener listener = createListener(consumer, producer, injectHandler, properties);
+        try {
+            Assert.assertTrue(listener.createKafkaConsumerConnector());
+            assignPartitions(consumer);
+            for (int i = 0; i < 4; i++) {
+                consumer.addRecord(record(PARTITION_0, i, "p0-message" + i));
+            }
+            Assert.assertTrue("The messages are not polled", listener.hasNext());
+            listener.injectMessageToESB(INBOUND_EP_NAME);
+            for (int count = 0; count < 50 && producer.history().isEmpty(); count++) {
+                Thread.sleep(100);
+            }
+            Assert.assertTrue("The failed message is not sent to the error topic",
+                    producer.errorNext(new KafkaException("The error topic is not available")));
+
+            waitForCommit(listener, consumer, PARTITION_0);
+            Assert.assertEquals("The messages before the failed message are not committed", 2,
+                    consumer.committed(PARTITION_0).offset());
+            Assert.assertEquals("The messages after the failed message are injected",
+                    Arrays.asList("p0-message0", "p0-message1", "p0-message2", "p0-message2", "p0-message2"),
+                    injectHandler.getInjectedMessages("p0"));
+            Assert.assertEquals("The partition is not moved back to the failed message", 2,
+                    consumer.position(PARTITION_0));
+        } finally {
+            listener.destroy();
+        }
+    }
+
+    /**
+     * Test that closing the listener waits for the messages being injected without blocking the poll cycles, and
+     * commits the messages injected meanwhile
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testDestroyDoesNotBlockPolling() throws Exception {
+        final Map<TopicPartition, OffsetAndMetadata> closingOffsets = new HashMap<>();
+        MockConsumer<byte[], byte[]> consumer = new MockConsumer<byte[], byte[]>(OffsetResetStrategy.EARLIEST) {
+            @Override
+            public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+                super.commitSync(offsets);
+                closingOffsets.putAll(offsets);
+            }
+        };
+        final CountDownLatch injectionLatch = new CountDownLatch(1);
+        InjectHandler injectHandler = new InjectHandler() {
+            @Override
+            public boolean invoke(Object object, String name) {
+                try {
+                    return injectionLatch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        };
+        final GroupKafkaMessageListener listener = createListener(consumer, null, injectHandler, new Properties());
+        Thread destroyThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                listener.destroy();
+            }
+        });
+        try {
+            Assert.assertTrue(listener.createKafkaConsumerConnector());
+            assignPartitions(consumer);
+            consumer.addRecord(record(PARTITION_0, 0, "p0-message0"));
+            Assert.assertTrue("The messages are not polled", listener.hasNext());
+            listener.injectMessageToESB(INBOUND_EP_NAME);
+
+            destroyThread.start();
+            Thread.sleep(200);
+            Assert.assertTrue("The message being injected is not waited for", destroyThread.isAlive());
+            long start = System.currentTimeMillis();
+            Assert.assertFalse("A closed listener is polled", listener.hasNext());
+            Assert.assertTrue("The poll cycle is blocked while the messages are injected",
+                    System.currentTimeMillis() - start < 1000);
+
+            injectionLatch.countDown();
+            destroyThread.join(10000);
+            Assert.assertFalse("The listener is not closed", destroyThread.isAlive());
+            Assert.assertTrue("The consumer is not closed", consumer.closed());
+            Assert.assertEquals("The injected message is not committed before the consumer is closed", 1,
+                    closingOffsets.get(PARTITION_0).offset());
+        } finally {
+            injectionLatch.countDown();
+            if (!destroyThread.isAlive()) {
+                listener.destroy();
+            }
+        }
+    }
+
+    private GroupKafkaMessageListener createListener(Consumer<byte[], byte[]> consumer,
+                                                     InjectHandler injectHandler) {
+        return createListener(consumer, null, injectHandler, new Properties());
+    }
+
+    private GroupKafkaMessageListener createListener(final Consumer<byte[], byte[]> consumer,
+                                                     final Producer<byte[], byte[]> producer,
+                                                     InjectHandler injectHandler, Properties properties) {
+        Properties kafkaProperties = new Properties();
+        kafkaProperties.putAll(properties);
+        kafkaProperties.setProperty(KAFKAConstants.GROUP_ID, "testGroup");
+        kafkaProperties.setProperty(KAFKAConstants.POLL_TIMEOUT, "10");
+        return new GroupKafkaMessageListener(2, Collections.singletonList(TOPIC), kafkaProperties, injectHandler) {
+            @Override
+            protected Consumer<byte[], byte[]> createConsumer(Properties consumerProperties) {
+                return consumer;
+            }
+
+            @Override
+            protected Producer<byte[], byte[]> createProducer(Properties producerProperties) {
+                return producer;
+            }
+        };
+    }
+
+    private Properties getRetryProperties() {
+        Properties properties = new Properties();
+        properties.setProperty(KAFKAConstants.INJECTION_RETRIES, "2");
+        properties.setProperty(KAFKAConstants.INJECTION_RETRY_BACKOFF, "10");
+        return properties;
+    }
+
+    private void assignPartitions(MockConsumer<byte[], byte[]> consumer) {
+        consumer.rebalance(Arrays.asList(PARTITION_0, PARTITION_1));
+        Map<TopicPartition, Long> beginningOffsets = new HashMap<>();
+        beginningOffsets.put(PARTITION_0, 0L);
+        beginningOffsets.put(PARTITION_1, 0L);
+        consumer.updateBeginningOffsets(beginningOffsets);
+    }
+
+    private ConsumerRecord<byte[], byte[]> record(TopicPartition partition, long offset, String message) {
+        return new ConsumerRecord<>(partition.topic(), partition.partition(), offset, null,
+                message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Runs poll cycles until the offsets of the partitions are committed
+     */
+    private void waitForCommit(GroupKafkaMessageListener listener, MockConsumer<byte[], byte[]> consumer,
+                               TopicPartition... partitions) throws InterruptedException {
+        for (int count = 0; count < 50; count++) {
+            listener.hasNext();
+            boolean committed = true;
+            for (TopicPartition partition : partitions) {
+                OffsetAndMetadata offset = consumer.committed(partition);
+                committed &= offset != null;
+            }
+            if (committed) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        Assert.fail("The offsets are not committed");
+    }
+
+    /**
+     * Inject handler which records the injected messages instead of mediating them, and fails each of the given
+     * messages
+     */
+    private static class RecordingInjectHandler implements InjectHandler {
+
+        private final List<String> injectedMessages = Collections.synchronizedList(new ArrayList<String>());
+        private final Set<String> failingMessages;
+
+        RecordingInjectHandler(String... failingMessages) {
+            this.failingMessages = new HashSet<>(Arrays.asList(failingMessages));
+        }
+
+        @Override
+        public boolean invoke(Object object, String name) {
+            String message = new String((byte[]) object, StandardCharsets.UTF_8);
+            injectedMessages.add(message);
+            return !failingMessages.contains(message);
+        }
+
+        List<String> getInjectedMessages(String prefix) {
+            List<String> messages = new ArrayList<>();
+            synchronized (injectedMessages) {
+                for (String message : injectedMessages) {
+                    if (message.startsWith(prefix)) {
+                        messages.add(message);
+                    }
+                }
+            }
+            return messages;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ * <p>
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package endpoint.protocol.mqtt.tests;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.junit.Test;
+import org.wso2.carbon.inbound.endpoint.protocol.mqtt.MqttMessageDispatcher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the backpressure policies applied when an MQTT message arrives while the hand-off queue is full. Each test
+ * holds the single worker on the first message, so that the next two messages fill the queue.
+ */
+public class MqttMessageDispatcherTest extends TestCase {
+
+    private static final String TOPIC = "testTopic";
+    private static final int QUEUE_CAPACITY = 2;
+
+    /**
+     * Test that the client waits for room in the full queue, whatever the QoS of the message
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testBlockPolicy() throws Exception {
+        BlockingHandler handler = new BlockingHandler();
+        MqttMessageDispatcher dispatcher = createDispatcher("testBlockPolicy",
+                MqttMessageDispatcher.BackpressurePolicy.BLOCK, handler);
+        try {
+            fillQueue(dispatcher, handler, 0);
+            Thread dispatchThread = dispatchAsync(dispatcher, "message4", 0);
+            Assert.assertTrue("A message is dispatched while the queue is full", dispatchThread.isAlive());
+
+            handler.release();
+            dispatchThread.join(5000);
+            Assert.assertFalse("The message is not dispatched once there is room", dispatchThread.isAlive());
+            handler.waitForMessages(4);
+            Assert.assertEquals(Arrays.asList("message1", "message2", "message3", "message4"),
+                    handler.getMessages());
+            Assert.assertEquals(0, dispatcher.getDroppedCount());
+            Assert.assertEquals(0, dispatcher.getRejectedCount());
+            Assert.assertTrue("The time waited for room is not recorded", dispatcher.getBlockedTime() > 0);
+        } finally {
+            handler.release();
+            dispatcher.shutdown();
+        }
+    }
+
+    /**
+     * Test that the oldest QoS 0 message in the full queue is dropped to make room for a QoS 0 message, while a QoS 1
+     * message waits for room
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testDropOldestPolicy() throws Exception {
+        BlockingHandler handler = new BlockingHandler();
+        MqttMessageDispatcher dispatcher = createDispatcher("testDropOldestPolicy",
+                MqttMessageDispatcher.BackpressurePolicy.DROP_OLDEST, handler);
+        try {
+            dispatcher.dispatch(TOPIC, createMessage("message1", 0));
+            handler.waitForFirstMessage();
+            dispatcher.dispatch(TOPIC, createMessage("message2", 1));
+            dispatcher.dispatch(TOPIC, createMessage("message3", 0));
+
+            dispatcher.dispatch(TOPIC, createMessage("message4", 0));
+            Assert.assertEquals("The oldest QoS 0 message is not dropped", 1, dispatcher.getDroppedCount());
+            Thread dispatchThread = dispatchAsync(dispatcher, "message5", 1);
+            Assert.assertTrue("A QoS 1 message does not wait for room", dispatchThread.isAlive());
+            Assert.assertEquals("A message is dropped for a QoS 1 message", 1, dispatcher.getDroppedCount());
+
+            handler.release();
+            dispatchThread.join(5000);
+            handler.waitForMessages(4);
+            Assert.assertEquals(Arrays.asList("message1", "message2", "message4", "message5"),
+                    handler.getMessages());
+            Assert.assertEquals(0, dispatcher.getRejectedCount());
+        } finally {
+            handler.release();
+            dispatcher.shutdown();
+        }
+    }
+
+    /**
+     * Test that a QoS 0 message which arrives while the queue is full is rejected, while a QoS 1 message waits for
+     * room
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRejectPolicy() throws Exception {
+        BlockingHandler handler = new BlockingHandler();
+        MqttMessageDispatcher dispatcher = createDispatcher("testRejectPolicy",
+                MqttMessageDispatcher.BackpressurePolicy.REJECT, handler);
+        try {
+            fillQueue(dispatcher, handler, 0);
+            dispatcher.dispatch(TOPIC, createMessage("message4", 0));
+            Assert.assertEquals("The QoS 0 message is not rejected", 1, dispatcher.getRejectedCount());
+            Thread dispatchThread = dispatchAsync(dispatcher, "message5", 1);
+            Assert.assertTrue("A QoS 1 message is rejected", dispatchThread.isAlive());
+
+            handler.release();
+            dispatchThread.join(5000);
+            handler.waitForMessages(4);
+            Assert.assertEquals(Arrays.asList("message1", "message2", "message3", "message5"),
+                    handler.getMessages());
+            Assert.assertEquals(1, dispatcher.getRejectedCount());
+            Assert.assertEquals(0, dispatcher.getDroppedCount());
+            Assert.assertEquals(4, dispatcher.getDispatchedCount());
+
+            dispatcher.resetStatistics();
+            Assert.assertEquals(0, dispatcher.getRejectedCount());
+            Assert.assertEquals(0, dispatcher.getDispatchedCount());
+        } finally {
+            handler.release();
+            dispatcher.shutdown();
+        }
+    }
+
+    private MqttMessageDispatcher createDispatcher(String name, MqttMessageDispatcher.BackpressurePolicy policy,
+                                                  BlockingHandler handler) {
+        MqttMessageDispatcher dispatcher = new MqttMessageDispatcher(name, 1, QUEUE_CAPACITY, policy, handler);
+        dispatcher.start();
+        return dispatcher;
+    }
+
+    /**
+     * Holds the worker on the first message and fills the queue with the second and third messages.
+     */
+    private void fillQueue(MqttMessageDispatcher dispatcher, BlockingHandler handler, int qos) throws Exception {
+        dispatcher.dispatch(TOPIC, createMessage("message1", qos));
+        handler.waitForFirstMessage();
+        dispatcher.dispatch(TOPIC, createMessage("message2", qos));
+        dispatcher.dispatch(TOPIC, createMessage("message3", qos));
+        Assert.assertEquals(QUEUE_CAPACITY, dispatcher.getQueueDepth());
+    }
+
+    private Thread dispatchAsync(final MqttMessageDispatcher dispatcher, final String payload, final int qos)
+            throws InterruptedException {
+        Thread dispatchThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    dispatcher.dispatch(TOPIC, createMessage(payload, qos));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        dispatchThread.start();
+        Thread.sleep(200);
+        return dispatchThread;
+    }
+
+    private static MqttMessage createMessage(String payload, int qos) {
+        MqttMessage message = new MqttMessage(payload.getBytes(StandardCharsets.UTF_8));
+        message.setQos(qos);
+        return message;
+    }
+
+    /**
+     * Records the processed messages, holding the worker until it is released.
+     */
+    private static class BlockingHandler implements MqttMessageDispatcher.MessageHandler {
+
+        private final List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+        private final CountDownLatch releaseLatch = new CountDownLatch(1);
+        private final CountDownLatch firstMessageLatch = new CountDownLatch(1);
+
+        @Override
+        public void handle(String topic, MqttMessage message) {
+            firstMessageLatch.countDown();
+            try {
+                releaseLatch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            messages.add(new String(message.getPayload(), StandardCharsets.UTF_8));
+        }
+
+        void waitForFirstMessage() throws InterruptedException {
+            Assert.assertTrue("The first message is not taken by the worker",
+                    firstMessageLatch.await(5, TimeUnit.SECONDS));
+        }
+
+        void release() {
+            releaseLatch.countDown();
+        }
+
+        void waitForMessages(int count) throws InterruptedException {
+            for (int i = 0; i < 50 && messages.size() < count; i++) {
+                Thread.sleep(100);
+            }
+        }
+
+        List<String> getMessages() {
+            return new ArrayList<>(messages);
+        }
+    }
+}
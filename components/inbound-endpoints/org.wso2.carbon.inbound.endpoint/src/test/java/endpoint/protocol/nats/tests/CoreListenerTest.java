@@ -0,0 +1,247 @@
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ * <p>
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package endpoint.protocol.nats.tests;
+
+import io.nats.client.Connection;
+import io.nats.client.Dispatcher;
+import io.nats.client.Message;
+import io.nats.client.MessageHandler;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.synapse.config.SynapseConfiguration;
+import org.apache.synapse.core.axis2.Axis2SynapseEnvironment;
+import org.junit.Test;
+import org.wso2.carbon.inbound.endpoint.protocol.nats.CoreListener;
+import org.wso2.carbon.inbound.endpoint.protocol.nats.NatsConstants;
+import org.wso2.carbon.inbound.endpoint.protocol.nats.NatsConsumerMetrics;
+import org.wso2.carbon.inbound.endpoint.protocol.nats.NatsInjectHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the flow control of the core NATS inbound endpoint, where the messages are injected by a pool of workers with
+ * at most max.in.flight messages handed to the workers at a time. The NATS connection is replaced by mocks, and the
+ * messages are handed to the message handler the endpoint registers with the mocked connection.
+ */
+public class CoreListenerTest extends TestCase {
+
+    private static final String SUBJECT = "testSubject";
+    private static final String SEQUENCE_NAME = "testNatsSequence";
+
+    private MessageHandler messageHandler;
+
+    /**
+     * Test that the NATS dispatcher thread waits while max.in.flight messages are being injected, and hands the next
+     * message to the workers once an injection completes
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testInFlightLimit() throws Exception {
+        BlockingInjectHandler injectHandler = new BlockingInjectHandler();
+        CoreListener listener = createListener(2, 2, injectHandler);
+        try {
+            listener.initializeConsumer(SEQUENCE_NAME);
+            NatsConsumerMetrics metrics = listener.getMetrics();
+            Thread deliveryThread = deliverAsync("message1", "message2", "message3");
+            injectHandler.waitForInjections(2);
+            Thread.sleep(200);
+            Assert.assertTrue("A message is handed to the workers beyond the in-flight limit",
+                    deliveryThread.isAlive());
+            Assert.assertEquals(2, metrics.getInFlightCount());
+            Assert.assertEquals(3, metrics.getReceivedCount());
+            Assert.assertEquals(0, metrics.getProcessedCount());
+
+            injectHandler.release(1);
+            deliveryThread.join(5000);
+            Assert.assertFalse("The message is not handed to the workers once an injection completes",
+                    deliveryThread.isAlive());
+            injectHandler.waitForInjections(3);
+            Assert.assertEquals(2, metrics.getInFlightCount());
+
+            injectHandler.release(2);
+            waitForProcessed(metrics, 3);
+            Assert.assertEquals(0, metrics.getInFlightCount());
+            Assert.assertEquals(3, metrics.getProcessedCount());
+            Assert.assertEquals(0, metrics.getRejectedCount());
+        } finally {
+            injectHandler.release(3);
+            listener.closeConnection();
+        }
+    }
+
+    /**
+     * Test that a message received while the endpoint is being stopped is counted as rejected rather than processed,
+     * and that its in-flight permit is released
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRejectedWhileStopping() throws Exception {
+        BlockingInjectHandler injectHandler = new BlockingInjectHandler();
+        final CoreListener listener = createListener(1, 2, injectHandler);
+        Thread closeThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                listener.closeConnection();
+            }
+        });
+        try {
+            listener.initializeConsumer(SEQUENCE_NAME);
+            NatsConsumerMetrics metrics = listener.getMetrics();
+            deliver("message1");
+            injectHandler.waitForInjections(1);
+
+            // the workers are shut down and waited for while the first message is being injected
+            closeThread.start();
+            Thread.sleep(200);
+            deliver("message2");
+            Assert.assertEquals("The message received while stopping is not rejected", 1,
+                    metrics.getRejectedCount());
+            Assert.assertEquals(2, metrics.getReceivedCount());
+            Assert.assertEquals("A rejected message is counted as processed", 0, metrics.getProcessedCount());
+            Assert.assertEquals("A rejected message is counted as in flight", 1, metrics.getInFlightCount());
+
+            injectHandler.release(1);
+            closeThread.join(5000);
+            Assert.assertFalse("The endpoint is not stopped", closeThread.isAlive());
+            Assert.assertEquals(1, metrics.getProcessedCount());
+            Assert.assertEquals(0, metrics.getInFlightCount());
+            Assert.assertEquals(1, injectHandler.getInjectedCount());
+
+            metrics.resetStatistics();
+            Assert.assertEquals(0, metrics.getRejectedCount());
+        } finally {
+            injectHandler.release(2);
+            if (!closeThread.isAlive()) {
+                listener.closeConnection();
+            }
+        }
+    }
+
+    private CoreListener createListener(int workerPoolSize, int maxInFlight, NatsInjectHandler injectHandler) {
+        Properties natsProperties = new Properties();
+        natsProperties.setProperty(NatsConstants.WORKER_POOL_SIZE, String.valueOf(workerPoolSize));
+        natsProperties.setProperty(NatsConstants.MAX_IN_FLIGHT, String.valueOf(maxInFlight));
+        final Connection connection = createConnection();
+        return new CoreListener(SUBJECT, injectHandler, natsProperties) {
+            @Override
+            public Connection getNatsConnection() {
+                return connection;
+            }
+        };
+    }
+
+    private void deliver(String payload) throws Exception {
+        messageHandler.onMessage(createMessage(payload));
+    }
+
+    private Thread deliverAsync(final String... payloads) {
+        Thread deliveryThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (String payload : payloads) {
+                        deliver(payload);
+                    }
+                } catch (Exception e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        deliveryThread.start();
+        return deliveryThread;
+    }
+
+    private void waitForProcessed(NatsConsumerMetrics metrics, long count) throws InterruptedException {
+        for (int i = 0; i < 50 && metrics.getProcessedCount() < count; i++) {
+            Thread.sleep(100);
+        }
+    }
+
+    private Connection createConnection() {
+        Dispatcher dispatcher = mock(Dispatcher.class);
+        Connection connection = mock(Connection.class);
+        when(connection.createDispatcher(any(MessageHandler.class))).thenAnswer(invocation -> {
+            messageHandler = invocation.getArgument(0);
+            return dispatcher;
+        });
+        return connection;
+    }
+
+    private Message createMessage(String payload) {
+        Message message = mock(Message.class);
+        when(message.getData()).thenReturn(payload.getBytes(StandardCharsets.UTF_8));
+        return message;
+    }
+
+    /**
+     * Holds each injection until a permit is released by the test.
+     */
+    private static class BlockingInjectHandler extends NatsInjectHandler {
+
+        private final Semaphore permits = new Semaphore(0);
+        private final Semaphore injections = new Semaphore(0);
+        private final AtomicInteger injectedCount = new AtomicInteger();
+
+        BlockingInjectHandler() {
+            super(SEQUENCE_NAME, null, true, new Axis2SynapseEnvironment(
+                    new ConfigurationContext(new AxisConfiguration()), new SynapseConfiguration()), null);
+        }
+
+        @Override
+        public boolean invoke(Object object, String name, String replyTo, Connection connection) {
+            injections.release();
+            try {
+                if (!permits.tryAcquire(10, TimeUnit.SECONDS)) {
+                    return false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            injectedCount.incrementAndGet();
+            return true;
+        }
+
+        void waitForInjections(int count) throws InterruptedException {
+            Assert.assertTrue("The messages are not handed to the workers",
+                    injections.tryAcquire(count, 5, TimeUnit.SECONDS));
+            injections.release(count);
+        }
+
+        void release(int count) {
+            permits.release(count);
+        }
+
+        int getInjectedCount() {
+            return injectedCount.get();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ * <p>
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package endpoint.protocol.rabbitmq.tests;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.wso2.carbon.inbound.endpoint.protocol.rabbitmq.DeliveryTagTracker;
+
+public class DeliveryTagTrackerTest extends TestCase {
+
+    /**
+     * Test acknowledging the messages processed out of order only once all the messages before them are processed
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testOutOfOrderSettlement() throws Exception {
+        DeliveryTagTracker tracker = new DeliveryTagTracker();
+        Assert.assertEquals("A message after an unprocessed message must not be acknowledged", -1,
+                tracker.settle(2, true));
+        Assert.assertEquals(-1, tracker.settle(3, true));
+        Assert.assertEquals(2, tracker.getPendingCount());
+        Assert.assertEquals("All the processed messages must be acknowledged together", 3, tracker.settle(1, true));
+        Assert.assertEquals(0, tracker.getPendingCount());
+        Assert.assertEquals("The next message in order must be acknowledged right away", 4, tracker.settle(4, true));
+        Assert.assertEquals("A message settled again must be ignored", -1, tracker.settle(4, true));
+    }
+
+    /**
+     * Test the rejected messages, which are not acknowledged but let the messages after them be acknowledged
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testRejectedMessages() throws Exception {
+        DeliveryTagTracker tracker = new DeliveryTagTracker();
+        Assert.assertEquals("A rejected message must not be acknowledged", -1, tracker.settle(1, false));
+        Assert.assertEquals(-1, tracker.settle(3, true));
+        Assert.assertEquals(-1, tracker.settle(4, false));
+        Assert.assertEquals("The messages up to the rejected message must be acknowledged", 4,
+                tracker.settle(2, false));
+        Assert.assertEquals(-1, tracker.settle(5, false));
+        Assert.assertEquals(6, tracker.settle(6, true));
+    }
+}
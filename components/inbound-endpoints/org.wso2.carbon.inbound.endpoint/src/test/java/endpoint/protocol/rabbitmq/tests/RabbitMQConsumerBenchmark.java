@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ * <p>
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package endpoint.protocol.rabbitmq.tests;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.Recoverable;
+import org.wso2.carbon.inbound.endpoint.protocol.rabbitmq.AcknowledgementMode;
+import org.wso2.carbon.inbound.endpoint.protocol.rabbitmq.RabbitMQConnectionFactory;
+import org.wso2.carbon.inbound.endpoint.protocol.rabbitmq.RabbitMQConstants;
+import org.wso2.carbon.inbound.endpoint.protocol.rabbitmq.RabbitMQConsumer;
+import org.wso2.carbon.inbound.endpoint.protocol.rabbitmq.RabbitMQInjectHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Compares the throughput of the RabbitMQ consumer dispatching the messages on the delivery thread with the one of the
+ * async dispatch, when each message takes a while to be injected as a mediation flow calling a backend would. The
+ * messages are delivered to the consumer by the harness and acknowledged to a channel which records the highest
+ * acknowledged delivery tag, so that no broker is needed. This is a manual harness rather than a test, since the
+ * timings depend on the machine running it, and it is not run by surefire as its name does not match the test name
+ * patterns. It can be run after compiling the tests with
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=endpoint.protocol.rabbitmq.tests.RabbitMQConsumerBenchmark
+ *     -Dexec.args="2000 10 32"
+ * </pre>
+ * where the arguments are the number of messages, the injection time of a message in milliseconds and the consumer
+ * qos of the async dispatch.
+ */
+public class RabbitMQConsumerBenchmark {
+
+    private static final String QUEUE_NAME = "benchmarkQueue";
+
+    private static final int DEFAULT_MESSAGES = 2000;
+
+    private static final long DEFAULT_INJECTION_TIME = 10;
+
+    private static final int DEFAULT_QOS = RabbitMQConstants.DEFAULT_ASYNC_CONSUMER_QOS;
+
+    public static void main(String[] args) throws Exception {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MESSAGES;
+        long injectionTime = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_INJECTION_TIME;
+        int qos = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_QOS;
+
+        // the synchronous dispatch is measured with fewer messages, as it injects them one at a time
+        int syncMessages = Math.max(1, Math.min(messages, (int) (5000 / Math.max(1, injectionTime))));
+        double syncThroughput = measure(syncMessages, injectionTime, false, qos);
+        double asyncThroughput = measure(messages, injectionTime, true, qos);
+        System.out.println(String.format("sync  : %.0f messages per second", syncThroughput));
+        System.out.println(String.format("async : %.0f messages per second with qos %d", asyncThroughput, qos));
+        System.out.println(String.format("async / sync : %.1f", asyncThroughput / syncThroughput));
+    }
+
+    /**
+     * Delivers the messages to a consumer and waits until all of them are acknowledged.
+     *
+     * @return the number of messages acknowledged per second
+     */
+    private static double measure(int messages, long injectionTime, boolean asyncDispatch, int qos)
+            throws Exception {
+        AtomicLong acknowledgedTag = new AtomicLong();
+        Properties properties = new Properties();
+        properties.setProperty(RabbitMQConstants.QUEUE_NAME, QUEUE_NAME);
+        properties.setProperty(RabbitMQConstants.QUEUE_AUTO_ACK, "false");
+        properties.setProperty(RabbitMQConstants.CONSUMER_ASYNC_DISPATCH, String.valueOf(asyncDispatch));
+        properties.setProperty(RabbitMQConstants.CONSUMER_QOS, String.valueOf(qos));
+        Connection connection = createConnection(acknowledgedTag);
+        RabbitMQConnectionFactory connectionFactory = new RabbitMQConnectionFactory(new Properties()) {
+            @Override
+            public Connection createConnection() {
+                return connection;
+            }
+        };
+        RabbitMQConsumer consumer = new RabbitMQConsumer(connectionFactory, properties,
+                createInjectHandler(injectionTime));
+        consumer.setInboundName("benchmark-" + (asyncDispatch ? "async" : "sync"));
+        consumer.execute();
+        try {
+            long start = System.nanoTime();
+            for (long deliveryTag = 1; deliveryTag <= messages; deliveryTag++) {
+                // the delivery blocks once the workers and their queue are busy, as the broker would stop at the qos
+                consumer.handleDelivery("benchmarkConsumerTag", new Envelope(deliveryTag, false, "", QUEUE_NAME),
+                        new AMQP.BasicProperties.Builder().messageId("message" + deliveryTag).build(),
+                        String.valueOf(deliveryTag).getBytes(StandardCharsets.UTF_8));
+            }
+            while (acknowledgedTag.get() < messages) {
+                Thread.sleep(1);
+            }
+            long elapsed = System.nanoTime() - start;
+            return messages * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+        } finally {
+            consumer.close();
+        }
+    }
+
+    private static RabbitMQInjectHandler createInjectHandler(long injectionTime) {
+        RabbitMQInjectHandler injectHandler = mock(RabbitMQInjectHandler.class, withSettings().stubOnly());
+        when(injectHandler.onMessage(any(AMQP.BasicProperties.class), any(byte[].class), anyString()))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(injectionTime);
+                    return AcknowledgementMode.ACKNOWLEDGE;
+                });
+        return injectHandler;
+    }
+
+    private static Connection createConnection(AtomicLong acknowledgedTag) throws Exception {
+        Channel channel = mock(Channel.class, withSettings().extraInterfaces(Recoverable.class).stubOnly());
+        doAnswer(invocation -> {
+            long deliveryTag = invocation.getArgument(0);
+            acknowledgedTag.accumulateAndGet(deliveryTag, Math::max);
+            return null;
+        }).when(channel).basicAck(anyLong(), anyBoolean());
+        Connection connection = mock(Connection.class, withSettings().stubOnly());
+        when(connection.createChannel()).thenReturn(channel);
+        return connection;
+    }
+}
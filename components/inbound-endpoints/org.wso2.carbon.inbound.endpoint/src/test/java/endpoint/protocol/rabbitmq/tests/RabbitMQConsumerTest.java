@@ -0,0 +1,367 @@
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ * <p>
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package endpoint.protocol.rabbitmq.tests;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.Recoverable;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.synapse.config.SynapseConfiguration;
+import org.apache.synapse.core.axis2.Axis2SynapseEnvironment;
+import org.apache.synapse.mediators.base.SequenceMediator;
+import org.junit.Test;
+import org.mockito.stubbing.Answer;
+import org.wso2.carbon.inbound.endpoint.protocol.rabbitmq.AcknowledgementMode;
+import org.wso2.carbon.inbound.endpoint.protocol.rabbitmq.RabbitMQConnectionFactory;
+import org.wso2.carbon.inbound.endpoint.protocol.rabbitmq.RabbitMQConstants;
+import org.wso2.carbon.inbound.endpoint.protocol.rabbitmq.RabbitMQConsumer;
+import org.wso2.carbon.inbound.endpoint.protocol.rabbitmq.RabbitMQInjectHandler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Tests the asynchronous dispatch and the delayed requeue of the RabbitMQ consumer against a channel which records the
+ * acknowledgements and rejections it is sent, so that they can be checked without a broker.
+ */
+public class RabbitMQConsumerTest extends TestCase {
+
+    private static final String QUEUE_NAME = "testAsyncQueue";
+    private static final String INBOUND_EP_NAME = "testAsyncConsumer";
+    private static final String SEQUENCE_NAME = "testAsyncSequence";
+    private static final long REQUEUE_DELAY = 500;
+
+    private final List<String> channelCalls = Collections.synchronizedList(new ArrayList<String>());
+
+    /**
+     * Test that the messages processed out of order are acknowledged together with a single batch acknowledgement,
+     * once the message delivered before them is processed
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testBatchAcknowledgementOfOutOfOrderMessages() throws Exception {
+        BlockingInjectHandler injectHandler = new BlockingInjectHandler();
+        RabbitMQConsumer consumer = createConsumer(injectHandler, 0);
+        try {
+            for (long deliveryTag = 1; deliveryTag <= 3; deliveryTag++) {
+                deliver(consumer, deliveryTag);
+            }
+            injectHandler.release(3, AcknowledgementMode.ACKNOWLEDGE);
+            injectHandler.release(2, AcknowledgementMode.ACKNOWLEDGE);
+            Thread.sleep(200);
+            Assert.assertTrue("The messages after an unprocessed message are acknowledged: " + channelCalls,
+                    channelCalls.isEmpty());
+
+            injectHandler.release(1, AcknowledgementMode.ACKNOWLEDGE);
+            waitForChannelCalls(1);
+            Assert.assertEquals("The processed messages are not acknowledged in a single batch",
+                    Collections.singletonList("basicAck 3 true"), channelCalls);
+        } finally {
+            injectHandler.releaseAll();
+            consumer.close();
+        }
+    }
+
+    /**
+     * Test that a message requeued after a delay holds back the acknowledgement of the messages delivered after it,
+     * which are acknowledged once it is rejected to be requeued
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testDelayedRequeueHoldsBackAcknowledgements() throws Exception {
+        BlockingInjectHandler injectHandler = new BlockingInjectHandler();
+        RabbitMQConsumer consumer = createConsumer(injectHandler, 500);
+        try {
+            for (long deliveryTag = 1; deliveryTag <= 3; deliveryTag++) {
+                deliver(consumer, deliveryTag);
+            }
+            injectHandler.release(1, AcknowledgementMode.REQUEUE_TRUE);
+            injectHandler.release(2, AcknowledgementMode.ACKNOWLEDGE);
+            injectHandler.release(3, AcknowledgementMode.ACKNOWLEDGE);
+            Thread.sleep(200);
+            Assert.assertTrue("The messages are acknowledged before the requeued message is rejected: "
+                    + channelCalls, channelCalls.isEmpty());
+
+            waitForChannelCalls(2);
+            Assert.assertEquals("The messages are not acknowledged once the requeued message is rejected",
+                    Arrays.asList("basicReject 1 true", "basicAck 3 true"), channelCalls);
+        } finally {
+            injectHandler.releaseAll();
+            consumer.close();
+        }
+    }
+
+    /**
+     * Test that a message whose injection fails with an exception is rejected, so that the messages delivered after it
+     * are still acknowledged
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testFailedInjectionIsRejected() throws Exception {
+        BlockingInjectHandler injectHandler = new BlockingInjectHandler();
+        RabbitMQConsumer consumer = createConsumer(injectHandler, 0);
+        try {
+            deliver(consumer, 1);
+            deliver(consumer, 2);
+            injectHandler.release(2, AcknowledgementMode.ACKNOWLEDGE);
+            injectHandler.fail(1);
+
+            waitForChannelCalls(2);
+            Assert.assertEquals("The failed message is not rejected",
+                    Arrays.asList("basicReject 1 false", "basicAck 2 true"), channelCalls);
+        } finally {
+            injectHandler.releaseAll();
+            consumer.close();
+        }
+    }
+
+    /**
+     * Test that a message requeued after a delay does not hold the delivery thread, and that it is rejected to be
+     * requeued on the channel it is delivered on once the delay elapses, even if the consumer has moved to another
+     * channel meanwhile
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testDelayedRequeueOnDeliveryChannel() throws Exception {
+        Channel deliveryChannel = createChannel(true);
+        Channel recoveredChannel = createChannel(true);
+        RabbitMQConsumer consumer = createRequeueingConsumer(REQUEUE_DELAY, deliveryChannel, recoveredChannel);
+        try {
+            long start = System.currentTimeMillis();
+            deliver(consumer, 1);
+            long elapsed = System.currentTimeMillis() - start;
+            Assert.assertTrue("The delivery thread waits for the requeue delay: " + elapsed + " ms",
+                    elapsed < REQUEUE_DELAY / 2);
+            verify(deliveryChannel, never()).basicReject(anyLong(), anyBoolean());
+
+            // the consumer is initialized again on a new channel before the delay elapses
+            consumer.execute();
+            verify(deliveryChannel, timeout(REQUEUE_DELAY * 5)).basicReject(1, true);
+            Assert.assertTrue("The message is rejected before the requeue delay elapses",
+                    System.currentTimeMillis() - start >= REQUEUE_DELAY);
+            verify(recoveredChannel, never()).basicReject(anyLong(), anyBoolean());
+            verify(deliveryChannel, never()).basicAck(anyLong(), anyBoolean());
+        } finally {
+            consumer.close();
+        }
+    }
+
+    /**
+     * Test that a message requeued after a delay is not rejected if the channel it is delivered on is closed once the
+     * delay elapses, as the broker has already requeued it
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testDelayedRequeueSkippedOnClosedChannel() throws Exception {
+        Channel deliveryChannel = createChannel(true);
+        RabbitMQConsumer consumer = createRequeueingConsumer(REQUEUE_DELAY, deliveryChannel);
+        try {
+            deliver(consumer, 1);
+            when(deliveryChannel.isOpen()).thenReturn(false);
+
+            verify(deliveryChannel, timeout(REQUEUE_DELAY * 5)).isOpen();
+            Thread.sleep(100);
+            verify(deliveryChannel, never()).basicReject(anyLong(), anyBoolean());
+        } finally {
+            consumer.close();
+        }
+    }
+
+    /**
+     * Creates a consumer which dispatches the messages on the delivery thread, and whose mediation flow requeues every
+     * message
+     */
+    private RabbitMQConsumer createRequeueingConsumer(long requeueDelay, Channel channel, Channel... channels)
+            throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(RabbitMQConstants.QUEUE_NAME, QUEUE_NAME);
+        properties.setProperty(RabbitMQConstants.QUEUE_AUTO_ACK, "false");
+        properties.setProperty(RabbitMQConstants.MESSAGE_REQUEUE_DELAY, String.valueOf(requeueDelay));
+        Connection connection = mock(Connection.class);
+        when(connection.createChannel()).thenReturn(channel, channels);
+        RabbitMQInjectHandler injectHandler = mock(RabbitMQInjectHandler.class);
+        when(injectHandler.onMessage(any(AMQP.BasicProperties.class), any(byte[].class), anyString()))
+                .thenReturn(AcknowledgementMode.REQUEUE_TRUE);
+        RabbitMQConnectionFactory connectionFactory = new RabbitMQConnectionFactory(new Properties()) {
+            @Override
+            public Connection createConnection() {
+                return connection;
+            }
+        };
+        RabbitMQConsumer consumer = new RabbitMQConsumer(connectionFactory, properties, injectHandler);
+        consumer.setInboundName(INBOUND_EP_NAME);
+        consumer.execute();
+        return consumer;
+    }
+
+    private Channel createChannel(boolean open) {
+        Channel channel = mock(Channel.class, withSettings().extraInterfaces(Recoverable.class));
+        when(channel.isOpen()).thenReturn(open);
+        return channel;
+    }
+
+    private RabbitMQConsumer createConsumer(RabbitMQInjectHandler injectHandler, long requeueDelay)
+            throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(RabbitMQConstants.QUEUE_NAME, QUEUE_NAME);
+        properties.setProperty(RabbitMQConstants.QUEUE_AUTO_ACK, "false");
+        properties.setProperty(RabbitMQConstants.CONSUMER_ASYNC_DISPATCH, "true");
+        properties.setProperty(RabbitMQConstants.CONSUMER_QOS, "4");
+        properties.setProperty(RabbitMQConstants.MESSAGE_REQUEUE_DELAY, String.valueOf(requeueDelay));
+        final Connection connection = createConnection();
+        RabbitMQConnectionFactory connectionFactory = new RabbitMQConnectionFactory(new Properties()) {
+            @Override
+            public Connection createConnection() {
+                return connection;
+            }
+        };
+        RabbitMQConsumer consumer = new RabbitMQConsumer(connectionFactory, properties, injectHandler);
+        consumer.setInboundName(INBOUND_EP_NAME);
+        consumer.execute();
+        return consumer;
+    }
+
+    private void deliver(RabbitMQConsumer consumer, long deliveryTag) throws Exception {
+        consumer.handleDelivery("testConsumerTag", new Envelope(deliveryTag, false, "", QUEUE_NAME),
+                new AMQP.BasicProperties.Builder().messageId("message" + deliveryTag).build(),
+                String.valueOf(deliveryTag).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void waitForChannelCalls(int count) throws InterruptedException {
+        for (int i = 0; i < 50 && channelCalls.size() < count; i++) {
+            Thread.sleep(100);
+        }
+        // any further call would be an unexpected acknowledgement
+        Thread.sleep(100);
+    }
+
+    private Connection createConnection() throws IOException {
+        Channel channel = createChannel(true);
+        doAnswer(recordCall("basicAck")).when(channel).basicAck(anyLong(), anyBoolean());
+        doAnswer(recordCall("basicReject")).when(channel).basicReject(anyLong(), anyBoolean());
+        doAnswer(recordCall("basicNack")).when(channel).basicNack(anyLong(), anyBoolean(), anyBoolean());
+        doAnswer(recordCall("basicPublish")).when(channel)
+                .basicPublish(anyString(), anyString(), any(AMQP.BasicProperties.class), any(byte[].class));
+        Connection connection = mock(Connection.class);
+        when(connection.createChannel()).thenReturn(channel);
+        return connection;
+    }
+
+    private Answer<Void> recordCall(String name) {
+        return invocation -> {
+            Object[] args = invocation.getArguments();
+            channelCalls.add(args.length == 2 ? name + " " + args[0] + " " + args[1]
+                    : name + " " + Arrays.toString(args));
+            return null;
+        };
+    }
+
+    /**
+     * Holds the injection of each message until the test decides how it is acknowledged.
+     */
+    private static class BlockingInjectHandler extends RabbitMQInjectHandler {
+
+        private final Map<Long, CountDownLatch> latches = new ConcurrentHashMap<>();
+        private final Map<Long, AcknowledgementMode> results = new ConcurrentHashMap<>();
+
+        BlockingInjectHandler() {
+            super(SEQUENCE_NAME, null, true, createSynapseEnvironment());
+        }
+
+        @Override
+        public AcknowledgementMode onMessage(AMQP.BasicProperties properties, byte[] body, String inboundName) {
+            long deliveryTag = Long.parseLong(new String(body, StandardCharsets.UTF_8));
+            try {
+                if (!getLatch(deliveryTag).await(10, TimeUnit.SECONDS)) {
+                    return AcknowledgementMode.REQUEUE_TRUE;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return AcknowledgementMode.REQUEUE_TRUE;
+            }
+            AcknowledgementMode result = results.get(deliveryTag);
+            if (result == null) {
+                throw new RuntimeException("Injection of message " + deliveryTag + " failed");
+            }
+            return result;
+        }
+
+        void release(long deliveryTag, AcknowledgementMode result) {
+            results.put(deliveryTag, result);
+            getLatch(deliveryTag).countDown();
+        }
+
+        void fail(long deliveryTag) {
+            getLatch(deliveryTag).countDown();
+        }
+
+        void releaseAll() {
+            for (CountDownLatch latch : latches.values()) {
+                latch.countDown();
+            }
+        }
+
+        private CountDownLatch getLatch(long deliveryTag) {
+            CountDownLatch latch = latches.get(deliveryTag);
+            if (latch == null) {
+                latches.putIfAbsent(deliveryTag, new CountDownLatch(1));
+                latch = latches.get(deliveryTag);
+            }
+            return latch;
+        }
+
+        private static Axis2SynapseEnvironment createSynapseEnvironment() {
+            SynapseConfiguration synapseConfiguration = new SynapseConfiguration();
+            synapseConfiguration.addSequence(SEQUENCE_NAME, new SequenceMediator());
+            return new Axis2SynapseEnvironment(new ConfigurationContext(new AxisConfiguration()),
+                    synapseConfiguration);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ * <p>
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package endpoint.protocol.websocket.tests;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.wso2.carbon.inbound.endpoint.protocol.websocket.InboundWebsocketChannelContext;
+import org.wso2.carbon.inbound.endpoint.protocol.websocket.management.WebsocketSubscriberPathManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Tests the subscriber registry of the WebSocket inbound endpoints, whose subscribers join and leave from several
+ * Netty threads while the responses are broadcast to them. The channels are replaced by mocks which only have an
+ * identifier.
+ */
+public class WebsocketSubscriberPathManagerTest extends TestCase {
+
+    private static final String SUBSCRIBER_PATH = "/subscriber";
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 2000;
+    private static final int KEPT_PER_THREAD = 10;
+
+    private static final AtomicInteger channelCount = new AtomicInteger();
+
+    private final WebsocketSubscriberPathManager manager = WebsocketSubscriberPathManager.getInstance();
+
+    /**
+     * Test that the subscribers joining and leaving a path from several threads at the same time are neither lost nor
+     * left behind, while the subscribers of the path are being listed
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrentAddAndRemove() throws Exception {
+        final String inboundName = "ConcurrentInbound";
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        try {
+            Future<Integer> reader = executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    start.await();
+                    int listed = 0;
+                    while (running.get()) {
+                        for (InboundWebsocketChannelContext context
+                                : manager.getSubscriberPathChannelContextList(inboundName, SUBSCRIBER_PATH)) {
+                            Assert.assertNotNull(context.getChannelIdentifier());
+                            listed++;
+                        }
+                    }
+                    return listed;
+                }
+            });
+            List<Future<?>> writers = new ArrayList<Future<?>>();
+            for (int i = 0; i < THREADS; i++) {
+                writers.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        start.await();
+                        for (int j = 0; j < ITERATIONS; j++) {
+                            InboundWebsocketChannelContext context = createContext();
+                            manager.addChannelContext(inboundName, SUBSCRIBER_PATH, context);
+                            if (j % (ITERATIONS / KEPT_PER_THREAD) != 0) {
+                                manager.removeChannelContext(inboundName, SUBSCRIBER_PATH, context);
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+            running.set(false);
+            reader.get(60, TimeUnit.SECONDS);
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+
+        int expected = THREADS * KEPT_PER_THREAD;
+        Assert.assertEquals("Only the subscribers which did not leave must remain", expected,
+                manager.getSubscriberCount(inboundName, SUBSCRIBER_PATH));
+        List<InboundWebsocketChannelContext> subscribers =
+                manager.getSubscriberPathChannelContextList(inboundName, SUBSCRIBER_PATH);
+        Assert.assertEquals(expected, subscribers.size());
+
+        for (InboundWebsocketChannelContext context : subscribers) {
+            manager.removeChannelContext(inboundName, SUBSCRIBER_PATH, context);
+        }
+        Assert.assertEquals(0, manager.getSubscriberCount(inboundName, SUBSCRIBER_PATH));
+        Assert.assertTrue("A path must be dropped once its last subscriber leaves",
+                manager.getSubscriberCounts(inboundName).isEmpty());
+    }
+
+    /**
+     * Test that the listed subscribers are a snapshot which is not changed by the subscribers joining or leaving
+     * afterwards, and that a path without subscribers is listed as empty
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testSubscriberListIsSnapshot() throws Exception {
+        String inboundName = "SnapshotInbound";
+        Assert.assertTrue(manager.getSubscriberPathChannelContextList(inboundName, SUBSCRIBER_PATH).isEmpty());
+
+        InboundWebsocketChannelContext first = createContext();
+        InboundWebsocketChannelContext second = createContext();
+        manager.addChannelContext(inboundName, SUBSCRIBER_PATH, first);
+        List<InboundWebsocketChannelContext> subscribers =
+                manager.getSubscriberPathChannelContextList(inboundName, SUBSCRIBER_PATH);
+        manager.addChannelContext(inboundName, SUBSCRIBER_PATH, second);
+        manager.removeChannelContext(inboundName, SUBSCRIBER_PATH, first);
+
+        Assert.assertEquals(1, subscribers.size());
+        Assert.assertSame(first, subscribers.get(0));
+        Assert.assertTrue(manager.getSubscriberPathChannelContextList(inboundName, "/other").isEmpty());
+
+        manager.removeChannelContext(inboundName, SUBSCRIBER_PATH, second);
+        Assert.assertTrue(manager.getSubscriberPathChannelContextList(inboundName, SUBSCRIBER_PATH).isEmpty());
+    }
+
+    /**
+     * Creates the context of a channel whose identifier is unique, the name of a mock being returned by its toString.
+     */
+    private static InboundWebsocketChannelContext createContext() {
+        String identifier = "channel-" + channelCount.incrementAndGet();
+        Channel channel = mock(Channel.class, withSettings().name(identifier).stubOnly());
+        ChannelHandlerContext ctx = mock(ChannelHandlerContext.class, withSettings().name(identifier).stubOnly());
+        when(ctx.channel()).thenReturn(channel);
+        return new InboundWebsocketChannelContext(ctx);
+    }
+}
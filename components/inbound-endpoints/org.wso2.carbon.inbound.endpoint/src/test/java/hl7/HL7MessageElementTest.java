@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ * <p>
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package hl7;
+
+import ca.uhn.hl7v2.model.Message;
+import ca.uhn.hl7v2.parser.DefaultXMLParser;
+import ca.uhn.hl7v2.parser.XMLParser;
+import org.apache.axiom.om.OMAttribute;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMNode;
+import org.apache.axiom.om.OMText;
+import org.junit.Test;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.util.HL7MessageUtils;
+
+import javax.xml.namespace.QName;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Tests that the HL7 message element built from the DOM of the HAPI XML parser is equivalent to the element built by
+ * serializing the message to XML and parsing it with AXIOMUtil.stringToOM. The whitespace only text the XML parser
+ * adds to indent the serialized message is not compared, since it is not part of the DOM.
+ */
+public class HL7MessageElementTest {
+
+    private static final String MESSAGE = "MSH|^~\\&|SENDER|FACILITY|||20150403091225.929+0530||ADT^A01^ADT_A01|"
+            + "208601|T|2.6\r"
+            + "EVN|A01|20150403091225\r"
+            + "PID|1||123^^^MRN||M\u00fcller^Hans||19700101|M|||1 < 2 > 0 \"Main\" 'St'\r";
+
+    /**
+     * Testing the element built from the DOM against the element parsed from the serialized message
+     */
+    @Test
+    public void testElementFromDomMatchesParsedXml() throws Exception {
+        System.setProperty("ca.uhn.hl7v2.util.status.out", "");
+        Message message = HL7MessageUtils.parse(MESSAGE, false);
+        XMLParser xmlParser = new DefaultXMLParser();
+
+        OMElement parsedElement = HL7MessageUtils.generateHL7MessageElement(xmlParser.encode(message));
+        OMElement domElement = HL7MessageUtils.generateHL7MessageElement(
+                xmlParser.encodeDocument(message).getDocumentElement());
+
+        assertEquivalent(parsedElement, domElement);
+        OMElement pid = getChild(domElement.getFirstElement(), "PID");
+        assertEquals("M\u00fcller", getChild(getChild(getChild(pid, "PID.5"), "XPN.1"), "FN.1").getText());
+        assertEquals("1 < 2 > 0 \"Main\" 'St'",
+                getChild(getChild(getChild(pid, "PID.11"), "XAD.1"), "SAD.1").getText());
+    }
+
+    private OMElement getChild(OMElement element, String localName) {
+        OMElement child = element.getFirstChildWithName(
+                new QName(element.getNamespace().getNamespaceURI(), localName));
+        assertNotNull(localName + " is not found in " + element.getLocalName(), child);
+        return child;
+    }
+
+    private void assertEquivalent(OMElement expected, OMElement actual) {
+        String path = expected.getQName().toString();
+        assertEquals(expected.getQName(), actual.getQName());
+        assertEquals("Attributes of " + path, getAttributes(expected), getAttributes(actual));
+        List<OMNode> expectedChildren = getChildren(expected);
+        List<OMNode> actualChildren = getChildren(actual);
+        assertEquals("Children of " + path, expectedChildren.size(), actualChildren.size());
+        for (int i = 0; i < expectedChildren.size(); i++) {
+            OMNode expectedChild = expectedChildren.get(i);
+            OMNode actualChild = actualChildren.get(i);
+            assertEquals("Child " + i + " of " + path, expectedChild.getType(), actualChild.getType());
+            if (expectedChild instanceof OMElement) {
+                assertEquivalent((OMElement) expectedChild, (OMElement) actualChild);
+            } else if (expectedChild instanceof OMText) {
+                assertEquals("Text of " + path, ((OMText) expectedChild).getText(), ((OMText) actualChild).getText());
+            }
+        }
+    }
+
+    private Map<String, String> getAttributes(OMElement element) {
+        Map<String, String> attributes = new HashMap<>();
+        for (Iterator<?> iterator = element.getAllAttributes(); iterator.hasNext(); ) {
+            OMAttribute attribute = (OMAttribute) iterator.next();
+            attributes.put(attribute.getQName().toString(), attribute.getAttributeValue());
+        }
+        return attributes;
+    }
+
+    private List<OMNode> getChildren(OMElement element) {
+        List<OMNode> children = new ArrayList<>();
+        for (Iterator<?> iterator = element.getChildren(); iterator.hasNext(); ) {
+            OMNode child = (OMNode) iterator.next();
+            if (child instanceof OMText && ((OMText) child).getText().trim().isEmpty()) {
+                continue;
+            }
+            children.add(child);
+        }
+        return children;
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ * <p>
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package hl7;
+
+import ca.uhn.hl7v2.util.Terser;
+import org.junit.Test;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.codec.HL7Codec;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.codec.HL7RequestBuffer;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.context.MLLPContext;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests accumulating the bytes of an HL7 message received in several reads and decoding them once the message is
+ * received completely.
+ */
+public class HL7RequestBufferTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /* the euro sign is encoded in three bytes */
+    private static final String MULTIBYTE_TEXT = "price \u20ac 10";
+
+    /**
+     * Testing a multi-byte character split between two reads, which can not be decoded read by read
+     */
+    @Test
+    public void testMultibyteCharacterSplitBetweenReads() throws Exception {
+        byte[] bytes = MULTIBYTE_TEXT.getBytes(UTF8);
+        int split = MULTIBYTE_TEXT.indexOf('\u20ac') + 1;
+        byte[] read1 = Arrays.copyOfRange(bytes, 0, split);
+        byte[] read2 = Arrays.copyOfRange(bytes, split, bytes.length);
+        try {
+            UTF8.newDecoder().decode(ByteBuffer.wrap(read1));
+            fail("A read ending in the middle of a character must not be decodable on its own");
+        } catch (CharacterCodingException e) {
+            // expected, the message was decoded read by read before
+        }
+
+        HL7RequestBuffer buffer = new HL7RequestBuffer();
+        buffer.append(ByteBuffer.wrap(read1));
+        buffer.append(ByteBuffer.wrap(read2));
+        assertEquals(bytes.length, buffer.size());
+        assertEquals(MULTIBYTE_TEXT, buffer.decode(UTF8.newDecoder()));
+    }
+
+    /**
+     * Testing decoding an MLLP frame whose multi-byte character is split between two reads
+     */
+    @Test
+    public void testDecodeFrameSplitInCharacter() throws Exception {
+        System.setProperty("ca.uhn.hl7v2.llp.logBytesRead", "FALSE");
+        System.setProperty("ca.uhn.hl7v2.util.status.out", "");
+        MLLPContext context = new MLLPContext(null, UTF8.newDecoder(), true, true, null, null);
+        HL7Codec codec = context.getCodec();
+        String message = "MSH|^~\\&|||||20150403091225.929+0530||ADT^A01^ADT_A01|208601|T|2.6\r"
+                + "PID|1||123||M\u00fcller^Hans\r";
+        byte[] frame = (MllpTestConstants.START_BYTE + message + MllpTestConstants.END_BYTE1
+                + MllpTestConstants.END_BYTE2).getBytes(UTF8);
+        byte[] name = "M\u00fcller".getBytes(UTF8);
+        int split = indexOf(frame, name) + 2;
+
+        codec.decode(ByteBuffer.wrap(frame, 0, split).slice(), context);
+        assertFalse(codec.isReadComplete());
+        codec.decode(ByteBuffer.wrap(frame, split, frame.length - split).slice(), context);
+        assertTrue("Should have decoded a complete message", codec.isReadComplete());
+        assertEquals("M\u00fcller", new Terser(context.getHl7Message()).get("/PID-5-1"));
+    }
+
+    /**
+     * Testing that the buffer is reused for the next message once reset, including after it grew
+     */
+    @Test
+    public void testReset() throws Exception {
+        HL7RequestBuffer buffer = new HL7RequestBuffer();
+        StringBuilder largeText = new StringBuilder();
+        while (largeText.length() < 20 * 1024) {
+            largeText.append(MULTIBYTE_TEXT);
+        }
+        buffer.append(ByteBuffer.wrap(largeText.toString().getBytes(UTF8)));
+        assertEquals(largeText.toString(), buffer.decode(UTF8.newDecoder()));
+
+        buffer.reset();
+        assertEquals(0, buffer.size());
+        assertEquals("", buffer.decode(UTF8.newDecoder()));
+        for (byte b : MULTIBYTE_TEXT.getBytes(UTF8)) {
+            buffer.append(b);
+        }
+        assertEquals("The bytes of the previous message must be discarded", MULTIBYTE_TEXT,
+                buffer.decode(UTF8.newDecoder()));
+    }
+
+    private int indexOf(byte[] bytes, byte[] part) {
+        for (int i = 0; i <= bytes.length - part.length; i++) {
+            if (Arrays.equals(Arrays.copyOfRange(bytes, i, i + part.length), part)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Part not found");
+    }
+}
@@ -0,0 +1,214 @@
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ * <p>
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package hl7;
+
+import ca.uhn.hl7v2.util.Terser;
+import org.apache.http.nio.reactor.EventMask;
+import org.apache.http.nio.reactor.IOSession;
+import org.apache.synapse.inbound.InboundProcessorParams;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.context.MLLPContext;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.core.HL7Processor;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.core.MLLPConstants;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.util.HL7ExecutorServiceFactory;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.util.HL7MessageUtils;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.util.HL7WorkerPool;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests the worker pool of the HL7 inbound endpoints, which answers the messages arriving while it is saturated with
+ * a NACK, and which is shared by the endpoints naming it until the last of them is closed.
+ */
+public class HL7WorkerPoolTest {
+
+    private static final String MESSAGE =
+            "MSH|^~\\&|||||20150403091225.929+0530||ADT^A01^ADT_A01|208601|T|2.6\r";
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final List<HL7Processor> processors = new ArrayList<HL7Processor>();
+
+    @Before
+    public void config() throws Exception {
+        System.setProperty("ca.uhn.hl7v2.llp.logBytesRead", "FALSE");
+        System.setProperty("ca.uhn.hl7v2.util.status.out", "");
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        release.countDown();
+        for (HL7Processor processor : processors) {
+            processor.destroy();
+        }
+    }
+
+    /**
+     * Testing that a message arriving while the pool is saturated is answered with an AE NACK
+     */
+    @Test
+    public void testSaturatedPoolRespondsWithError() throws Exception {
+        assertSaturatedPoolResponds("ErrorPool", "AE");
+    }
+
+    /**
+     * Testing that a message arriving while the pool is saturated is answered with an AR NACK
+     */
+    @Test
+    public void testSaturatedPoolRespondsWithReject() throws Exception {
+        assertSaturatedPoolResponds("RejectPool", "AR");
+    }
+
+    /**
+     * Testing that the endpoints naming the same pool share it, and that it is only shut down once the last of them
+     * is closed
+     */
+    @Test
+    public void testPoolIsReleasedByTheLastEndpoint() throws Exception {
+        HL7Processor first = createProcessor("SharedPool", "AE");
+        HL7Processor second = createProcessor("SharedPool", "AE");
+        HL7WorkerPool pool = acquirePool("SharedPool", "AE");
+        assertSame("The endpoints must share the pool", pool, acquirePool("SharedPool", "AE"));
+        assertEquals(4, pool.getEndpointCount());
+        HL7ExecutorServiceFactory.releaseWorkerPool(pool);
+        HL7ExecutorServiceFactory.releaseWorkerPool(pool);
+        assertEquals(2, pool.getEndpointCount());
+
+        first.destroy();
+        first.destroy();
+        assertEquals("Closing an endpoint twice must release the pool once", 1, pool.getEndpointCount());
+        final CountDownLatch completed = new CountDownLatch(1);
+        assertTrue("The pool must accept messages while an endpoint uses it", pool.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                completed.countDown();
+                return true;
+            }
+        }));
+        assertTrue(completed.await(10, TimeUnit.SECONDS));
+
+        second.destroy();
+        assertEquals(0, pool.getEndpointCount());
+        assertFalse("The pool must be shut down once no endpoint uses it", pool.submit(blockingTask()));
+
+        HL7WorkerPool newPool = acquirePool("SharedPool", "AE");
+        try {
+            assertNotSame("A new pool must be created once the previous one is shut down", pool, newPool);
+            assertEquals(1, newPool.getEndpointCount());
+        } finally {
+            HL7ExecutorServiceFactory.releaseWorkerPool(newPool);
+        }
+    }
+
+    private void assertSaturatedPoolResponds(String poolName, String code) throws Exception {
+        HL7Processor processor = createProcessor(poolName, code);
+        List<Integer> events = new ArrayList<Integer>();
+
+        MLLPContext running = createContext(events);
+        processor.submit(running, blockingTask(), "running");
+        MLLPContext queued = createContext(events);
+        processor.submit(queued, blockingTask(), "queued");
+        assertTrue("No response must be requested for the messages handed to the pool", events.isEmpty());
+        assertFalse(running.isNackMode());
+        assertFalse(queued.isNackMode());
+
+        MLLPContext rejected = createContext(events);
+        processor.submit(rejected, blockingTask(), "rejected");
+        assertTrue("A message rejected by the pool must be answered with a NACK", rejected.isNackMode());
+        assertEquals("The NACK must be written right away", EventMask.WRITE, (int) events.get(events.size() - 1));
+        Terser terser = new Terser(rejected.getHl7Message());
+        assertEquals(code, terser.get("/MSA-1"));
+        assertEquals("208601", terser.get("/MSA-2"));
+
+        HL7WorkerPool pool = acquirePool(poolName, code);
+        try {
+            assertEquals(1, pool.getRejectedCount());
+            assertEquals(1, pool.getQueueDepth());
+        } finally {
+            HL7ExecutorServiceFactory.releaseWorkerPool(pool);
+        }
+    }
+
+    private Callable<Boolean> blockingTask() {
+        return new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return release.await(10, TimeUnit.SECONDS);
+            }
+        };
+    }
+
+    private HL7Processor createProcessor(String poolName, String rejectionPolicy) {
+        Map<String, Object> parameters = new HashMap<String, Object>();
+        parameters.put(MLLPConstants.INBOUND_PARAMS, createParams(poolName, rejectionPolicy));
+        HL7Processor processor = new HL7Processor(parameters);
+        processors.add(processor);
+        return processor;
+    }
+
+    private HL7WorkerPool acquirePool(String poolName, String rejectionPolicy) {
+        return HL7ExecutorServiceFactory.acquireWorkerPool(createParams(poolName, rejectionPolicy));
+    }
+
+    private InboundProcessorParams createParams(String poolName, String rejectionPolicy) {
+        Properties properties = new Properties();
+        properties.setProperty(MLLPConstants.PARAM_HL7_AUTO_ACK, "true");
+        properties.setProperty(MLLPConstants.PARAM_HL7_TIMEOUT, "10000");
+        properties.setProperty(MLLPConstants.PARAM_HL7_WORKER_POOL_NAME, poolName);
+        properties.setProperty(MLLPConstants.PARAM_HL7_WORKER_THREADS_CORE, "1");
+        properties.setProperty(MLLPConstants.PARAM_HL7_WORKER_THREADS_MAX, "1");
+        properties.setProperty(MLLPConstants.PARAM_HL7_WORKER_QUEUE_CAPACITY, "1");
+        properties.setProperty(MLLPConstants.PARAM_HL7_WORKER_REJECTION_POLICY, rejectionPolicy);
+        InboundProcessorParams params = new InboundProcessorParams();
+        params.setName(poolName + "Endpoint");
+        params.setProperties(properties);
+        return params;
+    }
+
+    /**
+     * Creates the context of a received message, whose session records the events set on it.
+     */
+    private MLLPContext createContext(final List<Integer> events) throws Exception {
+        IOSession session = mock(IOSession.class);
+        doAnswer(invocation -> events.add(invocation.getArgument(0))).when(session).setEvent(anyInt());
+        MLLPContext context = new MLLPContext(session, Charset.forName("UTF-8").newDecoder(), true, true, null,
+                null);
+        context.setHl7Message(HL7MessageUtils.parse(MESSAGE, false));
+        return context;
+    }
+}
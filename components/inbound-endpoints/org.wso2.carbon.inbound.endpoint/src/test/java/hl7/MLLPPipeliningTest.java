@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ * <p>
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package hl7;
+
+import ca.uhn.hl7v2.util.Terser;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.codec.HL7Codec;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.context.MLLPContext;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.context.PipelinedMLLPContext;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests decoding the messages a sender pipelines on a single MLLP connection, and answering each of them with its own
+ * acknowledgement.
+ */
+public class MLLPPipeliningTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private MLLPContext context;
+    private HL7Codec codec;
+
+    @Before
+    public void config() throws Exception {
+        System.setProperty("ca.uhn.hl7v2.llp.logBytesRead", "FALSE");
+        System.setProperty("ca.uhn.hl7v2.util.status.out", "");
+        context = new MLLPContext(null, UTF8.newDecoder(), true, true, null, null);
+        codec = context.getCodec();
+    }
+
+    /**
+     * Testing that decoding the first of two messages received in a single read ends where the second one starts
+     */
+    @Test
+    public void testDecodeMessagesOfSingleRead() throws Exception {
+        byte[] first = frame("208601");
+        byte[] second = frame("208602");
+        ByteBuffer buffer = ByteBuffer.allocate(first.length + second.length);
+        buffer.put(first).put(second).flip();
+
+        PipelinedMLLPContext firstMessage = decodeNext(buffer);
+        assertEquals("The first message must end where the second message starts", first.length,
+                codec.getTrailerEnd());
+        assertEquals("208601", controlId(firstMessage));
+
+        PipelinedMLLPContext secondMessage = decodeNext(ByteBuffer.wrap(second));
+        assertEquals(second.length, codec.getTrailerEnd());
+        assertEquals("208602", controlId(secondMessage));
+    }
+
+    /**
+     * Testing decoding a message whose trailer is split between two reads, followed by another message
+     */
+    @Test
+    public void testDecodeTrailerSplitBetweenReads() throws Exception {
+        byte[] first = frame("208601");
+        byte[] second = frame("208602");
+
+        ByteBuffer read1 = ByteBuffer.wrap(first, 0, first.length - 1).slice();
+        codec.decode(read1, context);
+        assertFalse("The message must not be complete before its trailer is received", codec.isReadComplete());
+        assertEquals(-1, codec.getTrailerEnd());
+
+        ByteBuffer read2 = ByteBuffer.allocate(1 + second.length);
+        read2.put(first[first.length - 1]).put(second).flip();
+        PipelinedMLLPContext firstMessage = decodeNext(read2);
+        assertEquals("The first message must end with the first byte of the second read", 1,
+                codec.getTrailerEnd());
+        assertEquals("208601", controlId(firstMessage));
+    }
+
+    /**
+     * Testing that each pipelined message is acknowledged with its own control ID, whichever is encoded first
+     */
+    @Test
+    public void testAcknowledgePipelinedMessages() throws Exception {
+        byte[] first = frame("208601");
+        byte[] second = frame("208602");
+
+        PipelinedMLLPContext firstMessage = decodeNext(ByteBuffer.wrap(first));
+        PipelinedMLLPContext secondMessage = decodeNext(ByteBuffer.wrap(second));
+
+        String secondAck = encode(secondMessage);
+        String firstAck = encode(firstMessage);
+        assertTrue(firstAck.contains("ACK^A01^ACK"));
+        assertTrue("ACK must refer to the first message: " + firstAck, firstAck.contains("|AA|208601"));
+        assertTrue("ACK must refer to the second message: " + secondAck, secondAck.contains("|AA|208602"));
+    }
+
+    private PipelinedMLLPContext decodeNext(ByteBuffer buffer) throws Exception {
+        codec.decode(buffer, context);
+        assertTrue("Should have decoded a complete message", codec.isReadComplete());
+        PipelinedMLLPContext message = new PipelinedMLLPContext(null, context);
+        context.reset();
+        return message;
+    }
+
+    private String encode(MLLPContext message) throws Exception {
+        ByteBuffer outBuff = ByteBuffer.allocate(1024);
+        message.getCodec().encode(outBuff, message);
+        byte[] ack = new byte[outBuff.remaining()];
+        outBuff.get(ack);
+        return new String(ack, UTF8);
+    }
+
+    private String controlId(MLLPContext message) throws Exception {
+        return new Terser(message.getHl7Message()).get("/MSH-10");
+    }
+
+    private byte[] frame(String controlId) {
+        String message = "MSH|^~\\&|||||20150403091225.929+0530||ADT^A01^ADT_A01|" + controlId + "|T|2.6\r";
+        return (MllpTestConstants.START_BYTE + message + MllpTestConstants.END_BYTE1
+                + MllpTestConstants.END_BYTE2).getBytes(UTF8);
+    }
+}
@@ -0,0 +1,280 @@
+/**
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ * <p>
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package hl7;
+
+import ca.uhn.hl7v2.util.Terser;
+import org.apache.http.nio.reactor.EventMask;
+import org.apache.http.nio.reactor.IOSession;
+import org.apache.http.nio.util.HeapByteBufferAllocator;
+import org.apache.synapse.inbound.InboundProcessorParams;
+import org.apache.synapse.transport.passthru.util.BufferFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.context.MLLPContext;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.core.HL7Processor;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.core.MLLPConstants;
+import org.wso2.carbon.inbound.endpoint.protocol.hl7.core.MLLPSourceHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the source handler of a pipelining MLLP connection, which hands over the messages received on the connection
+ * up to the pipeline depth, and writes their responses in the order the messages are received. The connection is
+ * replaced by a mocked session over a channel which records the written responses.
+ */
+public class MLLPSourceHandlerPipeliningTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private RecordingProcessor processor;
+    private FakeChannel channel;
+    private IOSession session;
+
+    private final Map<String, Object> attributes = new HashMap<String, Object>();
+    private int eventMask = EventMask.READ;
+    private boolean closed = false;
+
+    @Before
+    public void config() throws Exception {
+        System.setProperty("ca.uhn.hl7v2.llp.logBytesRead", "FALSE");
+        System.setProperty("ca.uhn.hl7v2.util.status.out", "");
+        channel = new FakeChannel();
+        session = createSession();
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        if (processor != null) {
+            processor.destroy();
+        }
+    }
+
+    /**
+     * Testing that the responses completed out of order are written in the order the messages are received
+     */
+    @Test
+    public void testResponsesWrittenInArrivalOrder() throws Exception {
+        MLLPSourceHandler handler = createHandler(4);
+        channel.addInput(frame("208601"), frame("208602"));
+        handler.inputReady(session);
+        assertEquals("Both messages of the read must be handed over", 2, processor.received.size());
+
+        respond(processor.received.get(1));
+        assertTrue("A completed response must request the output", isSet(EventMask.WRITE));
+        handler.outputReady(session);
+        assertEquals("The second response must wait for the first one", 0, channel.written.size());
+        assertFalse("The output must not be polled while the oldest response is not ready", isSet(EventMask.WRITE));
+
+        respond(processor.received.get(0));
+        handler.outputReady(session);
+        handler.outputReady(session);
+        handler.outputReady(session);
+        assertFalse("The output must not be polled once all the responses are written", isSet(EventMask.WRITE));
+
+        String written = channel.written.toString("UTF-8");
+        int first = written.indexOf("MSA|AA|208601");
+        int second = written.indexOf("MSA|AA|208602");
+        assertTrue("The first response must be written: " + written, first >= 0);
+        assertTrue("The second response must be written: " + written, second >= 0);
+        assertTrue("The responses must be written in the order of the messages: " + written, first < second);
+    }
+
+    /**
+     * Testing that the connection is not read while the pipeline is full, and is read again once the responses make
+     * room for the messages already received
+     */
+    @Test
+    public void testInputSuspendedWhilePipelineIsFull() throws Exception {
+        MLLPSourceHandler handler = createHandler(2);
+        channel.addInput(frame("208601"), frame("208602"), frame("208603"));
+        channel.addInput(frame("208604"));
+        handler.inputReady(session);
+        assertEquals("Only PipelineDepth messages must be handed over", 2, processor.received.size());
+        assertFalse("The input must be suspended while the pipeline is full", isSet(EventMask.READ));
+
+        handler.inputReady(session);
+        assertEquals(2, processor.received.size());
+        assertEquals("The connection must not be read while the input is suspended", 1, channel.reads.size());
+
+        respond(processor.received.get(0));
+        handler.outputReady(session);
+        assertEquals("The buffered message must be handed over once a response is written", 3,
+                processor.received.size());
+        assertEquals("208603", controlId(processor.received.get(2)));
+        assertFalse("The input must stay suspended while the pipeline is full again", isSet(EventMask.READ));
+
+        respond(processor.received.get(1));
+        handler.outputReady(session);
+        assertTrue("The input must be resumed once the pipeline has room", isSet(EventMask.READ));
+
+        handler.inputReady(session);
+        assertEquals(4, processor.received.size());
+        assertEquals("208604", controlId(processor.received.get(3)));
+        assertFalse(closed);
+    }
+
+    private MLLPSourceHandler createHandler(int pipelineDepth) {
+        Properties properties = new Properties();
+        properties.setProperty(MLLPConstants.PARAM_HL7_AUTO_ACK, "false");
+        properties.setProperty(MLLPConstants.PARAM_HL7_TIMEOUT, "10000");
+        properties.setProperty(MLLPConstants.PARAM_HL7_PIPELINING, "true");
+        properties.setProperty(MLLPConstants.PARAM_HL7_PIPELINE_DEPTH, String.valueOf(pipelineDepth));
+        InboundProcessorParams params = new InboundProcessorParams();
+        params.setName("PipeliningEndpoint");
+        params.setProperties(properties);
+
+        Map<String, Object> parameters = new HashMap<String, Object>();
+        parameters.put(MLLPConstants.INBOUND_PARAMS, params);
+        parameters.put(MLLPConstants.HL7_CHARSET_DECODER, UTF8.newDecoder());
+        parameters.put(MLLPConstants.INBOUND_HL7_BUFFER_FACTORY,
+                new BufferFactory(8 * 1024, new HeapByteBufferAllocator(), 4));
+        processor = new RecordingProcessor(parameters);
+
+        MLLPSourceHandler handler = new MLLPSourceHandler(processor);
+        handler.connected(session);
+        return handler;
+    }
+
+    /**
+     * Completes the mediation of a message with its application acknowledgement.
+     */
+    private void respond(MLLPContext context) throws Exception {
+        context.setHl7Message(context.getHl7Message().generateACK());
+        context.requestOutput();
+    }
+
+    private String controlId(MLLPContext context) throws Exception {
+        return new Terser(context.getHl7Message()).get("/MSH-10");
+    }
+
+    private boolean isSet(int event) {
+        return (eventMask & event) == event;
+    }
+
+    private byte[] frame(String controlId) {
+        String message = "MSH|^~\\&|||||20150403091225.929+0530||ADT^A01^ADT_A01|" + controlId + "|T|2.6\r";
+        return (MllpTestConstants.START_BYTE + message + MllpTestConstants.END_BYTE1
+                + MllpTestConstants.END_BYTE2).getBytes(UTF8);
+    }
+
+    private IOSession createSession() {
+        IOSession session = mock(IOSession.class);
+        when(session.channel()).thenReturn(channel);
+        when(session.getAttribute(anyString())).thenAnswer(invocation -> attributes.get(invocation.getArgument(0)));
+        doAnswer(invocation -> attributes.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(session).setAttribute(anyString(), any());
+        doAnswer(invocation -> {
+            int event = invocation.getArgument(0);
+            eventMask |= event;
+            return null;
+        }).when(session).setEvent(anyInt());
+        doAnswer(invocation -> {
+            int event = invocation.getArgument(0);
+            eventMask &= ~event;
+            return null;
+        }).when(session).clearEvent(anyInt());
+        when(session.getEventMask()).thenAnswer(invocation -> eventMask);
+        when(session.isClosed()).thenAnswer(invocation -> closed);
+        doAnswer(invocation -> closed = true).when(session).close();
+        doAnswer(invocation -> closed = true).when(session).shutdown();
+        return session;
+    }
+
+    /**
+     * A processor which records the messages handed over for mediation instead of injecting them.
+     */
+    private static class RecordingProcessor extends HL7Processor {
+
+        private final List<MLLPContext> received = new ArrayList<MLLPContext>();
+
+        RecordingProcessor(Map<String, Object> parameters) {
+            super(parameters);
+        }
+
+        @Override
+        public void processRequest(MLLPContext mllpContext) {
+            received.add(mllpContext);
+        }
+    }
+
+    /**
+     * A channel which returns each of the added inputs in a single read, and records the written bytes.
+     */
+    private static class FakeChannel implements ByteChannel {
+
+        private final ArrayDeque<byte[]> reads = new ArrayDeque<byte[]>();
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+        void addInput(byte[]... frames) {
+            ByteArrayOutputStream input = new ByteArrayOutputStream();
+            for (byte[] frame : frames) {
+                input.write(frame, 0, frame.length);
+            }
+            reads.add(input.toByteArray());
+        }
+
+        @Override
+        public int read(ByteBuffer dst) {
+            byte[] input = reads.poll();
+            if (input == null) {
+                return 0;
+            }
+            dst.put(input);
+            return input.length;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            int count = src.remaining();
+            byte[] bytes = new byte[count];
+            src.get(bytes);
+            written.write(bytes, 0, count);
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
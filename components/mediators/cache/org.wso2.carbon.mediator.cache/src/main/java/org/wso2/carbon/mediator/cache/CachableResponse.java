@@ -21,6 +21,7 @@ import org.apache.axiom.soap.SOAPEnvelope;
 import java.io.Serializable;
 import java.util.Map;
 import java.util.regex.Pattern;
+import javax.xml.namespace.QName;
 
 /**
  * This object holds the cached response and the related properties of the cache per request and will be stored in to
@@ -32,10 +33,21 @@ import java.util.regex.Pattern;
  */
 public class CachableResponse implements Serializable {
     /**
-     * This holds the reference to the response for json
+     * This holds the reference to the response for json, or the serialized body payload of an xml response which
+     * does not need the whole envelope to be kept
      */
     private byte[] responsePayload = null;
 
+    /**
+     * The QName of the body payload of an xml response which is held in the responsePayload.
+     */
+    private QName payloadQName = null;
+
+    /**
+     * The SOAP namespace URI of the envelope of an xml response which is held in the responsePayload.
+     */
+    private String soapNamespaceURI = null;
+
     /**
      * The response is stored as a SOAPEnvelope (This cannot be used if supporting a cluster because SOAPEnvelope is not
      * serializable)
@@ -115,11 +127,114 @@ public class CachableResponse implements Serializable {
     private boolean addAgeHeaderEnabled;
 
     /**
-     * Sets the responsePayload and the headerProperties to null
+     * The id of the cache mediator whose cache holds this response.
+     */
+    private String cacheId;
+
+    /**
+     * The serialized size of the response envelope in bytes. This is only calculated when the cache is bounded by
+     * memory.
+     */
+    private long responseSize;
+
+    /**
+     * This specifies whether the size of the response needs to be calculated, because the cache is bounded by the
+     * size of its responses.
+     */
+    private boolean sizeBounded;
+
+    /**
+     * The time in milliseconds at which the response expires. This is 0 until the response is stored in the cache.
+     */
+    private long expireTimeMillis;
+
+    /**
+     * The weight in bytes that is currently accounted for this response in the {@link CacheManager}.
+     */
+    private long weight;
+
+    /**
+     * The time in milliseconds at which a request started fetching this response from the backend on behalf of the
+     * other requests for it. This is 0 when no request is fetching the response.
+     */
+    private transient long fetchStartedTime;
+
+    /**
+     * Identifies the latest fetch of this response, so that only the request which started it can end it.
+     */
+    private transient long fetchId;
+
+    /**
+     * Sets the responsePayload, the responseEnvelope and the headerProperties to null, so that the response is no
+     * longer populated
      */
     public void clean() {
         responsePayload = null;
+        responseEnvelope = null;
+        payloadQName = null;
+        soapNamespaceURI = null;
         headerProperties = null;
+        responseSize = 0;
+    }
+
+    /**
+     * @return whether the response has been populated from a backend response
+     */
+    public boolean isPopulated() {
+        return responsePayload != null || responseEnvelope != null;
+    }
+
+    /**
+     * Makes the calling request the one which fetches this response from the backend, unless another request started
+     * fetching it within the given timeout.
+     *
+     * @param timeoutMillis the time in milliseconds after which an unfinished fetch is abandoned
+     * @return the id of the fetch to end with {@link #endFetch(long)} if the calling request needs to fetch the
+     * response, or 0 if another request is fetching it
+     */
+    public synchronized long startFetch(long timeoutMillis) {
+        long now = System.currentTimeMillis();
+        if (fetchStartedTime == 0 || now - fetchStartedTime >= timeoutMillis) {
+            fetchStartedTime = now;
+            return ++fetchId;
+        }
+        return 0;
+    }
+
+    /**
+     * Waits until the request fetching this response finishes, or the timeout elapses.
+     *
+     * @param timeoutMillis the maximum time in milliseconds to wait
+     * @return whether the response is populated
+     */
+    public synchronized boolean awaitFetch(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        try {
+            while (fetchStartedTime != 0 && !isPopulated()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    break;
+                }
+                wait(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return isPopulated();
+    }
+
+    /**
+     * Marks the fetch of this response as finished, whether or not the response was populated, and releases the
+     * requests waiting for it. A request which did not start the current fetch, such as a request which stopped
+     * waiting for it, does not end it, but the waiting requests still check whether it populated the response.
+     *
+     * @param fetchId the id returned by {@link #startFetch(long)}, or 0 if the request did not start a fetch
+     */
+    public synchronized void endFetch(long fetchId) {
+        if (fetchId != 0 && fetchId == this.fetchId) {
+            fetchStartedTime = 0;
+        }
+        notifyAll();
     }
 
     /**
@@ -140,6 +255,34 @@ public class CachableResponse implements Serializable {
         this.responsePayload = responsePayload;
     }
 
+    /**
+     * @return the QName of the body payload of an xml response held in the responsePayload
+     */
+    public QName getPayloadQName() {
+        return payloadQName;
+    }
+
+    /**
+     * @param payloadQName the QName of the body payload of an xml response held in the responsePayload
+     */
+    public void setPayloadQName(QName payloadQName) {
+        this.payloadQName = payloadQName;
+    }
+
+    /**
+     * @return the SOAP namespace URI of the envelope of an xml response held in the responsePayload
+     */
+    public String getSoapNamespaceURI() {
+        return soapNamespaceURI;
+    }
+
+    /**
+     * @param soapNamespaceURI the SOAP namespace URI of the envelope of an xml response held in the responsePayload
+     */
+    public void setSoapNamespaceURI(String soapNamespaceURI) {
+        this.soapNamespaceURI = soapNamespaceURI;
+    }
+
     /**
      * @return The response {@link SOAPEnvelope} for xml response
      */
@@ -392,4 +535,93 @@ public class CachableResponse implements Serializable {
         this.addAgeHeaderEnabled = addAgeHeaderEnabled;
     }
 
+    /**
+     * This method returns the id of the cache mediator whose cache holds this response.
+     *
+     * @return id of the cache mediator.
+     */
+    public String getCacheId() {
+        return cacheId;
+    }
+
+    /**
+     * This method sets the id of the cache mediator whose cache holds this response.
+     *
+     * @param cacheId id of the cache mediator.
+     */
+    public void setCacheId(String cacheId) {
+        this.cacheId = cacheId;
+    }
+
+    /**
+     * This method returns the serialized size of the response envelope in bytes.
+     *
+     * @return serialized size of the response envelope in bytes.
+     */
+    public long getResponseSize() {
+        return responseSize;
+    }
+
+    /**
+     * This method sets the serialized size of the response envelope in bytes.
+     *
+     * @param responseSize serialized size of the response envelope in bytes.
+     */
+    public void setResponseSize(long responseSize) {
+        this.responseSize = responseSize;
+    }
+
+    /**
+     * This method returns the weight in bytes accounted for this response.
+     *
+     * @return weight of the response in bytes.
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    /**
+     * This method sets the weight in bytes accounted for this response.
+     *
+     * @param weight weight of the response in bytes.
+     */
+    public void setWeight(long weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * This method returns whether the size of the response needs to be calculated.
+     *
+     * @return whether the cache is bounded by the size of its responses.
+     */
+    public boolean isSizeBounded() {
+        return sizeBounded;
+    }
+
+    /**
+     * This method sets whether the size of the response needs to be calculated.
+     *
+     * @param sizeBounded whether the cache is bounded by the size of its responses.
+     */
+    public void setSizeBounded(boolean sizeBounded) {
+        this.sizeBounded = sizeBounded;
+    }
+
+    /**
+     * This method returns the time in milliseconds at which the response expires.
+     *
+     * @return the expiry time of the response in milliseconds.
+     */
+    public long getExpireTimeMillis() {
+        return expireTimeMillis;
+    }
+
+    /**
+     * This method sets the time in milliseconds at which the response expires.
+     *
+     * @param expireTimeMillis the expiry time of the response in milliseconds.
+     */
+    public void setExpireTimeMillis(long expireTimeMillis) {
+        this.expireTimeMillis = expireTimeMillis;
+    }
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.cache;
+
+import com.google.common.cache.Weigher;
+
+import java.util.Map;
+
+/**
+ * Weighs a {@link CachableResponse} by the approximate number of bytes it holds, so that the mediator cache can be
+ * bounded by memory rather than by the number of entries.
+ */
+public class CachableResponseWeigher implements Weigher<String, CachableResponse> {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int weigh(String requestHash, CachableResponse response) {
+        return (int) Math.min(response.getWeight(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Estimates the number of bytes held by the given response. The payload is counted by its stored size and the
+     * header properties by the length of their keys and values.
+     *
+     * @param response the cached response to be weighed
+     * @return the estimated size of the response in bytes
+     */
+    public static long estimateSize(CachableResponse response) {
+        long size = 0;
+        byte[] payload = response.getResponsePayload();
+        if (payload != null) {
+            size += payload.length;
+        } else if (response.getResponseSize() > 0) {
+            size += response.getResponseSize();
+        }
+        Map<String, Object> headerProperties = response.getHeaderProperties();
+        if (headerProperties != null) {
+            synchronized (headerProperties) {
+                for (Map.Entry<String, Object> entry : headerProperties.entrySet()) {
+                    size += entry.getKey().length();
+                    if (entry.getValue() != null) {
+                        size += String.valueOf(entry.getValue()).length();
+                    }
+                }
+            }
+        }
+        return size;
+    }
+}
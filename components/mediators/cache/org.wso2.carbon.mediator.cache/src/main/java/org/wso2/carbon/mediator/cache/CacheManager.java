@@ -17,21 +17,169 @@
 package org.wso2.carbon.mediator.cache;
 
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.config.SynapsePropertiesLoader;
+import org.wso2.carbon.mediator.cache.invalidation.InvalidationBus;
+import org.wso2.carbon.mediator.cache.invalidation.InvalidationEvent;
+import org.wso2.carbon.mediator.cache.invalidation.InvalidationListener;
+import org.wso2.carbon.mediator.cache.invalidation.SharedInvalidationBus;
+import org.wso2.carbon.mediator.cache.store.CacheStore;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * There would be two instances of the cache mediator in a single mediation flow. Hence it must be possible for the
  * cache created in one instance to be reused in the next. This CacheManager enables this feature with static methods.
+ * The CacheManager also keeps track of the memory held by all the caches it manages, and enforces the node wide
+ * limit configured by {@link CachingConstants#NODE_MAX_SIZE_IN_BYTES_PROPERTY}. Invalidations made through the
+ * CacheManager are shared with the other nodes through the {@link SharedInvalidationBus} of the node while cache
+ * mediators using the CacheManager are deployed.
  */
 public class CacheManager {
 
+    private static final Log log = LogFactory.getLog(CacheManager.class);
+
     /**
      * Maps the id with the relevant LoadingCache
      */
     private Map<String, LoadingCache<String, CachableResponse>> cacheMap = new ConcurrentHashMap<>();
 
+    /**
+     * Maps the id with the second level store of the mediator, if it has one
+     */
+    private Map<String, CacheStore> storeMap = new ConcurrentHashMap<>();
+
+    /**
+     * The total size in bytes of the responses held by all the caches.
+     */
+    private final AtomicLong currentSizeInBytes = new AtomicLong();
+
+    /**
+     * The number of responses evicted from the caches due to their size limits.
+     */
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * The maximum size in bytes of the responses held by all the caches. If this is -1 there is no node wide limit.
+     */
+    private final long maxSizeInBytes;
+
+    /**
+     * The bus given to this CacheManager to share the invalidations with the other nodes, or null if they are not
+     * shared or they are shared through the {@link SharedInvalidationBus}.
+     */
+    private final InvalidationBus invalidationBus;
+
+    /**
+     * Whether the invalidations are shared through the {@link SharedInvalidationBus} of the node.
+     */
+    private final boolean sharedInvalidations;
+
+    /**
+     * Applies the invalidations received from the other cache managers and nodes.
+     */
+    private final InvalidationListener invalidationListener = new InvalidationListener() {
+        @Override
+        public void onInvalidation(InvalidationEvent event) {
+            apply(event);
+        }
+    };
+
+    /**
+     * The number of initialized cache mediators using this CacheManager.
+     */
+    private int mediatorCount;
+
+    /**
+     * The thread which writes the evicted responses to the second level stores, so that the requests evicting them
+     * do not wait for the store. This is only running while there is a second level store.
+     */
+    private ThreadPoolExecutor spillExecutor;
+
+    /**
+     * The number of evicted responses waiting to be written to the second level stores.
+     */
+    private final AtomicInteger pendingSpillCount = new AtomicInteger();
+
+    /**
+     * Incremented on every invalidation, so that responses evicted before an invalidation are not written to the
+     * second level stores after it.
+     */
+    private long invalidationCount;
+
+    private final Object spillLock = new Object();
+
+    /**
+     * Creates a CacheManager bounded by the node wide limit, which shares the invalidations through the
+     * {@link SharedInvalidationBus} of the node.
+     */
+    public CacheManager() {
+        this.maxSizeInBytes = readMaxSizeInBytes();
+        this.invalidationBus = null;
+        this.sharedInvalidations = true;
+    }
+
+    /**
+     * @param maxSizeInBytes the maximum size in bytes of the responses held by all the caches, or -1 for no limit
+     */
+    public CacheManager(long maxSizeInBytes) {
+        this(maxSizeInBytes, null);
+    }
+
+    /**
+     * @param maxSizeInBytes  the maximum size in bytes of the responses held by all the caches, or -1 for no limit
+     * @param invalidationBus the initialized bus to share the invalidations with the other nodes, or null. The bus is
+     *                        started here and the caller is responsible for stopping it.
+     */
+    public CacheManager(long maxSizeInBytes, InvalidationBus invalidationBus) {
+        this.maxSizeInBytes = maxSizeInBytes;
+        this.invalidationBus = invalidationBus;
+        this.sharedInvalidations = false;
+        if (invalidationBus != null) {
+            try {
+                invalidationBus.start(invalidationListener);
+            } catch (CachingException e) {
+                log.error("Unable to start the cache invalidation bus. Invalidations made on the other nodes will "
+                        + "not be applied to this node.", e);
+            }
+        }
+    }
+
+    /**
+     * Called when a cache mediator using this CacheManager is initialized. The first one joins the shared
+     * invalidation bus of the node.
+     */
+    synchronized void acquire() {
+        if (mediatorCount++ == 0 && sharedInvalidations) {
+            SharedInvalidationBus.register(invalidationListener);
+        }
+    }
+
+    /**
+     * Called when a cache mediator using this CacheManager is destroyed. The last one leaves the shared invalidation
+     * bus of the node, which is stopped once no CacheManager uses it.
+     */
+    synchronized void release() {
+        if (mediatorCount == 0) {
+            return;
+        }
+        if (--mediatorCount == 0 && sharedInvalidations) {
+            SharedInvalidationBus.unregister(invalidationListener);
+        }
+    }
+
     /**
      * @param id the id of the mediator
      * @return the relevant cache of the mediator
@@ -56,14 +204,356 @@ public class CacheManager {
      * @param id the id of the cache mediator
      */
     void remove(String id) {
-        cacheMap.remove(id);
+        startInvalidation();
+        invalidate(id);
+        synchronized (this) {
+            storeMap.remove(id);
+            if (storeMap.isEmpty() && spillExecutor != null) {
+                spillExecutor.shutdown();
+                spillExecutor = null;
+            }
+        }
     }
 
     /**
      * Clears the CacheManager
      */
     void clean() {
-        cacheMap.clear();
+        startInvalidation();
+        for (String id : cacheMap.keySet()) {
+            invalidate(id);
+        }
+        for (CacheStore store : storeMap.values()) {
+            store.clear();
+        }
     }
 
+    /**
+     * Invalidates all the cached responses on this node and the other nodes.
+     */
+    void invalidateAll() {
+        clean();
+        publish(InvalidationEvent.all());
+    }
+
+    /**
+     * Invalidates the responses cached by the given mediator on this node and the other nodes.
+     *
+     * @param id the id of the cache mediator
+     */
+    void invalidateMediator(String id) {
+        clear(id);
+        publish(InvalidationEvent.mediator(id));
+    }
+
+    /**
+     * Invalidates the responses cached against the given request hash on this node and the other nodes.
+     *
+     * @param requestHash the request hash, as returned in the cacheKey header of the cached responses
+     */
+    void invalidateKey(String requestHash) {
+        evict(requestHash);
+        publish(InvalidationEvent.key(requestHash));
+    }
+
+    /**
+     * Applies an invalidation received from another node to the caches of this node.
+     *
+     * @param event the invalidation
+     */
+    void apply(InvalidationEvent event) {
+        switch (event.getScope()) {
+            case MEDIATOR:
+                clear(event.getCacheId());
+                break;
+            case KEY:
+                evict(event.getRequestHash());
+                break;
+            default:
+                clean();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Applied the " + event + " received from another node");
+        }
+    }
+
+    /**
+     * Insert id and the second level store of the mediator to the CacheManager
+     *
+     * @param id    the id of the cache mediator
+     * @param store the second level store of the mediator
+     */
+    synchronized void putStore(String id, CacheStore store) {
+        storeMap.put(id, store);
+        if (spillExecutor == null) {
+            spillExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<Runnable>(CachingConstants.SPILL_QUEUE_CAPACITY), new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            Thread thread = new Thread(runnable, "mediator-cache-store-writer");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Removes the LoadingCache associated with the id, and all the responses in it
+     *
+     * @param id the id of the cache mediator
+     */
+    private void invalidate(String id) {
+        LoadingCache<String, CachableResponse> cache = cacheMap.remove(id);
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Removes all the responses of the given mediator from its cache and its second level store.
+     *
+     * @param id the id of the cache mediator
+     */
+    private void clear(String id) {
+        startInvalidation();
+        invalidate(id);
+        CacheStore store = storeMap.get(id);
+        if (store != null) {
+            store.clear();
+        }
+    }
+
+    /**
+     * Removes the responses cached against the request hash from all the caches and second level stores.
+     *
+     * @param requestHash the request hash
+     */
+    private void evict(String requestHash) {
+        startInvalidation();
+        for (LoadingCache<String, CachableResponse> cache : cacheMap.values()) {
+            cache.invalidate(requestHash);
+        }
+        for (CacheStore store : storeMap.values()) {
+            store.remove(requestHash);
+        }
+    }
+
+    /**
+     * Shares an invalidation made on this node with the other nodes.
+     *
+     * @param event the invalidation
+     */
+    private void publish(InvalidationEvent event) {
+        try {
+            if (sharedInvalidations) {
+                SharedInvalidationBus.publish(invalidationListener, event);
+            } else if (invalidationBus != null) {
+                invalidationBus.publish(event);
+            }
+        } catch (CachingException e) {
+            log.error("Unable to share the " + event + " with the other nodes", e);
+        }
+    }
+
+    /**
+     * Stores a populated response in the cache of the mediator it belongs to, so that it is weighed with its actual
+     * size. The response is not stored if that would exceed the node wide limit.
+     *
+     * @param response the populated response
+     * @return whether the response was stored in the cache
+     */
+    boolean store(CachableResponse response) {
+        LoadingCache<String, CachableResponse> cache = cacheMap.get(response.getCacheId());
+        if (cache == null) {
+            return false;
+        }
+        synchronized (response) {
+            long weight = CachableResponseWeigher.estimateSize(response);
+            long delta = weight - response.getWeight();
+            long total = currentSizeInBytes.addAndGet(delta);
+            if (maxSizeInBytes > -1 && delta > 0 && total > maxSizeInBytes) {
+                currentSizeInBytes.addAndGet(-delta);
+                return false;
+            }
+            response.setWeight(weight);
+            response.setExpireTimeMillis(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(response.getTimeout()));
+            cache.put(response.getRequestHash(), response);
+        }
+        return true;
+    }
+
+    /**
+     * Accounts for the size of a response which is loaded to the cache from the second level store.
+     *
+     * @param response the response promoted from the second level store
+     */
+    void promote(CachableResponse response) {
+        long weight = CachableResponseWeigher.estimateSize(response);
+        response.setWeight(weight);
+        currentSizeInBytes.addAndGet(weight);
+    }
+
+    /**
+     * Creates the listener which keeps the size accounting of the cache of the given mediator up to date.
+     *
+     * @param id the id of the cache mediator
+     * @return the removal listener for the cache
+     */
+    RemovalListener<String, CachableResponse> createRemovalListener(final String id) {
+        return new RemovalListener<String, CachableResponse>() {
+            @Override
+            public void onRemoval(RemovalNotification<String, CachableResponse> notification) {
+                CachableResponse response = notification.getValue();
+                if (response == null) {
+                    return;
+                }
+                if (notification.getCause() == RemovalCause.REPLACED) {
+                    // the same response is put again once it is populated, and store() accounts for its new weight
+                    LoadingCache<String, CachableResponse> cache = cacheMap.get(id);
+                    if (cache != null && cache.asMap().get(notification.getKey()) == response) {
+                        return;
+                    }
+                }
+                currentSizeInBytes.addAndGet(-response.getWeight());
+                if (notification.getCause() == RemovalCause.SIZE) {
+                    evictionCount.incrementAndGet();
+                    spill(id, notification.getKey(), response);
+                }
+            }
+        };
+    }
+
+    /**
+     * Hands over a response evicted from the cache of the given mediator to the thread writing it to the second level
+     * store of the mediator. The response is discarded if too many responses are already waiting to be written.
+     *
+     * @param id          the id of the cache mediator
+     * @param requestHash the request hash of the response
+     * @param response    the evicted response
+     */
+    private void spill(String id, final String requestHash, final CachableResponse response) {
+        final CacheStore store = storeMap.get(id);
+        if (store == null || !response.isPopulated()) {
+            return;
+        }
+        ThreadPoolExecutor executor;
+        synchronized (this) {
+            executor = spillExecutor;
+        }
+        if (executor == null) {
+            return;
+        }
+        final long spilledInvalidationCount;
+        synchronized (spillLock) {
+            spilledInvalidationCount = invalidationCount;
+        }
+        pendingSpillCount.incrementAndGet();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        writeToStore(store, requestHash, response, spilledInvalidationCount);
+                    } finally {
+                        pendingSpillCount.decrementAndGet();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingSpillCount.decrementAndGet();
+            if (log.isDebugEnabled()) {
+                log.debug("Too many evicted responses are waiting for the cache store. The response with request "
+                        + "hash " + requestHash + " is discarded");
+            }
+        }
+    }
+
+    /**
+     * Writes an evicted response to the second level store, unless the caches were invalidated after it was evicted.
+     *
+     * @param store                   the second level store
+     * @param requestHash             the request hash of the response
+     * @param response                the evicted response
+     * @param spilledInvalidationCount the number of invalidations made before the response was evicted
+     */
+    private void writeToStore(CacheStore store, String requestHash, CachableResponse response,
+                              long spilledInvalidationCount) {
+        synchronized (spillLock) {
+            if (spilledInvalidationCount != invalidationCount) {
+                return;
+            }
+            try {
+                store.put(requestHash, response);
+            } catch (CachingException e) {
+                log.warn("Unable to move the evicted response with request hash " + requestHash
+                        + " to the cache store", e);
+            }
+        }
+    }
+
+    /**
+     * Keeps the responses evicted before an invalidation from being written to the second level stores after it.
+     */
+    private void startInvalidation() {
+        synchronized (spillLock) {
+            invalidationCount++;
+        }
+    }
+
+    /**
+     * @return the number of evicted responses waiting to be written to the second level stores
+     */
+    int getPendingSpillCount() {
+        return pendingSpillCount.get();
+    }
+
+    /**
+     * @return the total size in bytes of the responses held by all the second level stores
+     */
+    long getStoreSizeInBytes() {
+        long size = 0;
+        for (CacheStore store : storeMap.values()) {
+            size += store.getSizeInBytes();
+        }
+        return size;
+    }
+
+    /**
+     * @return the total size in bytes of the responses held by all the caches
+     */
+    long getCurrentSizeInBytes() {
+        return currentSizeInBytes.get();
+    }
+
+    /**
+     * @return the number of responses evicted from the caches due to their size limits
+     */
+    long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * @return the maximum size in bytes of the responses held by all the caches, or -1 if there is no limit
+     */
+    long getMaxSizeInBytes() {
+        return maxSizeInBytes;
+    }
+
+    /**
+     * Reads the node wide limit of the caches from the synapse properties.
+     *
+     * @return the configured limit in bytes, or -1 if it is not configured
+     */
+    private static long readMaxSizeInBytes() {
+        String value = SynapsePropertiesLoader.getPropertyValue(CachingConstants.NODE_MAX_SIZE_IN_BYTES_PROPERTY,
+                String.valueOf(CachingConstants.DEFAULT_SIZE));
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value " + value + " for " + CachingConstants.NODE_MAX_SIZE_IN_BYTES_PROPERTY
+                    + ". The mediator caches will not be bounded by a node wide limit.");
+            return CachingConstants.DEFAULT_SIZE;
+        }
+    }
 }
@@ -19,8 +19,18 @@ package org.wso2.carbon.mediator.cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import org.apache.axiom.om.OMAbstractFactory;
 import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMNamespace;
+import org.apache.axiom.om.OMNode;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.OMXMLParserWrapper;
+import org.apache.axiom.om.ds.ByteArrayDataSource;
+import org.apache.axiom.soap.SOAP11Constants;
+import org.apache.axiom.soap.SOAPBody;
 import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axiom.soap.SOAPFactory;
+import org.apache.axiom.soap.SOAPHeader;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.Constants;
 import org.apache.axis2.context.ConfigurationContext;
@@ -44,12 +54,17 @@ import org.apache.synapse.util.FixedByteArrayOutputStream;
 import org.apache.synapse.util.MessageHelper;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.mediator.cache.digest.DigestGenerator;
+import org.wso2.carbon.mediator.cache.store.CacheStore;
 import org.wso2.carbon.mediator.cache.util.HttpCachingFilter;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
@@ -66,6 +81,7 @@ import javax.management.MBeanServerFactory;
 import javax.management.MalformedObjectNameException;
 import javax.management.NotCompliantMBeanException;
 import javax.management.ObjectName;
+import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamException;
 
 /**
@@ -130,6 +146,23 @@ public class CacheMediator extends AbstractMediator implements ManagedLifecycle,
      */
     private int inMemoryCacheSize = CachingConstants.DEFAULT_SIZE;
 
+    /**
+     * The total size in bytes of the messages to be cached in memory. If this is -1 then the cache is not bounded by
+     * the size of its messages.
+     */
+    private long inMemoryCacheSizeInBytes = CachingConstants.DEFAULT_SIZE;
+
+    /**
+     * The second level store to which the responses evicted from the in memory cache are moved. If this is null the
+     * evicted responses are discarded.
+     */
+    private CacheStore cacheStore = null;
+
+    /**
+     * The parameters used to initialize the second level store.
+     */
+    private Map<String, String> cacheStoreProperties = new HashMap<>();
+
     /**
      * The compiled pattern for the regex of the responseCodes.
      */
@@ -140,6 +173,24 @@ public class CacheMediator extends AbstractMediator implements ManagedLifecycle,
      */
     private int maxMessageSize = CachingConstants.DEFAULT_SIZE;
 
+    /**
+     * This specifies whether concurrent requests missing the cache for the same request hash wait for the first of
+     * them to fetch the response, instead of all of them going to the backend.
+     */
+    private boolean singleFlight = false;
+
+    /**
+     * The time in milliseconds that requests wait for a response being fetched by another request, after which they
+     * go to the backend themselves.
+     */
+    private long singleFlightTimeout = CachingConstants.DEFAULT_SINGLE_FLIGHT_TIMEOUT;
+
+    /**
+     * The time duration in seconds for which an expired response is served while a single request fetches a fresh
+     * one. If this is 0 expired responses are never served.
+     */
+    private long staleWhileRevalidate = 0;
+
     /**
      * The regex expression of the HTTP response code to be cached.
      */
@@ -195,6 +246,12 @@ public class CacheMediator extends AbstractMediator implements ManagedLifecycle,
      */
     private boolean isPreviousCacheImplementation = false;
 
+    /**
+     * Whether the id is configured rather than generated. Only a configured id is the same on all the nodes, hence
+     * the responses of this mediator can be invalidated on the other nodes by its id only if it is configured.
+     */
+    private boolean idConfigured = false;
+
     public CacheMediator(CacheManager cacheManager) {
         this.id = UUID.randomUUID().toString();
         responseCodePattern = Pattern.compile(responseCodes);
@@ -208,6 +265,10 @@ public class CacheMediator extends AbstractMediator implements ManagedLifecycle,
         if (onCacheHitSequence != null) {
             onCacheHitSequence.init(se);
         }
+        if (cacheStore != null) {
+            cacheStore.init(cacheStoreProperties);
+        }
+        cacheManager.acquire();
         exposeInvalidator(se.createMessageContext());
     }
 
@@ -219,6 +280,10 @@ public class CacheMediator extends AbstractMediator implements ManagedLifecycle,
             onCacheHitSequence.destroy();
         }
         cacheManager.remove(id);
+        if (cacheStore != null) {
+            cacheStore.destroy();
+        }
+        cacheManager.release();
     }
 
     /**
@@ -266,9 +331,27 @@ public class CacheMediator extends AbstractMediator implements ManagedLifecycle,
      * @param requestHash the request hash that has already been computed
      */
     private CachableResponse cacheNewResponse(String requestHash) {
+        if (cacheStore != null) {
+            CachableResponse storedResponse = cacheStore.remove(requestHash);
+            if (storedResponse != null) {
+                storedResponse.setCacheId(id);
+                cacheManager.promote(storedResponse);
+                return storedResponse;
+            }
+        }
+        return createResponse(requestHash);
+    }
+
+    /**
+     * Creates an empty CachableResponse to be populated from the backend response.
+     *
+     * @param requestHash the request hash that has already been computed
+     */
+    private CachableResponse createResponse(String requestHash) {
         CachableResponse response = new CachableResponse();
         response.setRequestHash(requestHash);
         response.setTimeout(timeout);
+        response.setCacheId(id);
         return response;
     }
 
@@ -299,6 +382,43 @@ public class CacheMediator extends AbstractMediator implements ManagedLifecycle,
             synLog.traceOrDebug("Generated request hash : " + requestHash);
         }
         CachableResponse cachedResponse = getMediatorCache().get(requestHash);
+        long expireTimeMillis = cachedResponse.getExpireTimeMillis();
+        long now = System.currentTimeMillis();
+        boolean revalidating = false;
+        if (expireTimeMillis > 0 && expireTimeMillis <= now) {
+            if (cachedResponse.isPopulated()
+                    && now < expireTimeMillis + TimeUnit.SECONDS.toMillis(staleWhileRevalidate)) {
+                // the expired response is served until the request fetching a fresh one gets its response
+                long fetchId = cachedResponse.startFetch(singleFlightTimeout);
+                if (fetchId != 0) {
+                    if (synLog.isTraceOrDebugEnabled()) {
+                        synLog.traceOrDebug("Revalidating the expired response for request hash : " + requestHash);
+                    }
+                    synCtx.setProperty(CachingConstants.STALE_OBJECT, cachedResponse);
+                    synCtx.setProperty(CachingConstants.STALE_FETCH_ID, fetchId);
+                    cachedResponse = createResponse(requestHash);
+                    revalidating = true;
+                }
+            } else {
+                // a response promoted from the cache store keeps its original expiry time
+                getMediatorCache().invalidate(requestHash);
+                cachedResponse = getMediatorCache().get(requestHash);
+            }
+        }
+        if (singleFlight && !revalidating && !cachedResponse.isPopulated()) {
+            long fetchId = cachedResponse.startFetch(singleFlightTimeout);
+            if (fetchId != 0) {
+                synCtx.setProperty(CachingConstants.FETCH_ID, fetchId);
+            } else {
+                if (synLog.isTraceOrDebugEnabled()) {
+                    synLog.traceOrDebug("Waiting for the response being fetched for request hash : " + requestHash);
+                }
+                if (!cachedResponse.awaitFetch(singleFlightTimeout) && synLog.isTraceOrDebugEnabled()) {
+                    synLog.traceOrDebug("The response for request hash : " + requestHash + " was not fetched "
+                            + "within " + singleFlightTimeout + "ms. Request will be sent to the backend");
+                }
+            }
+        }
         synCtx.setProperty(CachingConstants.CACHED_OBJECT, cachedResponse);
         //This is used to store the http method of the request.
         String httpMethod = (String) msgCtx.getProperty(Constants.Configuration.HTTP_METHOD);
@@ -309,7 +429,8 @@ public class CacheMediator extends AbstractMediator implements ManagedLifecycle,
         cachedResponse.setMaxMessageSize(maxMessageSize);
         cachedResponse.setCacheControlEnabled(cacheControlEnabled);
         cachedResponse.setAddAgeHeaderEnabled(addAgeHeaderEnabled);
-        if (cachedResponse.getResponsePayload() != null || cachedResponse.getResponseEnvelope() != null) {
+        cachedResponse.setSizeBounded(isSizeBounded());
+        if (cachedResponse.isPopulated()) {
             // get the response from the cache and attach to the context and change the
             // direction of the message
             if (synLog.isTraceOrDebugEnabled()) {
@@ -349,8 +470,10 @@ public class CacheMediator extends AbstractMediator implements ManagedLifecycle,
                 }
                 msgCtx.getEnvelope().getBody().addChild(response);
 
-            } else {
+            } else if (cachedResponse.getResponseEnvelope() != null) {
                 msgCtx.setEnvelope(MessageHelper.cloneSOAPEnvelope(cachedResponse.getResponseEnvelope()));
+            } else {
+                msgCtx.setEnvelope(createEnvelope(cachedResponse));
             }
         } catch (AxisFault e) {
             handleException("Error creating response OM from cache : " + id, synCtx);
@@ -423,8 +546,41 @@ public class CacheMediator extends AbstractMediator implements ManagedLifecycle,
      * @param synCtx the current message (response)
      * @param cfgCtx the abstract context in which the cache will be kept
      */
-    @SuppressWarnings("unchecked")
     private void processResponseMessage(MessageContext synCtx, ConfigurationContext cfgCtx, SynapseLog synLog) {
+        try {
+            collectResponse(synCtx, synLog);
+        } finally {
+            // release the requests waiting for this response, whether or not it was cached
+            CachableResponse response = (CachableResponse) synCtx.getProperty(CachingConstants.CACHED_OBJECT);
+            if (response != null) {
+                response.endFetch(getFetchId(synCtx, CachingConstants.FETCH_ID));
+            }
+            CachableResponse staleResponse = (CachableResponse) synCtx.getProperty(CachingConstants.STALE_OBJECT);
+            if (staleResponse != null) {
+                staleResponse.endFetch(getFetchId(synCtx, CachingConstants.STALE_FETCH_ID));
+            }
+        }
+    }
+
+    /**
+     * @param synCtx the current message (response)
+     * @param key    the key of the fetch id in the message context
+     * @return the id of the fetch started by the request, or 0 if it did not start one
+     */
+    private static long getFetchId(MessageContext synCtx, String key) {
+        Object fetchId = synCtx.getProperty(key);
+        return fetchId instanceof Long ? (Long) fetchId : 0;
+    }
+
+    /**
+     * Populates the CachableResponse of the corresponding request from the response message, and stores it in the
+     * cache if the response can be cached.
+     *
+     * @param synCtx the current message (response)
+     * @param synLog the Synapse log to use
+     */
+    @SuppressWarnings("unchecked")
+    private void collectResponse(MessageContext synCtx, SynapseLog synLog) {
         if (!collector) {
             handleException("Response messages cannot be handled in a non collector cache", synCtx);
         }
@@ -493,32 +649,43 @@ public class CacheMediator extends AbstractMediator implements ManagedLifecycle,
                     response.setResponseEnvelope(null);
                     response.setJson(true);
                 } else {
-                    SOAPEnvelope clonedEnvelope = MessageHelper.cloneSOAPEnvelope(synCtx.getEnvelope());
-                    if (response.getMaxMessageSize() > -1) {
-                        FixedByteArrayOutputStream fbaos = new FixedByteArrayOutputStream(
-                                response.getMaxMessageSize());
-                        try {
-                            clonedEnvelope.serialize(fbaos);
-                        } catch (XMLStreamException e) {
-                            handleException("Error in checking the message size", e, synCtx);
-                        } catch (SynapseException syne) {
+                    SOAPEnvelope envelope = synCtx.getEnvelope();
+                    OMElement payload = getCachablePayload(envelope);
+                    if (payload != null) {
+                        // the envelope can be recreated around the payload, hence only the payload bytes are kept
+                        ByteArrayOutputStream serializedPayload = serialize(payload, response.getMaxMessageSize(),
+                                synCtx);
+                        if (serializedPayload == null) {
                             synLog.traceOrDebug(
                                     "Message size exceeds the upper bound for caching, request will not be cached");
                             return;
-                        } finally {
-                            try {
-                                fbaos.close();
-                            } catch (IOException e) {
-                                handleException("Error occurred while closing the FixedByteArrayOutputStream ", e,
-                                        synCtx);
+                        }
+                        response.setResponsePayload(serializedPayload.toByteArray());
+                        response.setPayloadQName(payload.getQName());
+                        response.setSoapNamespaceURI(envelope.getNamespace().getNamespaceURI());
+                        response.setResponseEnvelope(null);
+                        response.setJson(false);
+                    } else {
+                        SOAPEnvelope clonedEnvelope;
+                        if (response.getMaxMessageSize() > -1 || response.isSizeBounded()) {
+                            // the envelope is serialized once to be measured, and the copy is built from those bytes
+                            ByteArrayOutputStream serializedEnvelope = serialize(envelope,
+                                    response.getMaxMessageSize(), synCtx);
+                            if (serializedEnvelope == null) {
+                                synLog.traceOrDebug("Message size exceeds the upper bound for caching, request will "
+                                        + "not be cached");
+                                return;
                             }
+                            clonedEnvelope = buildEnvelope(serializedEnvelope.toByteArray());
+                            response.setResponseSize(serializedEnvelope.size());
+                        } else {
+                            clonedEnvelope = MessageHelper.cloneSOAPEnvelope(envelope);
                         }
-                    }
-
-                    response.setResponsePayload(null);
-                    response.setResponseEnvelope(clonedEnvelope);
-                    response.setJson(false);
 
+                        response.setResponsePayload(null);
+                        response.setResponseEnvelope(clonedEnvelope);
+                        response.setJson(false);
+                    }
                 }
 
                 if (synLog.isTraceOrDebugEnabled()) {
@@ -561,6 +728,11 @@ public class CacheMediator extends AbstractMediator implements ManagedLifecycle,
                 response.setHeaderProperties(headerProperties);
                 msgCtx.setProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS, headerProperties);
 
+                if (!cacheManager.store(response)) {
+                    synLog.traceOrDebug("Mediator cache size limit of the node exceeded, response will not be cached");
+                    response.clean();
+                }
+
             } else {
                 response.clean();
             }
@@ -571,6 +743,108 @@ public class CacheMediator extends AbstractMediator implements ManagedLifecycle,
 
     }
 
+    /**
+     * Returns the payload of the given envelope if the envelope can be recreated from the payload alone, that is when
+     * the envelope has no SOAP headers, no fault and no namespace declarations other than the SOAP namespace, and
+     * its body has a single child element.
+     *
+     * @param envelope the response envelope
+     * @return the payload of the envelope, or null if the whole envelope needs to be cached
+     */
+    OMElement getCachablePayload(SOAPEnvelope envelope) {
+        SOAPHeader header = envelope.getHeader();
+        SOAPBody body = envelope.getBody();
+        if ((header != null && (header.getFirstElement() != null || header.getAllDeclaredNamespaces().hasNext()))
+                || body == null || body.hasFault() || body.getAllDeclaredNamespaces().hasNext()) {
+            return null;
+        }
+        Iterator namespaces = envelope.getAllDeclaredNamespaces();
+        while (namespaces.hasNext()) {
+            OMNamespace namespace = (OMNamespace) namespaces.next();
+            if (!envelope.getNamespace().getNamespaceURI().equals(namespace.getNamespaceURI())) {
+                return null;
+            }
+        }
+        OMElement payload = body.getFirstElement();
+        if (payload == null) {
+            return null;
+        }
+        for (OMNode sibling = payload.getNextOMSibling(); sibling != null; sibling = sibling.getNextOMSibling()) {
+            if (sibling.getType() == OMNode.ELEMENT_NODE) {
+                return null;
+            }
+        }
+        return payload;
+    }
+
+    /**
+     * Recreates the envelope of a cached xml response from its payload bytes. The payload is added as an unexpanded
+     * element, so that it is written out as it is unless a mediator accesses its content.
+     *
+     * @param cachedResponse the cached response holding the payload
+     * @return the recreated envelope
+     */
+    SOAPEnvelope createEnvelope(CachableResponse cachedResponse) {
+        SOAPFactory factory;
+        if (SOAP11Constants.SOAP_ENVELOPE_NAMESPACE_URI.equals(cachedResponse.getSoapNamespaceURI())) {
+            factory = OMAbstractFactory.getSOAP11Factory();
+        } else {
+            factory = OMAbstractFactory.getSOAP12Factory();
+        }
+        SOAPEnvelope envelope = factory.getDefaultEnvelope();
+        QName payloadQName = cachedResponse.getPayloadQName();
+        OMNamespace namespace = null;
+        if (!payloadQName.getNamespaceURI().isEmpty()) {
+            namespace = factory.createOMNamespace(payloadQName.getNamespaceURI(), payloadQName.getPrefix());
+        }
+        envelope.getBody().addChild(factory.createOMElement(
+                new ByteArrayDataSource(cachedResponse.getResponsePayload(), CachingConstants.XML_PAYLOAD_ENCODING),
+                payloadQName.getLocalPart(), namespace));
+        return envelope;
+    }
+
+    /**
+     * Builds a copy of a response envelope from its serialized bytes.
+     *
+     * @param serializedEnvelope the serialized envelope
+     * @return the fully built envelope
+     */
+    private SOAPEnvelope buildEnvelope(byte[] serializedEnvelope) {
+        OMXMLParserWrapper builder = OMXMLBuilderFactory.createSOAPModelBuilder(
+                new ByteArrayInputStream(serializedEnvelope), null);
+        SOAPEnvelope envelope = (SOAPEnvelope) builder.getDocumentElement();
+        envelope.build();
+        return envelope;
+    }
+
+    /**
+     * Serializes the given element, stopping if the size exceeds the maximum message size.
+     *
+     * @param element        the element to be serialized
+     * @param maxMessageSize the maximum size of the serialized element in bytes, or -1 if there is no limit
+     * @param synCtx         the current message
+     * @return the stream holding the serialized element, or null if the maximum message size is exceeded
+     */
+    private ByteArrayOutputStream serialize(OMElement element, int maxMessageSize, MessageContext synCtx) {
+        ByteArrayOutputStream fbaos = maxMessageSize > -1 ?
+                new FixedByteArrayOutputStream(maxMessageSize) : new ByteArrayOutputStream();
+        try {
+            element.serialize(fbaos);
+            return fbaos;
+        } catch (XMLStreamException e) {
+            handleException("Error in checking the message size", e, synCtx);
+        } catch (SynapseException syne) {
+            return null;
+        } finally {
+            try {
+                fbaos.close();
+            } catch (IOException e) {
+                handleException("Error occurred while closing the FixedByteArrayOutputStream ", e, synCtx);
+            }
+        }
+        return null;
+    }
+
     /**
      * Creates default cache to keep mediator cache.
      *
@@ -579,30 +853,39 @@ public class CacheMediator extends AbstractMediator implements ManagedLifecycle,
     public LoadingCache<String, CachableResponse> getMediatorCache() {
         LoadingCache<String, CachableResponse> cache = cacheManager.get(id);
         if (cache == null) {
-            if (inMemoryCacheSize > -1) {
-                cache = CacheBuilder.newBuilder().expireAfterWrite(timeout,
-                        TimeUnit.SECONDS).maximumSize(inMemoryCacheSize)
-                        .build(new CacheLoader<String, CachableResponse>() {
-                            @Override
-                            public CachableResponse load(String requestHash) throws Exception {
-                                return cacheNewResponse(requestHash);
-                            }
-                        });
-            } else {
-                cache = CacheBuilder.newBuilder().expireAfterWrite(timeout,
-                        TimeUnit.SECONDS).build(
-                        new CacheLoader<String, CachableResponse>() {
-                            @Override
-                            public CachableResponse load(String requestHash) throws Exception {
-                                return cacheNewResponse(requestHash);
-                            }
-                        });
+            // expired responses are kept for the stale while revalidate period, and their expiry time is checked
+            CacheBuilder<String, CachableResponse> cacheBuilder = CacheBuilder.newBuilder().expireAfterWrite(
+                    timeout + staleWhileRevalidate, TimeUnit.SECONDS)
+                    .removalListener(cacheManager.createRemovalListener(id));
+            if (inMemoryCacheSizeInBytes > -1) {
+                cacheBuilder = cacheBuilder.maximumWeight(inMemoryCacheSizeInBytes)
+                        .weigher(new CachableResponseWeigher());
+            } else if (inMemoryCacheSize > -1) {
+                cacheBuilder = cacheBuilder.maximumSize(inMemoryCacheSize);
             }
+            cache = cacheBuilder.build(new CacheLoader<String, CachableResponse>() {
+                @Override
+                public CachableResponse load(String requestHash) throws Exception {
+                    return cacheNewResponse(requestHash);
+                }
+            });
             cacheManager.put(id, cache);
+            if (cacheStore != null) {
+                cacheManager.putStore(id, cacheStore);
+            }
         }
         return cache;
     }
 
+    /**
+     * Checks whether the cached responses need to be weighed by their size in bytes.
+     *
+     * @return true if either this cache or the whole node is bounded by the size of the cached responses
+     */
+    private boolean isSizeBounded() {
+        return inMemoryCacheSizeInBytes > -1 || cacheManager.getMaxSizeInBytes() > -1;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -808,6 +1091,60 @@ public class CacheMediator extends AbstractMediator implements ManagedLifecycle,
         this.inMemoryCacheSize = inMemoryCacheSize;
     }
 
+    /**
+     * This method gives the total size in bytes of the messages to be cached in memory.
+     *
+     * @return memory cache size in bytes.
+     */
+    public long getInMemoryCacheSizeInBytes() {
+        return inMemoryCacheSizeInBytes;
+    }
+
+    /**
+     * This method sets the total size in bytes of the messages to be cached in memory.
+     *
+     * @param inMemoryCacheSizeInBytes value(number of bytes) to be set as memory cache size.
+     */
+    public void setInMemoryCacheSizeInBytes(long inMemoryCacheSizeInBytes) {
+        this.inMemoryCacheSizeInBytes = inMemoryCacheSizeInBytes;
+    }
+
+    /**
+     * This method gives the second level store of the cache.
+     *
+     * @return the second level store, or null if the cache does not have one.
+     */
+    public CacheStore getCacheStore() {
+        return cacheStore;
+    }
+
+    /**
+     * This method sets the second level store of the cache.
+     *
+     * @param cacheStore the second level store to which the evicted responses are moved.
+     */
+    public void setCacheStore(CacheStore cacheStore) {
+        this.cacheStore = cacheStore;
+    }
+
+    /**
+     * This method gives the parameters used to initialize the second level store.
+     *
+     * @return the parameters of the second level store.
+     */
+    public Map<String, String> getCacheStoreProperties() {
+        return cacheStoreProperties;
+    }
+
+    /**
+     * This method sets the parameters used to initialize the second level store.
+     *
+     * @param cacheStoreProperties the parameters of the second level store.
+     */
+    public void setCacheStoreProperties(Map<String, String> cacheStoreProperties) {
+        this.cacheStoreProperties = cacheStoreProperties;
+    }
+
     /**
      * This method gives the HTTP method that needs to be cached.
      *
@@ -914,12 +1251,75 @@ public class CacheMediator extends AbstractMediator implements ManagedLifecycle,
     }
 
     /**
-     * This method sets the id of the cache configuration.
+     * This method returns whether concurrent requests for the same request hash wait for a single backend call.
+     *
+     * @return whether single flight requests are enabled
+     */
+    public boolean isSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * This method sets whether concurrent requests for the same request hash wait for a single backend call.
+     *
+     * @param singleFlight whether single flight requests are enabled
+     */
+    public void setSingleFlight(boolean singleFlight) {
+        this.singleFlight = singleFlight;
+    }
+
+    /**
+     * This method returns the time that requests wait for a response being fetched by another request.
+     *
+     * @return the wait timeout in milliseconds
+     */
+    public long getSingleFlightTimeout() {
+        return singleFlightTimeout;
+    }
+
+    /**
+     * This method sets the time that requests wait for a response being fetched by another request.
+     *
+     * @param singleFlightTimeout the wait timeout in milliseconds
+     */
+    public void setSingleFlightTimeout(long singleFlightTimeout) {
+        this.singleFlightTimeout = singleFlightTimeout;
+    }
+
+    /**
+     * This method returns the time for which expired responses are served while they are revalidated.
+     *
+     * @return the stale while revalidate period in seconds
+     */
+    public long getStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    /**
+     * This method sets the time for which expired responses are served while they are revalidated.
+     *
+     * @param staleWhileRevalidate the stale while revalidate period in seconds
+     */
+    public void setStaleWhileRevalidate(long staleWhileRevalidate) {
+        this.staleWhileRevalidate = staleWhileRevalidate;
+    }
+
+    /**
+     * This method sets the id of the cache configuration. Configure the same id for the mediator on all the nodes to
+     * invalidate its responses on all of them by its id.
      *
      * @param id id of the cache configuration
      */
     public void setId(String id) {
         this.id = id;
+        this.idConfigured = true;
+    }
+
+    /**
+     * @return true if the id is configured rather than generated
+     */
+    public boolean isIdConfigured() {
+        return idConfigured;
     }
 
     /**
@@ -25,8 +25,11 @@ import org.apache.synapse.config.xml.SequenceMediatorFactory;
 import org.apache.synapse.config.xml.XMLConfigConstants;
 import org.apache.synapse.transport.passthru.PassThroughConstants;
 import org.wso2.carbon.mediator.cache.digest.DigestGenerator;
+import org.wso2.carbon.mediator.cache.store.CacheStore;
+import org.wso2.carbon.mediator.cache.store.FileCacheStore;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Properties;
 import javax.xml.namespace.QName;
@@ -51,6 +54,21 @@ public class CacheMediatorFactory extends AbstractMediatorFactory {
      */
     private static final QName ATT_MAX_MSG_SIZE = new QName(CachingConstants.MAX_MESSAGE_SIZE_STRING);
 
+    /**
+     * QName of whether concurrent requests for the same request hash wait for a single backend call.
+     */
+    private static final QName ATT_SINGLE_FLIGHT = new QName(CachingConstants.SINGLE_FLIGHT_STRING);
+
+    /**
+     * QName of the time that requests wait for a response being fetched by another request.
+     */
+    private static final QName ATT_SINGLE_FLIGHT_TIMEOUT = new QName(CachingConstants.SINGLE_FLIGHT_TIMEOUT_STRING);
+
+    /**
+     * QName of the time for which expired responses are served while they are revalidated.
+     */
+    private static final QName ATT_STALE_WHILE_REVALIDATE = new QName(CachingConstants.STALE_WHILE_REVALIDATE_STRING);
+
     /**
      * QName of the onCacheHit mediator sequence reference.
      */
@@ -119,6 +137,11 @@ public class CacheMediatorFactory extends AbstractMediatorFactory {
      */
     private static final QName ATT_SIZE = new QName(CachingConstants.MAX_SIZE_STRING);
 
+    /**
+     * QName of the maximum cache size in bytes.
+     */
+    private static final QName ATT_SIZE_IN_BYTES = new QName(CachingConstants.MAX_SIZE_IN_BYTES_STRING);
+
     /**
      * QName of the enableCacheControl.
      */
@@ -130,6 +153,28 @@ public class CacheMediatorFactory extends AbstractMediatorFactory {
     private static final QName INCLUDE_AGE_HEADER_Q = new QName(XMLConfigConstants.SYNAPSE_NAMESPACE,
                                                             CachingConstants.INCLUDE_AGE_HEADER_STRING);
 
+    /**
+     * QName of the second level store of the cache.
+     */
+    private static final QName STORE_Q = new QName(XMLConfigConstants.SYNAPSE_NAMESPACE,
+                                                   CachingConstants.STORE_STRING);
+
+    /**
+     * QName of the parameters of the second level store.
+     */
+    private static final QName PARAMETER_Q = new QName(XMLConfigConstants.SYNAPSE_NAMESPACE,
+                                                       CachingConstants.PARAMETER_STRING);
+
+    /**
+     * QName of the class of the second level store.
+     */
+    private static final QName ATT_CLASS = new QName(CachingConstants.CLASS_STRING);
+
+    /**
+     * QName of the name of a parameter.
+     */
+    private static final QName ATT_NAME = new QName(CachingConstants.NAME_STRING);
+
     /**
      * QNama of the cache id.
      */
@@ -182,6 +227,29 @@ public class CacheMediatorFactory extends AbstractMediatorFactory {
                     cache.setMaxMessageSize(-1);
                 }
 
+                OMAttribute singleFlightAttr = elem.getAttribute(ATT_SINGLE_FLIGHT);
+                if (singleFlightAttr != null && singleFlightAttr.getAttributeValue() != null) {
+                    cache.setSingleFlight(Boolean.parseBoolean(singleFlightAttr.getAttributeValue().trim()));
+                }
+
+                OMAttribute singleFlightTimeoutAttr = elem.getAttribute(ATT_SINGLE_FLIGHT_TIMEOUT);
+                if (singleFlightTimeoutAttr != null && singleFlightTimeoutAttr.getAttributeValue() != null) {
+                    long singleFlightTimeout = Long.parseLong(singleFlightTimeoutAttr.getAttributeValue().trim());
+                    if (singleFlightTimeout <= 0) {
+                        handleException("The singleFlightTimeout of the cache mediator must be positive");
+                    }
+                    cache.setSingleFlightTimeout(singleFlightTimeout);
+                }
+
+                OMAttribute staleWhileRevalidateAttr = elem.getAttribute(ATT_STALE_WHILE_REVALIDATE);
+                if (staleWhileRevalidateAttr != null && staleWhileRevalidateAttr.getAttributeValue() != null) {
+                    long staleWhileRevalidate = Long.parseLong(staleWhileRevalidateAttr.getAttributeValue().trim());
+                    if (staleWhileRevalidate < 0) {
+                        handleException("The staleWhileRevalidate of the cache mediator can not be negative");
+                    }
+                    cache.setStaleWhileRevalidate(staleWhileRevalidate);
+                }
+
                 OMAttribute idAttribute = elem.getAttribute(ATT_ID);
                 if (idAttribute != null && idAttribute.getAttributeValue() != null) {
                     cache.setId(idAttribute.getAttributeValue().trim());
@@ -357,10 +425,26 @@ public class CacheMediatorFactory extends AbstractMediatorFactory {
                         cache.setInMemoryCacheSize(-1);
                     }
 
+                    OMAttribute sizeInBytesAttr = implElem.getAttribute(ATT_SIZE_IN_BYTES);
+                    if (sizeInBytesAttr != null && sizeInBytesAttr.getAttributeValue() != null) {
+                        if (cache.getInMemoryCacheSize() > -1) {
+                            handleException("Only one of " + CachingConstants.MAX_SIZE_STRING + " and "
+                                    + CachingConstants.MAX_SIZE_IN_BYTES_STRING + " can be specified for the cache");
+                        }
+                        cache.setInMemoryCacheSizeInBytes(Long.parseLong(sizeInBytesAttr.getAttributeValue().trim()));
+                    } else {
+                        cache.setInMemoryCacheSizeInBytes(-1);
+                    }
+
                     OMAttribute typeAttribute = implElem.getAttribute(ATT_TYPE);
                     if (typeAttribute != null && typeAttribute.getAttributeValue() != null) {
                         cache.setImplementationType(typeAttribute.getAttributeValue().trim());
                     }
+
+                    OMElement storeElem = implElem.getFirstChildWithName(STORE_Q);
+                    if (storeElem != null) {
+                        populateCacheStore(cache, storeElem);
+                    }
                 }
             } else {
                 handleException("The value for collector has to be either true or false");
@@ -372,6 +456,48 @@ public class CacheMediatorFactory extends AbstractMediatorFactory {
         return cache;
     }
 
+    /**
+     * Creates the second level store of the cache from the given store element.
+     *
+     * @param cache     the cache mediator
+     * @param storeElem the store element of the cache implementation
+     */
+    private void populateCacheStore(CacheMediator cache, OMElement storeElem) {
+        String className = FileCacheStore.class.getName();
+        OMAttribute classAttr = storeElem.getAttribute(ATT_CLASS);
+        if (classAttr != null && StringUtils.isNotEmpty(classAttr.getAttributeValue())) {
+            className = classAttr.getAttributeValue().trim();
+        }
+        try {
+            Object o = Class.forName(className).newInstance();
+            if (o instanceof CacheStore) {
+                cache.setCacheStore((CacheStore) o);
+            } else {
+                handleException("Specified class for the cache store is not a CacheStore. It *must* implement "
+                                        + "org.wso2.carbon.mediator.cache.store.CacheStore interface");
+            }
+        } catch (ClassNotFoundException e) {
+            handleException("Unable to load the cache store class", e);
+        } catch (IllegalAccessException e) {
+            handleException("Unable to access the cache store class", e);
+        } catch (InstantiationException e) {
+            handleException("Unable to instantiate the cache store class", e);
+        }
+
+        Map<String, String> storeProperties = new HashMap<>();
+        Iterator parameters = storeElem.getChildrenWithName(PARAMETER_Q);
+        while (parameters.hasNext()) {
+            OMElement parameter = (OMElement) parameters.next();
+            OMAttribute nameAttr = parameter.getAttribute(ATT_NAME);
+            if (nameAttr == null || StringUtils.isEmpty(nameAttr.getAttributeValue())) {
+                handleException("The name attribute must be specified for the parameters of the cache store");
+            } else {
+                storeProperties.put(nameAttr.getAttributeValue().trim(), parameter.getText().trim());
+            }
+        }
+        cache.setCacheStoreProperties(storeProperties);
+    }
+
     /**
      * {@inheritDoc}
      */
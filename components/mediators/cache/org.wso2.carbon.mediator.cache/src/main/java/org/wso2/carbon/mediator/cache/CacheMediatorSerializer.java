@@ -23,6 +23,7 @@ import org.apache.synapse.config.xml.MediatorSerializer;
 import org.apache.synapse.config.xml.MediatorSerializerFinder;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Serializes the given Cache mediator to an OMElement.
@@ -69,11 +70,29 @@ public class CacheMediatorSerializer extends AbstractMediatorSerializer {
                                               Integer.toString(cacheMediator.getMaxMessageSize())));
             }
 
+            if (cacheMediator.isSingleFlight()) {
+                cacheElem.addAttribute(fac.createOMAttribute(CachingConstants.SINGLE_FLIGHT_STRING, nullNS, "true"));
+            }
+
+            if (cacheMediator.getSingleFlightTimeout() != CachingConstants.DEFAULT_SINGLE_FLIGHT_TIMEOUT) {
+                cacheElem.addAttribute(
+                        fac.createOMAttribute(CachingConstants.SINGLE_FLIGHT_TIMEOUT_STRING, nullNS,
+                                              Long.toString(cacheMediator.getSingleFlightTimeout())));
+            }
+
+            if (cacheMediator.getStaleWhileRevalidate() > 0) {
+                cacheElem.addAttribute(
+                        fac.createOMAttribute(CachingConstants.STALE_WHILE_REVALIDATE_STRING, nullNS,
+                                              Long.toString(cacheMediator.getStaleWhileRevalidate())));
+            }
+
+            if ((isPreviousCacheImplementation || cacheMediator.isIdConfigured())
+                    && !cacheMediator.getId().trim().isEmpty()) {
+                cacheElem.addAttribute(
+                        fac.createOMAttribute(CachingConstants.ID_STRING, nullNS, cacheMediator.getId()));
+            }
+
             if (isPreviousCacheImplementation) {
-                if (!cacheMediator.getId().trim().isEmpty()) {
-                    cacheElem.addAttribute(
-                            fac.createOMAttribute(CachingConstants.ID_STRING, nullNS, cacheMediator.getId()));
-                }
                 cacheElem.addAttribute(fac.createOMAttribute(CachingConstants.HASH_GENERATOR_STRING, nullNS,
                         cacheMediator.getHashGenerator()));
                 cacheElem.addAttribute(
@@ -171,14 +190,34 @@ public class CacheMediatorSerializer extends AbstractMediatorSerializer {
                 cacheElem.addChild(protocolElem);
             }
 
-            if (cacheMediator.getInMemoryCacheSize() > -1) {
+            if (cacheMediator.getInMemoryCacheSize() > -1 || cacheMediator.getInMemoryCacheSizeInBytes() > -1
+                    || cacheMediator.getCacheStore() != null) {
                 OMElement implElem = fac.createOMElement(CachingConstants.IMPLEMENTATION_STRING, synNS);
-                implElem.addAttribute(fac.createOMAttribute(CachingConstants.MAX_SIZE_STRING, nullNS,
-                                                            Integer.toString(cacheMediator.getInMemoryCacheSize())));
+                if (cacheMediator.getInMemoryCacheSize() > -1) {
+                    implElem.addAttribute(fac.createOMAttribute(CachingConstants.MAX_SIZE_STRING, nullNS,
+                            Integer.toString(cacheMediator.getInMemoryCacheSize())));
+                }
+                if (cacheMediator.getInMemoryCacheSizeInBytes() > -1) {
+                    implElem.addAttribute(fac.createOMAttribute(CachingConstants.MAX_SIZE_IN_BYTES_STRING, nullNS,
+                            Long.toString(cacheMediator.getInMemoryCacheSizeInBytes())));
+                }
                 if (isPreviousCacheImplementation) {
                     implElem.addAttribute(fac.createOMAttribute(CachingConstants.TYPE_STRING, nullNS,
                             cacheMediator.getImplementationType()));
                 }
+                if (cacheMediator.getCacheStore() != null) {
+                    OMElement storeElem = fac.createOMElement(CachingConstants.STORE_STRING, synNS);
+                    storeElem.addAttribute(fac.createOMAttribute(CachingConstants.CLASS_STRING, nullNS,
+                            cacheMediator.getCacheStore().getClass().getName()));
+                    for (Map.Entry<String, String> parameter : cacheMediator.getCacheStoreProperties().entrySet()) {
+                        OMElement parameterElem = fac.createOMElement(CachingConstants.PARAMETER_STRING, synNS);
+                        parameterElem.addAttribute(fac.createOMAttribute(CachingConstants.NAME_STRING, nullNS,
+                                parameter.getKey()));
+                        parameterElem.setText(parameter.getValue());
+                        storeElem.addChild(parameterElem);
+                    }
+                    implElem.addChild(storeElem);
+                }
                 cacheElem.addChild(implElem);
             }
         }
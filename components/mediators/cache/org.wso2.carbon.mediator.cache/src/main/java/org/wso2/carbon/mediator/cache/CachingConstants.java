@@ -73,6 +73,26 @@ public class CachingConstants {
      */
     public static final String CACHED_OBJECT = "CachableResponse";
 
+    /**
+     * String key to store the expired response which is being revalidated in the message context.
+     */
+    public static final String STALE_OBJECT = "StaleCachableResponse";
+
+    /**
+     * String key to store the id of the fetch of the cached response started by the request in the message context.
+     */
+    public static final String FETCH_ID = "CachableResponseFetchId";
+
+    /**
+     * String key to store the id of the fetch of the expired response started by the request in the message context.
+     */
+    public static final String STALE_FETCH_ID = "StaleCachableResponseFetchId";
+
+    /**
+     * The default time in milliseconds that requests wait for a response being fetched by another request.
+     */
+    public static final long DEFAULT_SINGLE_FLIGHT_TIMEOUT = 5000;
+
     /**
      * The the header that would be used to return the hashed value to invalidate this value.
      */
@@ -83,6 +103,43 @@ public class CachingConstants {
      */
     public static final int DEFAULT_SIZE = -1;
 
+    /**
+     * The maximum number of evicted responses waiting to be written to the second level stores. Responses evicted
+     * while this many are waiting are discarded.
+     */
+    public static final int SPILL_QUEUE_CAPACITY = 1000;
+
+    /**
+     * The synapse property to limit the total size in bytes of the responses cached by all the cache mediators.
+     */
+    public static final String NODE_MAX_SIZE_IN_BYTES_PROPERTY = "mediator.cache.maxSizeInBytes";
+
+    /**
+     * The synapse property to select the bus through which cache invalidations are shared with the other nodes. The
+     * value is either local, udp or the name of a class implementing the InvalidationBus interface.
+     */
+    public static final String INVALIDATION_BUS_PROPERTY = "mediator.cache.invalidation.bus";
+
+    /**
+     * The prefix of the synapse properties passed on to the invalidation bus.
+     */
+    public static final String INVALIDATION_BUS_PROPERTY_PREFIX = "mediator.cache.invalidation.bus.";
+
+    /**
+     * The value of the invalidation bus property for the bus connecting the caches within the JVM.
+     */
+    public static final String LOCAL_INVALIDATION_BUS = "local";
+
+    /**
+     * The value of the invalidation bus property for the bus connecting the nodes through UDP.
+     */
+    public static final String UDP_INVALIDATION_BUS = "udp";
+
+    /**
+     * The character encoding of the cached payloads of xml responses.
+     */
+    public static final String XML_PAYLOAD_ENCODING = "UTF-8";
+
     /**
      * The default value for enableCacheControl.
      */
@@ -106,6 +163,9 @@ public class CachingConstants {
     public static final String TIMEOUT_STRING = "timeout";
     public static final String COLLECTOR_STRING = "collector";
     public static final String MAX_MESSAGE_SIZE_STRING = "maxMessageSize";
+    public static final String SINGLE_FLIGHT_STRING = "singleFlight";
+    public static final String SINGLE_FLIGHT_TIMEOUT_STRING = "singleFlightTimeout";
+    public static final String STALE_WHILE_REVALIDATE_STRING = "staleWhileRevalidate";
     public static final String ON_CACHE_HIT_STRING = "onCacheHit";
     public static final String SEQUENCE_STRING = "sequence";
     public static final String PROTOCOL_STRING = "protocol";
@@ -117,6 +177,11 @@ public class CachingConstants {
     public static final String HASH_GENERATOR_STRING = "hashGenerator";
     public static final String IMPLEMENTATION_STRING = "implementation";
     public static final String MAX_SIZE_STRING = "maxSize";
+    public static final String MAX_SIZE_IN_BYTES_STRING = "maxSizeInBytes";
+    public static final String STORE_STRING = "store";
+    public static final String CLASS_STRING = "class";
+    public static final String PARAMETER_STRING = "parameter";
+    public static final String NAME_STRING = "name";
     public static final String ENABLE_CACHE_CONTROL_STRING = "enableCacheControl";
     public static final String INCLUDE_AGE_HEADER_STRING = "includeAgeHeader";
     public static final String IF_NONE_MATCH = "IF-None-Match";
@@ -66,6 +66,44 @@ public class MediatorCacheInvalidator implements MediatorCacheInvalidatorMBean {
 
     @Override
     public void invalidateTheWholeCache() {
+        setTenantContext();
+        cacheManager.invalidateAll();
+        log.info("Total mediator cache has been invalidated.");
+    }
+
+    @Override
+    public void invalidateMediatorCache(String cacheId) {
+        setTenantContext();
+        cacheManager.invalidateMediator(cacheId);
+        log.info("Mediator cache " + cacheId + " has been invalidated.");
+    }
+
+    @Override
+    public void invalidateCacheKey(String requestHash) {
+        setTenantContext();
+        cacheManager.invalidateKey(requestHash);
+        log.info("Cached responses for the request hash " + requestHash + " have been invalidated.");
+    }
+
+    @Override
+    public long getCurrentCacheSizeInBytes() {
+        return cacheManager.getCurrentSizeInBytes();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return cacheManager.getEvictionCount();
+    }
+
+    @Override
+    public long getCacheStoreSizeInBytes() {
+        return cacheManager.getStoreSizeInBytes();
+    }
+
+    /**
+     * Sets the tenant of this invalidator in the carbon context, if it is not already set.
+     */
+    private void setTenantContext() {
         if (PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain() == null) {
             PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(getTenantDomain());
         }
@@ -74,8 +112,6 @@ public class MediatorCacheInvalidator implements MediatorCacheInvalidatorMBean {
                 MultitenantConstants.INVALID_TENANT_ID) {
             PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(getTenantId());
         }
-        cacheManager.clean();
-        log.info("Total mediator cache has been invalidated.");
     }
 
     /**
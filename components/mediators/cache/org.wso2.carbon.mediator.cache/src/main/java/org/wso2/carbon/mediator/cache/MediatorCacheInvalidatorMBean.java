@@ -24,4 +24,42 @@ public interface MediatorCacheInvalidatorMBean {
      * This abstract method should be implemented to invalidate the whole mediator Cache.
      */
     void invalidateTheWholeCache();
+
+    /**
+     * This abstract method should be implemented to invalidate the responses cached by a single cache mediator. The
+     * other nodes invalidate the responses of the mediator only if its id is configured, as a generated id differs on
+     * each node.
+     *
+     * @param cacheId id of the cache mediator.
+     */
+    void invalidateMediatorCache(String cacheId);
+
+    /**
+     * This abstract method should be implemented to invalidate the responses cached against a request hash.
+     *
+     * @param requestHash request hash returned in the cacheKey header of the cached response.
+     */
+    void invalidateCacheKey(String requestHash);
+
+    /**
+     * This abstract method should be implemented to return the total size in bytes of the cached responses.
+     *
+     * @return total size of the cached responses in bytes.
+     */
+    long getCurrentCacheSizeInBytes();
+
+    /**
+     * This abstract method should be implemented to return the number of responses evicted due to the size limits.
+     *
+     * @return number of evicted responses.
+     */
+    long getEvictionCount();
+
+    /**
+     * This abstract method should be implemented to return the total size in bytes of the responses held by the
+     * second level stores.
+     *
+     * @return total size of the responses in the second level stores in bytes.
+     */
+    long getCacheStoreSizeInBytes();
 }
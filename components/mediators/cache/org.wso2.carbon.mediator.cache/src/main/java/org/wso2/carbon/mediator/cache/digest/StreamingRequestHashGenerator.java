@@ -0,0 +1,532 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.cache.digest;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.Constants;
+import org.apache.axis2.context.MessageContext;
+import org.apache.synapse.commons.json.JsonUtil;
+import org.apache.synapse.transport.passthru.PassThroughConstants;
+import org.wso2.carbon.mediator.cache.CachingConstants;
+import org.wso2.carbon.mediator.cache.CachingException;
+
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * A {@link DigestGenerator} for the HTTP protocol type which hashes the To address, a canonical selection of the
+ * transport headers and the request payload in a single pass over the request, using digests reused by each thread.
+ * <p>
+ * An XML payload is canonicalised as the <a href="http://www.ietf.org/rfc/rfc2803.txt">DOMHASH</a> of the SOAP body,
+ * exactly as computed by {@link DOMHASHGenerator}, hence payloads which differ only in their namespace prefixes or in
+ * the order of their attributes have the same digest, while whitespace is significant. The body is read through a
+ * StAX reader which feeds each node to the digest of its parent as soon as the node ends, instead of walking the
+ * tree with a new MessageDigest and byte array stream for every node. Since the request is forwarded after the
+ * lookup, the reader caches what it reads, so a payload which is not built yet is built as it is read. A JSON payload
+ * is hashed as it is written out.
+ * <p>
+ * The digests of this generator are not interchangeable with those of the other generators:
+ * <ul>
+ * <li>The headers to include or exclude are matched regardless of the case of their names, and the selected headers
+ * are hashed by their lower case names in the order of those names. Requests whose header names differ only in case
+ * produce the same digest.</li>
+ * <li>Only the permanently excluded headers are left out besides the configured ones. The Date and User-Agent headers
+ * which {@link HttpRequestHashGenerator} always leaves out are hashed, unless they are excluded by the
+ * headersToExcludeInHash property of the mediator.</li>
+ * </ul>
+ * Changing the hash generator of a cache mediator therefore changes the keys of its responses, and the cacheKey
+ * values returned by one generator can not be used to invalidate the responses cached by another.
+ */
+public class StreamingRequestHashGenerator implements DigestGenerator {
+
+    static final long serialVersionUID = 42L;
+
+    /**
+     * String representing the MD5 digest algorithm.
+     */
+    private static final String MD5_DIGEST_ALGORITHM = "MD5";
+
+    /**
+     * This value can be specified for the headersToExcludeInHash property to avoid all the headers when caching.
+     */
+    private static final String EXCLUDE_ALL_VAL = "*";
+
+    private static final byte ADDRESS = 1;
+
+    private static final byte HEADER_NAME = 2;
+
+    private static final byte HEADER_VALUE = 3;
+
+    private static final byte PAYLOAD = 4;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Orders the headers by their names regardless of their case.
+     */
+    private static final Comparator<Map.Entry<String, String>> HEADER_ORDER =
+            new Comparator<Map.Entry<String, String>>() {
+                public int compare(Map.Entry<String, String> o1, Map.Entry<String, String> o2) {
+                    return o1.getKey().compareToIgnoreCase(o2.getKey());
+                }
+            };
+
+    /**
+     * The digest state of each thread, which is reused for every request handled by the thread.
+     */
+    private static final ThreadLocal<DigestContext> DIGEST_CONTEXT = new ThreadLocal<DigestContext>() {
+        @Override
+        protected DigestContext initialValue() {
+            try {
+                return new DigestContext(MessageDigest.getInstance(MD5_DIGEST_ALGORITHM));
+            } catch (NoSuchAlgorithmException e) {
+                throw new CachingException("Can not locate the algorithm provided for the digest generation : "
+                        + MD5_DIGEST_ALGORITHM, e);
+            }
+        }
+    };
+
+    /**
+     * Whether the configured headers are the only headers to be hashed, or the headers to be excluded.
+     */
+    private boolean isIncludeHeadersMode = true;
+
+    /**
+     * Whether all the headers are to be hashed in the include mode, or excluded in the exclude mode.
+     */
+    private boolean allHeaders = false;
+
+    /**
+     * The lower case names of the configured headers.
+     */
+    private Set<String> headers = Collections.emptySet();
+
+    /**
+     * The lower case names of the headers which are never hashed.
+     */
+    private Set<String> excludedHeaders = Collections.emptySet();
+
+    @Override
+    public void init(Map<String, Object> properties) {
+        String[] configuredHeaders = (String[]) properties.get(CachingConstants.INCLUDED_HEADERS_PROPERTY);
+        isIncludeHeadersMode = true;
+        if (configuredHeaders == null || configuredHeaders.length == 0 || configuredHeaders[0].isEmpty()) {
+            // if include headers have not been explicitly defined mode becomes exclude header
+            isIncludeHeadersMode = false;
+            configuredHeaders = (String[]) properties.get(CachingConstants.EXCLUDED_HEADERS_PROPERTY);
+            if (configuredHeaders == null) {
+                configuredHeaders = new String[0];
+            }
+        }
+        allHeaders = configuredHeaders.length > 0 && EXCLUDE_ALL_VAL.equals(configuredHeaders[0]);
+        headers = toLowerCase(configuredHeaders);
+
+        String[] permanentlyExcludedHeaders =
+                (String[]) properties.get(CachingConstants.PERMANENTLY_EXCLUDED_HEADERS_STRING);
+        excludedHeaders = permanentlyExcludedHeaders != null ? toLowerCase(permanentlyExcludedHeaders)
+                : Collections.<String>emptySet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getDigest(MessageContext msgContext) throws CachingException {
+        DigestContext context = DIGEST_CONTEXT.get();
+        context.reset();
+
+        context.update(ADDRESS, msgContext.getTo() != null ? msgContext.getTo().getAddress() : "", false);
+        updateHeaders(context, msgContext);
+
+        String method = (String) msgContext.getProperty(Constants.Configuration.HTTP_METHOD);
+        boolean isGet = msgContext.isDoingREST() && (PassThroughConstants.HTTP_GET.equals(method) ||
+                PassThroughConstants.HTTP_DELETE.equals(method) ||
+                PassThroughConstants.HTTP_HEAD.equals(method));
+        if (!isGet) {
+            // hash the payload only for the methods which may carry one
+            updatePayload(context, msgContext);
+        }
+        return context.digest();
+    }
+
+    /**
+     * Hashes the selected transport headers in the order of their names.
+     *
+     * @param context    the digest context of the current thread
+     * @param msgContext the request message
+     */
+    @SuppressWarnings("unchecked")
+    private void updateHeaders(DigestContext context, MessageContext msgContext) {
+        Map<String, String> transportHeaders =
+                (Map<String, String>) msgContext.getProperty(MessageContext.TRANSPORT_HEADERS);
+        if (transportHeaders == null || (!isIncludeHeadersMode && allHeaders)) {
+            return;
+        }
+        List<Map.Entry<String, String>> selectedHeaders = context.headers;
+        for (Map.Entry<String, String> header : transportHeaders.entrySet()) {
+            String name = header.getKey().toLowerCase(Locale.ENGLISH);
+            if (excludedHeaders.contains(name)) {
+                continue;
+            }
+            if (isIncludeHeadersMode ? (allHeaders || headers.contains(name)) : !headers.contains(name)) {
+                selectedHeaders.add(header);
+            }
+        }
+        Collections.sort(selectedHeaders, HEADER_ORDER);
+        for (Map.Entry<String, String> header : selectedHeaders) {
+            context.update(HEADER_NAME, header.getKey(), true);
+            if (header.getValue() != null) {
+                context.update(HEADER_VALUE, header.getValue(), false);
+            }
+        }
+        selectedHeaders.clear();
+    }
+
+    /**
+     * Hashes the JSON payload as it is written out, or the DOMHASH of the SOAP body.
+     *
+     * @param context    the digest context of the current thread
+     * @param msgContext the request message
+     */
+    private void updatePayload(DigestContext context, MessageContext msgContext) {
+        context.separator(PAYLOAD);
+        try {
+            if (JsonUtil.hasAJsonPayload(msgContext)) {
+                JsonUtil.writeAsJson(msgContext, context);
+                return;
+            }
+        } catch (AxisFault e) {
+            throw new CachingException("Error in calculating the digest value for the json payload", e);
+        }
+        SOAPEnvelope envelope = msgContext.getEnvelope();
+        OMElement body = envelope != null ? envelope.getBody() : null;
+        if (body != null) {
+            byte[] bodyDigest = context.domHash(body);
+            context.write(bodyDigest, 0, bodyDigest.length);
+        }
+    }
+
+    /**
+     * Computes the DOMHASH of an element in a single pass over it. The result is the same as that of
+     * {@link DOMHASHGenerator#getDigest(OMElement, String)} with the MD5 algorithm.
+     *
+     * @param element the element to be hashed
+     * @return the DOMHASH of the element
+     * @throws CachingException if the element can not be read
+     */
+    public byte[] getPayloadDigest(OMElement element) throws CachingException {
+        return DIGEST_CONTEXT.get().domHash(element);
+    }
+
+    private static Set<String> toLowerCase(String[] values) {
+        Set<String> lowerCaseValues = new HashSet<>();
+        for (String value : values) {
+            lowerCaseValues.add(value.toLowerCase(Locale.ENGLISH));
+        }
+        return lowerCaseValues;
+    }
+
+    /**
+     * Holds the digest and the buffers of a thread, and feeds everything written to it to the digest.
+     */
+    private static final class DigestContext extends OutputStream {
+
+        private final MessageDigest messageDigest;
+
+        private final byte[] buffer = new byte[512];
+
+        private final List<Map.Entry<String, String>> headers = new ArrayList<>();
+
+        /**
+         * The digest of the payload nodes, which are hashed while the digest of the request is in progress.
+         */
+        private final MessageDigest nodeDigest;
+
+        /**
+         * The elements being read, indexed by their depth, which are kept to be reused by the next requests.
+         */
+        private final List<ElementDigest> elements = new ArrayList<>();
+
+        DigestContext(MessageDigest messageDigest) throws NoSuchAlgorithmException {
+            this.messageDigest = messageDigest;
+            this.nodeDigest = MessageDigest.getInstance(messageDigest.getAlgorithm());
+        }
+
+        void reset() {
+            messageDigest.reset();
+            headers.clear();
+        }
+
+        void separator(byte type) {
+            messageDigest.update((byte) 0);
+            messageDigest.update(type);
+        }
+
+        /**
+         * Feeds the characters of the given value to the digest, preceded by its type and length so that adjoining
+         * values cannot be confused with each other.
+         */
+        void update(byte type, String value, boolean lowerCase) {
+            separator(type);
+            int length = value.length();
+            int position = 0;
+            buffer[position++] = (byte) (length >>> 24);
+            buffer[position++] = (byte) (length >>> 16);
+            buffer[position++] = (byte) (length >>> 8);
+            buffer[position++] = (byte) length;
+            for (int i = 0; i < length; i++) {
+                if (position + 2 > buffer.length) {
+                    messageDigest.update(buffer, 0, position);
+                    position = 0;
+                }
+                char c = lowerCase ? Character.toLowerCase(value.charAt(i)) : value.charAt(i);
+                buffer[position++] = (byte) (c >>> 8);
+                buffer[position++] = (byte) c;
+            }
+            messageDigest.update(buffer, 0, position);
+        }
+
+        /**
+         * Computes the DOMHASH of an element from the events of a StAX reader over it. Each element collects the
+         * digests of its attributes and children, and is hashed once it ends, since the DOMHASH of an element starts
+         * with the number of its child elements. Like {@link DOMHASHGenerator}, only the element, text and processing
+         * instruction nodes are hashed, and the namespace declarations are not hashed as attributes.
+         */
+        byte[] domHash(OMElement element) {
+            XMLStreamReader reader = element.getXMLStreamReader();
+            int depth = 0;
+            try {
+                int event = reader.getEventType();
+                while (true) {
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        startElement(reader, depth++);
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        byte[] digest = endElement(elements.get(--depth));
+                        if (depth == 0) {
+                            return digest;
+                        }
+                        elements.get(depth - 1).addChild(digest, true);
+                    } else if (depth > 0 && event == XMLStreamConstants.CHARACTERS) {
+                        nodeDigest.reset();
+                        nodeType(3);
+                        updateNode(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        elements.get(depth - 1).addChild(nodeDigest.digest(), false);
+                    } else if (depth > 0 && event == XMLStreamConstants.PROCESSING_INSTRUCTION) {
+                        nodeDigest.reset();
+                        nodeType(7);
+                        updateNode(reader.getPITarget());
+                        nodeDigest.update((byte) 0);
+                        nodeDigest.update((byte) 0);
+                        updateNode(reader.getPIData() != null ? reader.getPIData() : "");
+                        elements.get(depth - 1).addChild(nodeDigest.digest(), false);
+                    }
+                    if (!reader.hasNext()) {
+                        throw new CachingException("The payload ended before the element " + element.getLocalName());
+                    }
+                    event = reader.next();
+                }
+            } catch (XMLStreamException e) {
+                throw new CachingException("Error in calculating the digest value for the xml payload", e);
+            } finally {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                    // the reader only wraps the element
+                }
+            }
+        }
+
+        private void startElement(XMLStreamReader reader, int depth) {
+            if (elements.size() == depth) {
+                elements.add(new ElementDigest());
+            }
+            ElementDigest current = elements.get(depth);
+            current.reset(expandedName(reader.getNamespaceURI(), reader.getLocalName()));
+            int count = reader.getAttributeCount();
+            for (int i = 0; i < count; i++) {
+                String localName = reader.getAttributeLocalName(i);
+                if (localName.equals("xmlns") || localName.startsWith("xmlns:")) {
+                    continue;
+                }
+                String name = expandedName(reader.getAttributeNamespace(i), localName);
+                nodeDigest.reset();
+                nodeType(2);
+                updateNode(name);
+                nodeDigest.update((byte) 0);
+                nodeDigest.update((byte) 0);
+                updateNode(reader.getAttributeValue(i));
+                current.addAttribute(name, nodeDigest.digest());
+            }
+        }
+
+        private byte[] endElement(ElementDigest current) {
+            nodeDigest.reset();
+            writeInt(1);
+            updateNode(current.name);
+            nodeDigest.update((byte) 0);
+            nodeDigest.update((byte) 0);
+            current.updateAttributes(this);
+            writeInt(current.childElements);
+            nodeDigest.update(current.children, 0, current.childrenLength);
+            return nodeDigest.digest();
+        }
+
+        private void nodeType(int type) {
+            writeInt(type);
+        }
+
+        private void writeInt(int value) {
+            nodeDigest.update((byte) (value >>> 24));
+            nodeDigest.update((byte) (value >>> 16));
+            nodeDigest.update((byte) (value >>> 8));
+            nodeDigest.update((byte) value);
+        }
+
+        /**
+         * Feeds the given characters to the node digest in the UTF-16 big endian encoding without a byte order mark,
+         * which is the UnicodeBigUnmarked encoding used by {@link DOMHASHGenerator}.
+         */
+        private void updateNode(char[] chars, int start, int length) {
+            int position = 0;
+            for (int i = start; i < start + length; i++) {
+                if (position + 2 > buffer.length) {
+                    nodeDigest.update(buffer, 0, position);
+                    position = 0;
+                }
+                buffer[position++] = (byte) (chars[i] >>> 8);
+                buffer[position++] = (byte) chars[i];
+            }
+            nodeDigest.update(buffer, 0, position);
+        }
+
+        private void updateNode(String value) {
+            int position = 0;
+            for (int i = 0; i < value.length(); i++) {
+                if (position + 2 > buffer.length) {
+                    nodeDigest.update(buffer, 0, position);
+                    position = 0;
+                }
+                char c = value.charAt(i);
+                buffer[position++] = (byte) (c >>> 8);
+                buffer[position++] = (byte) c;
+            }
+            nodeDigest.update(buffer, 0, position);
+        }
+
+        private static String expandedName(String namespaceURI, String localName) {
+            return namespaceURI != null && !namespaceURI.isEmpty() ? namespaceURI + ":" + localName : localName;
+        }
+
+        String digest() {
+            byte[] digest = messageDigest.digest();
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[2 * i] = HEX_DIGITS[(digest[i] >>> 4) & 0x0f];
+                hex[2 * i + 1] = HEX_DIGITS[digest[i] & 0x0f];
+            }
+            return new String(hex);
+        }
+
+        @Override
+        public void write(int b) {
+            messageDigest.update((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            messageDigest.update(b, off, len);
+        }
+    }
+
+    /**
+     * The digests collected for an element while it is read.
+     */
+    private static final class ElementDigest {
+
+        private String name;
+
+        private String[] attributeNames = new String[4];
+
+        private byte[][] attributeDigests = new byte[4][];
+
+        private int attributeCount;
+
+        private byte[] children = new byte[256];
+
+        private int childrenLength;
+
+        private int childElements;
+
+        void reset(String name) {
+            this.name = name;
+            Arrays.fill(attributeDigests, 0, attributeCount, null);
+            attributeCount = 0;
+            childrenLength = 0;
+            childElements = 0;
+        }
+
+        /**
+         * Keeps the digest of an attribute in the order of the expanded names of the attributes.
+         */
+        void addAttribute(String attributeName, byte[] digest) {
+            if (attributeCount == attributeNames.length) {
+                attributeNames = Arrays.copyOf(attributeNames, attributeCount * 2);
+                attributeDigests = Arrays.copyOf(attributeDigests, attributeCount * 2);
+            }
+            int i = attributeCount++;
+            while (i > 0 && attributeNames[i - 1].compareTo(attributeName) > 0) {
+                attributeNames[i] = attributeNames[i - 1];
+                attributeDigests[i] = attributeDigests[i - 1];
+                i--;
+            }
+            attributeNames[i] = attributeName;
+            attributeDigests[i] = digest;
+        }
+
+        void updateAttributes(DigestContext context) {
+            context.writeInt(attributeCount);
+            for (int i = 0; i < attributeCount; i++) {
+                context.nodeDigest.update(attributeDigests[i]);
+            }
+        }
+
+        void addChild(byte[] digest, boolean isElement) {
+            if (childrenLength + digest.length > children.length) {
+                children = Arrays.copyOf(children, Math.max(children.length * 2, childrenLength + digest.length));
+            }
+            System.arraycopy(digest, 0, children, childrenLength, digest.length);
+            childrenLength += digest.length;
+            if (isElement) {
+                childElements++;
+            }
+        }
+    }
+}
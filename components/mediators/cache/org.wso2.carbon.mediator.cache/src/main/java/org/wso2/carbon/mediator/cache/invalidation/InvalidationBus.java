@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.cache.invalidation;
+
+import org.wso2.carbon.mediator.cache.CachingException;
+
+import java.util.Map;
+
+/**
+ * This is the interface for the channel through which the cache managers of the nodes of a deployment tell each other
+ * about invalidated responses. An invalidation published on one node is delivered to the listeners of all the other
+ * nodes, but not back to the listener of the node which published it.
+ */
+public interface InvalidationBus {
+
+    /**
+     * Initializes the bus with the properties configured for it.
+     *
+     * @param properties the properties of the bus
+     * @throws CachingException if the bus cannot be initialized
+     */
+    void init(Map<String, String> properties) throws CachingException;
+
+    /**
+     * Starts delivering the invalidations published by the other nodes to the given listener.
+     *
+     * @param listener the listener of this node
+     * @throws CachingException if the bus cannot be started
+     */
+    void start(InvalidationListener listener) throws CachingException;
+
+    /**
+     * Publishes an invalidation made on this node to the other nodes.
+     *
+     * @param event the invalidation
+     * @throws CachingException if the invalidation cannot be published
+     */
+    void publish(InvalidationEvent event) throws CachingException;
+
+    /**
+     * Stops delivering invalidations and releases the resources held by the bus.
+     */
+    void stop();
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.cache.invalidation;
+
+import org.wso2.carbon.mediator.cache.CachingException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * An invalidation of cached responses, which is either of all the responses, the responses of a single cache mediator
+ * or the responses cached against a single request hash.
+ */
+public final class InvalidationEvent {
+
+    private static final int VERSION = 1;
+
+    /**
+     * The responses affected by an invalidation.
+     */
+    public enum Scope {
+        /**
+         * All the responses cached by all the cache mediators.
+         */
+        ALL,
+        /**
+         * The responses cached by the cache mediator with the given id.
+         */
+        MEDIATOR,
+        /**
+         * The responses cached against the given request hash by any cache mediator.
+         */
+        KEY
+    }
+
+    private final Scope scope;
+
+    private final String cacheId;
+
+    private final String requestHash;
+
+    private InvalidationEvent(Scope scope, String cacheId, String requestHash) {
+        this.scope = scope;
+        this.cacheId = cacheId;
+        this.requestHash = requestHash;
+    }
+
+    /**
+     * @return an invalidation of all the cached responses
+     */
+    public static InvalidationEvent all() {
+        return new InvalidationEvent(Scope.ALL, null, null);
+    }
+
+    /**
+     * @param cacheId the id of the cache mediator
+     * @return an invalidation of the responses cached by the cache mediator
+     */
+    public static InvalidationEvent mediator(String cacheId) {
+        return new InvalidationEvent(Scope.MEDIATOR, cacheId, null);
+    }
+
+    /**
+     * @param requestHash the request hash
+     * @return an invalidation of the responses cached against the request hash
+     */
+    public static InvalidationEvent key(String requestHash) {
+        return new InvalidationEvent(Scope.KEY, null, requestHash);
+    }
+
+    /**
+     * @return the responses affected by this invalidation
+     */
+    public Scope getScope() {
+        return scope;
+    }
+
+    /**
+     * @return the id of the cache mediator if the scope is {@link Scope#MEDIATOR}
+     */
+    public String getCacheId() {
+        return cacheId;
+    }
+
+    /**
+     * @return the request hash if the scope is {@link Scope#KEY}
+     */
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    /**
+     * Encodes this invalidation along with the id of the node which published it.
+     *
+     * @param nodeId the id of the publishing node
+     * @return the encoded invalidation
+     */
+    byte[] encode(String nodeId) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(VERSION);
+            out.writeUTF(nodeId);
+            out.writeByte(scope.ordinal());
+            out.writeUTF(cacheId != null ? cacheId : "");
+            out.writeUTF(requestHash != null ? requestHash : "");
+        } catch (IOException e) {
+            throw new CachingException("Error while encoding the cache invalidation", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes an invalidation encoded with {@link #encode(String)}.
+     *
+     * @param encoded the buffer holding the encoded invalidation
+     * @param length  the length of the encoded invalidation
+     * @param nodeId  the id of this node
+     * @return the invalidation, or null if it was published by this node
+     * @throws CachingException if the invalidation cannot be decoded
+     */
+    static InvalidationEvent decode(byte[] encoded, int length, String nodeId) throws CachingException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded, 0, length))) {
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new CachingException("Unsupported cache invalidation version : " + version);
+            }
+            if (nodeId.equals(in.readUTF())) {
+                return null;
+            }
+            int scope = in.readUnsignedByte();
+            if (scope >= Scope.values().length) {
+                throw new CachingException("Unknown cache invalidation scope : " + scope);
+            }
+            String cacheId = in.readUTF();
+            String requestHash = in.readUTF();
+            return new InvalidationEvent(Scope.values()[scope], cacheId.isEmpty() ? null : cacheId,
+                    requestHash.isEmpty() ? null : requestHash);
+        } catch (IOException e) {
+            throw new CachingException("Error while decoding the cache invalidation", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        switch (scope) {
+            case MEDIATOR:
+                return "invalidation of the cache " + cacheId;
+            case KEY:
+                return "invalidation of the request hash " + requestHash;
+            default:
+                return "invalidation of all the caches";
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.cache.invalidation;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * An {@link InvalidationBus} which connects the cache managers within a single JVM. The buses started with the same
+ * channel name deliver the invalidations to each other synchronously, in the thread which publishes them.
+ */
+public class LocalInvalidationBus implements InvalidationBus {
+
+    private static final Log log = LogFactory.getLog(LocalInvalidationBus.class);
+
+    /**
+     * The property for the name of the channel the bus joins.
+     */
+    public static final String CHANNEL = "channel";
+
+    private static final String DEFAULT_CHANNEL = "default";
+
+    /**
+     * The started buses of each channel. A channel is removed once its last bus is stopped, and the updates are
+     * synchronized on the map so that a bus is never added to a removed channel.
+     */
+    private static final ConcurrentMap<String, List<LocalInvalidationBus>> CHANNELS = new ConcurrentHashMap<>();
+
+    private String channel = DEFAULT_CHANNEL;
+
+    private volatile InvalidationListener listener;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void init(Map<String, String> properties) {
+        String configuredChannel = properties.get(CHANNEL);
+        if (configuredChannel != null && !configuredChannel.trim().isEmpty()) {
+            channel = configuredChannel.trim();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void start(InvalidationListener listener) {
+        this.listener = listener;
+        synchronized (CHANNELS) {
+            List<LocalInvalidationBus> members = CHANNELS.get(channel);
+            if (members == null) {
+                members = new CopyOnWriteArrayList<>();
+                CHANNELS.put(channel, members);
+            }
+            if (!members.contains(this)) {
+                members.add(this);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(InvalidationEvent event) {
+        List<LocalInvalidationBus> members = CHANNELS.get(channel);
+        if (members == null) {
+            return;
+        }
+        for (LocalInvalidationBus member : members) {
+            InvalidationListener memberListener = member.listener;
+            if (member == this || memberListener == null) {
+                continue;
+            }
+            try {
+                memberListener.onInvalidation(event);
+            } catch (RuntimeException e) {
+                log.warn("Error while delivering the " + event + " on the channel " + channel, e);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stop() {
+        synchronized (CHANNELS) {
+            List<LocalInvalidationBus> members = CHANNELS.get(channel);
+            if (members != null && members.remove(this) && members.isEmpty()) {
+                CHANNELS.remove(channel);
+            }
+        }
+        listener = null;
+    }
+}
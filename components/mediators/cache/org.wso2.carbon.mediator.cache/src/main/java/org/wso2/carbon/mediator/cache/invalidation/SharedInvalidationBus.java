@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.cache.invalidation;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.synapse.config.SynapsePropertiesLoader;
+import org.wso2.carbon.mediator.cache.CachingConstants;
+import org.wso2.carbon.mediator.cache.CachingException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Holds the single {@link InvalidationBus} of the node, which is shared by all the cache managers of the node. The bus
+ * configured by {@link CachingConstants#INVALIDATION_BUS_PROPERTY} is created and started when the first cache
+ * manager registers its listener, and stopped when the last listener is unregistered, that is when the last cache
+ * mediator is undeployed. Invalidations published by a cache manager are also delivered to the other cache managers
+ * of the node.
+ */
+public final class SharedInvalidationBus {
+
+    private static final Log log = LogFactory.getLog(SharedInvalidationBus.class);
+
+    /**
+     * The listeners of the cache managers of this node.
+     */
+    private static final List<InvalidationListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * The started bus, or null if no bus is configured or no listener is registered.
+     */
+    private static volatile InvalidationBus bus;
+
+    private SharedInvalidationBus() {
+    }
+
+    /**
+     * Registers the listener of a cache manager, starting the bus if it is the first listener.
+     *
+     * @param listener the listener of the cache manager
+     */
+    public static synchronized void register(InvalidationListener listener) {
+        if (LISTENERS.contains(listener)) {
+            return;
+        }
+        LISTENERS.add(listener);
+        if (LISTENERS.size() > 1) {
+            return;
+        }
+        InvalidationBus newBus = createInvalidationBus();
+        if (newBus == null) {
+            return;
+        }
+        try {
+            newBus.start(new InvalidationListener() {
+                @Override
+                public void onInvalidation(InvalidationEvent event) {
+                    deliver(null, event);
+                }
+            });
+            bus = newBus;
+        } catch (CachingException e) {
+            log.error("Unable to start the cache invalidation bus. Invalidations made on the other nodes will "
+                    + "not be applied to this node.", e);
+        }
+    }
+
+    /**
+     * Unregisters the listener of a cache manager, stopping the bus if it was the last listener.
+     *
+     * @param listener the listener of the cache manager
+     */
+    public static synchronized void unregister(InvalidationListener listener) {
+        if (!LISTENERS.remove(listener) || !LISTENERS.isEmpty()) {
+            return;
+        }
+        InvalidationBus currentBus = bus;
+        bus = null;
+        if (currentBus != null) {
+            currentBus.stop();
+        }
+    }
+
+    /**
+     * Delivers an invalidation made by a cache manager to the other cache managers of this node, and publishes it to
+     * the other nodes.
+     *
+     * @param publisher the listener of the cache manager which made the invalidation
+     * @param event     the invalidation
+     * @throws CachingException if the invalidation cannot be published to the other nodes
+     */
+    public static void publish(InvalidationListener publisher, InvalidationEvent event) throws CachingException {
+        deliver(publisher, event);
+        InvalidationBus currentBus = bus;
+        if (currentBus != null) {
+            currentBus.publish(event);
+        }
+    }
+
+    private static void deliver(InvalidationListener publisher, InvalidationEvent event) {
+        for (InvalidationListener listener : LISTENERS) {
+            if (listener == publisher) {
+                continue;
+            }
+            try {
+                listener.onInvalidation(event);
+            } catch (RuntimeException e) {
+                log.warn("Error while applying the " + event, e);
+            }
+        }
+    }
+
+    /**
+     * Creates and initializes the invalidation bus configured in the synapse properties.
+     *
+     * @return the invalidation bus, or null if none is configured or it cannot be created
+     */
+    private static InvalidationBus createInvalidationBus() {
+        String type = SynapsePropertiesLoader.getPropertyValue(CachingConstants.INVALIDATION_BUS_PROPERTY, null);
+        if (type == null || type.trim().isEmpty()) {
+            return null;
+        }
+        type = type.trim();
+        try {
+            InvalidationBus newBus;
+            if (CachingConstants.LOCAL_INVALIDATION_BUS.equals(type)) {
+                newBus = new LocalInvalidationBus();
+            } else if (CachingConstants.UDP_INVALIDATION_BUS.equals(type)) {
+                newBus = new UdpInvalidationBus();
+            } else {
+                Object o = Class.forName(type).newInstance();
+                if (!(o instanceof InvalidationBus)) {
+                    log.error("Specified class " + type + " for " + CachingConstants.INVALIDATION_BUS_PROPERTY
+                            + " is not an InvalidationBus. Cache invalidations will not be shared.");
+                    return null;
+                }
+                newBus = (InvalidationBus) o;
+            }
+            Map<String, String> busProperties = new HashMap<>();
+            Properties properties = SynapsePropertiesLoader.loadSynapseProperties();
+            for (String name : properties.stringPropertyNames()) {
+                if (name.startsWith(CachingConstants.INVALIDATION_BUS_PROPERTY_PREFIX)) {
+                    busProperties.put(name.substring(CachingConstants.INVALIDATION_BUS_PROPERTY_PREFIX.length()),
+                            properties.getProperty(name));
+                }
+            }
+            newBus.init(busProperties);
+            return newBus;
+        } catch (ClassNotFoundException | IllegalAccessException | InstantiationException e) {
+            log.error("Unable to create the cache invalidation bus " + type
+                    + ". Cache invalidations will not be shared.", e);
+        } catch (CachingException e) {
+            log.error("Unable to initialize the cache invalidation bus " + type
+                    + ". Cache invalidations will not be shared.", e);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.cache.invalidation;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.mediator.cache.CachingException;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * An {@link InvalidationBus} which sends the invalidations to the other nodes as UDP datagrams. The invalidations are
+ * either sent to a multicast group joined by all the nodes, or to the listed addresses of the other nodes. Datagrams
+ * may be lost, hence this bus suits deployments where an occasional missed invalidation is covered by the timeout of
+ * the cached responses.
+ * <p>
+ * Each datagram is signed with an HMAC of the secret shared by the nodes, and the datagrams which are not signed with
+ * it are dropped. When the addresses of the other nodes are listed, the bus only listens on the configured local
+ * address and only accepts the datagrams sent from the hosts of the listed nodes.
+ */
+public class UdpInvalidationBus implements InvalidationBus {
+
+    private static final Log log = LogFactory.getLog(UdpInvalidationBus.class);
+
+    /**
+     * The property for the port on which the invalidations are received.
+     */
+    public static final String PORT = "port";
+
+    /**
+     * The property for the local address on which the invalidations are received, which is required when a multicast
+     * group is not used.
+     */
+    public static final String BIND_ADDRESS = "bindAddress";
+
+    /**
+     * The property for the name of the network interface on which the multicast group is joined. The default
+     * interface of the host is used if it is not set.
+     */
+    public static final String NETWORK_INTERFACE = "interface";
+
+    /**
+     * The property for the secret shared by all the nodes, with which the invalidations are signed.
+     */
+    public static final String SECRET = "secret";
+
+    /**
+     * The property for the multicast group joined by all the nodes.
+     */
+    public static final String GROUP = "group";
+
+    /**
+     * The property for the time to live of the multicast datagrams.
+     */
+    public static final String TIME_TO_LIVE = "timeToLive";
+
+    /**
+     * The property for the comma separated host:port addresses of the other nodes, when a multicast group is not used.
+     */
+    public static final String MEMBERS = "members";
+
+    private static final int DEFAULT_PORT = 45680;
+
+    private static final int DEFAULT_TIME_TO_LIVE = 1;
+
+    private static final int MAX_DATAGRAM_SIZE = 1024;
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    private static final int MAC_LENGTH = 32;
+
+    /**
+     * Identifies the invalidations published by this node, so that they are not applied again when a multicast
+     * datagram is looped back.
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private int port = DEFAULT_PORT;
+
+    private String bindAddress;
+
+    private InetAddress group;
+
+    private NetworkInterface networkInterface;
+
+    private SecretKeySpec secretKey;
+
+    /* signs the published invalidations, guarded by itself */
+    private Mac publishMac;
+
+    private int timeToLive = DEFAULT_TIME_TO_LIVE;
+
+    private final List<InetSocketAddress> members = new ArrayList<>();
+
+    private final Set<InetAddress> memberHosts = new HashSet<>();
+
+    private volatile DatagramSocket socket;
+
+    private Thread receiver;
+
+    private volatile boolean running;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void init(Map<String, String> properties) throws CachingException {
+        port = getInt(properties, PORT, DEFAULT_PORT);
+        timeToLive = getInt(properties, TIME_TO_LIVE, DEFAULT_TIME_TO_LIVE);
+        bindAddress = properties.get(BIND_ADDRESS);
+        if (bindAddress != null && bindAddress.trim().isEmpty()) {
+            bindAddress = null;
+        }
+        String secret = properties.get(SECRET);
+        if (secret == null || secret.isEmpty()) {
+            throw new CachingException(SECRET + " must be set for the UDP cache invalidation bus");
+        }
+        secretKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+        publishMac = createMac();
+        String interfaceName = properties.get(NETWORK_INTERFACE);
+        if (interfaceName != null && !interfaceName.trim().isEmpty()) {
+            try {
+                networkInterface = NetworkInterface.getByName(interfaceName.trim());
+            } catch (IOException e) {
+                throw new CachingException("Unable to find the network interface " + interfaceName, e);
+            }
+            if (networkInterface == null) {
+                throw new CachingException("Unable to find the network interface " + interfaceName);
+            }
+        }
+        String groupAddress = properties.get(GROUP);
+        try {
+            if (groupAddress != null && !groupAddress.trim().isEmpty()) {
+                group = InetAddress.getByName(groupAddress.trim());
+                if (!group.isMulticastAddress()) {
+                    throw new CachingException(groupAddress + " is not a multicast address");
+                }
+            }
+        } catch (IOException e) {
+            throw new CachingException("Unable to resolve the multicast group " + groupAddress, e);
+        }
+        String memberAddresses = properties.get(MEMBERS);
+        if (memberAddresses != null) {
+            for (String member : memberAddresses.split(",")) {
+                member = member.trim();
+                int separator = member.lastIndexOf(':');
+                if (member.isEmpty()) {
+                    continue;
+                }
+                if (separator < 1) {
+                    throw new CachingException("Invalid member address " + member + ". It must be host:port");
+                }
+                InetSocketAddress memberAddress;
+                try {
+                    memberAddress = new InetSocketAddress(member.substring(0, separator),
+                            Integer.parseInt(member.substring(separator + 1)));
+                } catch (IllegalArgumentException e) {
+                    throw new CachingException("Invalid member address " + member + ". It must be host:port", e);
+                }
+                if (memberAddress.isUnresolved()) {
+                    throw new CachingException("Unable to resolve the member address " + member);
+                }
+                members.add(memberAddress);
+                memberHosts.add(memberAddress.getAddress());
+            }
+        }
+        if (group == null && members.isEmpty()) {
+            throw new CachingException("Either " + GROUP + " or " + MEMBERS + " must be set for the "
+                    + "UDP cache invalidation bus");
+        }
+        if (group == null && bindAddress == null) {
+            throw new CachingException(BIND_ADDRESS + " must be set for the UDP cache invalidation bus when "
+                    + MEMBERS + " are listed");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void start(final InvalidationListener listener) throws CachingException {
+        try {
+            if (group != null) {
+                MulticastSocket multicastSocket = new MulticastSocket(port);
+                multicastSocket.setTimeToLive(timeToLive);
+                if (networkInterface != null) {
+                    multicastSocket.setNetworkInterface(networkInterface);
+                }
+                multicastSocket.joinGroup(new InetSocketAddress(group, port), networkInterface);
+                socket = multicastSocket;
+            } else {
+                socket = new DatagramSocket(new InetSocketAddress(bindAddress, port));
+            }
+        } catch (IOException e) {
+            throw new CachingException("Unable to open the cache invalidation socket on port " + port, e);
+        }
+        running = true;
+        final Mac receiveMac = createMac();
+        receiver = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                receive(listener, receiveMac);
+            }
+        }, "cache-invalidation-receiver-" + port);
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(InvalidationEvent event) throws CachingException {
+        DatagramSocket currentSocket = socket;
+        if (currentSocket == null) {
+            throw new CachingException("The cache invalidation bus is not started");
+        }
+        byte[] encoded = sign(event.encode(nodeId));
+        if (encoded.length > MAX_DATAGRAM_SIZE) {
+            throw new CachingException("The " + event + " is too large to be published");
+        }
+        try {
+            if (group != null) {
+                currentSocket.send(new DatagramPacket(encoded, encoded.length, group, port));
+            }
+            for (InetSocketAddress member : members) {
+                currentSocket.send(new DatagramPacket(encoded, encoded.length, member));
+            }
+        } catch (IOException e) {
+            throw new CachingException("Unable to publish the " + event, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stop() {
+        running = false;
+        DatagramSocket currentSocket = socket;
+        socket = null;
+        if (currentSocket != null) {
+            if (group != null) {
+                try {
+                    ((MulticastSocket) currentSocket).leaveGroup(new InetSocketAddress(group, port), networkInterface);
+                } catch (IOException e) {
+                    log.debug("Unable to leave the multicast group " + group, e);
+                }
+            }
+            currentSocket.close();
+        }
+        if (receiver != null) {
+            receiver.interrupt();
+            receiver = null;
+        }
+    }
+
+    /**
+     * @return the port on which this bus receives the invalidations, or -1 if it is not started
+     */
+    public int getLocalPort() {
+        DatagramSocket currentSocket = socket;
+        return currentSocket != null ? currentSocket.getLocalPort() : -1;
+    }
+
+    private void receive(InvalidationListener listener, Mac receiveMac) {
+        DatagramSocket currentSocket = socket;
+        byte[] buffer = new byte[MAX_DATAGRAM_SIZE];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        while (running) {
+            try {
+                packet.setLength(buffer.length);
+                currentSocket.receive(packet);
+                if (!isAccepted(packet, receiveMac)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Dropped a cache invalidation datagram from " + packet.getSocketAddress()
+                                + " which is not signed with the shared secret or not sent by a member");
+                    }
+                    continue;
+                }
+                InvalidationEvent event = InvalidationEvent.decode(buffer, packet.getLength() - MAC_LENGTH, nodeId);
+                if (event != null) {
+                    listener.onInvalidation(event);
+                }
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Error while receiving the cache invalidations", e);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Error while applying a cache invalidation received from " + packet.getSocketAddress(), e);
+            }
+        }
+    }
+
+    /**
+     * Checks that a received datagram is sent by a listed member, if the members are listed, and that it is signed
+     * with the shared secret.
+     */
+    private boolean isAccepted(DatagramPacket packet, Mac receiveMac) {
+        int length = packet.getLength() - MAC_LENGTH;
+        if (length <= 0 || (group == null && !memberHosts.contains(packet.getAddress()))) {
+            return false;
+        }
+        byte[] data = packet.getData();
+        receiveMac.update(data, 0, length);
+        byte[] expected = receiveMac.doFinal();
+        return MessageDigest.isEqual(expected, Arrays.copyOfRange(data, length, length + MAC_LENGTH));
+    }
+
+    private byte[] sign(byte[] encoded) {
+        byte[] mac;
+        synchronized (publishMac) {
+            mac = publishMac.doFinal(encoded);
+        }
+        byte[] signed = Arrays.copyOf(encoded, encoded.length + mac.length);
+        System.arraycopy(mac, 0, signed, encoded.length, mac.length);
+        return signed;
+    }
+
+    private Mac createMac() throws CachingException {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(secretKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new CachingException("Unable to create the " + MAC_ALGORITHM + " of the cache invalidations", e);
+        }
+    }
+
+    private static int getInt(Map<String, String> properties, String name, int defaultValue) {
+        String value = properties.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new CachingException("Invalid value for " + name + " : " + value, e);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.cache.store;
+
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.OMXMLParserWrapper;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.wso2.carbon.mediator.cache.CachableResponse;
+import org.wso2.carbon.mediator.cache.CachingException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Converts a {@link CachableResponse} to a byte array and back, so that it can be kept outside the JVM heap. Only the
+ * response itself is encoded, the per request settings of the response are set again by the cache mediator.
+ */
+public final class CachableResponseCodec {
+
+    private static final int VERSION = 2;
+
+    private CachableResponseCodec() {
+    }
+
+    /**
+     * Encodes the given response.
+     *
+     * @param response the populated response
+     * @return the encoded response
+     * @throws CachingException if the response cannot be encoded
+     */
+    public static byte[] encode(CachableResponse response) throws CachingException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(VERSION);
+            out.writeBoolean(response.isJson());
+            boolean envelopeCached = !response.isJson() && response.getResponseEnvelope() != null;
+            out.writeBoolean(envelopeCached);
+            byte[] payload;
+            if (envelopeCached) {
+                ByteArrayOutputStream envelope = new ByteArrayOutputStream();
+                response.getResponseEnvelope().serialize(envelope);
+                payload = envelope.toByteArray();
+            } else {
+                payload = response.getResponsePayload();
+            }
+            out.writeInt(payload.length);
+            out.write(payload);
+            if (!response.isJson() && !envelopeCached) {
+                QName payloadQName = response.getPayloadQName();
+                writeString(out, payloadQName.getNamespaceURI());
+                writeString(out, payloadQName.getLocalPart());
+                writeString(out, payloadQName.getPrefix());
+                writeString(out, response.getSoapNamespaceURI());
+            }
+            writeString(out, response.getStatusCode());
+            writeString(out, response.getStatusReason() != null ? String.valueOf(response.getStatusReason()) : null);
+            out.writeLong(response.getTimeout());
+            out.writeLong(response.getResponseFetchedTime());
+            out.writeLong(response.getExpireTimeMillis());
+            Map<String, Object> headerProperties = response.getHeaderProperties();
+            if (headerProperties == null) {
+                out.writeInt(-1);
+            } else {
+                synchronized (headerProperties) {
+                    out.writeInt(headerProperties.size());
+                    for (Map.Entry<String, Object> entry : headerProperties.entrySet()) {
+                        writeString(out, entry.getKey());
+                        writeString(out, entry.getValue() != null ? String.valueOf(entry.getValue()) : null);
+                    }
+                }
+            }
+        } catch (IOException | XMLStreamException e) {
+            throw new CachingException("Error while encoding the cached response", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a response encoded with {@link #encode(CachableResponse)}.
+     *
+     * @param encoded     the encoded response
+     * @param requestHash the request hash of the response
+     * @return the decoded response
+     * @throws CachingException if the response cannot be decoded
+     */
+    public static CachableResponse decode(byte[] encoded, String requestHash) throws CachingException {
+        CachableResponse response = new CachableResponse();
+        response.setRequestHash(requestHash);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new CachingException("Unsupported cached response version : " + version);
+            }
+            boolean json = in.readBoolean();
+            boolean envelopeCached = in.readBoolean();
+            byte[] payload = new byte[in.readInt()];
+            in.readFully(payload);
+            response.setJson(json);
+            if (envelopeCached) {
+                OMXMLParserWrapper builder = OMXMLBuilderFactory.createSOAPModelBuilder(
+                        new ByteArrayInputStream(payload), null);
+                SOAPEnvelope envelope = (SOAPEnvelope) builder.getDocumentElement();
+                envelope.build();
+                response.setResponseEnvelope(envelope);
+                response.setResponseSize(payload.length);
+            } else {
+                response.setResponsePayload(payload);
+                if (!json) {
+                    String namespaceURI = readString(in);
+                    String localPart = readString(in);
+                    response.setPayloadQName(new QName(namespaceURI, localPart, readString(in)));
+                    response.setSoapNamespaceURI(readString(in));
+                }
+            }
+            response.setStatusCode(readString(in));
+            response.setStatusReason(readString(in));
+            response.setTimeout(in.readLong());
+            response.setResponseFetchedTime(in.readLong());
+            response.setExpireTimeMillis(in.readLong());
+            int headerCount = in.readInt();
+            if (headerCount > -1) {
+                Map<String, Object> headerProperties = Collections.synchronizedMap(
+                        new TreeMap<String, Object>(String.CASE_INSENSITIVE_ORDER));
+                for (int i = 0; i < headerCount; i++) {
+                    headerProperties.put(readString(in), readString(in));
+                }
+                response.setHeaderProperties(headerProperties);
+            }
+        } catch (IOException e) {
+            throw new CachingException("Error while decoding the cached response", e);
+        }
+        return response;
+    }
+
+    /**
+     * Writes the string with its length in bytes, as writeUTF can not write strings longer than 64 KB.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.cache.store;
+
+import org.wso2.carbon.mediator.cache.CachableResponse;
+import org.wso2.carbon.mediator.cache.CachingException;
+
+import java.util.Map;
+
+/**
+ * This is the interface for the second level store of the cache mediator. Responses evicted from the in memory cache
+ * of a cache mediator are handed over to its store, and are promoted back to the in memory cache when they are
+ * requested again. Implementations are expected to keep the responses outside the JVM heap.
+ */
+public interface CacheStore {
+
+    /**
+     * Initializes the store with the parameters given in the cache mediator configuration.
+     *
+     * @param properties the parameters of the store
+     * @throws CachingException if the store cannot be initialized
+     */
+    void init(Map<String, String> properties) throws CachingException;
+
+    /**
+     * Stores the given response against the request hash. The store may discard the response, or older responses,
+     * if it is full.
+     *
+     * @param requestHash the request hash of the response
+     * @param response    the populated response to be stored
+     * @throws CachingException if the response cannot be stored
+     */
+    void put(String requestHash, CachableResponse response) throws CachingException;
+
+    /**
+     * Removes and returns the response stored against the request hash.
+     *
+     * @param requestHash the request hash of the response
+     * @return the stored response or null if there is no unexpired response for the request hash
+     * @throws CachingException if the stored response cannot be read
+     */
+    CachableResponse remove(String requestHash) throws CachingException;
+
+    /**
+     * Removes all the responses in the store.
+     */
+    void clear();
+
+    /**
+     * @return the total size in bytes of the stored responses
+     */
+    long getSizeInBytes();
+
+    /**
+     * Removes all the responses in the store and releases the resources held by it.
+     */
+    void destroy();
+}
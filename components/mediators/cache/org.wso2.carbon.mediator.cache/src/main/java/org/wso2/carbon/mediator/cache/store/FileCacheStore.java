@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.cache.store;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.mediator.cache.CachableResponse;
+import org.wso2.carbon.mediator.cache.CachingException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A {@link CacheStore} which keeps each response in a file of its own, under a directory created for the store. The
+ * contents of the files are held by the file system cache of the operating system rather than the JVM heap. When the
+ * store is full the least recently stored responses are discarded.
+ */
+public class FileCacheStore implements CacheStore {
+
+    private static final Log log = LogFactory.getLog(FileCacheStore.class);
+
+    /**
+     * The parameter for the directory under which the store directory is created.
+     */
+    public static final String DIRECTORY = "directory";
+
+    /**
+     * The parameter for the maximum total size in bytes of the stored responses.
+     */
+    public static final String MAX_SIZE_IN_BYTES = "maxSizeInBytes";
+
+    /**
+     * The directory of this store.
+     */
+    private Path directory;
+
+    /**
+     * The maximum total size in bytes of the stored responses. If this is -1 the store is not bounded.
+     */
+    private long maxSizeInBytes = -1;
+
+    /**
+     * The total size in bytes of the stored responses.
+     */
+    private long sizeInBytes;
+
+    /**
+     * Used to give a unique file name to each stored response.
+     */
+    private long fileCount;
+
+    /**
+     * The stored responses in the order they were stored.
+     */
+    private final Map<String, StoredResponse> index = new LinkedHashMap<>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void init(Map<String, String> properties) throws CachingException {
+        try {
+            String parent = properties.get(DIRECTORY);
+            if (parent != null) {
+                Path parentDirectory = Paths.get(parent);
+                Files.createDirectories(parentDirectory);
+                directory = Files.createTempDirectory(parentDirectory, "cache-");
+            } else {
+                directory = Files.createTempDirectory("cache-");
+            }
+        } catch (IOException e) {
+            throw new CachingException("Unable to create the directory of the cache store", e);
+        }
+        String maxSize = properties.get(MAX_SIZE_IN_BYTES);
+        if (maxSize != null) {
+            try {
+                maxSizeInBytes = Long.parseLong(maxSize.trim());
+            } catch (NumberFormatException e) {
+                throw new CachingException("Invalid value for " + MAX_SIZE_IN_BYTES + " : " + maxSize, e);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(String requestHash, CachableResponse response) throws CachingException {
+        byte[] encoded = CachableResponseCodec.encode(response);
+        if (maxSizeInBytes > -1 && encoded.length > maxSizeInBytes) {
+            return;
+        }
+        Path file;
+        synchronized (this) {
+            file = directory.resolve(Long.toString(fileCount++));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(encoded);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            delete(file);
+            throw new CachingException("Unable to write the cached response to " + file, e);
+        }
+        synchronized (this) {
+            StoredResponse previous = index.put(requestHash,
+                    new StoredResponse(file, encoded.length, response.getExpireTimeMillis()));
+            sizeInBytes += encoded.length;
+            if (previous != null) {
+                release(previous);
+            }
+            Iterator<StoredResponse> eldest = index.values().iterator();
+            while (maxSizeInBytes > -1 && sizeInBytes > maxSizeInBytes && eldest.hasNext()) {
+                StoredResponse stored = eldest.next();
+                eldest.remove();
+                release(stored);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CachableResponse remove(String requestHash) throws CachingException {
+        StoredResponse stored;
+        synchronized (this) {
+            stored = index.remove(requestHash);
+            if (stored == null) {
+                return null;
+            }
+            sizeInBytes -= stored.length;
+        }
+        try {
+            if (stored.expireTimeMillis > 0 && stored.expireTimeMillis <= System.currentTimeMillis()) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(stored.length);
+            try (FileChannel channel = FileChannel.open(stored.file, StandardOpenOption.READ)) {
+                while (buffer.hasRemaining() && channel.read(buffer) > -1) {
+                    // read until the whole response is in the buffer
+                }
+            } catch (IOException e) {
+                throw new CachingException("Unable to read the cached response from " + stored.file, e);
+            }
+            return CachableResponseCodec.decode(buffer.array(), requestHash);
+        } finally {
+            delete(stored.file);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void clear() {
+        for (StoredResponse stored : index.values()) {
+            delete(stored.file);
+        }
+        index.clear();
+        sizeInBytes = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void destroy() {
+        clear();
+        if (directory != null) {
+            delete(directory);
+        }
+    }
+
+    /**
+     * @return the directory of this store
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private void release(StoredResponse stored) {
+        sizeInBytes -= stored.length;
+        delete(stored.file);
+    }
+
+    private void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Unable to delete " + path + " of the cache store", e);
+        }
+    }
+
+    /**
+     * Holds the location of a stored response.
+     */
+    private static class StoredResponse {
+
+        private final Path file;
+
+        private final int length;
+
+        private final long expireTimeMillis;
+
+        StoredResponse(Path file, int length, long expireTimeMillis) {
+            this.file = file;
+            this.length = length;
+            this.expireTimeMillis = expireTimeMillis;
+        }
+    }
+}
@@ -17,26 +17,48 @@
 
 package org.wso2.carbon.mediator.cache;
 
+import com.google.common.cache.LoadingCache;
 import com.google.common.net.HttpHeaders;
 import org.apache.axiom.om.OMAbstractFactory;
 import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMSourcedElement;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.OMXMLParserWrapper;
 import org.apache.axiom.om.util.UUIDGenerator;
+import org.apache.axiom.soap.SOAP11Constants;
+import org.apache.axiom.soap.SOAPEnvelope;
 import org.apache.axiom.util.UIDGenerator;
 import org.apache.axis2.AxisFault;
+import org.apache.axis2.Constants;
 import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.context.OperationContext;
 import org.apache.axis2.context.ServiceContext;
 import org.apache.axis2.description.InOutAxisOperation;
+import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.commons.collections.map.MultiValueMap;
 import org.apache.synapse.MessageContext;
 import org.apache.synapse.config.SynapseConfigUtils;
 import org.apache.synapse.config.SynapseConfiguration;
 import org.apache.synapse.core.axis2.Axis2MessageContext;
+import org.apache.synapse.core.axis2.Axis2SynapseEnvironment;
+import org.apache.synapse.mediators.base.SequenceMediator;
 import org.apache.synapse.transport.nhttp.NhttpConstants;
 import org.custommonkey.xmlunit.XMLTestCase;
 import org.custommonkey.xmlunit.XMLUnit;
+import org.wso2.carbon.mediator.cache.digest.DigestGenerator;
+import org.wso2.carbon.mediator.cache.invalidation.LocalInvalidationBus;
+import org.wso2.carbon.mediator.cache.invalidation.UdpInvalidationBus;
+import org.wso2.carbon.mediator.cache.store.CachableResponseCodec;
+import org.wso2.carbon.mediator.cache.store.CacheStore;
+import org.wso2.carbon.mediator.cache.store.FileCacheStore;
 import org.wso2.carbon.mediator.cache.util.HttpCachingFilter;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -45,7 +67,15 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.xml.namespace.QName;
 
 /**
  * Test the functionality of the {@link CacheMediatorFactory} and the {@link CacheMediatorSerializer}
@@ -74,6 +104,7 @@ public class CacheMediatorTest extends XMLTestCase {
                     "            <implementation maxSize=\"20\"/>\n" +
                     "         </cache>";
     public static final String CACHE_CONTROL_HEADER = "no-cache, no-store, max-age=80";
+    private static final String BUS_SECRET = "cacheInvalidationSecret";
     private ConfigurationContext configContext;
     private SynapseConfiguration synapseConfig;
 
@@ -221,6 +252,718 @@ public class CacheMediatorTest extends XMLTestCase {
         assertEquals(dateFormat.format(cachedResponse.getResponseFetchedTime()), responseOriginatedTime);
     }
 
+    /**
+     * Test case for parsing the maxSizeInBytes of the cache implementation.
+     */
+    public void testMediatorFactoryWithSizeInBytes() {
+        OMElement mediatorElement = SynapseConfigUtils.stringToOM(
+                mediatorXml.replace("maxSize=\"20\"", "maxSizeInBytes=\"1048576\""));
+
+        CacheMediatorFactory factory = new CacheMediatorFactory();
+        CacheMediator mediator =
+                (CacheMediator) factory.createSpecificMediator(mediatorElement, new Properties());
+
+        assertEquals("Incorrect value for the maxSize", mediator.getInMemoryCacheSize(), -1);
+        assertEquals("Incorrect value for the maxSizeInBytes", mediator.getInMemoryCacheSizeInBytes(), 1048576);
+    }
+
+    /**
+     * Test case for parsing and serializing the single flight and stale while revalidate settings.
+     */
+    public void testMediatorFactoryWithSingleFlight() {
+        OMElement mediatorElement = SynapseConfigUtils.stringToOM(mediatorXml.replace("timeout=\"60\"",
+                "timeout=\"60\" singleFlight=\"true\" singleFlightTimeout=\"2000\" staleWhileRevalidate=\"30\""));
+
+        CacheMediatorFactory factory = new CacheMediatorFactory();
+        CacheMediator mediator =
+                (CacheMediator) factory.createSpecificMediator(mediatorElement, new Properties());
+
+        assertTrue("Single flight was not enabled", mediator.isSingleFlight());
+        assertEquals("Incorrect value for the singleFlightTimeout", 2000, mediator.getSingleFlightTimeout());
+        assertEquals("Incorrect value for the staleWhileRevalidate", 30, mediator.getStaleWhileRevalidate());
+
+        OMElement serializedElement = new CacheMediatorSerializer().serializeSpecificMediator(mediator);
+        assertEquals("Incorrect serialized singleFlight", "true",
+                serializedElement.getAttributeValue(new QName(CachingConstants.SINGLE_FLIGHT_STRING)));
+        assertEquals("Incorrect serialized staleWhileRevalidate", "30",
+                serializedElement.getAttributeValue(new QName(CachingConstants.STALE_WHILE_REVALIDATE_STRING)));
+    }
+
+    /**
+     * Test case for serializing the configured id, by which the responses of the mediator are invalidated on all the
+     * nodes, while a generated id is not serialized.
+     */
+    public void testMediatorSerializerWithConfiguredId() {
+        CacheMediatorFactory factory = new CacheMediatorFactory();
+        CacheMediator mediator = (CacheMediator) factory.createSpecificMediator(SynapseConfigUtils.stringToOM(
+                mediatorXml.replace("timeout=\"60\"", "timeout=\"60\" id=\"sharedCache\"")), new Properties());
+        assertEquals("sharedCache", mediator.getId());
+        OMElement serializedElement = new CacheMediatorSerializer().serializeSpecificMediator(mediator);
+        assertEquals("Configured id was not serialized", "sharedCache",
+                serializedElement.getAttributeValue(new QName(CachingConstants.ID_STRING)));
+
+        mediator = (CacheMediator) factory.createSpecificMediator(SynapseConfigUtils.stringToOM(mediatorXml),
+                new Properties());
+        serializedElement = new CacheMediatorSerializer().serializeSpecificMediator(mediator);
+        assertNull("Generated id was serialized",
+                serializedElement.getAttributeValue(new QName(CachingConstants.ID_STRING)));
+    }
+
+    /**
+     * Test case for the requests waiting for a response fetched by another request.
+     *
+     * @throws Exception when the waiting request fails.
+     */
+    public void testSingleFlightFetch() throws Exception {
+        final CachableResponse response = new CachableResponse();
+        long fetchId = response.startFetch(5000);
+        assertTrue("First request did not become the fetching request.", fetchId != 0);
+        assertEquals("Second request became the fetching request.", 0, response.startFetch(5000));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> waiter = executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return response.awaitFetch(5000);
+                }
+            });
+            response.setResponsePayload(new byte[10]);
+            response.endFetch(fetchId);
+            assertTrue("Waiting request did not get the fetched response.", waiter.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        CachableResponse abandoned = new CachableResponse();
+        assertTrue("First request did not become the fetching request.", abandoned.startFetch(50) != 0);
+        assertFalse("Wait did not time out.", abandoned.awaitFetch(50));
+        assertTrue("Abandoned fetch was not taken over.", abandoned.startFetch(50) != 0);
+    }
+
+    /**
+     * Test case for a request which stopped waiting for a response, which must not end the fetch of the request
+     * fetching it.
+     */
+    public void testOnlyFetchingRequestEndsFetch() {
+        CachableResponse response = new CachableResponse();
+        long fetchId = response.startFetch(5000);
+        assertEquals("Second request became the fetching request.", 0, response.startFetch(5000));
+        assertFalse("Wait did not time out.", response.awaitFetch(50));
+
+        // the request which stopped waiting got its own response from the backend
+        response.endFetch(0);
+        assertEquals("Fetch was ended by a request which did not start it.", 0, response.startFetch(5000));
+
+        CachableResponse takenOver = new CachableResponse();
+        long abandonedFetchId = takenOver.startFetch(50);
+        assertFalse("Wait did not time out.", takenOver.awaitFetch(50));
+        long takeOverFetchId = takenOver.startFetch(50);
+        assertTrue("Abandoned fetch was not taken over.", takeOverFetchId != 0);
+        takenOver.endFetch(abandonedFetchId);
+        assertEquals("Fetch was ended by the request which abandoned it.", 0, takenOver.startFetch(5000));
+        takenOver.endFetch(takeOverFetchId);
+        assertTrue("Fetch was not ended by the request which started it.", takenOver.startFetch(5000) != 0);
+
+        response.endFetch(fetchId);
+        assertTrue("Fetch was not ended by the request which started it.", response.startFetch(5000) != 0);
+    }
+
+    /**
+     * Test case for serving an expired response while a single request fetches a fresh one, which is served once it
+     * is collected.
+     *
+     * @throws Exception when the mediation fails.
+     */
+    public void testStaleWhileRevalidate() throws Exception {
+        CacheManager cacheManager = new CacheManager(-1);
+        CacheMediator requestMediator = createMediator(cacheManager, false);
+        requestMediator.setStaleWhileRevalidate(30);
+        requestMediator.setOnCacheHitSequence(new SequenceMediator());
+        CacheMediator collectorMediator = createMediator(cacheManager, true);
+        String staleEnvelope = "<soapenv:Envelope xmlns:soapenv=\"http://www.w3.org/2003/05/soap-envelope\">"
+                + "<soapenv:Body><result>41</result></soapenv:Body></soapenv:Envelope>";
+        String freshEnvelope = staleEnvelope.replace("41", "42");
+
+        MessageContext request = createMediationContext();
+        assertTrue("Request was not sent to the backend.", requestMediator.mediate(request));
+        collectorMediator.mediate(createResponseContext(request, staleEnvelope));
+        CachableResponse staleResponse = (CachableResponse) request.getProperty(CachingConstants.CACHED_OBJECT);
+        assertTrue("Response was not cached.", staleResponse.isPopulated());
+        staleResponse.setExpireTimeMillis(System.currentTimeMillis() - 1000);
+
+        MessageContext revalidatingRequest = createMediationContext();
+        assertTrue("Expired response was not revalidated.", requestMediator.mediate(revalidatingRequest));
+        assertSame("Expired response was not kept for the other requests.", staleResponse,
+                revalidatingRequest.getProperty(CachingConstants.STALE_OBJECT));
+
+        MessageContext concurrentRequest = createMediationContext();
+        assertFalse("Expired response was not served while it is revalidated.",
+                requestMediator.mediate(concurrentRequest));
+        XMLUnit.setIgnoreWhitespace(true);
+        assertXMLEqual("Incorrect response served while revalidating.", staleEnvelope,
+                concurrentRequest.getEnvelope().toString());
+
+        collectorMediator.mediate(createResponseContext(revalidatingRequest, freshEnvelope));
+        assertTrue("Fetch of the expired response was not ended.", staleResponse.startFetch(5000) != 0);
+
+        MessageContext nextRequest = createMediationContext();
+        assertFalse("Fresh response was not served.", requestMediator.mediate(nextRequest));
+        assertXMLEqual("Fresh response was not served after revalidation.", freshEnvelope,
+                nextRequest.getEnvelope().toString());
+    }
+
+    /**
+     * Test case for evicting responses when the cache is bounded by the size of the responses.
+     *
+     * @throws ExecutionException when loading a response to the cache fails.
+     */
+    public void testSizeBoundedCacheEviction() throws ExecutionException {
+        CacheManager cacheManager = new CacheManager(-1);
+        CacheMediator mediator = new CacheMediator(cacheManager);
+        mediator.setInMemoryCacheSizeInBytes(1000);
+        LoadingCache<String, CachableResponse> cache = mediator.getMediatorCache();
+        for (int i = 0; i < 50; i++) {
+            CachableResponse response = cache.get("hash" + i);
+            response.setResponsePayload(new byte[100]);
+            assertTrue("Response was not stored in the cache.", cacheManager.store(response));
+        }
+        assertTrue("Cache size limit exceeded.", cacheManager.getCurrentSizeInBytes() <= 1000);
+        assertTrue("Responses were not evicted.", cacheManager.getEvictionCount() > 0);
+
+        cacheManager.clean();
+        assertEquals("Cache size was not released.", 0, cacheManager.getCurrentSizeInBytes());
+    }
+
+    /**
+     * Test case for the node wide size limit of the caches.
+     *
+     * @throws ExecutionException when loading a response to the cache fails.
+     */
+    public void testNodeSizeLimit() throws ExecutionException {
+        CacheManager cacheManager = new CacheManager(150);
+        LoadingCache<String, CachableResponse> cache = new CacheMediator(cacheManager).getMediatorCache();
+
+        CachableResponse first = cache.get("first");
+        first.setResponsePayload(new byte[100]);
+        assertTrue("Response within the limit was not stored.", cacheManager.store(first));
+
+        CachableResponse second = cache.get("second");
+        second.setResponsePayload(new byte[100]);
+        assertFalse("Response exceeding the limit was stored.", cacheManager.store(second));
+        assertEquals("Incorrect size of the cached responses.", 100, cacheManager.getCurrentSizeInBytes());
+    }
+
+    /**
+     * Test case for a response refused by the node wide size limit, which must not be served to the next request.
+     *
+     * @throws Exception when the mediation fails.
+     */
+    public void testResponseExceedingNodeSizeLimitIsNotServed() throws Exception {
+        CacheManager cacheManager = new CacheManager(10);
+        CacheMediator requestMediator = createMediator(cacheManager, false);
+        CacheMediator collectorMediator = createMediator(cacheManager, true);
+
+        MessageContext request = createMediationContext();
+        assertTrue("Request was not sent to the backend.", requestMediator.mediate(request));
+
+        // the envelope has a SOAP header, hence the whole envelope is cached rather than its payload
+        MessageContext response = createResponseContext(request, "<soapenv:Envelope "
+                + "xmlns:soapenv=\"http://www.w3.org/2003/05/soap-envelope\"><soapenv:Header><token>abc</token>"
+                + "</soapenv:Header><soapenv:Body><result>42</result></soapenv:Body></soapenv:Envelope>");
+        collectorMediator.mediate(response);
+        assertEquals("Refused response was accounted in the cache size.", 0, cacheManager.getCurrentSizeInBytes());
+
+        MessageContext nextRequest = createMediationContext();
+        assertTrue("Refused response was served from the cache.", requestMediator.mediate(nextRequest));
+        CachableResponse cachedResponse =
+                (CachableResponse) nextRequest.getProperty(CachingConstants.CACHED_OBJECT);
+        assertFalse("Refused response is still populated.", cachedResponse.isPopulated());
+        assertNull("Refused response still holds the envelope.", cachedResponse.getResponseEnvelope());
+    }
+
+    /**
+     * Test case for caching only the payload of a response whose envelope can be recreated around it, and serving it
+     * without cloning.
+     *
+     * @throws Exception when the mediation fails.
+     */
+    public void testPayloadCachedWithoutEnvelope() throws Exception {
+        CacheManager cacheManager = new CacheManager(-1);
+        CacheMediator requestMediator = createMediator(cacheManager, false);
+        CacheMediator collectorMediator = createMediator(cacheManager, true);
+        String envelope = "<soapenv:Envelope xmlns:soapenv=\"http://www.w3.org/2003/05/soap-envelope\">"
+                + "<soapenv:Body><m:result xmlns:m=\"http://example.org/result\"><m:value>42</m:value></m:result>"
+                + "</soapenv:Body></soapenv:Envelope>";
+
+        MessageContext request = createMediationContext();
+        requestMediator.mediate(request);
+        collectorMediator.mediate(createResponseContext(request, envelope));
+
+        CachableResponse cachedResponse = (CachableResponse) request.getProperty(CachingConstants.CACHED_OBJECT);
+        assertTrue("Response was not cached.", cachedResponse.isPopulated());
+        assertNull("Whole envelope was cached.", cachedResponse.getResponseEnvelope());
+        assertEquals("Incorrect payload QName.", new QName("http://example.org/result", "result", "m"),
+                cachedResponse.getPayloadQName());
+
+        SOAPEnvelope first = requestMediator.createEnvelope(cachedResponse);
+        OMElement payload = first.getBody().getFirstElement();
+        assertTrue("Payload is not backed by the cached bytes.", payload instanceof OMSourcedElement);
+        assertFalse("Payload was expanded before it was accessed.", ((OMSourcedElement) payload).isExpanded());
+        XMLUnit.setIgnoreWhitespace(true);
+        assertXMLEqual("Recreated envelope differs from the response.", envelope, first.toString());
+
+        // each hit gets an envelope of its own, hence changing one does not change the cached response
+        payload.getFirstElement().setText("changed");
+        SOAPEnvelope second = requestMediator.createEnvelope(cachedResponse);
+        assertXMLEqual("Cached response was changed through a served envelope.", envelope, second.toString());
+    }
+
+    /**
+     * Test case for the envelopes which can not be recreated from their payload alone.
+     */
+    public void testCachablePayloadOfEnvelopes() {
+        CacheMediator mediator = new CacheMediator(new CacheManager(-1));
+        String soapNamespace = "xmlns:soapenv=\"http://www.w3.org/2003/05/soap-envelope\"";
+
+        assertNotNull("Payload of a plain envelope was not cachable.", mediator.getCachablePayload(parseEnvelope(
+                "<soapenv:Envelope " + soapNamespace + "><soapenv:Body><a/></soapenv:Body></soapenv:Envelope>")));
+        assertNull("Envelope with a SOAP header was reduced to its payload.", mediator.getCachablePayload(
+                parseEnvelope("<soapenv:Envelope " + soapNamespace + "><soapenv:Header><h/></soapenv:Header>"
+                        + "<soapenv:Body><a/></soapenv:Body></soapenv:Envelope>")));
+        assertNull("Envelope with a namespace declaration was reduced to its payload.", mediator.getCachablePayload(
+                parseEnvelope("<soapenv:Envelope " + soapNamespace + " xmlns:x=\"http://example.org/x\">"
+                        + "<soapenv:Body><a/></soapenv:Body></soapenv:Envelope>")));
+        assertNull("Body with two elements was reduced to its first element.", mediator.getCachablePayload(
+                parseEnvelope("<soapenv:Envelope " + soapNamespace + "><soapenv:Body><a/><b/></soapenv:Body>"
+                        + "</soapenv:Envelope>")));
+        assertNull("Fault was reduced to its payload.", mediator.getCachablePayload(parseEnvelope(
+                "<soapenv:Envelope " + soapNamespace + "><soapenv:Body><soapenv:Fault><soapenv:Code>"
+                        + "<soapenv:Value>soapenv:Receiver</soapenv:Value></soapenv:Code><soapenv:Reason>"
+                        + "<soapenv:Text xml:lang=\"en\">error</soapenv:Text></soapenv:Reason></soapenv:Fault>"
+                        + "</soapenv:Body></soapenv:Envelope>")));
+        assertNull("Empty body was reduced to a payload.", mediator.getCachablePayload(parseEnvelope(
+                "<soapenv:Envelope " + soapNamespace + "><soapenv:Body/></soapenv:Envelope>")));
+    }
+
+    /**
+     * Test case for recreating the envelope of a SOAP 1.1 response with an unqualified payload.
+     */
+    public void testCreateSoap11Envelope() {
+        CachableResponse cachedResponse = new CachableResponse();
+        cachedResponse.setResponsePayload("<result><value>42</value></result>".getBytes(StandardCharsets.UTF_8));
+        cachedResponse.setPayloadQName(new QName("result"));
+        cachedResponse.setSoapNamespaceURI(SOAP11Constants.SOAP_ENVELOPE_NAMESPACE_URI);
+
+        SOAPEnvelope envelope = new CacheMediator(new CacheManager(-1)).createEnvelope(cachedResponse);
+        assertEquals("Incorrect SOAP version.", SOAP11Constants.SOAP_ENVELOPE_NAMESPACE_URI,
+                envelope.getNamespace().getNamespaceURI());
+        assertEquals("Incorrect payload.", "42",
+                envelope.getBody().getFirstElement().getFirstElement().getText());
+    }
+
+    /**
+     * Test case for moving the evicted responses to the cache store and loading them back.
+     *
+     * @throws Exception when the test fails.
+     */
+    public void testEvictedResponsesMovedToCacheStore() throws Exception {
+        Path directory = Files.createTempDirectory("cache-store-test");
+        CacheManager cacheManager = new CacheManager(-1);
+        CacheMediator mediator = new CacheMediator(cacheManager);
+        mediator.setInMemoryCacheSize(1);
+        FileCacheStore cacheStore = new FileCacheStore();
+        Map<String, String> storeProperties = new HashMap<>();
+        storeProperties.put(FileCacheStore.DIRECTORY, directory.toString());
+        cacheStore.init(storeProperties);
+        mediator.setCacheStore(cacheStore);
+
+        LoadingCache<String, CachableResponse> cache = mediator.getMediatorCache();
+        for (int i = 0; i < 10; i++) {
+            CachableResponse response = cache.get("hash" + i);
+            response.setJson(true);
+            response.setResponsePayload(("{\"id\":" + i + "}").getBytes(StandardCharsets.UTF_8));
+            cacheManager.store(response);
+        }
+        awaitSpills(cacheManager);
+        assertTrue("Evicted responses were not moved to the cache store.", cacheStore.getSizeInBytes() > 0);
+
+        // the last response is still in memory, and loading the others evicts them to the store again
+        for (int i = 0; i < 9; i++) {
+            CachableResponse response = cache.get("hash" + i);
+            assertNotNull("Response was not loaded from the cache store.", response.getResponsePayload());
+            assertEquals("Incorrect response loaded from the cache store.", "{\"id\":" + i + "}",
+                    new String(response.getResponsePayload(), StandardCharsets.UTF_8));
+        }
+
+        mediator.destroy();
+        assertFalse("Cache store directory was not removed.", Files.exists(cacheStore.getDirectory()));
+        Files.delete(directory);
+    }
+
+    /**
+     * Test case for encoding a response for the cache store whose header is longer than 64 KB.
+     */
+    public void testCodecWithLongHeader() {
+        char[] value = new char[70000];
+        Arrays.fill(value, 'x');
+        Map<String, Object> headerProperties = new HashMap<>();
+        headerProperties.put("X-Long-Header", new String(value));
+        CachableResponse response = new CachableResponse();
+        response.setJson(true);
+        response.setResponsePayload("{}".getBytes(StandardCharsets.UTF_8));
+        response.setHeaderProperties(headerProperties);
+
+        CachableResponse decoded = CachableResponseCodec.decode(CachableResponseCodec.encode(response), "hash");
+        assertEquals("Long header was not decoded.", new String(value),
+                decoded.getHeaderProperties().get("x-long-header"));
+    }
+
+    /**
+     * Test case for an invalidation made while an evicted response is waiting to be written to the cache store.
+     *
+     * @throws Exception when the test fails.
+     */
+    public void testInvalidationDiscardsPendingSpills() throws Exception {
+        final CacheManager cacheManager = new CacheManager(-1);
+        CacheMediator mediator = new CacheMediator(cacheManager);
+        mediator.setInMemoryCacheSize(1);
+        final CountDownLatch writeStarted = new CountDownLatch(1);
+        final CountDownLatch invalidated = new CountDownLatch(1);
+        final Map<String, CachableResponse> stored = new ConcurrentHashMap<>();
+        mediator.setCacheStore(new CacheStore() {
+            @Override
+            public void init(Map<String, String> properties) {
+            }
+
+            @Override
+            public void put(String requestHash, CachableResponse response) {
+                writeStarted.countDown();
+                try {
+                    invalidated.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                stored.put(requestHash, response);
+            }
+
+            @Override
+            public CachableResponse remove(String requestHash) {
+                return stored.remove(requestHash);
+            }
+
+            @Override
+            public void clear() {
+                stored.clear();
+            }
+
+            @Override
+            public long getSizeInBytes() {
+                return stored.size();
+            }
+
+            @Override
+            public void destroy() {
+                clear();
+            }
+        });
+
+        LoadingCache<String, CachableResponse> cache = mediator.getMediatorCache();
+        for (int i = 0; i < 3; i++) {
+            CachableResponse response = cache.get("hash" + i);
+            response.setResponsePayload(new byte[10]);
+            cacheManager.store(response);
+        }
+        // the first evicted response is being written, and the second one is waiting for it
+        assertTrue("Evicted response was not written.", writeStarted.await(5, TimeUnit.SECONDS));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> invalidation = executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    cacheManager.invalidateKey("hash1");
+                }
+            });
+            invalidated.countDown();
+            invalidation.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        awaitSpills(cacheManager);
+        assertTrue("Response written before the invalidation was lost.", stored.containsKey("hash0"));
+        assertFalse("Response evicted before the invalidation was written.", stored.containsKey("hash1"));
+        mediator.destroy();
+    }
+
+    private void awaitSpills(CacheManager cacheManager) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cacheManager.getPendingSpillCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("Evicted responses were not written to the cache store.", 0,
+                cacheManager.getPendingSpillCount());
+    }
+
+    /**
+     * Test case for sharing the invalidations between the cache managers through the in JVM invalidation bus.
+     *
+     * @throws ExecutionException when loading a response to the cache fails.
+     */
+    public void testInvalidationSharedThroughLocalBus() throws ExecutionException {
+        Map<String, String> busProperties = new HashMap<>();
+        busProperties.put(LocalInvalidationBus.CHANNEL, "testInvalidationSharedThroughLocalBus");
+        LocalInvalidationBus firstBus = new LocalInvalidationBus();
+        firstBus.init(busProperties);
+        LocalInvalidationBus secondBus = new LocalInvalidationBus();
+        secondBus.init(busProperties);
+        CacheManager first = new CacheManager(-1, firstBus);
+        CacheManager second = new CacheManager(-1, secondBus);
+        try {
+            LoadingCache<String, CachableResponse> firstCache = cacheResponses(first, "hash1", "hash2");
+            LoadingCache<String, CachableResponse> secondCache = cacheResponses(second, "hash1", "hash2");
+
+            first.invalidateKey("hash1");
+            assertFalse("Key was not invalidated on the publishing node.", firstCache.asMap().containsKey("hash1"));
+            assertFalse("Key was not invalidated on the other node.", secondCache.asMap().containsKey("hash1"));
+            assertTrue("Other key was invalidated.", secondCache.asMap().containsKey("hash2"));
+
+            second.invalidateMediator("sharedCache");
+            assertNull("Mediator cache was not invalidated on the other node.", first.get("sharedCache"));
+            assertEquals("Cache size was not released.", 0, first.getCurrentSizeInBytes());
+
+            cacheResponses(second, "hash3");
+            first.invalidateAll();
+            assertNull("Cache was not invalidated on the other node.", second.get("sharedCache"));
+        } finally {
+            firstBus.stop();
+            secondBus.stop();
+        }
+    }
+
+    /**
+     * Test case for sharing the invalidations between the cache managers through the UDP invalidation bus.
+     *
+     * @throws Exception when the test fails.
+     */
+    public void testInvalidationSharedThroughUdpBus() throws Exception {
+        int firstPort = getFreePort();
+        int secondPort = getFreePort();
+        UdpInvalidationBus firstBus = createUdpBus(firstPort, secondPort, BUS_SECRET);
+        UdpInvalidationBus secondBus = createUdpBus(secondPort, firstPort, BUS_SECRET);
+        CacheManager first = new CacheManager(-1, firstBus);
+        CacheManager second = new CacheManager(-1, secondBus);
+        try {
+            cacheResponses(first, "hash1");
+            LoadingCache<String, CachableResponse> secondCache = cacheResponses(second, "hash1");
+
+            first.invalidateKey("hash1");
+            awaitInvalidation(secondCache, "hash1");
+            assertFalse("Key was not invalidated on the other node.", secondCache.asMap().containsKey("hash1"));
+        } finally {
+            firstBus.stop();
+            secondBus.stop();
+        }
+    }
+
+    /**
+     * Test case for dropping the invalidations which are not signed with the secret shared by the nodes.
+     *
+     * @throws Exception when the test fails.
+     */
+    public void testUdpBusIgnoresInvalidationsWithWrongSecret() throws Exception {
+        int firstPort = getFreePort();
+        int secondPort = getFreePort();
+        UdpInvalidationBus foreignBus = createUdpBus(firstPort, secondPort, "anotherSecret");
+        UdpInvalidationBus secondBus = createUdpBus(secondPort, firstPort, BUS_SECRET);
+        CacheManager foreign = new CacheManager(-1, foreignBus);
+        CacheManager second = new CacheManager(-1, secondBus);
+        UdpInvalidationBus firstBus = null;
+        try {
+            LoadingCache<String, CachableResponse> secondCache = cacheResponses(second, "hash1");
+            foreign.invalidateKey("hash1");
+            Thread.sleep(500);
+            assertTrue("Invalidation signed with another secret was applied.",
+                    secondCache.asMap().containsKey("hash1"));
+            foreignBus.stop();
+
+            firstBus = createUdpBus(firstPort, secondPort, BUS_SECRET);
+            CacheManager first = new CacheManager(-1, firstBus);
+            first.invalidateKey("hash1");
+            awaitInvalidation(secondCache, "hash1");
+            assertFalse("Signed invalidation was not applied.", secondCache.asMap().containsKey("hash1"));
+        } finally {
+            foreignBus.stop();
+            secondBus.stop();
+            if (firstBus != null) {
+                firstBus.stop();
+            }
+        }
+    }
+
+    /**
+     * Test case for starting a UDP invalidation bus on the port of a stopped one, as done on redeployment.
+     *
+     * @throws Exception when the test fails.
+     */
+    public void testUdpBusRestartedOnSamePort() throws Exception {
+        int port = getFreePort();
+        UdpInvalidationBus bus = createUdpBus(port, getFreePort(), BUS_SECRET);
+        new CacheManager(-1, bus);
+        assertEquals(port, bus.getLocalPort());
+        bus.stop();
+        assertEquals("Stopped bus still holds its socket.", -1, bus.getLocalPort());
+
+        UdpInvalidationBus restartedBus = createUdpBus(port, getFreePort(), BUS_SECRET);
+        try {
+            new CacheManager(-1, restartedBus);
+            assertEquals("Bus was not restarted on the same port.", port, restartedBus.getLocalPort());
+        } finally {
+            restartedBus.stop();
+        }
+    }
+
+    /**
+     * Test case for the invalidation bus shared by the cache managers of the node, which is only used while the
+     * mediators of the cache manager are deployed.
+     *
+     * @throws ExecutionException when loading a response to the cache fails.
+     */
+    public void testInvalidationSharedByCacheManagersOfNode() throws ExecutionException {
+        CacheManager first = new CacheManager();
+        CacheManager second = new CacheManager();
+        first.acquire();
+        second.acquire();
+        second.acquire();
+        try {
+            LoadingCache<String, CachableResponse> firstCache = cacheResponses(first, "hash1", "hash2");
+            LoadingCache<String, CachableResponse> secondCache = cacheResponses(second, "hash1", "hash2");
+
+            first.invalidateKey("hash1");
+            assertFalse("Key was not invalidated on the other cache manager.",
+                    secondCache.asMap().containsKey("hash1"));
+
+            second.release();
+            second.invalidateKey("hash2");
+            assertFalse("Key was not invalidated while a mediator is still deployed.",
+                    firstCache.asMap().containsKey("hash2"));
+
+            second.release();
+            cacheResponses(first, "hash3");
+            second.invalidateAll();
+            assertNotNull("Cache manager without deployed mediators shared the invalidation.",
+                    first.get("sharedCache"));
+        } finally {
+            first.release();
+            second.release();
+        }
+    }
+
+    private void awaitInvalidation(LoadingCache<String, CachableResponse> cache, String hash)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.asMap().containsKey(hash) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private LoadingCache<String, CachableResponse> cacheResponses(CacheManager cacheManager, String... hashes)
+            throws ExecutionException {
+        CacheMediator mediator = new CacheMediator(cacheManager);
+        mediator.setId("sharedCache");
+        LoadingCache<String, CachableResponse> cache = mediator.getMediatorCache();
+        for (String hash : hashes) {
+            CachableResponse response = cache.get(hash);
+            response.setResponsePayload(new byte[10]);
+            cacheManager.store(response);
+        }
+        return cache;
+    }
+
+    private CacheMediator createMediator(CacheManager cacheManager, boolean collector) {
+        CacheMediator mediator = new CacheMediator(cacheManager);
+        mediator.setId("mediationCache");
+        mediator.setCollector(collector);
+        mediator.setDigestGenerator(new FixedDigestGenerator());
+        return mediator;
+    }
+
+    /**
+     * Create a message context which can be mediated through the cache mediator.
+     *
+     * @return the created message context.
+     * @throws AxisFault when exception happens on message context creation.
+     */
+    private MessageContext createMediationContext() throws AxisFault {
+        org.apache.axis2.context.MessageContext axis2MC = new org.apache.axis2.context.MessageContext();
+        axis2MC.setConfigurationContext(new ConfigurationContext(new AxisConfiguration()));
+        axis2MC.setMessageID(UUIDGenerator.getUUID());
+        SynapseConfiguration synCfg = new SynapseConfiguration();
+        MessageContext mc = new Axis2MessageContext(axis2MC, synCfg, new Axis2SynapseEnvironment(synCfg));
+        mc.setEnvelope(OMAbstractFactory.getSOAP12Factory().getDefaultEnvelope());
+        return mc;
+    }
+
+    /**
+     * Create the context of the backend response to the given request.
+     *
+     * @param request  the request sent to the backend.
+     * @param envelope the response envelope.
+     * @return the created message context.
+     * @throws AxisFault when exception happens on message context creation.
+     */
+    private MessageContext createResponseContext(MessageContext request, String envelope) throws AxisFault {
+        MessageContext response = createMediationContext();
+        response.setResponse(true);
+        response.setProperty(CachingConstants.CACHED_OBJECT, request.getProperty(CachingConstants.CACHED_OBJECT));
+        response.setProperty(CachingConstants.STALE_OBJECT, request.getProperty(CachingConstants.STALE_OBJECT));
+        response.setProperty(CachingConstants.FETCH_ID, request.getProperty(CachingConstants.FETCH_ID));
+        response.setProperty(CachingConstants.STALE_FETCH_ID, request.getProperty(CachingConstants.STALE_FETCH_ID));
+        org.apache.axis2.context.MessageContext axis2MC = ((Axis2MessageContext) response).getAxis2MessageContext();
+        axis2MC.setProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS, new HashMap<String, String>());
+        axis2MC.setProperty(NhttpConstants.HTTP_SC, 200);
+        axis2MC.setProperty(Constants.Configuration.CONTENT_TYPE, "application/soap+xml");
+        response.setEnvelope(parseEnvelope(envelope));
+        return response;
+    }
+
+    private SOAPEnvelope parseEnvelope(String envelope) {
+        OMXMLParserWrapper builder = OMXMLBuilderFactory.createSOAPModelBuilder(
+                new ByteArrayInputStream(envelope.getBytes(StandardCharsets.UTF_8)), null);
+        return (SOAPEnvelope) builder.getDocumentElement();
+    }
+
+    /**
+     * Hashes every request to the same key.
+     */
+    private static class FixedDigestGenerator implements DigestGenerator {
+
+        @Override
+        public void init(Map<String, Object> properties) {
+        }
+
+        @Override
+        public String getDigest(org.apache.axis2.context.MessageContext msgContext) {
+            return "requestHash";
+        }
+    }
+
+    private UdpInvalidationBus createUdpBus(int port, int memberPort, String secret) {
+        Map<String, String> busProperties = new HashMap<>();
+        busProperties.put(UdpInvalidationBus.SECRET, secret);
+        busProperties.put(UdpInvalidationBus.BIND_ADDRESS, "127.0.0.1");
+        busProperties.put(UdpInvalidationBus.PORT, String.valueOf(port));
+        busProperties.put(UdpInvalidationBus.MEMBERS, "127.0.0.1:" + memberPort);
+        UdpInvalidationBus bus = new UdpInvalidationBus();
+        bus.init(busProperties);
+        return bus;
+    }
+
+    private int getFreePort() throws IOException {
+        try (DatagramSocket socket = new DatagramSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
     /**
      * Create Axis2 Message Context.
      *
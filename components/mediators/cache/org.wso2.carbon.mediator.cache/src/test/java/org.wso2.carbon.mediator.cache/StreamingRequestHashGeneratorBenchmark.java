@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.mediator.cache;
+
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.addressing.EndpointReference;
+import org.apache.axis2.context.MessageContext;
+import org.apache.synapse.config.SynapseConfigUtils;
+import org.wso2.carbon.mediator.cache.digest.DOMHASHGenerator;
+import org.wso2.carbon.mediator.cache.digest.DigestGenerator;
+import org.wso2.carbon.mediator.cache.digest.HttpRequestHashGenerator;
+import org.wso2.carbon.mediator.cache.digest.REQUESTHASHGenerator;
+import org.wso2.carbon.mediator.cache.digest.StreamingRequestHashGenerator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares the time taken by the digest generators to hash the same requests. This is a manual harness rather than a
+ * test, since the timings depend on the machine running it, and it is not run by surefire as its name does not match
+ * the test name patterns. It can be run after compiling the tests with
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=org.wso2.carbon.mediator.cache.StreamingRequestHashGeneratorBenchmark
+ *     -Dexec.args="5000 200"
+ * </pre>
+ * where the arguments are the number of measured iterations and the number of elements in the payload.
+ */
+public class StreamingRequestHashGeneratorBenchmark {
+
+    private static final String TO_ADDRESS = "http://localhost:8280/services/StockQuoteProxy";
+
+    private static final int DEFAULT_ITERATIONS = 5000;
+
+    private static final int DEFAULT_SYMBOLS = 200;
+
+    public static void main(String[] args) throws AxisFault {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+        int symbols = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SYMBOLS;
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Accept", "application/xml");
+        headers.put("Content-Type", "application/xml");
+        headers.put("Host", "localhost:8280");
+        String payload = getPayload(symbols);
+
+        DigestGenerator[] generators = {new DOMHASHGenerator(), new REQUESTHASHGenerator(),
+                new HttpRequestHashGenerator(), new StreamingRequestHashGenerator()};
+        for (DigestGenerator generator : generators) {
+            Map<String, Object> properties = new HashMap<>();
+            properties.put(CachingConstants.INCLUDED_HEADERS_PROPERTY, new String[]{""});
+            properties.put(CachingConstants.EXCLUDED_HEADERS_PROPERTY, new String[]{""});
+            properties.put(CachingConstants.PERMANENTLY_EXCLUDED_HEADERS_STRING,
+                    CachingConstants.PERMANENTLY_EXCLUDED_HEADERS);
+            generator.init(properties);
+
+            // the first requests warm up the generator, and every request has its own message as in the mediation
+            for (int i = 0; i < iterations; i++) {
+                generator.getDigest(createMessageContext(payload, headers));
+            }
+            long elapsed = 0;
+            for (int i = 0; i < iterations; i++) {
+                MessageContext msgContext = createMessageContext(payload, headers);
+                long start = System.nanoTime();
+                generator.getDigest(msgContext);
+                elapsed += System.nanoTime() - start;
+            }
+            System.out.println(generator.getClass().getSimpleName() + " : " + (elapsed / iterations)
+                    + " ns per request");
+        }
+    }
+
+    private static MessageContext createMessageContext(String payload, Map<String, String> headers)
+            throws AxisFault {
+        MessageContext msgContext = new MessageContext();
+        msgContext.setTo(new EndpointReference(TO_ADDRESS));
+        msgContext.setProperty(MessageContext.TRANSPORT_HEADERS, new HashMap<>(headers));
+        SOAPEnvelope envelope = OMAbstractFactory.getSOAP11Factory().getDefaultEnvelope();
+        envelope.getBody().addChild(SynapseConfigUtils.stringToOM(payload));
+        msgContext.setEnvelope(envelope);
+        return msgContext;
+    }
+
+    private static String getPayload(int symbols) {
+        StringBuilder payload = new StringBuilder("<m0:getQuotes xmlns:m0=\"http://services.samples\">");
+        for (int i = 0; i < symbols; i++) {
+            payload.append("<m0:request><m0:symbol>SYM").append(i).append("</m0:symbol></m0:request>");
+        }
+        return payload.append("</m0:getQuotes>").toString();
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.mediator.cache;
+
+import junit.framework.TestCase;
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.addressing.EndpointReference;
+import org.apache.axis2.context.MessageContext;
+import org.apache.synapse.config.SynapseConfigUtils;
+import org.wso2.carbon.mediator.cache.digest.DOMHASHGenerator;
+import org.wso2.carbon.mediator.cache.digest.DigestGenerator;
+import org.wso2.carbon.mediator.cache.digest.StreamingRequestHashGenerator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Test the functionality of the {@link StreamingRequestHashGenerator}.
+ */
+public class StreamingRequestHashGeneratorTest extends TestCase {
+
+    private static final String TO_ADDRESS = "http://localhost:8280/services/StockQuoteProxy";
+
+    public void testEquivalentRequestsHaveSameDigest() throws AxisFault {
+        DigestGenerator generator = createGenerator("", "");
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Accept", "application/xml");
+        headers.put("X-Tenant", "carbon.super");
+        Map<String, String> reorderedHeaders = new TreeMap<>();
+        reorderedHeaders.put("x-tenant", "carbon.super");
+        reorderedHeaders.put("accept", "application/xml");
+
+        assertEquals("Equivalent requests have different digests.",
+                generator.getDigest(createMessageContext(getPayload(10), headers)),
+                generator.getDigest(createMessageContext(getPayload(10), reorderedHeaders)));
+    }
+
+    public void testDifferentRequestsHaveDifferentDigests() throws AxisFault {
+        DigestGenerator generator = createGenerator("", "");
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Accept", "application/xml");
+        String digest = generator.getDigest(createMessageContext(getPayload(10), headers));
+
+        assertFalse("Requests with different payloads have the same digest.",
+                digest.equals(generator.getDigest(createMessageContext(getPayload(11), headers))));
+
+        Map<String, String> otherHeaders = new HashMap<>();
+        otherHeaders.put("Accept", "application/json");
+        assertFalse("Requests with different headers have the same digest.",
+                digest.equals(generator.getDigest(createMessageContext(getPayload(10), otherHeaders))));
+    }
+
+    public void testHeaderSelection() throws AxisFault {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Accept", "application/xml");
+        headers.put("X-Request-Id", "1");
+        Map<String, String> otherHeaders = new HashMap<>();
+        otherHeaders.put("Accept", "application/xml");
+        otherHeaders.put("X-Request-Id", "2");
+
+        DigestGenerator excluding = createGenerator("", "x-request-id");
+        assertEquals("Excluded header was hashed.",
+                excluding.getDigest(createMessageContext(getPayload(1), headers)),
+                excluding.getDigest(createMessageContext(getPayload(1), otherHeaders)));
+
+        DigestGenerator including = createGenerator("Accept", "");
+        assertEquals("Header which is not included was hashed.",
+                including.getDigest(createMessageContext(getPayload(1), headers)),
+                including.getDigest(createMessageContext(getPayload(1), otherHeaders)));
+    }
+
+    /**
+     * The Date header is hashed like any other header unless it is excluded by the mediator configuration.
+     */
+    public void testDynamicHeadersOnlyExcludedWhenConfigured() throws AxisFault {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Date", "Sun, 18 Oct 2026 10:00:00 GMT");
+        Map<String, String> otherHeaders = new HashMap<>();
+        otherHeaders.put("Date", "Sun, 18 Oct 2026 10:00:01 GMT");
+
+        DigestGenerator generator = createGenerator("", "");
+        assertFalse("Date header was not hashed.", generator.getDigest(createMessageContext(getPayload(1), headers))
+                .equals(generator.getDigest(createMessageContext(getPayload(1), otherHeaders))));
+
+        DigestGenerator excluding = createGenerator("", "Date");
+        assertEquals("Excluded Date header was hashed.",
+                excluding.getDigest(createMessageContext(getPayload(1), headers)),
+                excluding.getDigest(createMessageContext(getPayload(1), otherHeaders)));
+    }
+
+    /**
+     * The payload is canonicalised as its DOMHASH, hence namespace prefixes and attribute order do not change the
+     * digest while whitespace does.
+     */
+    public void testPayloadCanonicalisedAsDomHash() throws AxisFault {
+        DigestGenerator generator = createGenerator("", "");
+        Map<String, String> headers = new HashMap<>();
+        String payload = "<m0:getQuote xmlns:m0=\"http://services.samples\" a=\"1\" b=\"2\">"
+                + "<m0:symbol>IBM</m0:symbol></m0:getQuote>";
+        String prefixedPayload = "<ns:getQuote b=\"2\" a=\"1\" xmlns:ns=\"http://services.samples\">"
+                + "<ns:symbol>IBM</ns:symbol></ns:getQuote>";
+        String indentedPayload = payload.replace("<m0:symbol>", "\n  <m0:symbol>");
+        String digest = generator.getDigest(createMessageContext(payload, headers));
+
+        assertEquals("Payloads which differ only in prefixes and attribute order have different digests.", digest,
+                generator.getDigest(createMessageContext(prefixedPayload, headers)));
+        assertFalse("Payloads which differ in whitespace have the same digest.",
+                digest.equals(generator.getDigest(createMessageContext(indentedPayload, headers))));
+    }
+
+    /**
+     * The payload digest is the same as the DOMHASH computed by the {@link DOMHASHGenerator}.
+     */
+    public void testPayloadDigestMatchesDomHash() throws AxisFault {
+        StreamingRequestHashGenerator generator = new StreamingRequestHashGenerator();
+        generator.init(createProperties("", ""));
+        DOMHASHGenerator domHashGenerator = new DOMHASHGenerator();
+        String[] payloads = {getPayload(3),
+                "<a xmlns=\"urn:a\" xmlns:b=\"urn:b\" b:x=\"1\" y=\"2\">text<?pi data?><b:c/> more <!--c--></a>",
+                "<a>\n  <b><![CDATA[x < y]]></b>\n</a>"};
+        for (String payload : payloads) {
+            OMElement body = createMessageContext(payload, new HashMap<String, String>()).getEnvelope().getBody();
+            assertTrue("Payload digest differs from the DOMHASH of " + payload,
+                    Arrays.equals(domHashGenerator.getDigest(body, DOMHASHGenerator.MD5_DIGEST_ALGORITHM),
+                            generator.getPayloadDigest(body)));
+        }
+    }
+
+    private DigestGenerator createGenerator(String includedHeaders, String excludedHeaders) {
+        DigestGenerator generator = new StreamingRequestHashGenerator();
+        generator.init(createProperties(includedHeaders, excludedHeaders));
+        return generator;
+    }
+
+    private Map<String, Object> createProperties(String includedHeaders, String excludedHeaders) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(CachingConstants.INCLUDED_HEADERS_PROPERTY, includedHeaders.split(","));
+        properties.put(CachingConstants.EXCLUDED_HEADERS_PROPERTY, excludedHeaders.split(","));
+        properties.put(CachingConstants.PERMANENTLY_EXCLUDED_HEADERS_STRING,
+                CachingConstants.PERMANENTLY_EXCLUDED_HEADERS);
+        return properties;
+    }
+
+    private MessageContext createMessageContext(String payload, Map<String, String> headers) throws AxisFault {
+        MessageContext msgContext = new MessageContext();
+        msgContext.setTo(new EndpointReference(TO_ADDRESS));
+        msgContext.setProperty(MessageContext.TRANSPORT_HEADERS, headers);
+        SOAPEnvelope envelope = OMAbstractFactory.getSOAP11Factory().getDefaultEnvelope();
+        envelope.getBody().addChild(SynapseConfigUtils.stringToOM(payload));
+        msgContext.setEnvelope(envelope);
+        return msgContext;
+    }
+
+    private String getPayload(int symbols) {
+        StringBuilder payload = new StringBuilder("<m0:getQuotes xmlns:m0=\"http://services.samples\">");
+        for (int i = 0; i < symbols; i++) {
+            payload.append("<m0:request><m0:symbol>SYM").append(i).append("</m0:symbol></m0:request>");
+        }
+        return payload.append("</m0:getQuotes>").toString();
+    }
+}
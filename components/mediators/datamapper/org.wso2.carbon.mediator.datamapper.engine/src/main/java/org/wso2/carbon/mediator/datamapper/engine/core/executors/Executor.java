@@ -21,6 +21,8 @@ import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.SchemaExceptio
 import org.wso2.carbon.mediator.datamapper.engine.core.mapper.MappingResource;
 import org.wso2.carbon.mediator.datamapper.engine.core.models.Model;
 
+import java.util.Map;
+
 /**
  * This interface should be implemented by script executors of Data Mapper Engine
  */
@@ -37,4 +39,17 @@ public interface Executor {
      */
     public Model execute(MappingResource mappingResource, String inputVariable, String properties)
             throws JSException, SchemaException;
+
+    /**
+     * Method to execute the mapping config in the {@link MappingResource} on
+     * input variable with the runtime properties as maps of each scope, and returns the output model
+     *
+     * @param mappingResource mapping resource model
+     * @param inputVariable   input variable
+     * @param properties      runtime properties, single map for each scope
+     * @return model output model
+     * @throws JSException if mapping throws an exception
+     */
+    public Model execute(MappingResource mappingResource, String inputVariable,
+                         Map<String, Map<String, Object>> properties) throws JSException, SchemaException;
 }
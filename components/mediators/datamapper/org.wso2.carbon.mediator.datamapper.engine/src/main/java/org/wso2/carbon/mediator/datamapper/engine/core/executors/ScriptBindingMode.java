@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.datamapper.engine.core.executors;
+
+/**
+ * This enum type represent the ways the runtime properties are passed to the mapping function
+ */
+public enum ScriptBindingMode {
+
+    /**
+     * The runtime properties are serialized to JSON and parsed again by the script engine, which works with all the
+     * script engines.
+     */
+    JSON,
+
+    /**
+     * The runtime properties are bound to the script engine as Java maps, which Nashorn accesses with the property
+     * syntax without any JSON round trip. Executors backed by Rhino fall back to {@link #JSON}.
+     */
+    NATIVE;
+
+    /**
+     * @param mode name of the mode, case insensitive
+     * @return the binding mode, or {@link #JSON} if the name is null or unknown
+     */
+    public static ScriptBindingMode fromString(String mode) {
+        if (mode != null) {
+            for (ScriptBindingMode bindingMode : values()) {
+                if (bindingMode.name().equalsIgnoreCase(mode.trim())) {
+                    return bindingMode;
+                }
+            }
+        }
+        return JSON;
+    }
+}
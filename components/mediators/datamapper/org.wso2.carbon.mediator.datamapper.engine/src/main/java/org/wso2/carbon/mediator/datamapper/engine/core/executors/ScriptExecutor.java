@@ -16,25 +16,30 @@
  */
 package org.wso2.carbon.mediator.datamapper.engine.core.executors;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.sun.phobos.script.javascript.RhinoScriptEngineFactory;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.JSException;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.SchemaException;
 import org.wso2.carbon.mediator.datamapper.engine.core.mapper.JSFunction;
+import org.wso2.carbon.mediator.datamapper.engine.core.mapper.MappingPlan;
 import org.wso2.carbon.mediator.datamapper.engine.core.mapper.MappingResource;
 import org.wso2.carbon.mediator.datamapper.engine.core.models.MapModel;
 import org.wso2.carbon.mediator.datamapper.engine.core.models.Model;
 import org.wso2.carbon.mediator.datamapper.engine.core.models.StringModel;
-import org.wso2.carbon.mediator.datamapper.engine.output.formatters.MapOutputFormatter;
 import org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineUtils;
 import org.wso2.carbon.mediator.datamapper.engine.utils.OpenJDKNashornFactoryWrapper;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants.DEFAULT_ENGINE_NAME;
 import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants.ENCODE_CHAR_HYPHEN;
@@ -54,6 +59,14 @@ public class ScriptExecutor implements Executor {
     private static final Log log = LogFactory.getLog(ScriptExecutor.class);
     private ScriptEngine scriptEngine;
     Bindings bindings;
+    private boolean nashorn;
+    private final ScriptBindingMode bindingMode;
+
+    /* Mapping functions compiled by the engine of this executor. An executor is used by a single thread at a time,
+       hence these are not synchronized. The functions are weakly referenced so that the functions of undeployed
+       mappings can be collected. */
+    private final Map<JSFunction, CompiledMapping> jsonCompiledMappings = new WeakHashMap<>();
+    private final Map<JSFunction, CompiledMapping> nativeCompiledMappings = new WeakHashMap<>();
 
     /**
      * Create a script executor of the provided script executor type
@@ -61,6 +74,26 @@ public class ScriptExecutor implements Executor {
      * @param scriptExecutorType
      */
     public ScriptExecutor(ScriptExecutorType scriptExecutorType) {
+        this(scriptExecutorType, ScriptBindingMode.JSON);
+    }
+
+    /**
+     * Create a script executor of the provided script executor type, which passes the runtime properties to the
+     * mapping functions with the given binding mode
+     *
+     * @param scriptExecutorType type of the script engine
+     * @param bindingMode        way the runtime properties are passed to the mapping functions
+     */
+    public ScriptExecutor(ScriptExecutorType scriptExecutorType, ScriptBindingMode bindingMode) {
+        createScriptEngine(scriptExecutorType);
+        if (bindingMode == ScriptBindingMode.NATIVE && !nashorn) {
+            log.warn("Native script bindings are only supported with Nashorn, using JSON bindings with Rhino");
+            bindingMode = ScriptBindingMode.JSON;
+        }
+        this.bindingMode = bindingMode;
+    }
+
+    private void createScriptEngine(ScriptExecutorType scriptExecutorType) {
         ScriptEngineManager scriptEngineManager = new ScriptEngineManager();
         switch (scriptExecutorType) {
             case NASHORN:
@@ -72,6 +105,7 @@ public class ScriptExecutor implements Executor {
                         // Try getting openjdk nashorn engine from open-jdk-nashorn jar in the lib folder
                         scriptEngine = OpenJDKNashornFactoryWrapper.getOpenJDKNashornFactory().getScriptEngine();
                         bindings = scriptEngine.createBindings();
+                        nashorn = true;
                         log.debug("Setting OpenJDK Nashorn as Script Engine");
                         break;
                     } catch (Exception e) {
@@ -85,6 +119,7 @@ public class ScriptExecutor implements Executor {
                 } else {
                     scriptEngine = scriptEngineManager.getEngineByName(NASHORN_ENGINE_NAME);
                     bindings = scriptEngine.createBindings();
+                    nashorn = true;
                     log.debug("Setting Nashorn as Script Engine");
                     break;
                 }
@@ -106,41 +141,38 @@ public class ScriptExecutor implements Executor {
     @Override
     public Model execute(MappingResource mappingResource, String inputVariable, String properties)
             throws JSException, SchemaException {
-        try {
-            // Compile Data-mapper JS function binding helper
-            String helperJSFunction = "var " + PROPERTIES_OBJECT_NAME + " = JSON.parse(" + PROPERTIES_IDENTIFIER + ");\n" +
-                    "var " + getInputVariable(mappingResource.getInputSchema().getName()) + " = JSON.parse(" + INPUT_VARIABLE_IDENTIFIER + ");\n";
-
-            bindings.put(PROPERTIES_IDENTIFIER, properties);
-            bindings.put(INPUT_VARIABLE_IDENTIFIER, inputVariable);
-
-            // Get the updated function
-            JSFunction jsFunction = mappingResource.getFunction();
+        bindings.put(PROPERTIES_IDENTIFIER, properties);
+        return execute(inputVariable, getCompiledMapping(mappingResource, ScriptBindingMode.JSON));
+    }
 
-            if (jsFunction.getBindingHelperFunction() != null) {
-                jsFunction.getBindingHelperFunction().eval(bindings);
-            } else {
-                scriptEngine.eval(helperJSFunction, bindings);
-            }
-            if (jsFunction.getCompiledBody() != null) {
-                jsFunction.getCompiledBody().eval(bindings);
-            } else {
-                scriptEngine.eval(jsFunction.getFunctionBody(), bindings);
-            }
-            Object result;
-            if (jsFunction.getCompiledName() != null) {
-                result = jsFunction.getCompiledName().eval(bindings);
-            } else {
-                result = scriptEngine.eval(jsFunction.getFunctionName(), bindings);
+    @Override
+    public Model execute(MappingResource mappingResource, String inputVariable,
+                         Map<String, Map<String, Object>> properties) throws JSException, SchemaException {
+        if (bindingMode == ScriptBindingMode.NATIVE) {
+            bindings.put(PROPERTIES_OBJECT_NAME, properties);
+        } else {
+            try {
+                bindings.put(PROPERTIES_IDENTIFIER, MappingPlan.getObjectMapper().writeValueAsString(properties));
+            } catch (JsonProcessingException e) {
+                throw new JSException("Error while parsing the input properties. " + e.getMessage(), e);
             }
+        }
+        return execute(inputVariable, getCompiledMapping(mappingResource, bindingMode));
+    }
+
+    private Model execute(String inputVariable, CompiledMapping compiledMapping) throws JSException {
+        try {
+            bindings.put(INPUT_VARIABLE_IDENTIFIER, inputVariable);
+            compiledMapping.helper.eval(bindings);
+            compiledMapping.body.eval(bindings);
+            Object result = compiledMapping.name.eval(bindings);
             if (result instanceof Map) {
                 return new MapModel((Map<String, Object>) result);
             } else if (result instanceof String) {
                 // Fix: https://github.com/wso2/product-ei/issues/5290
                 result = ((String) result).replace(ENCODE_CHAR_HYPHEN, HYPHEN);
                 return new StringModel((String) result);
-            } else if (result != null && result.getClass().toString()
-                    .contains(MapOutputFormatter.RHINO_NATIVE_ARRAY_FULL_QUALIFIED_CLASS_NAME)) {
+            } else if (DataMapperEngineUtils.isNativeArray(result)) {
                 return new MapModel(DataMapperEngineUtils.getMapFromNativeArray(result));
             }
         } catch (ScriptException e) {
@@ -149,7 +181,97 @@ public class ScriptExecutor implements Executor {
         throw new JSException("Failed to execute mapping function");
     }
 
-    private String getInputVariable(String inputSchemaName) throws ScriptException {
+    /**
+     * Returns the scripts of a mapping function compiled by the engine of this executor, compiling them when the
+     * function is executed by this executor initially.
+     */
+    private CompiledMapping getCompiledMapping(MappingResource mappingResource, ScriptBindingMode mode)
+            throws JSException, SchemaException {
+        JSFunction jsFunction = mappingResource.getFunction();
+        Map<JSFunction, CompiledMapping> compiledMappings =
+                mode == ScriptBindingMode.NATIVE ? nativeCompiledMappings : jsonCompiledMappings;
+        CompiledMapping compiledMapping = compiledMappings.get(jsFunction);
+        if (compiledMapping == null) {
+            String inputVariableName = getInputVariable(mappingResource.getInputSchema().getName());
+            String helperJSFunction = "var " + inputVariableName + " = JSON.parse(" + INPUT_VARIABLE_IDENTIFIER + ");\n";
+            if (mode == ScriptBindingMode.JSON) {
+                helperJSFunction = "var " + PROPERTIES_OBJECT_NAME + " = JSON.parse(" + PROPERTIES_IDENTIFIER + ");\n"
+                        + helperJSFunction;
+            }
+            try {
+                compiledMapping = new CompiledMapping(compile(helperJSFunction), compile(jsFunction.getFunctionBody()),
+                        compile(jsFunction.getFunctionName()));
+            } catch (ScriptException e) {
+                throw new JSException("Script engine unable to compile the script " + e);
+            }
+            compiledMappings.put(jsFunction, compiledMapping);
+        }
+        return compiledMapping;
+    }
+
+    private CompiledScript compile(final String script) throws ScriptException {
+        if (scriptEngine instanceof Compilable) {
+            return ((Compilable) scriptEngine).compile(script);
+        }
+        return new CompiledScript() {
+            @Override
+            public Object eval(ScriptContext context) throws ScriptException {
+                return scriptEngine.eval(script, context);
+            }
+
+            @Override
+            public ScriptEngine getEngine() {
+                return scriptEngine;
+            }
+        };
+    }
+
+    /**
+     * Runs a trivial script with the engine of this executor, so that the engine is initialized before the executor
+     * maps its first message.
+     *
+     * @throws JSException if the engine fails to run the script
+     */
+    public void warmUp() throws JSException {
+        try {
+            scriptEngine.eval("JSON.parse(JSON.stringify({}));", scriptEngine.createBindings());
+        } catch (ScriptException e) {
+            throw new JSException("Script engine unable to execute the warm up script " + e);
+        }
+    }
+
+    private String getInputVariable(String inputSchemaName) {
         return "input" + inputSchemaName.replace(':', '_').replace('=', '_').replace(',', '_').replace(HYPHEN, ENCODE_CHAR_HYPHEN);
     }
+
+    /**
+     * @return the way the runtime properties are passed to the mapping functions by this executor
+     */
+    public ScriptBindingMode getBindingMode() {
+        return bindingMode;
+    }
+
+    /**
+     * @param mode binding mode the mapping functions are compiled for
+     * @return number of mapping functions compiled by the engine of this executor for the binding mode
+     */
+    int getCompiledMappingCount(ScriptBindingMode mode) {
+        return (mode == ScriptBindingMode.NATIVE ? nativeCompiledMappings : jsonCompiledMappings).size();
+    }
+
+    /**
+     * Scripts of a mapping function compiled by the engine of an executor
+     */
+    private static final class CompiledMapping {
+
+        private final CompiledScript helper;
+        private final CompiledScript body;
+        private final CompiledScript name;
+
+        private CompiledMapping(CompiledScript helper, CompiledScript body, CompiledScript name) {
+            this.helper = helper;
+            this.body = body;
+            this.name = name;
+        }
+    }
 }
@@ -18,16 +18,29 @@ package org.wso2.carbon.mediator.datamapper.engine.core.executors;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.ExecutorPoolExhaustedException;
+import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.ExecutorPoolShutdownException;
 
-import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants
-        .DEFAULT_DATAMAPPER_ENGINE_POOL_SIZE;
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 /**
  * This class act as a factory to get the requested script executor
  */
 public class ScriptExecutorFactory {
 
-    private static ScriptExecutorPool executorPool = null;
+    /**
+     * Name of the MBean of the executor pool, registered along with the statistics MBeans of synapse.
+     */
+    public static final String EXECUTOR_POOL_MBEAN_NAME =
+            "org.apache.synapse:Type=DataMapperScriptExecutorPool,Name=ScriptExecutorPool";
+
+    private static volatile ScriptExecutorPool executorPool = null;
+    private static volatile ScriptExecutorPoolConfig executorPoolConfig = null;
+    /* Number of acquisitions of the executor pool which are not released yet */
+    private static int poolUsers = 0;
     private static ScriptExecutorType scriptExecutorType = ScriptExecutorType.NASHORN;
     private static final Log log = LogFactory.getLog(ScriptExecutorFactory.class);
 
@@ -41,23 +54,94 @@ public class ScriptExecutorFactory {
      * This method will return the script executor according to the given {@link
      * ScriptExecutorType}
      *
+     * @param executorPoolSize size of the executor pool, used if the pool is not initialized yet
      * @return script executor
+     * @throws InterruptedException           if the thread is interrupted while waiting for an executor
+     * @throws ExecutorPoolExhaustedException if no executor becomes available within the borrow timeout
+     * @throws ExecutorPoolShutdownException  if the pool is shut down before an executor becomes available
      */
-    public static Executor getScriptExecutor(String executorPoolSize) throws InterruptedException {
-        if (executorPool == null) {
-            initializeExecutorPool(executorPoolSize);
+    public static Executor getScriptExecutor(String executorPoolSize)
+            throws InterruptedException, ExecutorPoolExhaustedException, ExecutorPoolShutdownException {
+        return getExecutorPool(executorPoolSize).take();
+    }
+
+    /**
+     * Returns the executor pool, creating it if it is not initialized yet. The pool is created with the configuration
+     * it is acquired with, or as a fixed size pool of the given size if it is not acquired.
+     *
+     * @param executorPoolSize size of the executor pool, used if the pool is neither initialized nor acquired yet
+     * @return the executor pool
+     */
+    public static ScriptExecutorPool getExecutorPool(String executorPoolSize) {
+        ScriptExecutorPool pool = executorPool;
+        if (pool == null) {
+            ScriptExecutorPoolConfig config = executorPoolConfig;
+            if (config == null) {
+                config = ScriptExecutorPoolConfig.fromPoolSize(executorPoolSize);
+            }
+            pool = initializeExecutorPool(config);
+        }
+        return pool;
+    }
+
+    /**
+     * Acquires the executor pool for a deployed mediator. The pool is created with the given configuration, at once if
+     * warm up is enabled or else when a script executor is requested initially. The configuration has no effect if the
+     * pool is already initialized. Each acquisition must be released with {@link #releaseExecutorPool()}.
+     *
+     * @param config sizing and timeouts of the executor pool
+     */
+    public static synchronized void acquireExecutorPool(ScriptExecutorPoolConfig config) {
+        poolUsers++;
+        if (executorPool != null) {
+            return;
+        }
+        if (config.isWarmUp()) {
+            // create the script executors at deployment, rather than while mapping the first messages
+            initializeExecutorPool(config);
+        } else {
+            executorPoolConfig = config;
+        }
+    }
+
+    /**
+     * Releases an acquisition of the executor pool. The pool is shut down once it is released by all the mediators
+     * which acquired it, and a new pool is created if a script executor is requested afterwards.
+     */
+    public static synchronized void releaseExecutorPool() {
+        if (poolUsers == 0 || --poolUsers > 0) {
+            return;
+        }
+        shutdownExecutorPool();
+    }
+
+    /**
+     * Shuts down the executor pool, whether or not it is acquired.
+     */
+    static synchronized void shutdownExecutorPool() {
+        poolUsers = 0;
+        ScriptExecutorPool pool = executorPool;
+        executorPool = null;
+        executorPoolConfig = null;
+        if (pool != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Shutting down the " + pool);
+            }
+            unregisterExecutorPoolMBean();
+            pool.shutdown();
         }
-        return executorPool.take();
     }
 
     /**
      * Initialize a script executors pool. If Java8, use Nashorn as the script engine or if Java7
      * or 6 use Rhino
-     * which is the default javascript engine provided in Java
+     * which is the default javascript engine provided in Java. If the pool is already initialized it is returned
+     * as it is.
      *
-     * @param executorPoolSizeStr size of the executor pool
+     * @param config sizing and timeouts of the executor pool
+     * @return the executor pool
      */
-    private synchronized static void initializeExecutorPool(String executorPoolSizeStr) {
+    public static synchronized ScriptExecutorPool initializeExecutorPool(ScriptExecutorPoolConfig config) {
         if (executorPool == null) {
             String javaVersion = System.getProperty("java.version");
             if (javaVersion.startsWith("1.7") || javaVersion.startsWith("1.6")) {
@@ -66,22 +150,57 @@ public class ScriptExecutorFactory {
             } else {
                 log.debug("Script Engine set to Nashorn");
             }
+            if (log.isDebugEnabled()) {
+                log.debug("Creating the script executor pool with " + config);
+            }
+            executorPool = new ScriptExecutorPool(scriptExecutorType, config);
+            registerExecutorPoolMBean(executorPool);
+        }
+        return executorPool;
+    }
 
-            int executorPoolSize = DEFAULT_DATAMAPPER_ENGINE_POOL_SIZE;
-            if (executorPoolSizeStr != null) {
-                executorPoolSize = Integer.parseInt(executorPoolSizeStr);
-                log.debug("Script executor pool size set to " + executorPoolSize);
-            } else {
-                log.debug("Using default script executor pool size " + executorPoolSize);
+    /**
+     * Registers the MBean of the executor pool, replacing the MBean of a pool which is not unregistered.
+     */
+    private static void registerExecutorPoolMBean(ScriptExecutorPool pool) {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(EXECUTOR_POOL_MBEAN_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(pool, objectName);
+        } catch (JMException e) {
+            log.warn("Unable to register the MBean of the data mapper script executor pool", e);
+        }
+    }
+
+    private static void unregisterExecutorPoolMBean() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(EXECUTOR_POOL_MBEAN_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
             }
-            executorPool = new ScriptExecutorPool(scriptExecutorType, executorPoolSize);
+        } catch (JMException e) {
+            log.warn("Unable to unregister the MBean of the data mapper script executor pool", e);
         }
     }
 
     /**
-     * This method will release the script executor to the pool
+     * @return the script executor pool, or null if it is not initialized yet
+     */
+    public static ScriptExecutorPool getExecutorPool() {
+        return executorPool;
+    }
+
+    /**
+     * This method will release the script executor to the pool. The executor is discarded if the pool is shut down.
      */
     public static void releaseScriptExecutor(Executor executor) throws InterruptedException {
-        executorPool.put(executor);
+        ScriptExecutorPool pool = executorPool;
+        if (pool != null) {
+            pool.put(executor);
+        }
     }
 }
@@ -14,35 +14,373 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-
 package org.wso2.carbon.mediator.datamapper.engine.core.executors;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.ExecutorPoolExhaustedException;
+import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.ExecutorPoolShutdownException;
+import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.JSException;
+
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants
+        .DEFAULT_DATAMAPPER_ENGINE_POOL_BORROW_TIMEOUT;
+
+/**
+ * Pool of the script executors used by the data mapper engine.
+ * <p>
+ * The pool creates executors on demand up to its maximum size and discards the executors above its minimum size once
+ * they are idle for the idle timeout. Idle executors are reused in last in first out order, so that the executors
+ * which are not needed under the current load become idle and are evicted. When all the executors are busy a borrower
+ * waits until an executor is returned, and fails with an {@link ExecutorPoolExhaustedException} once it has waited for
+ * the borrow timeout. A borrower only waits indefinitely if a negative borrow timeout is configured. Borrowers fail
+ * with an {@link ExecutorPoolShutdownException} once the pool is shut down, including the ones which are waiting.
+ * </p>
+ */
+public class ScriptExecutorPool implements ScriptExecutorPoolMBean {
+
+    private static final Log log = LogFactory.getLog(ScriptExecutorPool.class);
+
+    /* Queued when the pool is shut down to wake the waiting borrowers, each of which queues it again for the next */
+    private static final IdleExecutor SHUTDOWN_MARKER = new IdleExecutor(null);
+
+    private final ScriptExecutorType executorType;
+    private final ScriptExecutorPoolConfig config;
+
+    /* Idle executors, the most recently released one first */
+    private final BlockingDeque<IdleExecutor> idleExecutors = new LinkedBlockingDeque<>();
+
+    /* Number of executors created by the pool which are not evicted, including the borrowed ones */
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger activeCount = new AtomicInteger();
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong exhaustedCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
 
-public class ScriptExecutorPool {
+    private ScheduledExecutorService evictor;
 
-    private BlockingQueue<Executor> executors;
+    private volatile boolean shutdown;
 
+    /**
+     * Create a fixed size pool
+     *
+     * @param executorType     type of the script executors
+     * @param executorPoolSize number of executors in the pool
+     */
     public ScriptExecutorPool(ScriptExecutorType executorType, int executorPoolSize) {
-        executors = new LinkedBlockingQueue<>();
-        for (int i = 0; i < executorPoolSize; i++) {
-            Executor executor = createScriptExecutor(executorType);
-            if (executor != null) {
-                executors.add(executor);
+        this(executorType, new ScriptExecutorPoolConfig(executorPoolSize, executorPoolSize,
+                DEFAULT_DATAMAPPER_ENGINE_POOL_BORROW_TIMEOUT, 0, false));
+    }
+
+    /**
+     * Create a pool with the minimum number of executors. If warm up is enabled the engines of the executors are
+     * initialized before the pool is returned.
+     *
+     * @param executorType type of the script executors
+     * @param config       sizing and timeouts of the pool
+     */
+    public ScriptExecutorPool(ScriptExecutorType executorType, ScriptExecutorPoolConfig config) {
+        this.executorType = executorType;
+        this.config = config;
+        for (int i = 0; i < config.getMinSize(); i++) {
+            Executor executor = createIfBelowMaxSize();
+            if (executor == null) {
+                break;
             }
+            if (config.isWarmUp()) {
+                warmUp(executor);
+            }
+            idleExecutors.offerLast(new IdleExecutor(executor));
+        }
+        if (config.getIdleTimeoutMillis() > 0 && config.getMinSize() < config.getMaxSize()) {
+            startEvictor();
         }
     }
 
     private Executor createScriptExecutor(ScriptExecutorType executorType) {
-        return new ScriptExecutor(executorType);
+        return new ScriptExecutor(executorType, config.getBindingMode());
     }
 
-    public Executor take() throws InterruptedException {
-        return executors.take();
+    /**
+     * Borrows an executor, creating one if all the executors are busy and the pool is below its maximum size.
+     *
+     * @return the executor, which must be returned with {@link #put(Executor)}
+     * @throws InterruptedException           if the thread is interrupted while waiting for an executor
+     * @throws ExecutorPoolExhaustedException if no executor becomes available within the borrow timeout
+     * @throws ExecutorPoolShutdownException  if the pool is shut down before an executor becomes available
+     */
+    public Executor take()
+            throws InterruptedException, ExecutorPoolExhaustedException, ExecutorPoolShutdownException {
+        long start = System.nanoTime();
+        IdleExecutor idleExecutor = idleExecutors.pollFirst();
+        checkNotShutdown(idleExecutor);
+        Executor executor = idleExecutor != null ? idleExecutor.executor : createIfBelowMaxSize();
+        if (executor == null) {
+            long borrowTimeout = config.getBorrowTimeoutMillis();
+            if (borrowTimeout < 0) {
+                idleExecutor = idleExecutors.takeFirst();
+            } else {
+                idleExecutor = idleExecutors.pollFirst(borrowTimeout, TimeUnit.MILLISECONDS);
+            }
+            if (idleExecutor == null) {
+                exhaustedCount.incrementAndGet();
+                throw new ExecutorPoolExhaustedException("No data mapper script executor became available within "
+                        + borrowTimeout + "ms. All the " + size.get() + " executors of the pool are busy, consider "
+                        + "increasing the executor pool size");
+            }
+            checkNotShutdown(idleExecutor);
+            executor = idleExecutor.executor;
+        }
+        recordWait(System.nanoTime() - start);
+        activeCount.incrementAndGet();
+        return executor;
+    }
+
+    /**
+     * Fails a borrow if the pool is shut down. A borrower which wakes up to the shutdown marker queues it again, so
+     * that the next waiting borrower wakes up as well.
+     *
+     * @param idleExecutor the idle executor polled by the borrower, or null if there is none
+     * @throws ExecutorPoolShutdownException if the pool is shut down
+     */
+    private void checkNotShutdown(IdleExecutor idleExecutor) throws ExecutorPoolShutdownException {
+        if (idleExecutor == SHUTDOWN_MARKER) {
+            idleExecutors.offerFirst(SHUTDOWN_MARKER);
+        } else if (idleExecutor != null || !shutdown) {
+            return;
+        }
+        throw new ExecutorPoolShutdownException("The data mapper script executor pool is shut down");
     }
 
+    /**
+     * Returns a borrowed executor to the pool. The executor is discarded if the pool is shut down.
+     *
+     * @param executor the executor
+     */
     public void put(Executor executor) throws InterruptedException {
-        executors.put(executor);
+        if (executor == null) {
+            return;
+        }
+        activeCount.decrementAndGet();
+        if (shutdown) {
+            size.decrementAndGet();
+            return;
+        }
+        idleExecutors.offerFirst(new IdleExecutor(executor));
+    }
+
+    /**
+     * Stops evicting the idle executors and discards them, along with the borrowed executors as they are returned.
+     * Borrowers which are waiting for an executor are woken up and fail, as do the borrowers afterwards.
+     */
+    public void shutdown() {
+        shutdown = true;
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        IdleExecutor idleExecutor;
+        while ((idleExecutor = idleExecutors.pollFirst()) != null) {
+            if (idleExecutor != SHUTDOWN_MARKER) {
+                size.decrementAndGet();
+            }
+        }
+        idleExecutors.offerFirst(SHUTDOWN_MARKER);
+    }
+
+    /**
+     * @return true if the pool is shut down
+     */
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    private Executor createIfBelowMaxSize() {
+        // a borrower which polls the pool while it is shut down must not create an executor
+        if (shutdown) {
+            return null;
+        }
+        int current;
+        do {
+            current = size.get();
+            if (current >= config.getMaxSize()) {
+                return null;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        try {
+            Executor executor = createScriptExecutor(executorType);
+            createdCount.incrementAndGet();
+            if (log.isDebugEnabled()) {
+                log.debug("Created script executor " + (current + 1) + " of " + config.getMaxSize());
+            }
+            return executor;
+        } catch (RuntimeException e) {
+            size.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void warmUp(Executor executor) {
+        if (executor instanceof ScriptExecutor) {
+            try {
+                ((ScriptExecutor) executor).warmUp();
+            } catch (JSException e) {
+                log.warn("Unable to warm up the data mapper script executor", e);
+            }
+        }
+    }
+
+    private void startEvictor() {
+        evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "datamapper-executor-pool-evictor");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        long period = Math.max(config.getIdleTimeoutMillis() / 2, 1);
+        evictor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                evictIdleExecutors();
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Discards the executors which have been idle for the idle timeout, while the pool is above its minimum size.
+     */
+    void evictIdleExecutors() {
+        long now = System.currentTimeMillis();
+        while (size.get() > config.getMinSize()) {
+            IdleExecutor oldest = idleExecutors.peekLast();
+            if (oldest == null || now - oldest.idleSince < config.getIdleTimeoutMillis()) {
+                return;
+            }
+            if (idleExecutors.removeLastOccurrence(oldest)) {
+                size.decrementAndGet();
+                evictedCount.incrementAndGet();
+                if (log.isDebugEnabled()) {
+                    log.debug("Evicted an idle script executor, the pool has " + size.get() + " executors");
+                }
+            }
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        long max;
+        do {
+            max = maxWaitNanos.get();
+        } while (waitNanos > max && !maxWaitNanos.compareAndSet(max, waitNanos));
+    }
+
+    /**
+     * @return the sizing and timeouts of the pool
+     */
+    public ScriptExecutorPoolConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public int getMinSize() {
+        return config.getMinSize();
+    }
+
+    @Override
+    public int getMaxSize() {
+        return config.getMaxSize();
+    }
+
+    @Override
+    public long getBorrowTimeoutMillis() {
+        return config.getBorrowTimeoutMillis();
+    }
+
+    @Override
+    public int getSize() {
+        return size.get();
+    }
+
+    @Override
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    @Override
+    public int getIdleCount() {
+        return shutdown ? 0 : idleExecutors.size();
+    }
+
+    @Override
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    @Override
+    public long getExhaustedCount() {
+        return exhaustedCount.get();
+    }
+
+    @Override
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    @Override
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    @Override
+    public double getAverageWaitTimeMillis() {
+        long borrows = borrowCount.get();
+        return borrows == 0 ? 0 : totalWaitNanos.get() / (borrows * 1000000.0);
+    }
+
+    @Override
+    public double getMaxWaitTimeMillis() {
+        return maxWaitNanos.get() / 1000000.0;
+    }
+
+    @Override
+    public void resetStatistics() {
+        borrowCount.set(0);
+        exhaustedCount.set(0);
+        createdCount.set(0);
+        evictedCount.set(0);
+        totalWaitNanos.set(0);
+        maxWaitNanos.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "script executor pool [size " + getSize() + ", active " + getActiveCount() + ", borrows "
+                + getBorrowCount() + ", exhausted " + getExhaustedCount() + ", average wait "
+                + getAverageWaitTimeMillis() + "ms, max wait " + getMaxWaitTimeMillis() + "ms]";
+    }
+
+    private static final class IdleExecutor {
+
+        private final Executor executor;
+        private final long idleSince;
+
+        private IdleExecutor(Executor executor) {
+            this.executor = executor;
+            this.idleSince = System.currentTimeMillis();
+        }
     }
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.datamapper.engine.core.executors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Properties;
+
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants
+        .DEFAULT_DATAMAPPER_ENGINE_POOL_BORROW_TIMEOUT;
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants
+        .DEFAULT_DATAMAPPER_ENGINE_POOL_IDLE_TIMEOUT;
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants
+        .DEFAULT_DATAMAPPER_ENGINE_POOL_SIZE;
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants
+        .ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_BINDING_MODE;
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants
+        .ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_BORROW_TIMEOUT;
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants
+        .ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_IDLE_TIMEOUT;
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants
+        .ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_MIN_SIZE;
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants
+        .ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_SIZE;
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants
+        .ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_WARMUP;
+
+/**
+ * Sizing and timeouts of the {@link ScriptExecutorPool}.
+ * <p>
+ * The pool keeps at least the minimum number of executors and grows up to the maximum under load. Executors above the
+ * minimum are discarded once they are idle for the idle timeout. When all the executors are busy a mapping waits until
+ * an executor is returned, and fails once it has waited for the borrow timeout, which is 30 seconds unless it is
+ * configured. A mapping only waits indefinitely if a negative borrow timeout is configured. When the minimum size is
+ * not configured it is the same as the maximum size, which keeps a fixed size pool as in the previous releases.
+ * </p>
+ */
+public class ScriptExecutorPoolConfig {
+
+    private static final Log log = LogFactory.getLog(ScriptExecutorPoolConfig.class);
+
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final boolean warmUp;
+    private final ScriptBindingMode bindingMode;
+
+    public ScriptExecutorPoolConfig(int minSize, int maxSize, long borrowTimeoutMillis, long idleTimeoutMillis,
+                                    boolean warmUp) {
+        this(minSize, maxSize, borrowTimeoutMillis, idleTimeoutMillis, warmUp, ScriptBindingMode.JSON);
+    }
+
+    public ScriptExecutorPoolConfig(int minSize, int maxSize, long borrowTimeoutMillis, long idleTimeoutMillis,
+                                    boolean warmUp, ScriptBindingMode bindingMode) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Script executor pool size must be positive : " + maxSize);
+        }
+        if (minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Script executor pool minimum size must be between 0 and " + maxSize
+                    + " : " + minSize);
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.warmUp = warmUp;
+        this.bindingMode = bindingMode;
+    }
+
+    /**
+     * Creates the configuration of a fixed size pool with the default timeouts.
+     *
+     * @param executorPoolSizeStr size of the pool, or null for the default size
+     * @return the pool configuration
+     */
+    public static ScriptExecutorPoolConfig fromPoolSize(String executorPoolSizeStr) {
+        Properties properties = new Properties();
+        if (executorPoolSizeStr != null) {
+            properties.setProperty(ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_SIZE, executorPoolSizeStr);
+        }
+        return fromProperties(properties);
+    }
+
+    /**
+     * Creates the configuration from the org.apache.synapse.datamapper.executor.pool.* properties. Invalid values are
+     * replaced with their defaults.
+     *
+     * @param properties synapse properties
+     * @return the pool configuration
+     */
+    public static ScriptExecutorPoolConfig fromProperties(Properties properties) {
+        int maxSize = getInt(properties, ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_SIZE,
+                DEFAULT_DATAMAPPER_ENGINE_POOL_SIZE);
+        if (maxSize < 1) {
+            log.warn("Invalid script executor pool size " + maxSize + ", using the default size "
+                    + DEFAULT_DATAMAPPER_ENGINE_POOL_SIZE);
+            maxSize = DEFAULT_DATAMAPPER_ENGINE_POOL_SIZE;
+        }
+        int minSize = getInt(properties, ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_MIN_SIZE, maxSize);
+        if (minSize < 0 || minSize > maxSize) {
+            log.warn("Invalid script executor pool minimum size " + minSize + ", using the pool size " + maxSize);
+            minSize = maxSize;
+        }
+        long borrowTimeout = getLong(properties, ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_BORROW_TIMEOUT,
+                DEFAULT_DATAMAPPER_ENGINE_POOL_BORROW_TIMEOUT);
+        long idleTimeout = getLong(properties, ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_IDLE_TIMEOUT,
+                DEFAULT_DATAMAPPER_ENGINE_POOL_IDLE_TIMEOUT);
+        String warmUp = properties.getProperty(ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_WARMUP);
+        ScriptBindingMode bindingMode = ScriptBindingMode.fromString(
+                properties.getProperty(ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_BINDING_MODE));
+        return new ScriptExecutorPoolConfig(minSize, maxSize, borrowTimeout, idleTimeout,
+                warmUp == null || Boolean.parseBoolean(warmUp.trim()), bindingMode);
+    }
+
+    private static int getInt(Properties properties, String name, int defaultValue) {
+        long value = getLong(properties, name, defaultValue);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            log.warn("Value " + value + " for " + name + " is out of range, using the default value "
+                    + defaultValue);
+            return defaultValue;
+        }
+        return (int) value;
+    }
+
+    private static long getLong(Properties properties, String name, long defaultValue) {
+        String value = properties.getProperty(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value " + value + " for " + name + ", using the default value " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getBorrowTimeoutMillis() {
+        return borrowTimeoutMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    /**
+     * @return true if the minimum number of executors are created and initialized when the pool is created
+     */
+    public boolean isWarmUp() {
+        return warmUp;
+    }
+
+    /**
+     * @return the way the executors of the pool pass the runtime properties to the mapping functions
+     */
+    public ScriptBindingMode getBindingMode() {
+        return bindingMode;
+    }
+
+    @Override
+    public String toString() {
+        return "min size " + minSize + ", max size " + maxSize + ", borrow timeout " + borrowTimeoutMillis
+                + "ms, idle timeout " + idleTimeoutMillis + "ms, " + bindingMode + " bindings";
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.datamapper.engine.core.executors;
+
+/**
+ * The interface for MBean used to expose the utilization of the {@link ScriptExecutorPool} of the data mapper engine.
+ */
+public interface ScriptExecutorPoolMBean {
+
+    /**
+     * @return number of executors kept in the pool even when they are idle
+     */
+    int getMinSize();
+
+    /**
+     * @return maximum number of executors of the pool
+     */
+    int getMaxSize();
+
+    /**
+     * @return time a borrower waits for an executor before it fails in milliseconds, or a negative value if it waits
+     * indefinitely
+     */
+    long getBorrowTimeoutMillis();
+
+    /**
+     * @return number of executors in the pool, including the borrowed ones
+     */
+    int getSize();
+
+    /**
+     * @return number of borrowed executors
+     */
+    int getActiveCount();
+
+    /**
+     * @return number of idle executors
+     */
+    int getIdleCount();
+
+    /**
+     * @return number of successful borrows
+     */
+    long getBorrowCount();
+
+    /**
+     * @return number of borrows which failed as no executor became available within the borrow timeout
+     */
+    long getExhaustedCount();
+
+    /**
+     * @return number of executors created by the pool
+     */
+    long getCreatedCount();
+
+    /**
+     * @return number of idle executors discarded by the pool
+     */
+    long getEvictedCount();
+
+    /**
+     * @return average time taken by the successful borrows in milliseconds
+     */
+    double getAverageWaitTimeMillis();
+
+    /**
+     * @return the longest time taken by a successful borrow in milliseconds
+     */
+    double getMaxWaitTimeMillis();
+
+    /**
+     * Resets the borrow, exhaustion, creation, eviction and wait time statistics collected so far.
+     */
+    void resetStatistics();
+}
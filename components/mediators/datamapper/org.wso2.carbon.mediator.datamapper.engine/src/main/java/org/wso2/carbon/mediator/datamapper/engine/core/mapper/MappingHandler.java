@@ -16,14 +16,16 @@
  */
 package org.wso2.carbon.mediator.datamapper.engine.core.mapper;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.util.AXIOMUtil;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.JSException;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.ReaderException;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.SchemaException;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.WriterException;
 import org.wso2.carbon.mediator.datamapper.engine.core.executors.Executor;
 import org.wso2.carbon.mediator.datamapper.engine.core.executors.ScriptExecutorFactory;
+import org.wso2.carbon.mediator.datamapper.engine.core.executors.ScriptExecutorPool;
 import org.wso2.carbon.mediator.datamapper.engine.core.models.Model;
 import org.wso2.carbon.mediator.datamapper.engine.core.notifiers.InputVariableNotifier;
 import org.wso2.carbon.mediator.datamapper.engine.core.notifiers.OutputVariableNotifier;
@@ -35,17 +37,21 @@ import org.wso2.carbon.mediator.datamapper.engine.utils.ModelType;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Map;
+import javax.xml.stream.XMLStreamException;
 
 public class MappingHandler implements InputVariableNotifier, OutputVariableNotifier {
 
     private String dmExecutorPoolSize;
     private String inputVariable;
-    private String outputVariable;
+    private Object outputVariable;
     private MappingResource mappingResource;
     private OutputMessageBuilder outputMessageBuilder;
+    private InputOutputDataType outputType;
+    private OMFactory omFactory;
     private Executor scriptExecutor;
+    private ScriptExecutorPool executorPool;
     private InputBuilder inputBuilder;
-    private String propertiesInJSON;
+    private Map<String, Map<String, Object>> propertiesMap;
 
     public MappingHandler(MappingResource mappingResource, String inputType, String outputType,
             String dmExecutorPoolSize) throws IOException, SchemaException, WriterException {
@@ -60,6 +66,36 @@ public class MappingHandler implements InputVariableNotifier, OutputVariableNoti
         this.mappingResource = mappingResource;
     }
 
+    /**
+     * Creates a handler to map a single message with a prepared mapping plan.
+     *
+     * @param mappingPlan the plan of the mapping configuration
+     */
+    MappingHandler(MappingPlan mappingPlan) throws IOException, SchemaException, WriterException {
+        this(mappingPlan, null);
+    }
+
+    /**
+     * Creates a handler to map a single message with a prepared mapping plan, which builds XML output messages as
+     * elements created with the given factory. The output of such a handler is read with
+     * {@link #doMapToOM(InputStream, OMElement, Map)}.
+     * <p>
+     * The output message builder is only created when the mapping function returns an object. JSON mappings return
+     * the JSON string of the output, which is used as it is, hence JSON to JSON mappings neither create an output
+     * writer nor go through the {@link org.wso2.carbon.mediator.datamapper.engine.output.formatters.Formatter}.
+     * </p>
+     *
+     * @param mappingPlan the plan of the mapping configuration
+     * @param omFactory   factory used to build the output message, or null to build it as a String
+     */
+    MappingHandler(MappingPlan mappingPlan, OMFactory omFactory) throws IOException, SchemaException, WriterException {
+        this.mappingResource = mappingPlan.getMappingResource();
+        this.inputBuilder = mappingPlan.getInputBuilder();
+        this.outputType = mappingPlan.getOutputType();
+        this.omFactory = omFactory;
+        this.dmExecutorPoolSize = mappingPlan.getExecutorPoolSize();
+    }
+
     /**
      * This method performs the mapping from input message to the specified output schema.
      * <p>
@@ -83,11 +119,69 @@ public class MappingHandler implements InputVariableNotifier, OutputVariableNoti
      */
 	public String doMap(InputStream inputMsg, Map<String, Map<String, Object>> propertiesMap)
 			throws ReaderException, InterruptedException, IOException, SchemaException, JSException {
+		map(inputMsg, null, propertiesMap);
+		return getOutputAsString();
+	}
+
+    /**
+     * Performs the mapping of an XML input message which is already available as an element, for example the body
+     * of the message being mediated. The element is read in place without being serialized.
+     *
+     * @param inputElement  Input message element
+     * @param propertiesMap Map of maps, single map for each scope
+     * @return Output message created according to the provided OutputSchema using the runtime arguments
+     * @throws ReaderException
+     * @throws InterruptedException
+     * @throws IOException
+     * @throws SchemaException
+     * @throws JSException
+     */
+    public String doMap(OMElement inputElement, Map<String, Map<String, Object>> propertiesMap)
+            throws ReaderException, InterruptedException, IOException, SchemaException, JSException {
+        map(null, inputElement, propertiesMap);
+        return getOutputAsString();
+    }
+
+    /**
+     * Performs the mapping to an XML output message, which is built as an element instead of a String. The handler
+     * must be created with an {@link OMFactory} for the output message to be built as an element.
+     *
+     * @param inputMsg      Input message as an InputStream, used when the input element is null
+     * @param inputElement  Input message element, or null to read the input stream
+     * @param propertiesMap Map of maps, single map for each scope
+     * @return root element of the output message
+     * @throws ReaderException
+     * @throws InterruptedException
+     * @throws IOException
+     * @throws SchemaException
+     * @throws JSException
+     * @throws XMLStreamException if the output returned by the mapping function is not valid XML
+     */
+    public OMElement doMapToOM(InputStream inputMsg, OMElement inputElement,
+                               Map<String, Map<String, Object>> propertiesMap)
+            throws ReaderException, InterruptedException, IOException, SchemaException, JSException,
+            XMLStreamException {
+        map(inputMsg, inputElement, propertiesMap);
+        if (outputVariable instanceof OMElement) {
+            return (OMElement) outputVariable;
+        }
+        // the mapping function returned a value which is not an object, hence it was not written by the XML writer
+        return outputVariable != null ? AXIOMUtil.stringToOM((String) outputVariable) : null;
+    }
+
+	private void map(InputStream inputMsg, OMElement inputElement, Map<String, Map<String, Object>> propertiesMap)
+			throws ReaderException, InterruptedException, IOException, SchemaException, JSException {
 		ReaderException readerException = null;
 		try {
-			this.scriptExecutor = ScriptExecutorFactory.getScriptExecutor(dmExecutorPoolSize);
-			this.propertiesInJSON = propertiesMapToJSON(propertiesMap);
-			inputBuilder.buildInputModel(inputMsg, this);
+			// the executor is returned to the pool it is borrowed from, even if that pool is shut down meanwhile
+			this.executorPool = ScriptExecutorFactory.getExecutorPool(dmExecutorPoolSize);
+			this.scriptExecutor = executorPool.take();
+			this.propertiesMap = propertiesMap;
+			if (inputElement != null) {
+				inputBuilder.buildInputModel(inputElement, this);
+			} else {
+				inputBuilder.buildInputModel(inputMsg, this);
+			}
 		} catch (ReaderException re) {
 			readerException = re;
 			throw re;
@@ -104,17 +198,23 @@ public class MappingHandler implements InputVariableNotifier, OutputVariableNoti
 				}
 			}
 		}
-		return outputVariable;
 	}
 
+    private String getOutputAsString() {
+        if (outputVariable instanceof OMElement) {
+            return outputVariable.toString();
+        }
+        return (String) outputVariable;
+    }
+
     @Override
     public void notifyInputVariable(Object variable) throws SchemaException, JSException, ReaderException {
         this.inputVariable = (String) variable;
-        Model outputModel = scriptExecutor.execute(mappingResource, inputVariable, propertiesInJSON);
+        Model outputModel = scriptExecutor.execute(mappingResource, inputVariable, propertiesMap);
         try {
             releaseExecutor();
             if (outputModel.getModel() instanceof Map) {
-                outputMessageBuilder.buildOutputMessage(outputModel, this);
+                getOutputMessageBuilder().buildOutputMessage(outputModel, this);
             } else {
                 notifyOutputVariable(outputModel.getModel());
             }
@@ -124,32 +224,27 @@ public class MappingHandler implements InputVariableNotifier, OutputVariableNoti
         }
     }
 
+    private OutputMessageBuilder getOutputMessageBuilder() throws SchemaException, WriterException {
+        if (outputMessageBuilder == null) {
+            if (omFactory != null) {
+                outputMessageBuilder = new OutputMessageBuilder(outputType, ModelType.JAVA_MAP,
+                        mappingResource.getOutputSchema(), omFactory);
+            } else {
+                outputMessageBuilder = new OutputMessageBuilder(outputType, ModelType.JAVA_MAP,
+                        mappingResource.getOutputSchema());
+            }
+        }
+        return outputMessageBuilder;
+    }
+
     private void releaseExecutor() throws InterruptedException {
-        ScriptExecutorFactory.releaseScriptExecutor(scriptExecutor);
+        executorPool.put(scriptExecutor);
         this.scriptExecutor = null;
     }
 
     @Override
     public void notifyOutputVariable(Object variable) {
-        outputVariable = (String) variable;
-    }
-
-    /**
-     * Convert the properties map to a JSON String
-     * @param propertiesMap
-     * @return JSON String
-     * @throws ReaderException
-     */
-    private String propertiesMapToJSON(Map<String, Map<String, Object>> propertiesMap) throws ReaderException {
-        ObjectMapper mapperObj = new ObjectMapper();
-        String propertiesInJSON = null;
-
-        try {
-            propertiesInJSON = mapperObj.writeValueAsString(propertiesMap);
-        } catch (JsonProcessingException e) {
-            throw new ReaderException("Error while parsing the input properties. " + e.getMessage());
-        }
-        return propertiesInJSON;
+        outputVariable = variable;
     }
 
 }
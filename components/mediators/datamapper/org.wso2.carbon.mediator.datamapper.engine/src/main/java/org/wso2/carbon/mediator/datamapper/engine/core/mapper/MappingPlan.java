@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.datamapper.engine.core.mapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.axiom.om.OMFactory;
+import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.SchemaException;
+import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.WriterException;
+import org.wso2.carbon.mediator.datamapper.engine.input.InputBuilder;
+import org.wso2.carbon.mediator.datamapper.engine.utils.InputOutputDataType;
+
+import java.io.IOException;
+
+/**
+ * Everything needed to map a message with a single data mapper configuration, which is prepared once and shared by
+ * all the messages mapped with the configuration. A plan is immutable once it is created, hence it can be used by
+ * concurrent messages without any locking. The state of a single mapping is held by the {@link MappingHandler}
+ * created for each message.
+ */
+public final class MappingPlan {
+
+    /**
+     * Jackson mapper shared by all the mappings. An ObjectMapper is thread safe once it is configured.
+     */
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final MappingResource mappingResource;
+    private final InputOutputDataType inputType;
+    private final InputOutputDataType outputType;
+    private final String executorPoolSize;
+    private final InputBuilder inputBuilder;
+
+    private MappingPlan(MappingResource mappingResource, InputOutputDataType inputType,
+                        InputOutputDataType outputType, String executorPoolSize) {
+        this.mappingResource = mappingResource;
+        this.inputType = inputType;
+        this.outputType = outputType;
+        this.executorPoolSize = executorPoolSize;
+        this.inputBuilder = new InputBuilder(inputType, mappingResource.getInputSchema());
+    }
+
+    /**
+     * Creates the plan for a mapping configuration. The input schema is read when the plan is created, while the
+     * mapping function is compiled by each script executor when it executes the function initially.
+     *
+     * @param mappingResource  mapping configuration with the input and output schemas
+     * @param inputType        input data type
+     * @param outputType       output data type
+     * @param executorPoolSize size of the script executor pool, or null for the default size
+     * @return the mapping plan
+     */
+    public static MappingPlan create(MappingResource mappingResource, String inputType, String outputType,
+                                     String executorPoolSize) {
+        return new MappingPlan(mappingResource, InputOutputDataType.fromString(inputType),
+                InputOutputDataType.fromString(outputType), executorPoolSize);
+    }
+
+    /**
+     * @return a handler to map a single message with this plan
+     * @throws IOException     if the input reader cannot be created
+     * @throws SchemaException if the output schema is invalid
+     * @throws WriterException if the output writer cannot be created
+     */
+    public MappingHandler newHandler() throws IOException, SchemaException, WriterException {
+        return new MappingHandler(this);
+    }
+
+    /**
+     * @param omFactory factory used to build XML output messages
+     * @return a handler to map a single message with this plan, which builds XML output messages as elements
+     * @throws IOException     if the input reader cannot be created
+     * @throws SchemaException if the output schema is invalid
+     * @throws WriterException if the output writer cannot be created
+     */
+    public MappingHandler newHandler(OMFactory omFactory) throws IOException, SchemaException, WriterException {
+        return new MappingHandler(this, omFactory);
+    }
+
+    public MappingResource getMappingResource() {
+        return mappingResource;
+    }
+
+    public InputOutputDataType getInputType() {
+        return inputType;
+    }
+
+    public InputOutputDataType getOutputType() {
+        return outputType;
+    }
+
+    public String getExecutorPoolSize() {
+        return executorPoolSize;
+    }
+
+    /**
+     * @return the builder of the input messages, shared by all the messages mapped with this plan
+     */
+    public InputBuilder getInputBuilder() {
+        return inputBuilder;
+    }
+
+    /**
+     * @return the Jackson mapper shared by all the mappings
+     */
+    public static ObjectMapper getObjectMapper() {
+        return OBJECT_MAPPER;
+    }
+}
@@ -16,13 +16,14 @@
  */
 package org.wso2.carbon.mediator.datamapper.engine.input;
 
-import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.JSException;
+import org.apache.axiom.om.OMElement;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.ReaderException;
-import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.SchemaException;
 import org.wso2.carbon.mediator.datamapper.engine.core.notifiers.InputVariableNotifier;
 import org.wso2.carbon.mediator.datamapper.engine.core.schemas.Schema;
 import org.wso2.carbon.mediator.datamapper.engine.input.readers.InputReader;
 import org.wso2.carbon.mediator.datamapper.engine.input.readers.InputReaderFactory;
+import org.wso2.carbon.mediator.datamapper.engine.input.readers.XMLInputReader;
+import org.wso2.carbon.mediator.datamapper.engine.input.readers.XMLInputSchema;
 import org.wso2.carbon.mediator.datamapper.engine.utils.InputOutputDataType;
 
 import java.io.IOException;
@@ -30,22 +31,28 @@ import java.io.InputStream;
 
 /**
  * Class manage the XML to JSON parsing process
+ * <p>
+ * The builder is created once for a mapping configuration and shared by the messages mapped with it. The input
+ * schema is read when the builder is created, hence each message only creates the reader which holds the state of
+ * reading that message.
+ * </p>
  */
 public class InputBuilder {
 
-    private InputReader inputReader;
-    private Schema inputSchema;
-    private InputVariableNotifier inputVariableNotifier;
+    private final InputOutputDataType inputType;
+    private final Schema inputSchema;
+    private final XMLInputSchema xmlInputSchema;
 
     /**
      * Constructor
      *
+     * @param inputType   Input message data type
      * @param inputSchema Input message JSON schema
-     * @throws IOException
      */
-    public InputBuilder(InputOutputDataType inputType, Schema inputSchema) throws IOException {
-        this.inputReader = InputReaderFactory.getReader(inputType);
+    public InputBuilder(InputOutputDataType inputType, Schema inputSchema) {
+        this.inputType = inputType;
         this.inputSchema = inputSchema;
+        this.xmlInputSchema = inputType == InputOutputDataType.XML ? new XMLInputSchema(inputSchema) : null;
     }
 
     /**
@@ -55,20 +62,33 @@ public class InputBuilder {
      */
     public void buildInputModel(InputStream inputStream, InputVariableNotifier inputVariableNotifier)
             throws ReaderException {
-        this.inputVariableNotifier = inputVariableNotifier;
-        inputReader.read(inputStream, inputSchema, this);
+        createReader().read(inputStream, inputSchema, inputVariableNotifier);
     }
 
     /**
-     * This method will be called by the XMLInputReader instance to notify with the output
+     * Builds the input model from an XML element already available in memory, without serializing it.
      *
-     * @param builtMessage Built JSON message
-     * @throws JSException
-     * @throws ReaderException
-     * @throws SchemaException
+     * @param inputElement          XML input message
+     * @param inputVariableNotifier Reference to the MappingHandler instance
+     * @throws ReaderException if the input type of the builder is not XML
      */
-    public void notifyWithResult(String builtMessage) throws JSException, ReaderException, SchemaException {
-        inputVariableNotifier.notifyInputVariable(builtMessage);
+    public void buildInputModel(OMElement inputElement, InputVariableNotifier inputVariableNotifier)
+            throws ReaderException {
+        if (xmlInputSchema == null) {
+            throw new ReaderException("An XML element can only be read as the input of an XML mapping");
+        }
+        ((XMLInputReader) createReader()).read(inputElement, inputSchema, inputVariableNotifier);
+    }
+
+    private InputReader createReader() throws ReaderException {
+        try {
+            if (xmlInputSchema != null) {
+                return new XMLInputReader(xmlInputSchema);
+            }
+            return InputReaderFactory.getReader(inputType);
+        } catch (IOException e) {
+            throw new ReaderException("Error while creating the input reader. " + e.getMessage());
+        }
     }
 
 }
@@ -25,8 +25,8 @@ import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.JSException;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.ReaderException;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.SchemaException;
+import org.wso2.carbon.mediator.datamapper.engine.core.notifiers.InputVariableNotifier;
 import org.wso2.carbon.mediator.datamapper.engine.core.schemas.Schema;
-import org.wso2.carbon.mediator.datamapper.engine.input.InputBuilder;
 import org.wso2.carbon.mediator.datamapper.engine.input.builders.JSONBuilder;
 
 import java.io.IOException;
@@ -57,8 +57,8 @@ public class CSVInputReader implements InputReader {
     private Schema inputSchema;
     /* JSON message builder instance */
     private JSONBuilder jsonBuilder;
-    /* Reference of the InputBuilder object to send the built JSON message */
-    private InputBuilder messageBuilder;
+    /* Reference of the notifier to send the built JSON message */
+    private InputVariableNotifier inputVariableNotifier;
 
     /**
      * Constructor
@@ -70,10 +70,11 @@ public class CSVInputReader implements InputReader {
     }
 
     @Override
-    public void read(InputStream input, Schema inputSchema, InputBuilder messageBuilder) throws ReaderException {
+    public void read(InputStream input, Schema inputSchema, InputVariableNotifier inputVariableNotifier)
+            throws ReaderException {
         this.inputSchema = inputSchema;
         this.jsonSchema = inputSchema.getSchemaMap();
-        this.messageBuilder = messageBuilder;
+        this.inputVariableNotifier = inputVariableNotifier;
         OMXMLParserWrapper parserWrapper = OMXMLBuilderFactory.createOMBuilder(input);
         OMElement root = parserWrapper.getDocumentElement();
         String csvContent = getCSVContent(root);
@@ -182,6 +183,6 @@ public class CSVInputReader implements InputReader {
     private void writeTerminateElement() throws IOException, JSException, SchemaException, ReaderException {
         jsonBuilder.close();
         String jsonBuiltMessage = jsonBuilder.getContent();
-        messageBuilder.notifyWithResult(jsonBuiltMessage);
+        inputVariableNotifier.notifyInputVariable(jsonBuiltMessage);
     }
 }
\ No newline at end of file
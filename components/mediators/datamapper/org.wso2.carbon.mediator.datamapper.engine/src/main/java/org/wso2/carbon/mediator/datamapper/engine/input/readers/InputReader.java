@@ -17,8 +17,8 @@
 package org.wso2.carbon.mediator.datamapper.engine.input.readers;
 
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.ReaderException;
+import org.wso2.carbon.mediator.datamapper.engine.core.notifiers.InputVariableNotifier;
 import org.wso2.carbon.mediator.datamapper.engine.core.schemas.Schema;
-import org.wso2.carbon.mediator.datamapper.engine.input.InputBuilder;
 
 import java.io.InputStream;
 
@@ -31,8 +31,8 @@ public interface InputReader {
      *
      * @param input
      * @param inputSchema
-     * @param messageBuilder
+     * @param inputVariableNotifier
      * @throws ReaderException
      */
-    void read(InputStream input, Schema inputSchema, InputBuilder messageBuilder) throws ReaderException;
+    void read(InputStream input, Schema inputSchema, InputVariableNotifier inputVariableNotifier) throws ReaderException;
 }
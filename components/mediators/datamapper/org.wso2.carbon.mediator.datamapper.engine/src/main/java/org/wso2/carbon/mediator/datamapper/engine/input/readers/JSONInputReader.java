@@ -21,13 +21,14 @@ import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.JSException;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.ReaderException;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.SchemaException;
+import org.wso2.carbon.mediator.datamapper.engine.core.notifiers.InputVariableNotifier;
 import org.wso2.carbon.mediator.datamapper.engine.core.schemas.Schema;
-import org.wso2.carbon.mediator.datamapper.engine.input.InputBuilder;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 
 /**
  * This class is capable of parsing XML through AXIOMS for the InputStream and build the respective JSON message
@@ -36,6 +37,8 @@ public class JSONInputReader implements InputReader {
 
     private static final Log log = LogFactory.getLog(JSONInputReader.class);
 
+    private static final int BUFFER_SIZE = 4096;
+
     /**
      * Constructor
      *
@@ -47,17 +50,18 @@ public class JSONInputReader implements InputReader {
     /**
      * Read, parse the XML and notify with the output JSON message
      *
-     * @param input          XML message InputStream
-     * @param inputSchema    Schema of the input message
-     * @param messageBuilder Reference of the InputXMLMessageBuilder
+     * @param input                 XML message InputStream
+     * @param inputSchema           Schema of the input message
+     * @param inputVariableNotifier Reference of the notifier of the built JSON message
      * @throws ReaderException Exceptions in the parsing stage
      */
     @Override
-    public void read(InputStream input, Schema inputSchema, InputBuilder messageBuilder) throws ReaderException {
+    public void read(InputStream input, Schema inputSchema, InputVariableNotifier inputVariableNotifier)
+            throws ReaderException {
         String inputJSONMessage;
         try {
             inputJSONMessage = readFromInputStream(input);
-            messageBuilder.notifyWithResult(inputJSONMessage);
+            inputVariableNotifier.notifyInputVariable(inputJSONMessage);
         } catch (JSException e) {
             log.error("Error while executing the script.", e);
             throw new ReaderException("Error while executing the script.");
@@ -69,25 +73,24 @@ public class JSONInputReader implements InputReader {
 
     /**
      * Method added to convert the input directly into a string and to return
-     * This method is used only when the JSON input is present
+     * This method is used only when the JSON input is present. The stream is copied as it is, in blocks, without
+     * splitting it into lines.
      *
-     * @param inputStream JSON message as a InputStream
+     * @param inputStream JSON message as a UTF-8 encoded InputStream
      * @return JSON message as a String
      * @throws IOException
      */
     private String readFromInputStream(InputStream inputStream) throws IOException {
-        InputStreamReader isr = new InputStreamReader((inputStream));
-        BufferedReader br = new BufferedReader(isr);
-
-        StringBuilder out = new StringBuilder("");
-        String line;
+        Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+        StringBuilder out = new StringBuilder(BUFFER_SIZE);
+        char[] buffer = new char[BUFFER_SIZE];
+        int read;
         try {
-            while ((line = br.readLine()) != null) {
-                out.append(line);
+            while ((read = reader.read(buffer)) != -1) {
+                out.append(buffer, 0, read);
             }
         } finally {
-            br.close();
-            isr.close();
+            reader.close();
         }
         return out.toString();
     }
@@ -28,9 +28,9 @@ import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.InvalidPayload
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.JSException;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.ReaderException;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.SchemaException;
+import org.wso2.carbon.mediator.datamapper.engine.core.notifiers.InputVariableNotifier;
 import org.wso2.carbon.mediator.datamapper.engine.core.schemas.JacksonJSONSchema;
 import org.wso2.carbon.mediator.datamapper.engine.core.schemas.Schema;
-import org.wso2.carbon.mediator.datamapper.engine.input.InputBuilder;
 import org.wso2.carbon.mediator.datamapper.engine.input.builders.JSONBuilder;
 import org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants;
 
@@ -70,12 +70,15 @@ public class XMLInputReader implements InputReader {
 
     private static final Log log = LogFactory.getLog(XMLInputReader.class);
 
-    /* Reference of the InputXMLMessageBuilder object to send the built JSON message */
-    private InputBuilder messageBuilder;
+    /* Reference of the notifier to send the built JSON message */
+    private InputVariableNotifier inputVariableNotifier;
 
     /* JSON schema of the input message */
     private Schema inputSchema;
 
+    /* Input schema read for the mapping configuration */
+    private XMLInputSchema xmlInputSchema;
+
     /* Name and NamespaceURI of the currently processing XML element */
     private String localName;
     private String nameSpaceURI;
@@ -98,23 +101,50 @@ public class XMLInputReader implements InputReader {
         this.jsonBuilder = new JSONBuilder();
     }
 
+    /**
+     * Constructor of a reader which reads messages with an input schema already read for the mapping configuration
+     *
+     * @param xmlInputSchema input schema of the mapping configuration
+     * @throws IOException
+     */
+    public XMLInputReader(XMLInputSchema xmlInputSchema) throws IOException {
+        this();
+        this.xmlInputSchema = xmlInputSchema;
+    }
+
     /**
      * Read, parse the XML and notify with the output JSON message
      *
-     * @param input          XML message InputStream
-     * @param inputSchema    Schema of the input message
-     * @param messageBuilder Reference of the InputXMLMessageBuilder
+     * @param input                 XML message InputStream
+     * @param inputSchema           Schema of the input message
+     * @param inputVariableNotifier Reference of the notifier of the built JSON message
      * @throws ReaderException Exceptions in the parsing stage
      */
     @Override
-    public void read(InputStream input, Schema inputSchema, InputBuilder messageBuilder) throws ReaderException {
+    public void read(InputStream input, Schema inputSchema, InputVariableNotifier inputVariableNotifier)
+            throws ReaderException {
+        OMXMLParserWrapper parserWrapper = OMXMLBuilderFactory.createOMBuilder(input);
+        read(parserWrapper.getDocumentElement(), inputSchema, inputVariableNotifier);
+    }
 
-        this.messageBuilder = messageBuilder;
-        this.inputSchema = inputSchema;
+    /**
+     * Read the XML of an element already available in memory and notify with the output JSON message. The element is
+     * traversed in place, hence it is neither serialized nor parsed again.
+     *
+     * @param root                  root element of the XML message
+     * @param inputSchema           Schema of the input message
+     * @param inputVariableNotifier Reference of the notifier of the built JSON message
+     * @throws ReaderException Exceptions in the parsing stage
+     */
+    public void read(OMElement root, Schema inputSchema, InputVariableNotifier inputVariableNotifier)
+            throws ReaderException {
 
-        OMXMLParserWrapper parserWrapper = OMXMLBuilderFactory.createOMBuilder(input);
-        OMElement root = parserWrapper.getDocumentElement();
-        this.jsonSchema = getInputSchema().getSchemaMap();
+        this.inputVariableNotifier = inputVariableNotifier;
+        this.inputSchema = inputSchema;
+        if (xmlInputSchema == null || xmlInputSchema.getSchema() != inputSchema) {
+            xmlInputSchema = new XMLInputSchema(inputSchema);
+        }
+        this.jsonSchema = xmlInputSchema.getSchemaMap();
 
         try {
             xmlTraverse(root, null, jsonSchema);
@@ -191,7 +221,7 @@ public class XMLInputReader implements InputReader {
                 isArrayElement = true;
             }
 
-            if (nameSpaceLocalName.equals(getInputSchema().getName())) {
+            if (nameSpaceLocalName.equals(xmlInputSchema.getName())) {
                 writeAnonymousObjectStartElement();
             } else if (OBJECT_ELEMENT_TYPE.equals(elementType)) {
                 isObject = true;
@@ -338,7 +368,7 @@ public class XMLInputReader implements InputReader {
 
         String elementType = NULL_ELEMENT_TYPE;
 
-        if (elementName.equals(getInputSchema().getName())) {
+        if (elementName.equals(xmlInputSchema.getName())) {
             elementType = (String) jsonSchemaMap.get(TYPE_KEY);
         } else if (jsonSchemaMap.containsKey(elementName)) {
             elementType = (String) ((Map<String, Object>) jsonSchemaMap.get(elementName)).get(TYPE_KEY);
@@ -359,9 +389,13 @@ public class XMLInputReader implements InputReader {
 
         Map nextSchema = null;
 
-        if (elementName.equals(getInputSchema().getName())) {
+        if (elementName.equals(xmlInputSchema.getName())) {
             nextSchema = (Map<String, Object>) jsonSchemaMap.get(PROPERTIES_KEY);
         } else if (jsonSchemaMap.containsKey(elementName)) {
+            nextSchema = xmlInputSchema.getChildLevel(jsonSchemaMap.get(elementName));
+            if (nextSchema != null) {
+                return nextSchema;
+            }
             if (ARRAY_ELEMENT_TYPE.equals(elementType)) {
                 nextSchema = ((JacksonJSONSchema) inputSchema)
                         .getSchemaItems((Map<String, Object>) jsonSchemaMap.get(elementName));
@@ -554,7 +588,7 @@ public class XMLInputReader implements InputReader {
                 String tempNamespaceLocalName;
                 for (String tempPrefix : prefixArray) {
                     tempNamespaceLocalName = tempPrefix + SCHEMA_NAMESPACE_NAME_SEPARATOR + localName;
-                    if (tempNamespaceLocalName.equals(getInputSchema().getName()) ||
+                    if (tempNamespaceLocalName.equals(xmlInputSchema.getName()) ||
                             jsonSchemaMap.containsKey(tempNamespaceLocalName)) {
                         //found matching namespace prefix for this level for target URI
                         prefix = tempPrefix;
@@ -707,7 +741,7 @@ public class XMLInputReader implements InputReader {
     private void writeTerminateElement() throws IOException, JSException, SchemaException, ReaderException {
         jsonBuilder.close();
         String jsonBuiltMessage = jsonBuilder.getContent();
-        messageBuilder.notifyWithResult(jsonBuiltMessage);
+        inputVariableNotifier.notifyInputVariable(jsonBuiltMessage);
     }
 
     private void writeAnonymousObjectStartElement() throws IOException, JSException, SchemaException, ReaderException {
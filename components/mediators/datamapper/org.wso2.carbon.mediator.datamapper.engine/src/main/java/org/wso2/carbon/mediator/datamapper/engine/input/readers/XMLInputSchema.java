@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.datamapper.engine.input.readers;
+
+import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.SchemaException;
+import org.wso2.carbon.mediator.datamapper.engine.core.schemas.JacksonJSONSchema;
+import org.wso2.carbon.mediator.datamapper.engine.core.schemas.Schema;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants.ARRAY_ELEMENT_TYPE;
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants.ATTRIBUTES_KEY;
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants.PROPERTIES_KEY;
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants.TYPE_KEY;
+
+/**
+ * Input schema of an XML mapping, read once for the mapping configuration. The schema level of the child elements of
+ * each element of the schema is computed up front, hence the {@link XMLInputReader} moves from an element to its
+ * children with a lookup instead of merging the properties and the attributes of the element schema for each element
+ * of each message.
+ * <p>
+ * Nothing is modified once the schema is read, hence it is shared by the readers of concurrent messages.
+ * </p>
+ */
+public final class XMLInputSchema {
+
+    private final Schema schema;
+    private final Map schemaMap;
+    private final String name;
+
+    /* Schema level of the child elements, by the schema of the parent element */
+    private final Map<Object, Map<String, Object>> childLevels = new IdentityHashMap<>();
+
+    public XMLInputSchema(Schema schema) {
+        this.schema = schema;
+        this.schemaMap = schema.getSchemaMap();
+        this.name = readName(schema);
+        Object rootLevel = schemaMap.get(PROPERTIES_KEY);
+        if (schema instanceof JacksonJSONSchema && rootLevel instanceof Map) {
+            readLevel((JacksonJSONSchema) schema, (Map<String, Object>) rootLevel);
+        }
+    }
+
+    private static String readName(Schema schema) {
+        try {
+            return schema.getName();
+        } catch (SchemaException e) {
+            // reported by getName() when a message is read
+            return null;
+        }
+    }
+
+    /**
+     * Computes the child level of each element of a schema level, and the levels below them.
+     *
+     * @param schema schema the level belongs to
+     * @param level  elements and attributes of the level, by name
+     */
+    private void readLevel(JacksonJSONSchema schema, Map<String, Object> level) {
+        for (Object elementSchema : level.values()) {
+            if (!(elementSchema instanceof Map) || childLevels.containsKey(elementSchema)) {
+                continue;
+            }
+            Map<String, Object> childLevel;
+            try {
+                Map<String, Object> element = (Map<String, Object>) elementSchema;
+                if (ARRAY_ELEMENT_TYPE.equals(element.get(TYPE_KEY))) {
+                    childLevel = getSchemaProperties(schema.getSchemaItems(element));
+                } else {
+                    childLevel = getSchemaProperties(element);
+                }
+            } catch (IllegalArgumentException | ClassCastException e) {
+                // left to the reader, which reports the invalid element when a message contains it
+                continue;
+            }
+            childLevels.put(elementSchema, Collections.unmodifiableMap(childLevel));
+            readLevel(schema, childLevel);
+        }
+    }
+
+    private static Map<String, Object> getSchemaProperties(Map<String, Object> schema) {
+        Map<String, Object> nextSchema = new HashMap<>();
+        if (schema.containsKey(PROPERTIES_KEY)) {
+            nextSchema.putAll((Map<? extends String, Object>) schema.get(PROPERTIES_KEY));
+        }
+        if (schema.containsKey(ATTRIBUTES_KEY)) {
+            nextSchema.putAll((Map<? extends String, Object>) schema.get(ATTRIBUTES_KEY));
+        }
+        return nextSchema;
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    public Map getSchemaMap() {
+        return schemaMap;
+    }
+
+    /**
+     * @return name of the root element of the schema
+     * @throws SchemaException if the schema does not have a name
+     */
+    public String getName() throws SchemaException {
+        return name != null ? name : schema.getName();
+    }
+
+    /**
+     * @param elementSchema schema of an element
+     * @return schema level of the child elements of the element, or null if it is not computed up front
+     */
+    public Map<String, Object> getChildLevel(Object elementSchema) {
+        return childLevels.get(elementSchema);
+    }
+}
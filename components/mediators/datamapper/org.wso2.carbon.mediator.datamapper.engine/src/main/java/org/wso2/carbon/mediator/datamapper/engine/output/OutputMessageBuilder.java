@@ -16,6 +16,7 @@
  */
 package org.wso2.carbon.mediator.datamapper.engine.output;
 
+import org.apache.axiom.om.OMFactory;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.SchemaException;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.WriterException;
 import org.wso2.carbon.mediator.datamapper.engine.core.models.Model;
@@ -26,6 +27,7 @@ import org.wso2.carbon.mediator.datamapper.engine.output.formatters.Formatter;
 import org.wso2.carbon.mediator.datamapper.engine.output.formatters.FormatterFactory;
 import org.wso2.carbon.mediator.datamapper.engine.output.writers.Writer;
 import org.wso2.carbon.mediator.datamapper.engine.output.writers.WriterFactory;
+import org.wso2.carbon.mediator.datamapper.engine.output.writers.XMLWriter;
 import org.wso2.carbon.mediator.datamapper.engine.utils.InputOutputDataType;
 import org.wso2.carbon.mediator.datamapper.engine.utils.ModelType;
 
@@ -43,6 +45,17 @@ public class OutputMessageBuilder {
         this.outputWriter = WriterFactory.getWriter(dataType, outputSchema);
     }
 
+    /**
+     * Creates a builder which builds XML output messages as AXIOM trees with the given factory, and notifies the
+     * root element of the message instead of its serialized form.
+     */
+    public OutputMessageBuilder(InputOutputDataType dataType, ModelType modelType, Schema outputSchema,
+                                OMFactory omFactory) throws SchemaException, WriterException {
+        this.outputSchema = outputSchema;
+        this.formatter = FormatterFactory.getFormatter(modelType);
+        this.outputWriter = WriterFactory.getWriter(dataType, outputSchema, omFactory);
+    }
+
     public void buildOutputMessage(Model outputModel, OutputVariableNotifier mappingHandler)
             throws SchemaException, WriterException {
         this.outputVariableNotifier = mappingHandler;
@@ -61,7 +74,11 @@ public class OutputMessageBuilder {
                 outputWriter.writeEndObject(readerEvent.getName());
                 break;
             case TERMINATE:
-                outputVariableNotifier.notifyOutputVariable(outputWriter.terminateMessageBuilding());
+                if (outputWriter instanceof XMLWriter && ((XMLWriter) outputWriter).isBuildingOM()) {
+                    outputVariableNotifier.notifyOutputVariable(((XMLWriter) outputWriter).terminateOMBuilding());
+                } else {
+                    outputVariableNotifier.notifyOutputVariable(outputWriter.terminateMessageBuilding());
+                }
                 break;
             case ARRAY_START:
                 outputWriter.writeStartArray();
@@ -114,7 +114,7 @@ public class MapOutputFormatter implements Formatter {
             String key = String.valueOf(keyVal);
             // When Data Mapper runs in Java 7 array element is given as a Native Array object.
             // This array object doesn't give values inside. That's why we used reflections in here
-            if (value != null && value.getClass().toString().contains(RHINO_NATIVE_ARRAY_FULL_QUALIFIED_CLASS_NAME)) {
+            if (DataMapperEngineUtils.isNativeArray(value)) {
                 try {
                     value = DataMapperEngineUtils.getMapFromNativeArray(value);
                 } catch (JSException e) {
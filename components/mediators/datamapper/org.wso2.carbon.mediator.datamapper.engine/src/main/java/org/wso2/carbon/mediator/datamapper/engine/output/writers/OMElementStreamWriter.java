@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.datamapper.engine.output.writers;
+
+import org.apache.axiom.om.OMContainer;
+import org.apache.axiom.om.OMDocument;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMNamespace;
+import org.apache.axiom.om.OMNode;
+
+import java.util.Collections;
+import java.util.Iterator;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * A {@link XMLStreamWriter} which builds an AXIOM tree from the written events, so that a message written through
+ * StAX is available as an {@link OMElement} without being serialized and parsed again.
+ */
+class OMElementStreamWriter implements XMLStreamWriter {
+
+    private final OMFactory factory;
+
+    private final OMDocument document;
+
+    /* The element which is currently being written, or the document before the root element is written */
+    private OMContainer current;
+
+    /* true until the attributes and namespaces of the current element can no longer be written */
+    private boolean inStartElement;
+
+    private NamespaceContext namespaceContext;
+
+    OMElementStreamWriter(OMFactory factory) {
+        this.factory = factory;
+        this.document = factory.createOMDocument();
+        this.current = document;
+    }
+
+    /**
+     * Detaches the root element of the written message from the document it was built in, so that it can be added to
+     * another tree.
+     *
+     * @return the root element of the written message, or null if no element is written
+     */
+    OMElement detachRootElement() {
+        OMElement root = document.getOMDocumentElement();
+        if (root != null) {
+            root.detach();
+        }
+        return root;
+    }
+
+    @Override
+    public void writeStartElement(String localName) throws XMLStreamException {
+        OMNamespace defaultNamespace = null;
+        if (current instanceof OMElement) {
+            defaultNamespace = ((OMElement) current).findNamespaceURI(XMLConstants.DEFAULT_NS_PREFIX);
+        }
+        startElement(localName, defaultNamespace);
+    }
+
+    @Override
+    public void writeStartElement(String namespaceURI, String localName) throws XMLStreamException {
+        startElement(localName, findNamespace(namespaceURI, null));
+    }
+
+    @Override
+    public void writeStartElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        startElement(localName, createNamespace(namespaceURI, prefix));
+    }
+
+    @Override
+    public void writeEmptyElement(String namespaceURI, String localName) throws XMLStreamException {
+        writeStartElement(namespaceURI, localName);
+        writeEndElement();
+    }
+
+    @Override
+    public void writeEmptyElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        writeStartElement(prefix, localName, namespaceURI);
+        writeEndElement();
+    }
+
+    @Override
+    public void writeEmptyElement(String localName) throws XMLStreamException {
+        writeStartElement(localName);
+        writeEndElement();
+    }
+
+    @Override
+    public void writeEndElement() throws XMLStreamException {
+        OMElement element = getCurrentElement();
+        current = element.getParent();
+        inStartElement = false;
+    }
+
+    @Override
+    public void writeEndDocument() throws XMLStreamException {
+        while (current instanceof OMElement) {
+            writeEndElement();
+        }
+    }
+
+    @Override
+    public void close() {
+        // there are no underlying resources to be released
+    }
+
+    @Override
+    public void flush() {
+        // the tree is built as the events are written
+    }
+
+    @Override
+    public void writeAttribute(String localName, String value) throws XMLStreamException {
+        getStartedElement().addAttribute(localName, value, null);
+    }
+
+    @Override
+    public void writeAttribute(String prefix, String namespaceURI, String localName, String value)
+            throws XMLStreamException {
+        getStartedElement().addAttribute(localName, value, createNamespace(namespaceURI, prefix));
+    }
+
+    @Override
+    public void writeAttribute(String namespaceURI, String localName, String value) throws XMLStreamException {
+        OMNamespace namespace = findNamespace(namespaceURI, null);
+        if (namespace == null) {
+            throw new XMLStreamException("No prefix is bound to the namespace " + namespaceURI);
+        }
+        getStartedElement().addAttribute(localName, value, namespace);
+    }
+
+    @Override
+    public void writeNamespace(String prefix, String namespaceURI) throws XMLStreamException {
+        if (prefix == null || prefix.isEmpty() || XMLConstants.XMLNS_ATTRIBUTE.equals(prefix)) {
+            writeDefaultNamespace(namespaceURI);
+        } else {
+            getStartedElement().declareNamespace(namespaceURI, prefix);
+        }
+    }
+
+    @Override
+    public void writeDefaultNamespace(String namespaceURI) throws XMLStreamException {
+        getStartedElement().declareDefaultNamespace(namespaceURI);
+    }
+
+    @Override
+    public void writeComment(String data) throws XMLStreamException {
+        inStartElement = false;
+        factory.createOMComment(current, data);
+    }
+
+    @Override
+    public void writeProcessingInstruction(String target) throws XMLStreamException {
+        writeProcessingInstruction(target, "");
+    }
+
+    @Override
+    public void writeProcessingInstruction(String target, String data) throws XMLStreamException {
+        inStartElement = false;
+        factory.createOMProcessingInstruction(current, target, data);
+    }
+
+    @Override
+    public void writeCData(String data) throws XMLStreamException {
+        inStartElement = false;
+        factory.createOMText(getCurrentElement(), data, OMNode.CDATA_SECTION_NODE);
+    }
+
+    @Override
+    public void writeDTD(String dtd) throws XMLStreamException {
+        throw new XMLStreamException("Writing a DTD is not supported when building an AXIOM tree");
+    }
+
+    @Override
+    public void writeEntityRef(String name) throws XMLStreamException {
+        throw new XMLStreamException("Writing an entity reference is not supported when building an AXIOM tree");
+    }
+
+    @Override
+    public void writeStartDocument() {
+        // the document is created along with the writer
+    }
+
+    @Override
+    public void writeStartDocument(String version) {
+        document.setXMLVersion(version);
+    }
+
+    @Override
+    public void writeStartDocument(String encoding, String version) {
+        document.setCharsetEncoding(encoding);
+        document.setXMLVersion(version);
+    }
+
+    @Override
+    public void writeCharacters(String text) throws XMLStreamException {
+        inStartElement = false;
+        factory.createOMText(getCurrentElement(), text);
+    }
+
+    @Override
+    public void writeCharacters(char[] text, int start, int len) throws XMLStreamException {
+        writeCharacters(new String(text, start, len));
+    }
+
+    @Override
+    public String getPrefix(String uri) {
+        if (current instanceof OMElement) {
+            OMNamespace namespace = ((OMElement) current).findNamespace(uri, null);
+            if (namespace != null) {
+                return namespace.getPrefix();
+            }
+        }
+        return namespaceContext != null ? namespaceContext.getPrefix(uri) : null;
+    }
+
+    @Override
+    public void setPrefix(String prefix, String uri) throws XMLStreamException {
+        writeNamespace(prefix, uri);
+    }
+
+    @Override
+    public void setDefaultNamespace(String uri) throws XMLStreamException {
+        writeDefaultNamespace(uri);
+    }
+
+    @Override
+    public void setNamespaceContext(NamespaceContext context) {
+        this.namespaceContext = context;
+    }
+
+    @Override
+    public NamespaceContext getNamespaceContext() {
+        return new NamespaceContext() {
+            @Override
+            public String getNamespaceURI(String prefix) {
+                if (current instanceof OMElement) {
+                    OMNamespace namespace = ((OMElement) current).findNamespaceURI(prefix);
+                    if (namespace != null) {
+                        return namespace.getNamespaceURI();
+                    }
+                }
+                return namespaceContext != null ? namespaceContext.getNamespaceURI(prefix) : null;
+            }
+
+            @Override
+            public String getPrefix(String namespaceURI) {
+                return OMElementStreamWriter.this.getPrefix(namespaceURI);
+            }
+
+            @Override
+            public Iterator getPrefixes(String namespaceURI) {
+                String prefix = getPrefix(namespaceURI);
+                return prefix != null ? Collections.singleton(prefix).iterator() : Collections.emptyIterator();
+            }
+        };
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        throw new IllegalArgumentException("Property " + name + " is not supported");
+    }
+
+    private void startElement(String localName, OMNamespace namespace) {
+        current = factory.createOMElement(localName, namespace, current);
+        inStartElement = true;
+    }
+
+    private OMNamespace findNamespace(String namespaceURI, String prefix) {
+        if (namespaceURI == null || namespaceURI.isEmpty()) {
+            return null;
+        }
+        if (current instanceof OMElement) {
+            OMNamespace namespace = ((OMElement) current).findNamespace(namespaceURI, prefix);
+            if (namespace != null) {
+                return namespace;
+            }
+        }
+        return factory.createOMNamespace(namespaceURI, prefix != null ? prefix : "");
+    }
+
+    private OMNamespace createNamespace(String namespaceURI, String prefix) {
+        if (namespaceURI == null || namespaceURI.isEmpty()) {
+            return null;
+        }
+        return factory.createOMNamespace(namespaceURI, prefix != null ? prefix : "");
+    }
+
+    private OMElement getCurrentElement() throws XMLStreamException {
+        if (!(current instanceof OMElement)) {
+            throw new XMLStreamException("No element has been started");
+        }
+        return (OMElement) current;
+    }
+
+    private OMElement getStartedElement() throws XMLStreamException {
+        if (!inStartElement) {
+            throw new XMLStreamException("Attributes and namespaces can only be written right after a start element");
+        }
+        return getCurrentElement();
+    }
+}
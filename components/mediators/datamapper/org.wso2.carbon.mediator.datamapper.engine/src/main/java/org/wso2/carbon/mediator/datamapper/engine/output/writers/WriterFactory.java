@@ -16,6 +16,7 @@
  */
 package org.wso2.carbon.mediator.datamapper.engine.output.writers;
 
+import org.apache.axiom.om.OMFactory;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.SchemaException;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.WriterException;
 import org.wso2.carbon.mediator.datamapper.engine.core.schemas.Schema;
@@ -39,4 +40,16 @@ public class WriterFactory {
                 throw new IllegalArgumentException("Output Writer for type " + outputType + " is not implemented.");
         }
     }
+
+    /**
+     * Returns a writer which builds XML output messages as AXIOM trees with the given factory. Writers of the other
+     * types are the same as the ones returned by {@link #getWriter(InputOutputDataType, Schema)}.
+     */
+    public static Writer getWriter(InputOutputDataType outputType, Schema outputSchema, OMFactory omFactory)
+            throws SchemaException, WriterException {
+        if (outputType == InputOutputDataType.XML) {
+            return new XMLWriter(outputSchema, omFactory);
+        }
+        return getWriter(outputType, outputSchema);
+    }
 }
@@ -16,6 +16,8 @@
  */
 package org.wso2.carbon.mediator.datamapper.engine.output.writers;
 
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.SchemaException;
@@ -46,6 +48,7 @@ public class XMLWriter implements Writer {
 
     private static final Log log = LogFactory.getLog(XMLWriter.class);
     private StringWriter stringWriter;
+    private OMElementStreamWriter omStreamWriter;
     private XMLStreamWriter xmlStreamWriter;
     private Schema outputSchema;
     private Stack<String> arrayElementStack;
@@ -60,13 +63,33 @@ public class XMLWriter implements Writer {
         this.outputSchema = outputSchema;
         this.arrayElementStack = new Stack<>();
         this.stringWriter = new StringWriter();
-        init(outputSchema);
+        XMLOutputFactory xmlOutputFactory = XMLOutputFactory.newInstance();
+        try {
+            init(outputSchema, xmlOutputFactory.createXMLStreamWriter(stringWriter));
+        } catch (XMLStreamException e) {
+            throw new WriterException("Error while creating xml output factory. " + e.getMessage());
+        }
     }
 
-    private void init(Schema outputSchema) throws SchemaException, WriterException {
-        XMLOutputFactory xmlOutputFactory = XMLOutputFactory.newInstance();
+    /**
+     * Creates a writer which builds the output message as an AXIOM tree instead of serializing it to a String. The
+     * built message is returned by {@link #terminateOMBuilding()}.
+     *
+     * @param outputSchema output message schema
+     * @param omFactory    factory used to build the output message
+     * @throws SchemaException
+     * @throws WriterException
+     */
+    public XMLWriter(Schema outputSchema, OMFactory omFactory) throws SchemaException, WriterException {
+        this.outputSchema = outputSchema;
+        this.arrayElementStack = new Stack<>();
+        this.omStreamWriter = new OMElementStreamWriter(omFactory);
+        init(outputSchema, omStreamWriter);
+    }
+
+    private void init(Schema outputSchema, XMLStreamWriter xmlStreamWriter) throws SchemaException, WriterException {
+        this.xmlStreamWriter = xmlStreamWriter;
         try {
-            xmlStreamWriter = xmlOutputFactory.createXMLStreamWriter(stringWriter);
             //creating root element of the xml message
             namespaceMap = outputSchema.getNamespaceMap();
             nsPrefixToUriMap = outputSchema.getPrefixMap();
@@ -77,7 +100,8 @@ public class XMLWriter implements Writer {
                 xmlStreamWriter.writeNamespace(entry.getKey(), entry.getValue());
             }
         } catch (XMLStreamException e) {
-            throw new WriterException("Error while creating xml output factory. " + e.getMessage());
+            throw new WriterException("Error while writing the root element of the output message. "
+                    + e.getMessage());
         }
     }
 
@@ -151,6 +175,9 @@ public class XMLWriter implements Writer {
     }
 
     @Override public String terminateMessageBuilding() throws WriterException {
+        if (omStreamWriter != null) {
+            return terminateOMBuilding().toString();
+        }
         try {
             xmlStreamWriter.writeEndElement();
             xmlStreamWriter.flush();
@@ -161,6 +188,31 @@ public class XMLWriter implements Writer {
         }
     }
 
+    /**
+     * Completes the output message built by a writer created with an {@link OMFactory}.
+     *
+     * @return root element of the output message
+     * @throws WriterException if the writer does not build an AXIOM tree
+     */
+    public OMElement terminateOMBuilding() throws WriterException {
+        if (omStreamWriter == null) {
+            throw new WriterException("The output message is not built as an AXIOM tree");
+        }
+        try {
+            xmlStreamWriter.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw new WriterException(e.getMessage());
+        }
+        return omStreamWriter.detachRootElement();
+    }
+
+    /**
+     * @return true if this writer builds the output message as an AXIOM tree
+     */
+    public boolean isBuildingOM() {
+        return omStreamWriter != null;
+    }
+
     @Override public void writeStartArray() {
         arrayElementStack.push(latestElementName);
     }
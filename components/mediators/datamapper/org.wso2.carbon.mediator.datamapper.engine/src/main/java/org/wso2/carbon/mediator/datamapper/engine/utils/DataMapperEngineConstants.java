@@ -36,6 +36,19 @@ public class DataMapperEngineConstants {
     public static final int DEFAULT_DATAMAPPER_ENGINE_POOL_SIZE = 20;
     public static final String ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_SIZE =
             "org.apache.synapse.datamapper.executor.pool.size";
+    public static final String ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_MIN_SIZE =
+            "org.apache.synapse.datamapper.executor.pool.min.size";
+    public static final String ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_BORROW_TIMEOUT =
+            "org.apache.synapse.datamapper.executor.pool.borrow.timeout";
+    public static final String ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_IDLE_TIMEOUT =
+            "org.apache.synapse.datamapper.executor.pool.idle.timeout";
+    public static final String ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_WARMUP =
+            "org.apache.synapse.datamapper.executor.pool.warmup";
+    public static final String ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_BINDING_MODE =
+            "org.apache.synapse.datamapper.executor.binding.mode";
+    // a negative borrow timeout waits for an executor indefinitely, which must be configured explicitly
+    public static final long DEFAULT_DATAMAPPER_ENGINE_POOL_BORROW_TIMEOUT = 30000;
+    public static final long DEFAULT_DATAMAPPER_ENGINE_POOL_IDLE_TIMEOUT = 60000;
     public static final String SCHEMA_NAMESPACE_NAME_SEPARATOR = ":";
     public static final String SCHEMA_XML_ELEMENT_TEXT_VALUE_FIELD = "_ELEMVAL";
     public static final  String DMC_FILE_FUNCTION_PREFIX = "function ";
@@ -27,37 +27,58 @@ import java.util.Map;
 
 public class DataMapperEngineUtils {
 
-    public static Map<String, Object> getMapFromNativeArray(Object value) throws JSException {
+    /* Rhino NativeArray class and its methods, resolved once. These are null if Rhino is not available */
+    private static final Class<?> NATIVE_ARRAY_CLASS;
+    private static final Method NATIVE_ARRAY_GET_IDS;
+    private static final Method NATIVE_ARRAY_GET;
+
+    static {
+        Class<?> nativeArrayClass = null;
+        Method getIds = null;
+        Method get = null;
         try {
-            final Class<?> cls = Class.forName(MapOutputFormatter.RHINO_NATIVE_ARRAY_FULL_QUALIFIED_CLASS_NAME);
-            if (cls.isAssignableFrom(value.getClass())) {
-                Map<String, Object> tempValue = new HashMap();
-                final Method getIds = cls.getMethod("getIds");
-                Method get = null;
-                Method[] allMethods = cls.getDeclaredMethods();
-                for (Method method : allMethods) {
-                    String methodName = method.getName();
-                    // find the method with name get
-                    if ("get".equals(methodName)) {
-                        Type[] pType = method.getGenericParameterTypes();
-                        //find the get method with two parameters and first one a int
-                        if ((pType.length == 2) && ((Class) pType[0]).getName().equals("int")) {
-                            get = method;
-                            break;
-                        }
+            nativeArrayClass = Class.forName(MapOutputFormatter.RHINO_NATIVE_ARRAY_FULL_QUALIFIED_CLASS_NAME);
+            getIds = nativeArrayClass.getMethod("getIds");
+            for (Method method : nativeArrayClass.getDeclaredMethods()) {
+                // find the get method with two parameters and first one a int
+                if ("get".equals(method.getName())) {
+                    Type[] pType = method.getGenericParameterTypes();
+                    if ((pType.length == 2) && ((Class) pType[0]).getName().equals("int")) {
+                        get = method;
+                        break;
                     }
                 }
-                final Object[] result = (Object[]) getIds.invoke(value);
-                for (Object id : result) {
-                    Object childValue = get.invoke(value, id, value);
-                    tempValue.put(id.toString(), childValue);
-                }
-                return tempValue;
             }
-            throw new JSException(
-                    "Un-assignable class found for sun.org.mozilla.javascript.internal.NativeArray as :" + cls
-                            .toString());
-        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException | ClassNotFoundException e) {
+        } catch (ClassNotFoundException | NoSuchMethodException | LinkageError e) {
+            nativeArrayClass = null;
+        }
+        NATIVE_ARRAY_CLASS = nativeArrayClass;
+        NATIVE_ARRAY_GET_IDS = getIds;
+        NATIVE_ARRAY_GET = get;
+    }
+
+    /**
+     * @param value value returned by a script engine
+     * @return true if the value is a Rhino NativeArray
+     */
+    public static boolean isNativeArray(Object value) {
+        return value != null && NATIVE_ARRAY_CLASS != null && NATIVE_ARRAY_CLASS.isInstance(value);
+    }
+
+    public static Map<String, Object> getMapFromNativeArray(Object value) throws JSException {
+        if (!isNativeArray(value) || NATIVE_ARRAY_GET == null) {
+            throw new JSException("Un-assignable class found for " + MapOutputFormatter
+                    .RHINO_NATIVE_ARRAY_FULL_QUALIFIED_CLASS_NAME + " as :" + (value != null ? value.getClass() : null));
+        }
+        try {
+            Map<String, Object> tempValue = new HashMap();
+            final Object[] result = (Object[]) NATIVE_ARRAY_GET_IDS.invoke(value);
+            for (Object id : result) {
+                Object childValue = NATIVE_ARRAY_GET.invoke(value, id, value);
+                tempValue.put(id.toString(), childValue);
+            }
+            return tempValue;
+        } catch (IllegalAccessException | InvocationTargetException e) {
             throw new JSException("Error while parsing rhino native array values",e);
         }
     }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.datamapper.engine.core.executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests creating and shutting down the script executor pool shared by the data mapper mediators.
+ */
+public class ScriptExecutorFactoryTest {
+
+    @Before
+    @After
+    public void shutdownPool() {
+        ScriptExecutorFactory.shutdownExecutorPool();
+    }
+
+    /**
+     * Testing that a pool acquired without warm up is created on demand with the acquired configuration, rather than
+     * as a fixed size pool of the size given when the executor is requested
+     */
+    @Test
+    public void testLazyPoolUsesAcquiredConfig() throws Exception {
+        ScriptExecutorPoolConfig config = new ScriptExecutorPoolConfig(1, 4, 250, 100000, false);
+        ScriptExecutorFactory.acquireExecutorPool(config);
+        assertNull("The pool must not be created before an executor is requested",
+                ScriptExecutorFactory.getExecutorPool());
+
+        Executor executor = ScriptExecutorFactory.getScriptExecutor("10");
+        ScriptExecutorPool pool = ScriptExecutorFactory.getExecutorPool();
+        assertNotNull(pool);
+        assertSame(config, pool.getConfig());
+        assertEquals(1, pool.getConfig().getMinSize());
+        assertEquals(4, pool.getConfig().getMaxSize());
+        assertEquals(250, pool.getConfig().getBorrowTimeoutMillis());
+        assertEquals(100000, pool.getConfig().getIdleTimeoutMillis());
+        ScriptExecutorFactory.releaseScriptExecutor(executor);
+    }
+
+    /**
+     * Testing that a pool acquired with warm up is created at once
+     */
+    @Test
+    public void testWarmUpPoolCreatedOnAcquire() {
+        ScriptExecutorFactory.acquireExecutorPool(new ScriptExecutorPoolConfig(1, 2, -1, 0, true));
+        ScriptExecutorPool pool = ScriptExecutorFactory.getExecutorPool();
+        assertNotNull(pool);
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    /**
+     * Testing that a pool which is not acquired is created as a fixed size pool of the requested size
+     */
+    @Test
+    public void testPoolNotAcquired() throws Exception {
+        ScriptExecutorPool pool = ScriptExecutorFactory.getExecutorPool("3");
+        assertEquals(3, pool.getConfig().getMaxSize());
+        assertEquals(3, pool.getConfig().getMinSize());
+        assertSame(pool, ScriptExecutorFactory.getExecutorPool("7"));
+    }
+
+    /**
+     * Testing that the pool is shut down once all the acquisitions are released, and recreated afterwards
+     */
+    @Test
+    public void testShutdownOnLastRelease() throws Exception {
+        ScriptExecutorPoolConfig config = new ScriptExecutorPoolConfig(1, 2, -1, 0, true);
+        ScriptExecutorFactory.acquireExecutorPool(config);
+        ScriptExecutorFactory.acquireExecutorPool(config);
+        ScriptExecutorPool pool = ScriptExecutorFactory.getExecutorPool();
+
+        ScriptExecutorFactory.releaseExecutorPool();
+        assertSame("The pool must be kept while a mediator still uses it", pool,
+                ScriptExecutorFactory.getExecutorPool());
+        assertFalse(pool.isShutdown());
+
+        Executor borrowed = pool.take();
+        ScriptExecutorFactory.releaseExecutorPool();
+        assertTrue(pool.isShutdown());
+        assertNull(ScriptExecutorFactory.getExecutorPool());
+        ScriptExecutorFactory.releaseExecutorPool();
+
+        // an executor borrowed before the shutdown is discarded by the pool it is borrowed from
+        pool.put(borrowed);
+        assertEquals(0, pool.getSize());
+
+        ScriptExecutorPool newPool = ScriptExecutorFactory.getExecutorPool("2");
+        assertNotSame(pool, newPool);
+        assertFalse(newPool.isShutdown());
+    }
+
+    /**
+     * Testing that the MBean of the pool is registered while the pool is initialized
+     */
+    @Test
+    public void testExecutorPoolMBean() throws Exception {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName(ScriptExecutorFactory.EXECUTOR_POOL_MBEAN_NAME);
+        assertFalse(mBeanServer.isRegistered(objectName));
+
+        ScriptExecutorFactory.acquireExecutorPool(new ScriptExecutorPoolConfig(1, 3, -1, 0, true));
+        assertTrue(mBeanServer.isRegistered(objectName));
+        assertEquals(3, mBeanServer.getAttribute(objectName, "MaxSize"));
+        assertEquals(1, mBeanServer.getAttribute(objectName, "Size"));
+
+        ScriptExecutorFactory.releaseExecutorPool();
+        assertFalse(mBeanServer.isRegistered(objectName));
+    }
+}
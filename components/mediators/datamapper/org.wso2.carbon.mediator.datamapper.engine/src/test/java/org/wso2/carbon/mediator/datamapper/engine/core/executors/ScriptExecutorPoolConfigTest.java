@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.datamapper.engine.core.executors;
+
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants
+        .DEFAULT_DATAMAPPER_ENGINE_POOL_BORROW_TIMEOUT;
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants
+        .DEFAULT_DATAMAPPER_ENGINE_POOL_IDLE_TIMEOUT;
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants
+        .DEFAULT_DATAMAPPER_ENGINE_POOL_SIZE;
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants
+        .ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_BINDING_MODE;
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants
+        .ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_BORROW_TIMEOUT;
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants
+        .ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_IDLE_TIMEOUT;
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants
+        .ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_MIN_SIZE;
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants
+        .ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_SIZE;
+import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants
+        .ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_WARMUP;
+
+/**
+ * Tests reading the configuration of the script executor pool from the synapse properties.
+ */
+public class ScriptExecutorPoolConfigTest {
+
+    /**
+     * Testing that an unconfigured pool is a fixed size pool which waits for an executor up to the default timeout
+     */
+    @Test
+    public void testDefaults() {
+        ScriptExecutorPoolConfig config = ScriptExecutorPoolConfig.fromProperties(new Properties());
+        assertEquals(DEFAULT_DATAMAPPER_ENGINE_POOL_SIZE, config.getMaxSize());
+        assertEquals(DEFAULT_DATAMAPPER_ENGINE_POOL_SIZE, config.getMinSize());
+        assertEquals(DEFAULT_DATAMAPPER_ENGINE_POOL_BORROW_TIMEOUT, config.getBorrowTimeoutMillis());
+        assertTrue("A borrower must not wait indefinitely by default", config.getBorrowTimeoutMillis() > 0);
+        assertEquals(DEFAULT_DATAMAPPER_ENGINE_POOL_IDLE_TIMEOUT, config.getIdleTimeoutMillis());
+        assertTrue(config.isWarmUp());
+        assertEquals(ScriptBindingMode.JSON, config.getBindingMode());
+    }
+
+    /**
+     * Testing reading all the properties of the pool
+     */
+    @Test
+    public void testFromProperties() {
+        Properties properties = new Properties();
+        properties.setProperty(ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_SIZE, "8");
+        properties.setProperty(ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_MIN_SIZE, " 2 ");
+        properties.setProperty(ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_BORROW_TIMEOUT, "500");
+        properties.setProperty(ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_IDLE_TIMEOUT, "1000");
+        properties.setProperty(ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_WARMUP, "false");
+        properties.setProperty(ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_BINDING_MODE, "native");
+
+        ScriptExecutorPoolConfig config = ScriptExecutorPoolConfig.fromProperties(properties);
+        assertEquals(8, config.getMaxSize());
+        assertEquals(2, config.getMinSize());
+        assertEquals(500, config.getBorrowTimeoutMillis());
+        assertEquals(1000, config.getIdleTimeoutMillis());
+        assertFalse(config.isWarmUp());
+        assertEquals(ScriptBindingMode.NATIVE, config.getBindingMode());
+    }
+
+    /**
+     * Testing that the size of a pool configured with the pool size alone is fixed
+     */
+    @Test
+    public void testFromPoolSize() {
+        ScriptExecutorPoolConfig config = ScriptExecutorPoolConfig.fromPoolSize("5");
+        assertEquals(5, config.getMaxSize());
+        assertEquals(5, config.getMinSize());
+        assertEquals(DEFAULT_DATAMAPPER_ENGINE_POOL_SIZE, ScriptExecutorPoolConfig.fromPoolSize(null).getMaxSize());
+    }
+
+    /**
+     * Testing that sizes which do not fit in an int are replaced with their defaults instead of being truncated
+     */
+    @Test
+    public void testSizeOutOfRange() {
+        Properties properties = new Properties();
+        // truncated to an int this would be a pool of 1 executor
+        properties.setProperty(ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_SIZE, String.valueOf(0x100000001L));
+        properties.setProperty(ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_MIN_SIZE,
+                String.valueOf(Long.MIN_VALUE));
+
+        ScriptExecutorPoolConfig config = ScriptExecutorPoolConfig.fromProperties(properties);
+        assertEquals(DEFAULT_DATAMAPPER_ENGINE_POOL_SIZE, config.getMaxSize());
+        assertEquals(DEFAULT_DATAMAPPER_ENGINE_POOL_SIZE, config.getMinSize());
+    }
+
+    /**
+     * Testing that invalid values are replaced with their defaults
+     */
+    @Test
+    public void testInvalidValues() {
+        Properties properties = new Properties();
+        properties.setProperty(ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_SIZE, "0");
+        properties.setProperty(ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_MIN_SIZE, "50");
+        properties.setProperty(ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_BORROW_TIMEOUT, "soon");
+
+        ScriptExecutorPoolConfig config = ScriptExecutorPoolConfig.fromProperties(properties);
+        assertEquals(DEFAULT_DATAMAPPER_ENGINE_POOL_SIZE, config.getMaxSize());
+        assertEquals("A minimum size above the pool size must be replaced with the pool size",
+                DEFAULT_DATAMAPPER_ENGINE_POOL_SIZE, config.getMinSize());
+        assertEquals(DEFAULT_DATAMAPPER_ENGINE_POOL_BORROW_TIMEOUT, config.getBorrowTimeoutMillis());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMinSizeAboveMaxSize() {
+        new ScriptExecutorPoolConfig(3, 2, -1, 0, false);
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.datamapper.engine.core.executors;
+
+import org.junit.After;
+import org.junit.Test;
+import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.ExecutorPoolExhaustedException;
+import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.ExecutorPoolShutdownException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests borrowing, returning and evicting the executors of a {@link ScriptExecutorPool}.
+ */
+public class ScriptExecutorPoolTest {
+
+    private ScriptExecutorPool pool;
+
+    @After
+    public void shutdownPool() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Testing that the pool starts with its minimum size and creates executors on demand up to its maximum size
+     */
+    @Test
+    public void testGrowUpToMaxSize() throws Exception {
+        pool = new ScriptExecutorPool(ScriptExecutorType.NASHORN, new ScriptExecutorPoolConfig(1, 2, 0, 0, false));
+        assertEquals(1, pool.getSize());
+        assertEquals(1, pool.getIdleCount());
+
+        Executor first = pool.take();
+        Executor second = pool.take();
+        assertNotSame(first, second);
+        assertEquals(2, pool.getSize());
+        assertEquals(2, pool.getActiveCount());
+        assertEquals(2, pool.getCreatedCount());
+
+        pool.put(second);
+        assertSame("The most recently returned executor must be reused first", second, pool.take());
+        assertEquals(2, pool.getSize());
+    }
+
+    /**
+     * Testing that a borrower fails once it has waited for the configured borrow timeout
+     */
+    @Test
+    public void testBorrowTimeout() throws Exception {
+        pool = new ScriptExecutorPool(ScriptExecutorType.NASHORN, new ScriptExecutorPoolConfig(1, 1, 50, 0, false));
+        pool.take();
+        long start = System.nanoTime();
+        try {
+            pool.take();
+            fail("The pool must be exhausted");
+        } catch (ExecutorPoolExhaustedException e) {
+            assertTrue("The borrower must wait for the borrow timeout",
+                    System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        assertEquals(1, pool.getExhaustedCount());
+        assertEquals(1, pool.getBorrowCount());
+    }
+
+    /**
+     * Testing that by default a borrower does not wait indefinitely for an executor
+     */
+    @Test
+    public void testFiniteBorrowTimeoutByDefault() {
+        pool = new ScriptExecutorPool(ScriptExecutorType.NASHORN, 1);
+        assertTrue(pool.getConfig().getBorrowTimeoutMillis() > 0);
+    }
+
+    /**
+     * Testing that with a negative borrow timeout a borrower waits until an executor is returned, however long it
+     * takes
+     */
+    @Test
+    public void testWaitIndefinitely() throws Exception {
+        pool = new ScriptExecutorPool(ScriptExecutorType.NASHORN, new ScriptExecutorPoolConfig(1, 1, -1, 0, false));
+        final Executor executor = pool.take();
+
+        ExecutorService borrower = Executors.newSingleThreadExecutor();
+        try {
+            Future<Executor> borrowed = borrower.submit(new Callable<Executor>() {
+                @Override
+                public Executor call() throws Exception {
+                    return pool.take();
+                }
+            });
+            try {
+                borrowed.get(200, TimeUnit.MILLISECONDS);
+                fail("The borrower must wait while the executor is busy");
+            } catch (TimeoutException e) {
+                // expected
+            }
+            pool.put(executor);
+            assertSame(executor, borrowed.get(5, TimeUnit.SECONDS));
+            assertEquals(0, pool.getExhaustedCount());
+        } finally {
+            borrower.shutdownNow();
+        }
+    }
+
+    /**
+     * Testing that only the executors above the minimum size are evicted once they are idle for the idle timeout
+     */
+    @Test
+    public void testEvictIdleExecutors() throws Exception {
+        // the idle timeout is long enough for the evictor thread not to run during the test
+        pool = new ScriptExecutorPool(ScriptExecutorType.NASHORN,
+                new ScriptExecutorPoolConfig(1, 3, -1, 100000, false));
+        Executor first = pool.take();
+        Executor second = pool.take();
+        Executor third = pool.take();
+        pool.put(first);
+        pool.put(second);
+        pool.put(third);
+
+        pool.evictIdleExecutors();
+        assertEquals("Executors must not be evicted before the idle timeout", 3, pool.getSize());
+
+        pool = replace(pool, new ScriptExecutorPoolConfig(1, 3, -1, 1, false));
+        first = pool.take();
+        second = pool.take();
+        third = pool.take();
+        pool.put(first);
+        pool.put(second);
+        pool.put(third);
+        Thread.sleep(20);
+        pool.evictIdleExecutors();
+        assertEquals("The pool must not be evicted below its minimum size", 1, pool.getSize());
+        assertEquals(2, pool.getEvictedCount());
+        assertSame("The most recently returned executor must be kept", third, pool.take());
+    }
+
+    /**
+     * Testing that the executors of a pool which is shut down are discarded, including the ones returned afterwards
+     */
+    @Test
+    public void testShutdown() throws Exception {
+        pool = new ScriptExecutorPool(ScriptExecutorType.NASHORN, new ScriptExecutorPoolConfig(2, 2, -1, 0, false));
+        Executor borrowed = pool.take();
+        pool.shutdown();
+        assertTrue(pool.isShutdown());
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(1, pool.getSize());
+
+        pool.put(borrowed);
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(0, pool.getSize());
+        assertEquals(0, pool.getActiveCount());
+    }
+
+    /**
+     * Testing that the borrowers waiting for an executor when the pool is shut down are woken up and fail, as do the
+     * borrowers afterwards
+     */
+    @Test
+    public void testShutdownWakesWaitingBorrowers() throws Exception {
+        pool = new ScriptExecutorPool(ScriptExecutorType.NASHORN, new ScriptExecutorPoolConfig(1, 1, -1, 0, false));
+        Executor borrowed = pool.take();
+
+        ExecutorService borrowers = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<Executor>> waiting = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                waiting.add(borrowers.submit(new Callable<Executor>() {
+                    @Override
+                    public Executor call() throws Exception {
+                        return pool.take();
+                    }
+                }));
+            }
+            Thread.sleep(100);
+            pool.shutdown();
+            for (Future<Executor> borrower : waiting) {
+                try {
+                    borrower.get(5, TimeUnit.SECONDS);
+                    fail("A borrower waiting when the pool is shut down must fail");
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof ExecutorPoolShutdownException);
+                }
+            }
+        } finally {
+            borrowers.shutdownNow();
+        }
+
+        try {
+            pool.take();
+            fail("A borrower must fail once the pool is shut down");
+        } catch (ExecutorPoolShutdownException e) {
+            // expected
+        }
+        pool.put(borrowed);
+        assertEquals(0, pool.getSize());
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    /**
+     * Testing that resetting the statistics of the pool keeps its current size
+     */
+    @Test
+    public void testResetStatistics() throws Exception {
+        pool = new ScriptExecutorPool(ScriptExecutorType.NASHORN, new ScriptExecutorPoolConfig(0, 2, 0, 0, false));
+        Executor executor = pool.take();
+        assertEquals(1, pool.getBorrowCount());
+        assertEquals(1, pool.getCreatedCount());
+
+        pool.resetStatistics();
+        assertEquals(0, pool.getBorrowCount());
+        assertEquals(0, pool.getCreatedCount());
+        assertEquals(0, pool.getMaxWaitTimeMillis(), 0);
+        assertEquals(1, pool.getSize());
+        assertEquals(1, pool.getActiveCount());
+        pool.put(executor);
+    }
+
+    private static ScriptExecutorPool replace(ScriptExecutorPool pool, ScriptExecutorPoolConfig config) {
+        pool.shutdown();
+        return new ScriptExecutorPool(ScriptExecutorType.NASHORN, config);
+    }
+}
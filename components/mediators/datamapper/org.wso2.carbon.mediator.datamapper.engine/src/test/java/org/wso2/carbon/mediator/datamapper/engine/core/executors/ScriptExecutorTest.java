@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.datamapper.engine.core.executors;
+
+import org.apache.axiom.om.util.AXIOMUtil;
+import org.junit.After;
+import org.junit.Test;
+import org.wso2.carbon.mediator.datamapper.engine.core.mapper.MappingPlan;
+import org.wso2.carbon.mediator.datamapper.engine.core.mapper.MappingResource;
+import org.wso2.carbon.mediator.datamapper.engine.core.mapper.OrderMapping;
+import org.wso2.carbon.mediator.datamapper.engine.core.models.Model;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests executing mapping functions with the JSON and the native binding modes, and caching the mapping functions
+ * compiled by the engine of an executor.
+ */
+public class ScriptExecutorTest {
+
+    private static final String INPUT = "{\"id\":\"A1\",\"quantity\":\"2\"}";
+
+    @After
+    public void shutdownPool() {
+        ScriptExecutorFactory.shutdownExecutorPool();
+    }
+
+    /**
+     * Testing that the runtime properties are passed to the mapping function as a JSON string
+     */
+    @Test
+    public void testJsonBindings() throws Exception {
+        ScriptExecutor executor = new ScriptExecutor(ScriptExecutorType.NASHORN, ScriptBindingMode.JSON);
+        assertInvoice(executor.execute(OrderMapping.createResource("XML"), INPUT,
+                OrderMapping.createProperties("Jane")), "Jane");
+    }
+
+    /**
+     * Testing that the runtime properties are passed to the mapping function as they are with native bindings
+     */
+    @Test
+    public void testNativeBindings() throws Exception {
+        ScriptExecutor executor = new ScriptExecutor(ScriptExecutorType.NASHORN, ScriptBindingMode.NATIVE);
+        assertEquals(ScriptBindingMode.NATIVE, executor.getBindingMode());
+        assertInvoice(executor.execute(OrderMapping.createResource("XML"), INPUT,
+                OrderMapping.createProperties("Jane")), "Jane");
+    }
+
+    /**
+     * Testing that the native bindings fall back to the JSON bindings with Rhino
+     */
+    @Test
+    public void testNativeBindingsWithRhino() throws Exception {
+        ScriptExecutor executor = new ScriptExecutor(ScriptExecutorType.RHINO, ScriptBindingMode.NATIVE);
+        assertEquals(ScriptBindingMode.JSON, executor.getBindingMode());
+    }
+
+    /**
+     * Testing that a mapping function is compiled once by an executor for each binding mode it is executed with
+     */
+    @Test
+    public void testCompiledMappingsCached() throws Exception {
+        ScriptExecutor executor = new ScriptExecutor(ScriptExecutorType.NASHORN, ScriptBindingMode.NATIVE);
+        MappingResource resource = OrderMapping.createResource("XML");
+
+        assertInvoice(executor.execute(resource, INPUT, OrderMapping.createProperties("Jane")), "Jane");
+        assertInvoice(executor.execute(resource, INPUT, OrderMapping.createProperties("John")), "John");
+        assertEquals(1, executor.getCompiledMappingCount(ScriptBindingMode.NATIVE));
+        assertEquals(0, executor.getCompiledMappingCount(ScriptBindingMode.JSON));
+
+        // the properties given as a JSON string are always bound as JSON
+        assertInvoice(executor.execute(resource, INPUT, "{\"DEFAULT\":{\"customer\":\"Joe\"}}"), "Joe");
+        assertEquals(1, executor.getCompiledMappingCount(ScriptBindingMode.NATIVE));
+        assertEquals(1, executor.getCompiledMappingCount(ScriptBindingMode.JSON));
+
+        MappingResource otherResource = OrderMapping.createResource("XML");
+        assertInvoice(executor.execute(otherResource, INPUT, OrderMapping.createProperties("Jane")), "Jane");
+        assertEquals("Each mapping configuration must be compiled separately", 2,
+                executor.getCompiledMappingCount(ScriptBindingMode.NATIVE));
+    }
+
+    /**
+     * Testing mapping a message end to end with the executors of a pool configured with native bindings
+     */
+    @Test
+    public void testMapWithNativeBindingPool() throws Exception {
+        ScriptExecutorFactory.acquireExecutorPool(
+                new ScriptExecutorPoolConfig(1, 2, -1, 0, false, ScriptBindingMode.NATIVE));
+        MappingPlan plan = MappingPlan.create(OrderMapping.createResource("XML"), "XML", "XML", null);
+        String output = plan.newHandler().doMap(OrderMapping.toStream(OrderMapping.toXml("A1", "2")),
+                OrderMapping.createProperties("Jane"));
+        OrderMapping.assertInvoice(AXIOMUtil.stringToOM(output), "A1", "2", "Jane");
+        assertEquals(ScriptBindingMode.NATIVE, ScriptExecutorFactory.getExecutorPool().getConfig().getBindingMode());
+    }
+
+    private static void assertInvoice(Model model, String customer) {
+        Map<String, Object> invoice = (Map<String, Object>) model.getModel();
+        assertEquals("A1", invoice.get("orderId"));
+        assertEquals("2", invoice.get("quantity"));
+        assertEquals(customer, invoice.get("customer"));
+        assertEquals("EUR", invoice.get("attr_currency"));
+    }
+}
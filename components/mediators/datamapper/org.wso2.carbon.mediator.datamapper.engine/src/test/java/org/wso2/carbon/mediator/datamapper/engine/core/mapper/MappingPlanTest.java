@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.datamapper.engine.core.mapper;
+
+import org.apache.axiom.om.util.AXIOMUtil;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.wso2.carbon.mediator.datamapper.engine.core.notifiers.InputVariableNotifier;
+import org.wso2.carbon.mediator.datamapper.engine.input.InputBuilder;
+import org.wso2.carbon.mediator.datamapper.engine.input.readers.XMLInputReader;
+import org.wso2.carbon.mediator.datamapper.engine.utils.InputOutputDataType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests mapping messages with a {@link MappingPlan} shared by all the messages of a data mapper configuration.
+ */
+public class MappingPlanTest {
+
+    private static MappingPlan xmlPlan;
+
+    @BeforeClass
+    public static void createPlan() throws Exception {
+        xmlPlan = MappingPlan.create(OrderMapping.createResource("XML"), "XML", "XML", null);
+    }
+
+    /**
+     * Testing that the plan holds the configuration of the mapping
+     */
+    @Test
+    public void testCreatePlan() throws Exception {
+        MappingResource resource = OrderMapping.createResource("JSON");
+        MappingPlan plan = MappingPlan.create(resource, "xml", "json", "5");
+        assertSame(resource, plan.getMappingResource());
+        assertEquals(InputOutputDataType.XML, plan.getInputType());
+        assertEquals(InputOutputDataType.JSON, plan.getOutputType());
+        assertEquals("5", plan.getExecutorPoolSize());
+        assertSame(plan.getInputBuilder(), plan.getInputBuilder());
+    }
+
+    /**
+     * Testing that the input builder of the plan reads each message as a reader created for the message would
+     */
+    @Test
+    public void testInputBuilderSharedByMessages() throws Exception {
+        InputBuilder inputBuilder = xmlPlan.getInputBuilder();
+        for (String id : new String[] { "B1", "B2" }) {
+            RecordingNotifier shared = new RecordingNotifier();
+            inputBuilder.buildInputModel(OrderMapping.toStream(OrderMapping.toXml(id, "4")), shared);
+
+            RecordingNotifier single = new RecordingNotifier();
+            new XMLInputReader().read(OrderMapping.toStream(OrderMapping.toXml(id, "4")),
+                    xmlPlan.getMappingResource().getInputSchema(), single);
+            assertTrue(((String) shared.input).contains(id));
+            assertEquals(single.input, shared.input);
+        }
+    }
+
+    /**
+     * Testing mapping an XML message to an XML message, with a new handler of the plan for each message
+     */
+    @Test
+    public void testMapXmlToXml() throws Exception {
+        MappingHandler first = xmlPlan.newHandler();
+        String output = first.doMap(OrderMapping.toStream(OrderMapping.toXml("A1", "2")),
+                OrderMapping.createProperties("Jane"));
+        OrderMapping.assertInvoice(AXIOMUtil.stringToOM(output), "A1", "2", "Jane");
+
+        MappingHandler second = xmlPlan.newHandler();
+        assertNotSame("Each message must be mapped with a handler of its own", first, second);
+        output = second.doMap(OrderMapping.toStream(OrderMapping.toXml("A2", "3")),
+                OrderMapping.createProperties("John"));
+        OrderMapping.assertInvoice(AXIOMUtil.stringToOM(output), "A2", "3", "John");
+    }
+
+    /**
+     * Testing mapping concurrent messages with the same plan, where each message must get its own output
+     */
+    @Test
+    public void testMapConcurrentMessages() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> outputs = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                final String id = "C" + i;
+                outputs.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        return xmlPlan.newHandler().doMap(OrderMapping.toStream(OrderMapping.toXml(id, "1")),
+                                OrderMapping.createProperties("customer" + id));
+                    }
+                }));
+            }
+            for (int i = 0; i < outputs.size(); i++) {
+                OrderMapping.assertInvoice(AXIOMUtil.stringToOM(outputs.get(i).get()), "C" + i, "1",
+                        "customerC" + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class RecordingNotifier implements InputVariableNotifier {
+
+        private Object input;
+
+        @Override
+        public void notifyInputVariable(Object variable) {
+            input = variable;
+        }
+    }
+}
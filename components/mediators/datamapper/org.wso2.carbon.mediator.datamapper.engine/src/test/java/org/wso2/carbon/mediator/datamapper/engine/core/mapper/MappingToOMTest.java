@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.datamapper.engine.core.mapper;
+
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.util.AXIOMUtil;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests building the XML output message of a mapping as an element, which must be the same message as the one
+ * serialized to a String.
+ */
+public class MappingToOMTest {
+
+    private static MappingPlan plan;
+
+    @BeforeClass
+    public static void createPlan() throws Exception {
+        plan = MappingPlan.create(OrderMapping.createResource("XML"), "XML", "XML", null);
+    }
+
+    /**
+     * Testing that the element built from an input stream is the message serialized from the same input
+     */
+    @Test
+    public void testMapStreamToOM() throws Exception {
+        Map<String, Map<String, Object>> properties = OrderMapping.createProperties("Jane");
+        OMElement output = plan.newHandler(OMAbstractFactory.getOMFactory())
+                .doMapToOM(OrderMapping.toStream(OrderMapping.toXml("A1", "2")), null, properties);
+        OrderMapping.assertInvoice(output, "A1", "2", "Jane");
+        assertNull("The output element must not be attached to a tree", output.getParent());
+
+        String serialized = plan.newHandler().doMap(OrderMapping.toStream(OrderMapping.toXml("A1", "2")), properties);
+        assertEquals(AXIOMUtil.stringToOM(serialized).toString(), output.toString());
+    }
+
+    /**
+     * Testing that the element built from an input element is the message serialized from the same input
+     */
+    @Test
+    public void testMapElementToOM() throws Exception {
+        Map<String, Map<String, Object>> properties = OrderMapping.createProperties("John");
+        OMElement input = AXIOMUtil.stringToOM(OrderMapping.toXml("B7", "5"));
+        OMElement output = plan.newHandler(OMAbstractFactory.getOMFactory()).doMapToOM(null, input, properties);
+        OrderMapping.assertInvoice(output, "B7", "5", "John");
+
+        String serialized = plan.newHandler().doMap(input, properties);
+        assertEquals(AXIOMUtil.stringToOM(serialized).toString(), output.toString());
+    }
+
+    /**
+     * Testing that a handler created with a factory still serializes the output when asked for a String
+     */
+    @Test
+    public void testMapWithFactoryToString() throws Exception {
+        Map<String, Map<String, Object>> properties = OrderMapping.createProperties("Jane");
+        String output = plan.newHandler(OMAbstractFactory.getOMFactory())
+                .doMap(OrderMapping.toStream(OrderMapping.toXml("C3", "1")), properties);
+        OrderMapping.assertInvoice(AXIOMUtil.stringToOM(output), "C3", "1", "Jane");
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.datamapper.engine.core.mapper;
+
+import org.apache.axiom.om.OMElement;
+import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.JSException;
+import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.SchemaException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import javax.xml.namespace.QName;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The order to invoice mapping used by the data mapper engine tests, which maps an order to an invoice with an
+ * attribute, fields copied from the order, a runtime property and an array of objects.
+ */
+public final class OrderMapping {
+
+    private OrderMapping() {
+    }
+
+    /**
+     * @param outputType output data type of the mapping
+     * @return the mapping resource of the order to invoice mapping
+     * @throws SchemaException if a schema can not be read
+     * @throws JSException     if the mapping configuration can not be read
+     */
+    public static MappingResource createResource(String outputType) throws SchemaException, JSException {
+        return new MappingResource(getResource("order_inputSchema.json"), getResource("order_outputSchema.json"),
+                getResource("order.dmc"), outputType);
+    }
+
+    /**
+     * @param customer value of the customer property
+     * @return the runtime properties of the mapping
+     */
+    public static Map<String, Map<String, Object>> createProperties(String customer) {
+        Map<String, Object> defaultScope = new HashMap<>();
+        defaultScope.put("customer", customer);
+        Map<String, Map<String, Object>> properties = new HashMap<>();
+        properties.put("DEFAULT", defaultScope);
+        return properties;
+    }
+
+    public static String toXml(String id, String quantity) {
+        return "<Order><id>" + id + "</id><quantity>" + quantity + "</quantity></Order>";
+    }
+
+    public static String toJson(String id, String quantity) {
+        return "{\"id\":\"" + id + "\",\"quantity\":\"" + quantity + "\"}";
+    }
+
+    public static InputStream toStream(String message) {
+        return new ByteArrayInputStream(message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Asserts that an XML output message is the invoice of the given order.
+     */
+    public static void assertInvoice(OMElement invoice, String id, String quantity, String customer) {
+        assertNotNull("No output message", invoice);
+        assertEquals("Invoice", invoice.getLocalName());
+        assertEquals("EUR", invoice.getAttributeValue(new QName("currency")));
+        assertEquals(id, getChildText(invoice, "orderId"));
+        assertEquals(quantity, getChildText(invoice, "quantity"));
+        assertEquals(customer, getChildText(invoice, "customer"));
+        Iterator lines = invoice.getChildrenWithLocalName("lines");
+        assertTrue("Missing first line", lines.hasNext());
+        assertEquals(id + "-1", getChildText((OMElement) lines.next(), "name"));
+        assertTrue("Missing second line", lines.hasNext());
+        assertEquals(id + "-2", getChildText((OMElement) lines.next(), "name"));
+        assertFalse("Unexpected line", lines.hasNext());
+    }
+
+    private static String getChildText(OMElement element, String localName) {
+        OMElement child = element.getFirstChildWithName(new QName(localName));
+        assertNotNull("Missing element " + localName, child);
+        return child.getText();
+    }
+
+    private static InputStream getResource(String name) {
+        InputStream resource = OrderMapping.class.getResourceAsStream("/mapping/" + name);
+        assertNotNull("Missing test resource " + name, resource);
+        return resource;
+    }
+}
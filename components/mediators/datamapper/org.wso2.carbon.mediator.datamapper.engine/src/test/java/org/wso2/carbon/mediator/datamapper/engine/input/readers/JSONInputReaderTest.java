@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.datamapper.engine.input.readers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.axiom.om.util.AXIOMUtil;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.wso2.carbon.mediator.datamapper.engine.core.mapper.MappingPlan;
+import org.wso2.carbon.mediator.datamapper.engine.core.mapper.OrderMapping;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests mapping JSON input messages, which are read by {@link JSONInputReader} in blocks.
+ */
+public class JSONInputReaderTest {
+
+    private static MappingPlan jsonPlan;
+    private static MappingPlan xmlPlan;
+
+    @BeforeClass
+    public static void createPlans() throws Exception {
+        jsonPlan = MappingPlan.create(OrderMapping.createResource("JSON"), "JSON", "JSON", null);
+        xmlPlan = MappingPlan.create(OrderMapping.createResource("XML"), "JSON", "XML", null);
+    }
+
+    /**
+     * Testing mapping a JSON message to a JSON message
+     */
+    @Test
+    public void testMapJsonToJson() throws Exception {
+        String output = jsonPlan.newHandler().doMap(OrderMapping.toStream(OrderMapping.toJson("A1", "2")),
+                OrderMapping.createProperties("Jane"));
+        assertJsonInvoice(output, "A1", "2", "Jane");
+    }
+
+    /**
+     * Testing mapping a JSON message to an XML message
+     */
+    @Test
+    public void testMapJsonToXml() throws Exception {
+        String output = xmlPlan.newHandler().doMap(OrderMapping.toStream(OrderMapping.toJson("A1", "2")),
+                OrderMapping.createProperties("Jane"));
+        OrderMapping.assertInvoice(AXIOMUtil.stringToOM(output), "A1", "2", "Jane");
+    }
+
+    /**
+     * Testing reading a message larger than a block, with the bytes of a multibyte character split between two reads
+     * of a stream which returns a few bytes at a time
+     */
+    @Test
+    public void testMultibyteCharacterAcrossBlocks() throws Exception {
+        String prefix = "{\"id\":\"";
+        StringBuilder id = new StringBuilder();
+        // the euro sign is the last character of the first block read, and its three bytes start at the last byte of
+        // the first 4096 bytes of the stream
+        for (int i = prefix.length(); i < 4095; i++) {
+            id.append('x');
+        }
+        id.append("\u20ac\u00e9\u4e2d");
+        for (int i = 0; i < 5000; i++) {
+            id.append((char) ('a' + i % 26));
+        }
+        String input = OrderMapping.toJson(id.toString(), "7");
+        assertEquals(4095, input.getBytes(StandardCharsets.UTF_8).length
+                - input.substring(input.indexOf('\u20ac')).getBytes(StandardCharsets.UTF_8).length);
+
+        String output = jsonPlan.newHandler().doMap(new TrickleInputStream(
+                input.getBytes(StandardCharsets.UTF_8), 16), OrderMapping.createProperties("Jane"));
+        assertJsonInvoice(output, id.toString(), "7", "Jane");
+    }
+
+    private static void assertJsonInvoice(String output, String id, String quantity, String customer)
+            throws IOException {
+        JsonNode invoice = MappingPlan.getObjectMapper().readTree(output);
+        assertEquals("EUR", invoice.get("attr_currency").asText());
+        assertEquals(id, invoice.get("orderId").asText());
+        assertEquals(quantity, invoice.get("quantity").asText());
+        assertEquals(customer, invoice.get("customer").asText());
+        JsonNode lines = invoice.get("lines");
+        assertEquals(2, lines.size());
+        assertEquals(id + "-1", lines.get(0).get("name").asText());
+        assertEquals(id + "-2", lines.get(1).get("name").asText());
+    }
+
+    /**
+     * A stream which returns at most the given number of bytes for each read.
+     */
+    private static final class TrickleInputStream extends FilterInputStream {
+
+        private final int maxRead;
+
+        private TrickleInputStream(byte[] bytes, int maxRead) {
+            super(new ByteArrayInputStream(bytes));
+            this.maxRead = maxRead;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(len, maxRead));
+        }
+    }
+}
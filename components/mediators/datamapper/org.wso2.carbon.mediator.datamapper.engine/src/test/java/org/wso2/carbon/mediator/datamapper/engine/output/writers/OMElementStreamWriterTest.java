@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.mediator.datamapper.engine.output.writers;
+
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMNamespace;
+import org.apache.axiom.om.util.AXIOMUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests building an AXIOM tree with {@link OMElementStreamWriter}.
+ */
+public class OMElementStreamWriterTest {
+
+    private static final String NS = "http://example.org/invoice";
+
+    private OMElementStreamWriter writer;
+
+    @Before
+    public void createWriter() {
+        writer = new OMElementStreamWriter(OMAbstractFactory.getOMFactory());
+    }
+
+    /**
+     * Testing that nested elements, attributes and text are built as written
+     */
+    @Test
+    public void testWriteElements() throws Exception {
+        writer.writeStartDocument();
+        writer.writeStartElement("Invoice");
+        writer.writeAttribute("currency", "EUR");
+        writer.writeStartElement("orderId");
+        writer.writeCharacters("A1");
+        writer.writeEndElement();
+        writer.writeStartElement("lines");
+        writer.writeStartElement("name");
+        writer.writeCharacters("A1-1".toCharArray(), 0, 4);
+        writer.writeEndElement();
+        writer.writeEndElement();
+        writer.writeEmptyElement("empty");
+        writer.writeEndDocument();
+
+        OMElement root = writer.detachRootElement();
+        assertNotNull(root);
+        assertNull("The root element must be detached from the document", root.getParent());
+        assertEquals(AXIOMUtil.stringToOM("<Invoice currency=\"EUR\"><orderId>A1</orderId>"
+                + "<lines><name>A1-1</name></lines><empty/></Invoice>").toString(), root.toString());
+    }
+
+    /**
+     * Testing that prefixed and default namespaces are declared and inherited by the child elements
+     */
+    @Test
+    public void testWriteNamespaces() throws Exception {
+        writer.writeStartElement("inv", "Invoice", NS);
+        writer.writeNamespace("inv", NS);
+        writer.writeAttribute("inv", NS, "currency", "EUR");
+        writer.writeStartElement(NS, "orderId");
+        writer.writeCharacters("A1");
+        writer.writeEndElement();
+        writer.writeStartElement("", "note", "http://example.org/note");
+        writer.writeDefaultNamespace("http://example.org/note");
+        writer.writeStartElement("text");
+        writer.writeCharacters("urgent");
+        writer.writeEndDocument();
+
+        OMElement root = writer.detachRootElement();
+        assertEquals(NS, root.getNamespace().getNamespaceURI());
+        assertEquals("inv", root.getNamespace().getPrefix());
+        assertEquals("EUR", root.getAttributeValue(new QName(NS, "currency")));
+
+        OMElement orderId = root.getFirstChildWithName(new QName(NS, "orderId"));
+        assertNotNull("The child element must be in the namespace of its parent", orderId);
+        assertEquals("inv", orderId.getNamespace().getPrefix());
+
+        OMElement note = root.getFirstChildWithName(new QName("http://example.org/note", "note"));
+        assertNotNull(note);
+        OMElement text = note.getFirstChildWithName(new QName("http://example.org/note", "text"));
+        assertNotNull("An unprefixed element must be in the default namespace of its parent", text);
+        assertEquals("urgent", text.getText());
+    }
+
+    /**
+     * Testing that the namespace context resolves the namespaces in scope of the element being written
+     */
+    @Test
+    public void testNamespaceContext() throws Exception {
+        writer.writeStartElement("inv", "Invoice", NS);
+        writer.writeNamespace("inv", NS);
+        writer.writeStartElement(NS, "orderId");
+        assertEquals("inv", writer.getPrefix(NS));
+        assertEquals(NS, writer.getNamespaceContext().getNamespaceURI("inv"));
+        assertNull(writer.getPrefix("http://example.org/unknown"));
+    }
+
+    /**
+     * Testing that an attribute can not be written once the content of an element is written
+     */
+    @Test(expected = XMLStreamException.class)
+    public void testAttributeAfterContent() throws Exception {
+        writer.writeStartElement("Invoice");
+        writer.writeCharacters("A1");
+        writer.writeAttribute("currency", "EUR");
+    }
+
+    /**
+     * Testing that an attribute in a namespace without a prefix bound to it is rejected
+     */
+    @Test(expected = XMLStreamException.class)
+    public void testAttributeInUnboundNamespace() throws Exception {
+        writer.writeStartElement("Invoice");
+        writer.writeAttribute(NS, "currency", "EUR");
+    }
+
+    /**
+     * Testing that no root element is returned when nothing is written
+     */
+    @Test
+    public void testNothingWritten() {
+        assertNull(writer.detachRootElement());
+    }
+
+    /**
+     * Testing that the detached root element can be added to another tree
+     */
+    @Test
+    public void testAddDetachedRootElement() throws Exception {
+        writer.writeStartElement("Invoice");
+        writer.writeEndElement();
+        OMElement root = writer.detachRootElement();
+        OMElement body = OMAbstractFactory.getOMFactory().createOMElement("body", (OMNamespace) null);
+        body.addChild(root);
+        assertEquals(AXIOMUtil.stringToOM("<body><Invoice/></body>").toString(), body.toString());
+    }
+}
@@ -16,6 +16,7 @@
  */
 package org.wso2.carbon.mediator.datamapper;
 
+import org.apache.axiom.om.OMAbstractFactory;
 import org.apache.axiom.om.OMElement;
 import org.apache.axiom.om.OMException;
 import org.apache.axiom.om.impl.llom.OMTextImpl;
@@ -45,20 +46,16 @@ import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.JSException;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.ReaderException;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.SchemaException;
 import org.wso2.carbon.mediator.datamapper.engine.core.exceptions.WriterException;
-import org.wso2.carbon.mediator.datamapper.engine.core.executors.ScriptExecutor;
-import org.wso2.carbon.mediator.datamapper.engine.core.mapper.JSFunction;
+import org.wso2.carbon.mediator.datamapper.engine.core.executors.ScriptExecutorFactory;
+import org.wso2.carbon.mediator.datamapper.engine.core.executors.ScriptExecutorPoolConfig;
 import org.wso2.carbon.mediator.datamapper.engine.core.mapper.MappingHandler;
+import org.wso2.carbon.mediator.datamapper.engine.core.mapper.MappingPlan;
 import org.wso2.carbon.mediator.datamapper.engine.core.mapper.MappingResource;
 import org.wso2.carbon.mediator.datamapper.engine.core.mapper.XSLTMappingHandler;
 import org.wso2.carbon.mediator.datamapper.engine.core.mapper.XSLTMappingResource;
-import org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants;
 import org.wso2.carbon.mediator.datamapper.engine.utils.InputOutputDataType;
 import org.xml.sax.SAXException;
 
-import javax.script.Compilable;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
-import javax.script.ScriptException;
 import javax.xml.namespace.QName;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.stream.XMLStreamException;
@@ -67,7 +64,6 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -83,10 +79,6 @@ import static org.wso2.carbon.mediator.datamapper.config.xml.DataMapperMediatorC
 import static org.wso2.carbon.mediator.datamapper.config.xml.DataMapperMediatorConstants.TRANSPORT_CONTEXT;
 import static org.wso2.carbon.mediator.datamapper.config.xml.DataMapperMediatorConstants.TRANSPORT_HEADERS;
 import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants.ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_SIZE;
-import static org.wso2.carbon.mediator.datamapper.engine.core.executors.ScriptExecutor.INPUT_VARIABLE_IDENTIFIER;
-import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants.ENCODE_CHAR_HYPHEN;
-import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants.HYPHEN;
-import static org.wso2.carbon.mediator.datamapper.engine.utils.DataMapperEngineConstants.PROPERTIES_OBJECT_NAME;
 
 /**
  * By using the input schema, output schema and mapping configuration,
@@ -100,7 +92,6 @@ public class DataMapperMediator extends AbstractMediator implements ManagedLifec
     private static final String cSVToXMLClosingTag = "</text>";
     private static final int INDEX_OF_CONTEXT = 0;
     private static final int INDEX_OF_NAME = 1;
-    private static List<JSFunction> compiledFunctionList = new ArrayList<>();
     private Value mappingConfigurationKey = null;
     private Value inputSchemaKey = null;
     private Value outputSchemaKey = null;
@@ -112,6 +103,9 @@ public class DataMapperMediator extends AbstractMediator implements ManagedLifec
     private XSLTMappingResource xsltMappingResource = null;
     private XSLTMappingHandler xsltMappingHandler = null;
     private final Object xsltHandlerLock = new Object();
+    private volatile MappingPlan mappingPlan = null;
+    private final Object mappingPlanLock = new Object();
+    private boolean executorPoolAcquired = false;
 
     /**
      * Returns registry resources as input streams to create the MappingResourceLoader object
@@ -376,7 +370,8 @@ public class DataMapperMediator extends AbstractMediator implements ManagedLifec
      */
     private void transform(MessageContext synCtx, String configKey, String inSchemaKey) {
         try {
-            String outputResult;
+            String outputResult = null;
+            OMElement outputElement = null;
             if (usingXSLTMapping) {
                 if (xsltMappingHandler == null) {
                     synchronized (xsltHandlerLock) {
@@ -391,53 +386,27 @@ public class DataMapperMediator extends AbstractMediator implements ManagedLifec
             } else {
                 Map<String, Map<String, Object>> propertiesMap;
 
-                String dmExecutorPoolSize = SynapsePropertiesLoader
-                        .getPropertyValue(ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_SIZE, null);
-                if (!compiledFunctionList.contains(mappingResource.getFunction())) {
-                    synchronized (this) {
-                        // Only the first thread inside the sync block should pre-compile the script.
-                        if (!compiledFunctionList.contains(mappingResource.getFunction())) {
-                            try {
-                                ScriptEngine scriptEngine = getScriptExecutor();
-                                JSFunction jsFunction = mappingResource.getFunction();
-                                String helperJSFunction = "var " + PROPERTIES_OBJECT_NAME + " = JSON.parse(" + ScriptExecutor.PROPERTIES_IDENTIFIER + ");\n" +
-                                        "var " + getInputVariable(mappingResource.getInputSchema().getName()) + " = JSON.parse(" + INPUT_VARIABLE_IDENTIFIER + ");\n";
-                                // Compile Data-mapper JS function body
-                                if (jsFunction.getCompiledBody() == null) {
-                                    if (scriptEngine instanceof Compilable) {
-                                        jsFunction.setCompiledBody(((Compilable) scriptEngine).compile(jsFunction.getFunctionBody()));
-                                    }
-                                }
-                                // Compile Data-mapper JS function name
-                                if (jsFunction.getCompiledName() == null) {
-                                    if (scriptEngine instanceof Compilable) {
-                                        jsFunction.setCompiledName(((Compilable) scriptEngine).compile(jsFunction.getFunctionName()));
-                                    }
-                                }
-                                if (jsFunction.getBindingHelperFunction() == null) {
-                                    if (scriptEngine instanceof Compilable) {
-                                        jsFunction.setBindingHelperFunction(((Compilable) scriptEngine).compile(helperJSFunction));
-                                    }
-                                }
-                                // setting the pre-compiled function from the first thread
-                                mappingResource.setFunction(jsFunction);
-                                compiledFunctionList.add(jsFunction);
-                            } catch (ScriptException e) {
-                                e.printStackTrace();
-                            }
-                        }
-                    }
-                }
-
-                MappingHandler mappingHandler = new MappingHandler(mappingResource, inputType, outputType,
-                        dmExecutorPoolSize);
-
                 propertiesMap = getPropertiesMap(mappingResource.getPropertiesList(), synCtx);
 
-                /* execute mapping on the input stream */
-                outputResult = mappingHandler.doMap(
-                        getInputStream(synCtx, inputType, mappingResource.getInputSchema().getName()),
-                        propertiesMap);
+                /* XML input is read in place and XML output is built as elements, without going through a String */
+                OMElement inputElement = null;
+                InputStream inputStream = null;
+                if (InputOutputDataType.XML.toString().equals(inputType)) {
+                    inputElement = getInputElement(synCtx, mappingResource.getInputSchema().getName());
+                } else {
+                    inputStream = getInputStream(synCtx, inputType, mappingResource.getInputSchema().getName());
+                }
+                if (InputOutputDataType.XML.toString().equals(outputType)) {
+                    MappingHandler mappingHandler = getMappingPlan().newHandler(OMAbstractFactory.getOMFactory());
+                    outputElement = mappingHandler.doMapToOM(inputStream, inputElement, propertiesMap);
+                } else {
+                    MappingHandler mappingHandler = getMappingPlan().newHandler();
+                    if (inputElement != null) {
+                        outputResult = mappingHandler.doMap(inputElement, propertiesMap);
+                    } else {
+                        outputResult = mappingHandler.doMap(inputStream, propertiesMap);
+                    }
+                }
             }
 
             if (InputOutputDataType.CSV.toString().equals(outputType) &&
@@ -449,7 +418,7 @@ public class DataMapperMediator extends AbstractMediator implements ManagedLifec
                     (InputOutputDataType.CSV.toString().equals(outputType) && !InputOutputDataType.CSV.toString()
                             .equals(inputType))) {
 
-                OMElement outputMessage = AXIOMUtil.stringToOM(outputResult);
+                OMElement outputMessage = outputResult != null ? AXIOMUtil.stringToOM(outputResult) : outputElement;
                 if (outputMessage != null) {
                     if (log.isDebugEnabled()) {
                         log.debug("Output message received ");
@@ -493,6 +462,20 @@ public class DataMapperMediator extends AbstractMediator implements ManagedLifec
         }
     }
 
+    /**
+     * Returns the element of the message to be mapped, which is read in place by the mapping.
+     *
+     * @param context           message context
+     * @param inputStartElement name of the input schema root element
+     * @return the envelope if the input schema describes the envelope, the first element of the body otherwise
+     */
+    private OMElement getInputElement(MessageContext context, String inputStartElement) {
+        if ("soapenv:Envelope".equals(inputStartElement)) {
+            return context.getEnvelope();
+        }
+        return context.getEnvelope().getBody().getFirstElement();
+    }
+
     private InputStream getInputStream(MessageContext context, String inputType, String inputStartElement) {
         InputStream inputStream = null;
         try {
@@ -542,14 +525,25 @@ public class DataMapperMediator extends AbstractMediator implements ManagedLifec
 
     @Override
     public void init(SynapseEnvironment se) {
-
+        if (xsltStyleSheetKey != null && InputOutputDataType.XML.toString().equals(inputType)
+                && InputOutputDataType.XML.toString().equals(outputType)) {
+            // the mapping is expected to be done with the XSLT stylesheet, which does not need script executors
+            return;
+        }
+        ScriptExecutorFactory.acquireExecutorPool(
+                ScriptExecutorPoolConfig.fromProperties(SynapsePropertiesLoader.loadSynapseProperties()));
+        executorPoolAcquired = true;
     }
 
     /**
-     * destroy the generated unique ID for the DataMapperMediator instance
+     * Releases the script executor pool, which is shut down once all the data mapper mediators are undeployed
      */
     @Override
     public void destroy() {
+        if (executorPoolAcquired) {
+            executorPoolAcquired = false;
+            ScriptExecutorFactory.releaseExecutorPool();
+        }
     }
 
     /**
@@ -744,17 +738,26 @@ public class DataMapperMediator extends AbstractMediator implements ManagedLifec
         insideMap.put(contextAndName[INDEX_OF_NAME], value);
     }
 
-    private String getInputVariable(String inputSchemaName) throws ScriptException {
-        return "input" + inputSchemaName.replace(':', '_').replace('=', '_').replace(',', '_')
-                .replace(HYPHEN, ENCODE_CHAR_HYPHEN);
-    }
-
-    private ScriptEngine getScriptExecutor() {
-
-        String javaVersion = System.getProperty("java.version");
-        if (javaVersion.startsWith("1.7") || javaVersion.startsWith("1.6")) {
-            return new ScriptEngineManager().getEngineByName(DataMapperEngineConstants.DEFAULT_ENGINE_NAME);
+    /**
+     * Returns the mapping plan of the current mapping resource, creating it when the mediator is invoked initially.
+     * Once the plan is created it is read without any locking.
+     *
+     * @return the mapping plan
+     */
+    private MappingPlan getMappingPlan() {
+        MappingPlan plan = mappingPlan;
+        if (plan == null || plan.getMappingResource() != mappingResource) {
+            synchronized (mappingPlanLock) {
+                plan = mappingPlan;
+                if (plan == null || plan.getMappingResource() != mappingResource) {
+                    String dmExecutorPoolSize = SynapsePropertiesLoader
+                            .getPropertyValue(ORG_APACHE_SYNAPSE_DATAMAPPER_EXECUTOR_POOL_SIZE, null);
+                    plan = MappingPlan.create(mappingResource, getInputType(), getOutputType(), dmExecutorPoolSize);
+                    mappingPlan = plan;
+                }
+            }
         }
-        return new ScriptEngineManager().getEngineByName(DataMapperEngineConstants.NASHORN_ENGINE_NAME);
+        return plan;
     }
+
 }